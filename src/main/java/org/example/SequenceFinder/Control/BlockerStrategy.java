@@ -0,0 +1,26 @@
+package org.example.SequenceFinder.Control;
+
+/**
+ * The strategies the {@linkplain RemovableCalculator} can use to find the boxes that block each box. All strategies
+ * find the same blockers, they only differ in their running time.
+ */
+public enum BlockerStrategy {
+
+    /**
+     * cull the octree against a frustum per box and direction. Each cull traverses the octree from its root.
+     */
+    FRUSTUM_CULLING,
+
+    /**
+     * sweep the boxes along the axis of each direction and query the boxes already swept that overlap the projection of
+     * each box, see {@linkplain SweepLineBlockers}. Does not use the octree.
+     */
+    SWEEP_LINE,
+
+    /**
+     * join the octree with itself per direction, traversing pairs of nodes together, so pairs of subtrees that can not
+     * block each other are pruned with a single test, see
+     * {@linkplain org.example.SequenceFinder.Model.Octree.LooseOctree#selfJoinIds}
+     */
+    SELF_JOIN
+}
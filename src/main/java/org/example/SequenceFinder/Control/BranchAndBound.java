@@ -2,12 +2,15 @@ package org.example.SequenceFinder.Control;
 
 import org.example.SequenceFinder.Control.Cost.CostFunction;
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.Graph.CycleDetector;
 import org.example.SequenceFinder.Model.Graph.Graph;
+import org.example.SequenceFinder.Model.Graph.GraphNode;
+import org.example.SequenceFinder.Model.Graph.NodeRemoval;
+import org.example.SequenceFinder.Model.Graph.RemovableFrontier;
 import org.example.SequenceFinder.OperatingDirection;
 
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
 
 /**
  * Controller to find the optimum sequence to build the stack of boxes, using a Branch And Bound algorithm. <br>
@@ -17,10 +20,18 @@ import java.util.Map;
  * optimum.<br>
  * Second, the tree is traversed down to a single leaf using depth-first. Hereby the BnB gets a reference value to
  * compare against. <br>
- * Third, the tree is traversed using breadth-first. Each path which costs get equal or higher than the reference cost
- * are pruned, because this path can only get worse in terms of cost. <br>
+ * Third, the rest of the tree is traversed using depth-first. Each path which costs get equal or higher than the
+ * reference cost are pruned, because this path can only get worse in terms of cost. <br>
  * Fourth, the paths, that were traversed down to a leaf, are compared based on their cost. The path with the lowest
  * cost is the global optimum.
+ * <p>
+ * The tree is never built explicitly: the search removes a node from the graph to descend and restores it to
+ * backtrack, see {@linkplain Graph#removeNode(GraphNode)} and {@linkplain Graph#restoreNode(NodeRemoval)}. The
+ * children of each search node are the graph's {@linkplain RemovableFrontier}, ordered by the cost of the transition
+ * from the last removed box, so the first leaf is the greedy sequence and the cheapest children are expanded first.
+ * Because the children are ordered, the remaining children of a search node are pruned as soon as one of them reaches
+ * the reference cost. The costs must not be negative, otherwise pruning could discard the optimum. The search keeps
+ * the current path on an explicit stack instead of recursing, so any number of boxes can be searched.
  *
  * @param <T> the type of objects that are stored in the graph
  */
@@ -29,6 +40,58 @@ public class BranchAndBound<T extends AABB> {
     Map<OperatingDirection, Graph<T>> graphsMap;
     CostAssigner<T> costAssigner;
 
+    /**
+     * the cheapest complete sequence found so far, as the nodes in the order of removal
+     */
+    private List<GraphNode<T>> bestSequence;
+    private double bestCost;
+
+    /**
+     * the sequence of the current search path
+     */
+    private List<GraphNode<T>> path;
+
+    /**
+     * the ordered children and their transition costs of each depth, reused for each search node at that depth
+     */
+    private List<List<GraphNode<T>>> childBuffers;
+    private List<double[]> costBuffers;
+
+    /**
+     * the frames of the current search path, reused for each search node at that depth
+     */
+    private List<Frame<T>> frames;
+
+    /**
+     * how the sequence is found, see {@linkplain SolvingStrategy}
+     */
+    private SolvingStrategy strategy = SolvingStrategy.EXHAUSTIVE;
+
+    /**
+     * the time the {@linkplain SolvingStrategy#BUDGETED} search may take
+     */
+    private Duration timeBudget = Duration.ofSeconds(10);
+
+    /**
+     * the time the current search has to stop, in {@linkplain System#nanoTime()}
+     */
+    private long deadline;
+
+    /**
+     * the number of expanded search nodes, used to check the time only every few expansions
+     */
+    private long expansions;
+
+    /**
+     * whether the current search was stopped before the whole tree was searched
+     */
+    private boolean stopped;
+
+    /**
+     * check the time every this many expansions, as {@linkplain System#nanoTime()} is comparatively expensive
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
     /**
      * Branch And Bound algorithm to find the global optimum sequence. <br>
      * <br>
@@ -37,8 +100,8 @@ public class BranchAndBound<T extends AABB> {
      * optimum.<br>
      * Second, the tree is traversed down to a single leaf using depth-first. Hereby the BnB gets a reference value to
      * compare against. <br>
-     * Third, the tree is traversed using breadth-first. Each path which costs get equal or higher than the reference cost
-     * are pruned, because this path can only get worse in terms of cost. <br>
+     * Third, the rest of the tree is traversed using depth-first. Each path which costs get equal or higher than the
+     * reference cost are pruned, because this path can only get worse in terms of cost. <br>
      * Fourth, the paths, that were traversed down to a leaf, are compared based on their cost. The path with the lowest
      * cost is the global optimum.
      *
@@ -52,12 +115,248 @@ public class BranchAndBound<T extends AABB> {
 
     /**
      * Calculate the global optimum sequence to build the stack of boxes.
+     * <p>
+     * If the map contains different graphs, i.e. the operating direction can not change, the optimum of each graph is
+     * calculated and the cheapest one is returned. The graphs are restored to their initial state afterwards.
+     * <p>
+     * The graphs must not contain nodes that can never be removed, see {@linkplain CycleDetector#validate(Map)}. No
+     * complete sequence exists for them, and searching them would try every order of their removable nodes.
+     * <p>
+     * The graphs are searched in the order of the map. Once the time budget of a {@linkplain SolvingStrategy#BUDGETED}
+     * search is used up, each remaining graph is still searched greedily, so every graph contributes at least its
+     * greedy sequence.
      *
-     * @return the optimum sequence to build the stack of boxes
+     * @return the optimum sequence to build the stack of boxes, or null if no graph can be removed completely
      */
     public LinkedHashSet<T> findGlobalOptimumSequence() {
-        // to be implemented
+        bestSequence = null;
+        bestCost = Double.POSITIVE_INFINITY;
+        stopped = false;
+        expansions = 0;
+        deadline = strategy == SolvingStrategy.BUDGETED ? System.nanoTime() + timeBudget.toNanos() : Long.MAX_VALUE;
+
+        // the same graph is mapped to all directions if the operating direction can change, search it only once, in
+        // the order of the map
+        Set<Graph<T>> searched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Graph<T> graph : graphsMap.values()) {
+            if (!searched.add(graph)) {
+                continue;
+            }
+            int size = graph.getCopyOfNodes().size();
+            path = new ArrayList<>(size);
+            if (strategy == SolvingStrategy.GREEDY || stopped) {
+                searchGreedily(graph);
+            } else {
+                childBuffers = new ArrayList<>(size);
+                costBuffers = new ArrayList<>(size);
+                frames = new ArrayList<>(size + 1);
+                search(graph, size);
+            }
+        }
+
+        if (bestSequence == null) {
+            return null;
+        }
         // return a LinkedHashSet because no duplicate entries are allowed and the sequence fixed
-        return null;
+        LinkedHashSet<T> sequence = new LinkedHashSet<>(bestSequence.size() * 4 / 3 + 1);
+        for (GraphNode<T> node : bestSequence) {
+            sequence.add(node.getContent());
+        }
+        return sequence;
+    }
+
+    /**
+     * Set the strategy used to find the sequence. The default is {@linkplain SolvingStrategy#EXHAUSTIVE}.
+     *
+     * @param strategy the strategy
+     */
+    public void setStrategy(SolvingStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("The strategy must not be null!");
+        }
+        this.strategy = strategy;
+    }
+
+    public SolvingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Set the time the {@linkplain SolvingStrategy#BUDGETED} search may take. The search always continues until it
+     * found a first sequence, which takes a single descent, as only graphs that can be removed completely are
+     * searched.
+     *
+     * @param timeBudget the time budget, must be positive
+     */
+    public void setTimeBudget(Duration timeBudget) {
+        if (timeBudget == null || timeBudget.isNegative() || timeBudget.isZero()) {
+            throw new IllegalArgumentException("The time budget must be positive! Time budget: " + timeBudget);
+        }
+        this.timeBudget = timeBudget;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Check if the sequence found by the last call of {@linkplain #findGlobalOptimumSequence()} is the global
+     * optimum, i.e. the whole tree was searched
+     *
+     * @return true if the sequence is the global optimum
+     */
+    public boolean isOptimal() {
+        return bestSequence != null && strategy != SolvingStrategy.GREEDY && !stopped;
+    }
+
+    /**
+     * Get the total cost of the sequence found by the last call of {@linkplain #findGlobalOptimumSequence()}
+     *
+     * @return the total cost, or {@linkplain Double#POSITIVE_INFINITY} if no sequence was found
+     */
+    public double getOptimumCost() {
+        return bestCost;
+    }
+
+    /**
+     * Depth-first search through all sequences of the graph. Iterative, with an explicit stack of {@linkplain Frame}s,
+     * so it works for any number of boxes.
+     *
+     * @param graph the graph, it is restored to its initial state afterwards
+     * @param size  the number of nodes of the graph
+     */
+    private void search(Graph<T> graph, int size) {
+        int depth = 0;
+        frameAt(0).enter(null, 0);
+        expand(graph, 0, null);
+
+        while (depth >= 0) {
+            Frame<T> frame = frames.get(depth);
+            if (depth == size) {
+                if (frame.cost < bestCost) {
+                    bestCost = frame.cost;
+                    bestSequence = new ArrayList<>(path);
+                }
+                backtrack(graph, frame);
+                depth--;
+                continue;
+            }
+
+            List<GraphNode<T>> children = childBuffers.get(depth);
+            double[] costs = costBuffers.get(depth);
+            int i = frame.nextChild++;
+            // the children are ordered by their cost, so once a child reaches the reference cost, all remaining
+            // children cost at least as much
+            if (stopped || i >= children.size() || frame.cost + costs[i] >= bestCost) {
+                backtrack(graph, frame);
+                depth--;
+                continue;
+            }
+
+            GraphNode<T> child = children.get(i);
+            NodeRemoval<T> removal = graph.removeNode(child);
+            path.add(child);
+            depth++;
+            frameAt(depth).enter(removal, frame.cost + costs[i]);
+            if (depth < size) {
+                expand(graph, depth, child.getContent());
+            }
+        }
+    }
+
+    /**
+     * Order the removable nodes of the graph as the children of the search node at the depth
+     *
+     * @param graph the graph, all nodes of the current path are removed from it
+     * @param depth the depth of the search node
+     * @param last  the last removed box, null at the root
+     */
+    private void expand(Graph<T> graph, int depth, T last) {
+        RemovableFrontier<T> frontier = graph.getRemovableNodes();
+        if (childBuffers.size() == depth) {
+            childBuffers.add(new ArrayList<>(frontier.size()));
+            costBuffers.add(new double[frontier.size()]);
+        }
+        double[] costs = frontier.sortInto(childBuffers.get(depth), costBuffers.get(depth),
+                node -> last == null ? 0 : costAssigner.calcCost(last, node.getContent()));
+        costBuffers.set(depth, costs);
+
+        // the first descent always reaches a leaf, so the first sequence is found before the budget is enforced
+        if (bestSequence != null && ++expansions % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+    }
+
+    /**
+     * Undo the removal of the frame's node, to return to the search node above it
+     */
+    private void backtrack(Graph<T> graph, Frame<T> frame) {
+        if (frame.removal != null) {
+            path.remove(path.size() - 1);
+            graph.restoreNode(frame.removal);
+            frame.removal = null;
+        }
+    }
+
+    private Frame<T> frameAt(int depth) {
+        if (frames.size() == depth) {
+            frames.add(new Frame<>());
+        }
+        return frames.get(depth);
+    }
+
+    /**
+     * A search node on the current path: the removal of the node that led to it, the index of its next child to
+     * expand, and the cost of the path up to it
+     */
+    private static final class Frame<T> {
+        private NodeRemoval<T> removal;
+        private int nextChild;
+        private double cost;
+
+        void enter(NodeRemoval<T> removal, double cost) {
+            this.removal = removal;
+            this.nextChild = 0;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Remove the box with the cheapest transition from the last removed box until the graph is empty, then restore
+     * the graph. Iterative, so it works for any number of boxes.
+     *
+     * @param graph the graph
+     */
+    private void searchGreedily(Graph<T> graph) {
+        RemovableFrontier<T> frontier = graph.getRemovableNodes();
+        Deque<NodeRemoval<T>> removals = new ArrayDeque<>();
+        T last = null;
+        double cost = 0;
+
+        while (!frontier.isEmpty()) {
+            GraphNode<T> cheapest = null;
+            double cheapestCost = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < frontier.size(); i++) {
+                GraphNode<T> node = frontier.get(i);
+                double nodeCost = last == null ? 0 : costAssigner.calcCost(last, node.getContent());
+                if (cheapest == null || nodeCost < cheapestCost) {
+                    cheapest = node;
+                    cheapestCost = nodeCost;
+                }
+            }
+            removals.push(graph.removeNode(cheapest));
+            path.add(cheapest);
+            last = cheapest.getContent();
+            cost += cheapestCost;
+        }
+
+        // the graph is only empty if all nodes could be removed
+        if (graph.getCopyOfNodes().isEmpty() && cost < bestCost) {
+            bestCost = cost;
+            bestSequence = new ArrayList<>(path);
+        }
+        while (!removals.isEmpty()) {
+            graph.restoreNode(removals.pop());
+        }
     }
 }
@@ -0,0 +1,155 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reduces the blockers of a box to its direct blockers for a single {@linkplain OperatingDirection}, i.e. the boxes
+ * that are hit first when moving the side of the box that faces the direction towards the direction.
+ * <p>
+ * The blockers are visited front-to-back, i.e. in ascending order of the distance of their near side to the box. The
+ * part of the side that is not covered yet is kept as a list of rectangles. A blocker that covers some of it is a
+ * direct blocker, and the part it covers is removed. A blocker that only covers parts that are already covered lies
+ * behind a nearer blocker at each of its points, and is skipped. Once the side is fully covered, the remaining blockers
+ * are skipped without testing them.
+ * <p>
+ * A skipped blocker B is hidden behind a nearer blocker C at some point of the side. As boxes do not overlap, B lies
+ * beyond C there, so B also blocks C, and C is nearer to the box than B. Thus, each skipped edge is implied by a path
+ * of edges between boxes that are closer together, which ends at a direct blocker: the graph of the direct blockers
+ * has the same transitive closure, as long as the operating direction can not change.
+ * <p>
+ * Blockers that only touch the box, i.e. overlap its side with zero area, are always kept, as they are not hidden
+ * behind a single point.
+ *
+ * @param <T> the type of the boxes
+ */
+class DirectBlockers<T extends AABB> {
+
+    /**
+     * the boxes, indexed by their id
+     */
+    private final List<T> boxes;
+
+    /**
+     * the rectangles of the side that are not covered yet, as (minU, maxU, minV, maxV) each. Reused for all boxes.
+     */
+    private double[] uncovered = new double[4 * 16];
+    private double[] remaining = new double[4 * 16];
+    private int uncoveredCount;
+
+    /**
+     * @param boxes the boxes, indexed by their id
+     */
+    DirectBlockers(List<T> boxes) {
+        this.boxes = boxes;
+    }
+
+    /**
+     * Keep only the direct blockers of the box
+     *
+     * @param id       the id of the box
+     * @param blockers the ids of all boxes that block the box for the operating direction, in ascending order
+     * @param opDir    the operating direction
+     * @return the ids of the direct blockers, in ascending order
+     */
+    int[] retainDirect(int id, int[] blockers, OperatingDirection opDir) {
+        if (blockers.length <= 1) {
+            return blockers;
+        }
+        T box = boxes.get(id);
+        int axis = opDir.getAxis();
+        int u = (axis + 1) % 3;
+        int v = (axis + 2) % 3;
+        boolean positive = opDir.getSign() > 0;
+
+        // front-to-back, by the distance of the near side of the blocker along the direction
+        Integer[] order = new Integer[blockers.length];
+        for (int i = 0; i < blockers.length; i++) {
+            order[i] = blockers[i];
+        }
+        Arrays.sort(order, Comparator.comparingDouble(
+                (Integer blocker) -> positive ? boxes.get(blocker).min(axis) : -boxes.get(blocker).max(axis)));
+
+        uncoveredCount = 0;
+        addUncovered(box.min(u), box.max(u), box.min(v), box.max(v));
+
+        int[] direct = new int[blockers.length];
+        int count = 0;
+        for (Integer blocker : order) {
+            T other = boxes.get(blocker);
+            // the part of the side that is covered by the blocker
+            double minU = Math.max(box.min(u), other.min(u));
+            double maxU = Math.min(box.max(u), other.max(u));
+            double minV = Math.max(box.min(v), other.min(v));
+            double maxV = Math.min(box.max(v), other.max(v));
+            if (!(minU < maxU && minV < maxV)) {
+                direct[count++] = blocker;
+            } else if (uncoveredCount > 0 && cover(minU, maxU, minV, maxV)) {
+                direct[count++] = blocker;
+            }
+        }
+
+        int[] result = Arrays.copyOf(direct, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Remove the rectangle from the uncovered rectangles
+     *
+     * @return true if the rectangle covered some of the uncovered rectangles with a positive area
+     */
+    private boolean cover(double minU, double maxU, double minV, double maxV) {
+        boolean covered = false;
+        int count = uncoveredCount;
+        double[] rectangles = uncovered;
+        // collect the rest of each rectangle in the other buffer, and swap the buffers afterwards
+        uncovered = remaining;
+        remaining = rectangles;
+        uncoveredCount = 0;
+
+        for (int i = 0; i < count; i++) {
+            double rMinU = rectangles[4 * i];
+            double rMaxU = rectangles[4 * i + 1];
+            double rMinV = rectangles[4 * i + 2];
+            double rMaxV = rectangles[4 * i + 3];
+            if (!(minU < rMaxU && rMinU < maxU && minV < rMaxV && rMinV < maxV)) {
+                addUncovered(rMinU, rMaxU, rMinV, rMaxV);
+                continue;
+            }
+            covered = true;
+            // split the rest into up to four rectangles: the full-height strips left and right of the covering
+            // rectangle, and the parts below and above it in between
+            double innerMinU = Math.max(rMinU, minU);
+            double innerMaxU = Math.min(rMaxU, maxU);
+            if (rMinU < innerMinU) {
+                addUncovered(rMinU, innerMinU, rMinV, rMaxV);
+            }
+            if (innerMaxU < rMaxU) {
+                addUncovered(innerMaxU, rMaxU, rMinV, rMaxV);
+            }
+            if (rMinV < minV) {
+                addUncovered(innerMinU, innerMaxU, rMinV, minV);
+            }
+            if (maxV < rMaxV) {
+                addUncovered(innerMinU, innerMaxU, maxV, rMaxV);
+            }
+        }
+        return covered;
+    }
+
+    private void addUncovered(double minU, double maxU, double minV, double maxV) {
+        if (4 * uncoveredCount + 4 > uncovered.length) {
+            uncovered = Arrays.copyOf(uncovered, 2 * uncovered.length);
+        }
+        uncovered[4 * uncoveredCount] = minU;
+        uncovered[4 * uncoveredCount + 1] = maxU;
+        uncovered[4 * uncoveredCount + 2] = minV;
+        uncovered[4 * uncoveredCount + 3] = maxV;
+        uncoveredCount++;
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.SequenceFinder.Control;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * A sequence of boxes, stored as the ids of the boxes. The boxes are only looked up when they are accessed, so the
+ * sequence can be passed around and compared without touching the boxes themselves.
+ *
+ * @param <T> the type of the boxes
+ * @see SequenceFinder#calcOptSequenceIds(java.util.List, boolean, java.util.Collection)
+ */
+public class IdSequence<T> implements Iterable<T> {
+
+    /**
+     * the ids of the boxes in the order of the sequence
+     */
+    private final int[] ids;
+
+    /**
+     * returns the box for an id
+     */
+    private final IntFunction<T> boxOf;
+
+    /**
+     * A sequence of boxes, stored as the ids of the boxes.
+     *
+     * @param ids   the ids of the boxes in the order of the sequence. The array is copied.
+     * @param boxOf returns the box for an id
+     */
+    public IdSequence(int[] ids, IntFunction<T> boxOf) {
+        if (boxOf == null) {
+            throw new IllegalArgumentException("The function to look up the boxes must not be null!");
+        }
+        this.ids = ids.clone();
+        this.boxOf = boxOf;
+    }
+
+    /**
+     * Return the number of boxes in the sequence
+     *
+     * @return the number of boxes in the sequence
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Return the id of the box at the given position of the sequence
+     *
+     * @param position the position, starting at 0
+     * @return the id of the box
+     */
+    public int getId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * Return the box at the given position of the sequence
+     *
+     * @param position the position, starting at 0
+     * @return the box
+     */
+    public T get(int position) {
+        return boxOf.apply(ids[position]);
+    }
+
+    /**
+     * Return the ids of the boxes in the order of the sequence
+     *
+     * @return a copy of the ids
+     */
+    public int[] toIdArray() {
+        return ids.clone();
+    }
+
+    /**
+     * Look up all boxes of the sequence
+     *
+     * @return the boxes in the order of the sequence
+     */
+    public LinkedHashSet<T> toLinkedHashSet() {
+        LinkedHashSet<T> boxes = new LinkedHashSet<>((int) (ids.length / 0.75f) + 1);
+        for (T box : this) {
+            boxes.add(box);
+        }
+        return boxes;
+    }
+
+    /**
+     * Iterate over the boxes of the sequence, each box is looked up when it is reached
+     *
+     * @return an iterator over the boxes
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < ids.length;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(position++);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(ids, ((IdSequence<?>) o).ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ids);
+    }
+
+    @Override
+    public String toString() {
+        return "IdSequence" + Arrays.toString(ids);
+    }
+}
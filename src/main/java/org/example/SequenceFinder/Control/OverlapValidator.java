@@ -0,0 +1,177 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+
+import java.util.*;
+
+/**
+ * Controller to validate that the boxes in a stack do not overlap.
+ * <p>
+ * Overlapping boxes can never be removed, because each of them blocks the other. The validator finds all overlapping
+ * pairs using sweep and prune: the boxes are swept along the x-axis, and the boxes whose x-extent is still active are
+ * kept ordered by their minimum y coordinate. Therefore, only boxes overlapping along x and lying close along y are
+ * compared with each other, which results in O(n log n + k) for stacks of boxes of comparable size, where k is the
+ * number of reported pairs.
+ * <p>
+ * How far along y the active boxes are searched is bounded by the largest y-extent of all boxes, not of the boxes
+ * that are actually active. A single box that is long along y therefore widens the window for every box, and the
+ * validation degrades towards comparing each box with all boxes it overlaps along x, i.e. O(n^2) in the worst case.
+ * <p>
+ * Boxes that only touch each other, or overlap by no more than the touching tolerance, are not reported.
+ *
+ * @param <T> the type of boxes
+ */
+public class OverlapValidator<T extends AABB> {
+
+    /**
+     * the depth up to which an overlap is considered touching
+     */
+    private final double touchingTolerance;
+
+    /**
+     * Controller to validate that the boxes in a stack do not overlap.
+     *
+     * @param touchingTolerance boxes whose overlap along any axis is less than or equal to this tolerance are
+     *                          considered touching and are therefore not overlapping. Must not be negative.
+     */
+    public OverlapValidator(double touchingTolerance) {
+        if (touchingTolerance < 0 || Double.isNaN(touchingTolerance)) {
+            throw new IllegalArgumentException("The touching tolerance must not be negative! Tolerance: " +
+                    touchingTolerance);
+        }
+        this.touchingTolerance = touchingTolerance;
+    }
+
+    /**
+     * Validate that the boxes do not overlap.
+     *
+     * @param boxes the boxes
+     * @throws IllegalArgumentException if at least two boxes overlap. The message contains all overlapping pairs.
+     */
+    public void validate(Collection<T> boxes) {
+        List<Overlap<T>> overlaps = findOverlaps(boxes);
+
+        if (!overlaps.isEmpty()) {
+            StringBuilder message = new StringBuilder("The stack of boxes contains ")
+                    .append(overlaps.size())
+                    .append(" overlapping pair(s) of boxes, which can never be removed:");
+            for (Overlap<T> overlap : overlaps) {
+                message.append("\n").append(overlap);
+            }
+            throw new IllegalArgumentException(message.toString());
+        }
+    }
+
+    /**
+     * Find all pairs of overlapping boxes.
+     *
+     * @param boxes the boxes
+     * @return all pairs of overlapping boxes, each pair is reported once
+     */
+    public List<Overlap<T>> findOverlaps(Collection<T> boxes) {
+        List<Overlap<T>> overlaps = new ArrayList<>();
+        if (boxes.size() < 2) {
+            return overlaps;
+        }
+
+        List<T> sortedByMinX = new ArrayList<>(boxes);
+        sortedByMinX.sort(Comparator.comparingDouble(box -> box.min(0)));
+
+        // the largest extent along y limits how far below a box the minimum y of an overlapping box can be
+        double maxExtentY = 0;
+        for (T box : sortedByMinX) {
+            maxExtentY = Math.max(maxExtentY, box.max(1) - box.min(1));
+        }
+
+        // the boxes whose x-extent overlaps the sweep position, ordered by their minimum y
+        TreeMap<Double, List<T>> activeByMinY = new TreeMap<>();
+        // the active boxes ordered by the end of their x-extent, to know when they stop being active
+        PriorityQueue<T> activeByMaxX = new PriorityQueue<>(Comparator.comparingDouble(box -> box.max(0)));
+
+        for (T box : sortedByMinX) {
+            // deactivate all boxes that end before the current box starts (within the tolerance)
+            while (!activeByMaxX.isEmpty() && activeByMaxX.peek().max(0) - touchingTolerance <= box.min(0)) {
+                T inactive = activeByMaxX.poll();
+                List<T> sameMinY = activeByMinY.get(inactive.min(1));
+                sameMinY.remove(inactive);
+                if (sameMinY.isEmpty()) {
+                    activeByMinY.remove(inactive.min(1));
+                }
+            }
+
+            // all remaining active boxes overlap the current box along x. Only those that can overlap along y are
+            // compared
+            double lowestMinY = box.min(1) + touchingTolerance - maxExtentY;
+            double highestMinY = box.max(1) - touchingTolerance;
+            if (lowestMinY < highestMinY) {
+                for (List<T> candidates : activeByMinY.subMap(lowestMinY, false, highestMinY, false).values()) {
+                    for (T candidate : candidates) {
+                        if (overlaps(candidate, box)) {
+                            overlaps.add(new Overlap<>(candidate, box));
+                        }
+                    }
+                }
+            }
+
+            activeByMinY.computeIfAbsent(box.min(1), minY -> new ArrayList<>()).add(box);
+            activeByMaxX.add(box);
+        }
+
+        return overlaps;
+    }
+
+    /**
+     * Check if the two boxes overlap by more than the touching tolerance along every axis.
+     *
+     * @param a a box
+     * @param b another box
+     * @return true if the boxes overlap
+     */
+    boolean overlaps(AABB a, AABB b) {
+        for (int axis = 0; axis < 3; axis++) {
+            double overlap = Math.min(a.max(axis), b.max(axis)) - Math.max(a.min(axis), b.min(axis));
+            if (overlap <= touchingTolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //
+    //-----------------------------------------------------------------------------------------------------------------
+    //
+
+
+    /**
+     * A pair of overlapping boxes.
+     *
+     * @param <T> the type of boxes
+     */
+    public static class Overlap<T extends AABB> {
+
+        private final T first;
+        private final T second;
+
+        Overlap(T first, T second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public T getFirst() {
+            return first;
+        }
+
+        public T getSecond() {
+            return second;
+        }
+
+        @Override
+        public String toString() {
+            return "Overlap{" +
+                    "first=" + first + ", " +
+                    "second=" + second +
+                    '}';
+        }
+    }
+}
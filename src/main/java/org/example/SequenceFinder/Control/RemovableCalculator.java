@@ -2,6 +2,7 @@ package org.example.SequenceFinder.Control;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Plane;
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.Graph.CompactGraph;
 import org.example.SequenceFinder.Model.Graph.Graph;
 import org.example.SequenceFinder.Model.Graph.GraphNode;
 import org.example.SequenceFinder.Model.Octree.Frustum;
@@ -9,12 +10,20 @@ import org.example.SequenceFinder.Model.Octree.LooseOctree;
 import org.example.SequenceFinder.OperatingDirection;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
 
 /**
  * Controller to calculate which Boxes are removable in the stack of boxes.
  * <p>
  * It creates a single or multiple Graphs using frustum culling, where nodes with no incoming edges represent the
  * removable Boxes.
+ * <p>
+ * The culls are read-only queries of the octree, so the blockers of all boxes and directions are found in parallel on
+ * a {@linkplain ForkJoinPool}, see {@linkplain #setParallelism(int)}. Each worker culls into its own buffer and writes
+ * the blockers of a box into the row of that box, and the graphs are built from the rows afterwards, in the order of
+ * the ids. Therefore the graphs do not depend on the parallelism.
  *
  * @see Graph
  */
@@ -28,6 +37,28 @@ public class RemovableCalculator<T extends AABB> {
      * the operating directions from where the boxes can be placed or removed
      */
     Set<OperatingDirection> opDirs;
+    /**
+     * boxes that touch each other within this tolerance do not block each other. Negative if touching boxes block
+     * each other.
+     */
+    double contactTolerance;
+    /**
+     * the number of threads used to find the blockers, 1 to find them on the calling thread
+     */
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * how the blockers of the boxes are found
+     */
+    BlockerStrategy blockerStrategy = BlockerStrategy.FRUSTUM_CULLING;
+    /**
+     * whether only the direct blockers of each box get an edge, see {@linkplain DirectBlockers}
+     */
+    boolean directBlockersOnly = false;
+
+    /**
+     * the largest number of culls of a parallel task, larger tasks are split in halves
+     */
+    private static final int BOXES_PER_TASK = 64;
 
     /**
      * Controller to calculate which Boxes are removable in the stack of boxes.
@@ -40,13 +71,56 @@ public class RemovableCalculator<T extends AABB> {
      * @see Graph
      */
     public RemovableCalculator(LooseOctree<T> octree, Set<OperatingDirection> operatingDirections) {
+        this(octree, operatingDirections, Frustum.NO_CONTACT_TOLERANCE);
+    }
+
+    /**
+     * Controller to calculate which Boxes are removable in the stack of boxes.
+     * <p>
+     * Same as {@linkplain #RemovableCalculator(LooseOctree, Set)}, but boxes that touch each other within the given
+     * contact tolerance, i.e. share a side or an edge, do not block each other. This results in sparser graphs.
+     *
+     * @param octree              the octree where the boxes are stored
+     * @param operatingDirections the set of operating directions from where the boxes can be placed or removed
+     * @param contactTolerance    the tolerance up to which boxes only touch each other. A negative value, e.g.
+     *                            {@linkplain Frustum#NO_CONTACT_TOLERANCE}, lets touching boxes block each other.
+     * @see Frustum#Frustum(Plane, Plane, Plane, Plane, Plane, Plane, double)
+     */
+    public RemovableCalculator(LooseOctree<T> octree, Set<OperatingDirection> operatingDirections,
+                               double contactTolerance) {
         this.octree = octree;
         this.opDirs = operatingDirections;
+        this.contactTolerance = contactTolerance;
         if (operatingDirections.isEmpty()) {
             throw new IllegalArgumentException("The RemovableCalculator needs at least one OperatingDirection!");
         }
     }
 
+    /**
+     * Creates a map of graphs, one for each previously specified operating direction, like
+     * {@linkplain #createGraphs(boolean)}. Optionally, the edges that are implied transitively by other edges are
+     * removed from each graph.
+     *
+     * @param opDirCanChange      whether the operating direction can change
+     * @param transitiveReduction whether to remove the edges implied by other edges. Only possible if the operating
+     *                            direction can not change.
+     * @return the collection of graphs
+     * @see Graph#reduceTransitively()
+     */
+    public Map<OperatingDirection, Graph<T>> createGraphs(boolean opDirCanChange, boolean transitiveReduction) {
+        if (opDirCanChange && transitiveReduction) {
+            throw new IllegalArgumentException("The transitive reduction is only valid if the operating direction " +
+                    "can not change!");
+        }
+        Map<OperatingDirection, Graph<T>> graphMap = createGraphs(opDirCanChange);
+        if (transitiveReduction) {
+            for (Graph<T> graph : graphMap.values()) {
+                graph.reduceTransitively();
+            }
+        }
+        return graphMap;
+    }
+
     /**
      * Creates a map of graphs, one for each previously specified operating direction.
      * <p>
@@ -59,11 +133,13 @@ public class RemovableCalculator<T extends AABB> {
      * @return the collection of graphs
      */
     public Map<OperatingDirection, Graph<T>> createGraphs(boolean opDirCanChange) {
+        checkDirectBlockersOnly(opDirCanChange);
         HashSet<Graph<T>> graphSet = new HashSet<>();
         HashMap<OperatingDirection, Graph<T>> graphMap = new HashMap<>();
 
+        int[][][] blockers = findAllBlockers(opDirs);
         for (OperatingDirection operatingDirection : opDirs) {
-            Graph<T> createdGraph = createGraph(operatingDirection);
+            Graph<T> createdGraph = createGraph(operatingDirection, blockers[operatingDirection.ordinal()]);
             graphSet.add(createdGraph);
             graphMap.put(operatingDirection, createdGraph);
         }
@@ -80,51 +156,367 @@ public class RemovableCalculator<T extends AABB> {
 
 
     /**
-     * Creates a graph using frustum culling, where all nodes with no incoming edges represent removable Boxes in the
-     * stack of boxes
+     * Creates a graph from the blockers found by frustum culling, where all nodes with no incoming edges represent
+     * removable Boxes in the stack of boxes
      *
-     * @param opDir the direction from where the Boxes can be removed.
+     * @param opDir    the direction from where the Boxes can be removed.
+     * @param blockers the ids of the blockers of each object for the direction, indexed by the id of the object
      * @return the graph as described above
      */
-    private Graph<T> createGraph(OperatingDirection opDir) {
-        Collection<T> allObjects = octree.getAllObjects();
+    private Graph<T> createGraph(OperatingDirection opDir, int[][] blockers) {
+        List<T> objects = octree.getObjectsById();
 
         Set<OperatingDirection> opDirSet = new HashSet<>();
         opDirSet.add(opDir);
-        Graph<T> graph = new Graph<>(opDirSet);
-        HashMap<T, GraphNode<T>> nodeMap = new HashMap<>();
+        Graph<T> graph = new Graph<>(opDirSet, objects.size());
 
-        // generate all nodes to be able to add edges in the next for-loop
-        for (T object : allObjects) {
-            GraphNode<T> node = graph.addNode(object);
-            nodeMap.put(object, node);
+        // generate all nodes to be able to add edges in the next for-loop. The nodes are indexed by the octree's ids.
+        List<GraphNode<T>> nodes = new ArrayList<>(objects.size());
+        for (T object : objects) {
+            nodes.add(graph.addNode(object));
         }
 
-        for (T object : allObjects) {
-            // find all objects that are on top of this object
-            Frustum topFrustum = createFrustum(object, OperatingDirection.TOP);
-            Collection<T> objectsToRemove = octree.cullAgainst(topFrustum);
-
-            // FIXME: problem when opDir == TOP? Maybe double edges are created? If so is it a problem or are
-            //  duplicate edges removed when a node is removed?
-            // find all objects that are in front of the object (relative to the given operating direction).
-            Frustum inFrontFrustum = createFrustum(object, opDir);
-            objectsToRemove.addAll(octree.cullAgainst(inFrontFrustum));
-
-            // when culling the octree the object itself is also returned, so remove it.
-            //  (the object and the frustum share a common plane, therefore the objects intersects the frustum)
-            objectsToRemove.remove(object);
-
-            // add an edge in the graph from each object that must be removed to the current object
-            GraphNode<T> to = nodeMap.get(object);
-            for (T objectToRemove : objectsToRemove) {
-                GraphNode<T> from = nodeMap.get(objectToRemove);
-                graph.addDirectedEdge(from, to, opDir);
+        // add an edge in the graph from each object that must be removed to the current object
+        for (int id = 0; id < objects.size(); id++) {
+            GraphNode<T> to = nodes.get(id);
+            for (int blocker : blockers[id]) {
+                graph.addDirectedEdge(nodes.get(blocker), to, opDir);
             }
         }
         return graph;
     }
 
+    /**
+     * Creates a map of {@linkplain CompactGraph}s, one for each previously specified operating direction, directly
+     * from the octree without creating a {@linkplain Graph} first.
+     * <p>
+     * The node ids are the ids the objects have in the octree, see {@linkplain LooseOctree#idOf(AABB)}. If the
+     * operating directions can change at any desired time, only a single graph representing all operating directions
+     * is created, and the map maps all operating directions to it.
+     *
+     * @param opDirCanChange whether the operating direction can change
+     * @return the collection of compact graphs
+     * @see #createGraphs(boolean)
+     */
+    public Map<OperatingDirection, CompactGraph<T>> createCompactGraphs(boolean opDirCanChange) {
+        checkDirectBlockersOnly(opDirCanChange);
+        List<T> allObjects = octree.getObjectsById();
+        HashMap<OperatingDirection, CompactGraph<T>> graphMap = new HashMap<>();
+
+        int[][][] blockers = findAllBlockers(opDirs);
+        if (opDirCanChange) {
+            CompactGraph<T> mergedGraph = createCompactGraph(allObjects, opDirs, blockers);
+            for (OperatingDirection operatingDirection : opDirs) {
+                graphMap.put(operatingDirection, mergedGraph);
+            }
+        } else {
+            for (OperatingDirection operatingDirection : opDirs) {
+                graphMap.put(operatingDirection,
+                        createCompactGraph(allObjects, Collections.singleton(operatingDirection), blockers));
+            }
+        }
+        return graphMap;
+    }
+
+    /**
+     * Creates a compact graph for the given operating directions from the blockers found by frustum culling.
+     *
+     * @param allObjects  all objects in the octree, indexed by their id
+     * @param graphOpDirs the directions from where the Boxes can be removed
+     * @param blockers    the ids of the blockers of each object, indexed by the ordinal of the direction and the id of
+     *                    the object
+     * @return the compact graph
+     */
+    private CompactGraph<T> createCompactGraph(List<T> allObjects, Set<OperatingDirection> graphOpDirs,
+                                               int[][][] blockers) {
+        CompactGraph.Builder<T> builder = new CompactGraph.Builder<>(graphOpDirs, allObjects.size());
+        // the builder assigns ids in the order of insertion, so they are the same as the octree's ids
+        for (T object : allObjects) {
+            builder.addNode(object);
+        }
+
+        for (OperatingDirection opDir : graphOpDirs) {
+            int[][] rows = blockers[opDir.ordinal()];
+            for (int id = 0; id < allObjects.size(); id++) {
+                for (int blocker : rows[id]) {
+                    builder.addEdge(blocker, id, opDir);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Set the number of threads used to find the blockers of the boxes. The default is the number of available
+     * processors.
+     *
+     * @param parallelism the number of threads, 1 to find the blockers on the calling thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1! Parallelism: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set how the blockers of the boxes are found. The default is {@linkplain BlockerStrategy#FRUSTUM_CULLING}. All
+     * strategies create the same graphs.
+     *
+     * @param blockerStrategy the strategy
+     */
+    public void setBlockerStrategy(BlockerStrategy blockerStrategy) {
+        if (blockerStrategy == null) {
+            throw new IllegalArgumentException("The blocker strategy must not be null!");
+        }
+        this.blockerStrategy = blockerStrategy;
+    }
+
+    public BlockerStrategy getBlockerStrategy() {
+        return blockerStrategy;
+    }
+
+    /**
+     * Set whether only the direct blockers of each box get an edge, i.e. the boxes that are hit first when moving the
+     * box towards the operating direction, and the boxes that are hit first when moving it to the top. Boxes that are
+     * hidden behind the direct blockers get no edge, as they block the direct blockers in turn. This results in much
+     * sparser graphs with the same transitive closure, see {@linkplain DirectBlockers}.
+     * <p>
+     * Like the transitive reduction, this is only valid if the operating direction can not change.
+     *
+     * @param directBlockersOnly whether only the direct blockers get an edge. The default is false.
+     * @see #createGraphs(boolean, boolean)
+     */
+    public void setDirectBlockersOnly(boolean directBlockersOnly) {
+        this.directBlockersOnly = directBlockersOnly;
+    }
+
+    public boolean isDirectBlockersOnly() {
+        return directBlockersOnly;
+    }
+
+    private void checkDirectBlockersOnly(boolean opDirCanChange) {
+        if (opDirCanChange && directBlockersOnly) {
+            throw new IllegalArgumentException("Only creating edges for the direct blockers is only valid if the " +
+                    "operating direction can not change!");
+        }
+    }
+
+    /**
+     * Find the blockers of all objects for each of the given operating directions, in parallel if the parallelism is
+     * larger than 1.
+     *
+     * @param directions the operating directions
+     * @return the ids of the blockers of each object in ascending order, indexed by the ordinal of the direction and
+     * the id of the object. Null for the directions that are not given.
+     */
+    private int[][][] findAllBlockers(Collection<OperatingDirection> directions) {
+        if (blockerStrategy == BlockerStrategy.SWEEP_LINE) {
+            SweepLineBlockers<T> sweep = new SweepLineBlockers<>(octree.getObjectsById(), contactTolerance);
+            return findBlockersPerDirection(directions, sweep::findBlockers);
+        } else if (blockerStrategy == BlockerStrategy.SELF_JOIN) {
+            return findBlockersPerDirection(directions, this::joinBlockers);
+        }
+        int n = octree.size();
+        OperatingDirection[] dirs = directions.toArray(new OperatingDirection[0]);
+        int[][][] blockers = new int[OperatingDirection.values().length][][];
+        for (OperatingDirection opDir : dirs) {
+            blockers[opDir.ordinal()] = new int[n][];
+        }
+
+        // one task per direction and object, so all directions are culled in parallel as well
+        BlockerTask task = new BlockerTask(dirs, blockers, 0, dirs.length * n);
+        if (parallelism == 1 || dirs.length * n <= BOXES_PER_TASK) {
+            task.compute();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return blockers;
+    }
+
+    /**
+     * Find the blockers of all objects for each of the given operating directions, like
+     * {@linkplain #findAllBlockers(Collection)}, with a strategy that finds the blockers of all objects for a single
+     * direction at once. As for the frusta, the blockers from the top are always included.
+     *
+     * @param directions   the operating directions
+     * @param findBlockers finds the ids of the blockers of each object for a single direction in ascending order,
+     *                     indexed by the id of the object
+     * @return the ids of the blockers of each object in ascending order, indexed by the ordinal of the direction and
+     * the id of the object
+     */
+    private int[][][] findBlockersPerDirection(Collection<OperatingDirection> directions,
+                                               Function<OperatingDirection, int[][]> findBlockers) {
+        DirectBlockers<T> direct = new DirectBlockers<>(octree.getObjectsById());
+        int[][] top = findBlockers.apply(OperatingDirection.TOP);
+        if (directBlockersOnly) {
+            for (int id = 0; id < top.length; id++) {
+                top[id] = direct.retainDirect(id, top[id], OperatingDirection.TOP);
+            }
+        }
+        int[][][] blockers = new int[OperatingDirection.values().length][][];
+        for (OperatingDirection opDir : directions) {
+            if (opDir == OperatingDirection.TOP) {
+                blockers[opDir.ordinal()] = top;
+            } else {
+                int[][] rows = findBlockers.apply(opDir);
+                for (int id = 0; id < rows.length; id++) {
+                    int[] row = directBlockersOnly ? direct.retainDirect(id, rows[id], opDir) : rows[id];
+                    rows[id] = union(row, top[id]);
+                }
+                blockers[opDir.ordinal()] = rows;
+            }
+        }
+        return blockers;
+    }
+
+    /**
+     * Find the blockers of all objects for a single direction with a self join of the octree, see
+     * {@linkplain LooseOctree#selfJoinIds(OperatingDirection, double, LooseOctree.IdPairConsumer)}
+     *
+     * @param opDir the operating direction
+     * @return the ids of the blockers of each object in ascending order, indexed by the id of the object
+     */
+    private int[][] joinBlockers(OperatingDirection opDir) {
+        int n = octree.size();
+        int[][] rows = new int[n][];
+        int[] counts = new int[n];
+        octree.selfJoinIds(opDir, contactTolerance, (id, blocker) -> {
+            if (rows[id] == null) {
+                rows[id] = new int[4];
+            } else if (counts[id] == rows[id].length) {
+                rows[id] = Arrays.copyOf(rows[id], 2 * counts[id]);
+            }
+            rows[id][counts[id]++] = blocker;
+        });
+        for (int id = 0; id < n; id++) {
+            rows[id] = rows[id] == null ? new int[0] : Arrays.copyOf(rows[id], counts[id]);
+            Arrays.sort(rows[id]);
+        }
+        return rows;
+    }
+
+    /**
+     * Merge two sorted arrays of ids into a sorted array without duplicates
+     */
+    private static int[] union(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                merged[count++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                merged[count++] = b[j++];
+            } else {
+                merged[count++] = a[i++];
+                j++;
+            }
+        }
+        return count == merged.length ? merged : Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * Finds the blockers of a range of tasks, where task i is the object with id {@code i % n} for the direction
+     * {@code i / n}. The range is split in halves until it contains at most {@linkplain #BOXES_PER_TASK} tasks, and
+     * each leaf culls into a buffer of its own. Each task writes a different row, so no synchronization is needed.
+     */
+    private class BlockerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final OperatingDirection[] dirs;
+        private final int[][][] blockers;
+        private final int from;
+        private final int to;
+
+        BlockerTask(OperatingDirection[] dirs, int[][][] blockers, int from, int to) {
+            this.dirs = dirs;
+            this.blockers = blockers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BOXES_PER_TASK && parallelism > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockerTask(dirs, blockers, from, middle), new BlockerTask(dirs, blockers, middle, to));
+                return;
+            }
+            int n = octree.size();
+            BitSet buffer = new BitSet(n);
+            DirectBlockers<T> direct = directBlockersOnly ? new DirectBlockers<>(octree.getObjectsById()) : null;
+            for (int i = from; i < to; i++) {
+                OperatingDirection opDir = dirs[i / n];
+                int id = i % n;
+                if (direct == null) {
+                    findObjectsToRemoveBefore(id, opDir, buffer);
+                    blockers[opDir.ordinal()][id] = buffer.stream().toArray();
+                } else {
+                    // the direct blockers of both frusta are found separately, as they are hit in different orders
+                    cullBlockers(id, OperatingDirection.TOP, buffer);
+                    int[] row = direct.retainDirect(id, buffer.stream().toArray(), OperatingDirection.TOP);
+                    if (opDir != OperatingDirection.TOP) {
+                        cullBlockers(id, opDir, buffer);
+                        row = union(direct.retainDirect(id, buffer.stream().toArray(), opDir), row);
+                    }
+                    blockers[opDir.ordinal()][id] = row;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find all objects that have to be removed before the given object can be removed from the given operating
+     * direction, i.e. all objects that are on top of it or in front of it (relative to the operating direction).
+     *
+     * @param id       the id of the object in the octree
+     * @param opDir    the direction from where the object is removed
+     * @param blockers is cleared and then set to the ids of the objects that have to be removed first. Reused for all
+     *                 objects to avoid allocations.
+     */
+    private void findObjectsToRemoveBefore(int id, OperatingDirection opDir, BitSet blockers) {
+        T object = octree.getObject(id);
+        blockers.clear();
+
+        // find all objects that are on top of this object
+        octree.cullAgainst(createFrustum(object, OperatingDirection.TOP), blockers);
+
+        // find all objects that are in front of the object (relative to the given operating direction). For TOP, this
+        // is the same frustum again. Objects found by both frusta are only contained once, and result in a single
+        // edge.
+        if (opDir != OperatingDirection.TOP) {
+            octree.cullAgainst(createFrustum(object, opDir), blockers);
+        }
+
+        // without a contact tolerance, the object itself is also returned when culling the octree, so remove it.
+        //  (the object and the frustum share a common plane, therefore the objects intersects the frustum)
+        blockers.clear(id);
+    }
+
+    /**
+     * Find all objects within the frustum of the given object for a single direction
+     *
+     * @param id         the id of the object in the octree
+     * @param frustumDir the direction of the frustum
+     * @param blockers   is cleared and then set to the ids of the objects within the frustum, without the object
+     */
+    private void cullBlockers(int id, OperatingDirection frustumDir, BitSet blockers) {
+        blockers.clear();
+        octree.cullAgainst(createFrustum(octree.getObject(id), frustumDir), blockers);
+        blockers.clear(id);
+    }
+
     /**
      * Creates a new  frustum from the AABB in direction of the operating direction.
      * <p>
@@ -148,6 +540,6 @@ public class RemovableCalculator<T extends AABB> {
         Plane top = aabb.getSide(opDir.getTop(), true);
         Plane bottom = aabb.getSide(opDir.getBottom(), true);
 
-        return new Frustum(front, back, left, right, top, bottom);
+        return new Frustum(front, back, left, right, top, bottom, contactTolerance);
     }
 }
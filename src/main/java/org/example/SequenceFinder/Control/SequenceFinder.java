@@ -2,14 +2,14 @@ package org.example.SequenceFinder.Control;
 
 import org.example.SequenceFinder.Control.Cost.CostFunction;
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.Graph.CycleDetector;
 import org.example.SequenceFinder.Model.Graph.Graph;
+import org.example.SequenceFinder.Model.Graph.GraphMetrics;
 import org.example.SequenceFinder.Model.Octree.LooseOctree;
 import org.example.SequenceFinder.OperatingDirection;
 
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
+import java.time.Duration;
+import java.util.*;
 
 /**
  * Main Controller of the SequenceFinder package. <br>
@@ -20,6 +20,11 @@ import java.util.Set;
  * sequences to build the stack. This tree of all possible sequences, or respectively the graph, is then traversed by a
  * Branch And Bound algorithm to find the global optimum sequence, based on a number of cost functions. <br> The
  * sequence with the lowest total cost over all cost functions is the global optimum.
+ * <p>
+ * Unless a {@linkplain SolvingStrategy} is set, it is selected from the {@linkplain GraphMetrics} of the graphs: small
+ * or tower-like stacks are searched exhaustively and wide stacks within a time budget.
+ * Unless a time budget is set, it is selected from the metrics as well, see
+ * {@linkplain SolvingStrategy#selectTimeBudget(Collection)}.
  *
  * @see CostFunction
  */
@@ -37,6 +42,20 @@ public class SequenceFinder<T extends AABB> {
      * All available operating directions, respectively the positions from where the stack of boxes can be build
      */
     Set<OperatingDirection> operatingDirections;
+    /**
+     * Boxes whose overlap is less than or equal to this tolerance are considered touching, not overlapping. Touching
+     * boxes do not block each other.
+     */
+    double touchingTolerance;
+    /**
+     * The strategy used to find the sequence, or null if it is selected automatically for each stack of boxes
+     */
+    SolvingStrategy solvingStrategy = null;
+    /**
+     * The time a {@linkplain SolvingStrategy#BUDGETED} search may take, or null if it is selected automatically for
+     * each stack of boxes
+     */
+    Duration timeBudget = null;
 
     /**
      * Main Controller of the SequenceFinder package. <br>
@@ -56,9 +75,35 @@ public class SequenceFinder<T extends AABB> {
      * @see CostFunction
      */
     public SequenceFinder(int maxOctreeDepth, int worldSize, Set<OperatingDirection> operatingDirections) {
+        this(maxOctreeDepth, worldSize, operatingDirections, 0);
+    }
+
+    /**
+     * Main Controller of the SequenceFinder package. <br>
+     * <br>
+     * Same as {@linkplain #SequenceFinder(int, int, Set)}, but with a custom tolerance up to which boxes are
+     * considered touching instead of overlapping.
+     *
+     * @param maxOctreeDepth      the max depth of the loose octree
+     * @param worldSize           the size of the world in each direction from the world's center. The world MUST be
+     *                            large enough to include all boxes.
+     * @param operatingDirections a list of all available operating directions from where to build the stack of boxes
+     * @param touchingTolerance   boxes whose overlap is less than or equal to this tolerance are considered touching,
+     *                            not overlapping, and do not block each other. Must not be negative.
+     * @throws IllegalArgumentException if the touching tolerance is negative or NaN
+     * @see OverlapValidator
+     * @see RemovableCalculator#RemovableCalculator(LooseOctree, Set, double)
+     */
+    public SequenceFinder(int maxOctreeDepth, int worldSize, Set<OperatingDirection> operatingDirections,
+                          double touchingTolerance) {
+        if (touchingTolerance < 0 || Double.isNaN(touchingTolerance)) {
+            throw new IllegalArgumentException("The touching tolerance must not be negative! Tolerance: " +
+                    touchingTolerance);
+        }
         this.maxOctreeDepth = maxOctreeDepth;
         this.worldSize = worldSize;
         this.operatingDirections = operatingDirections;
+        this.touchingTolerance = touchingTolerance;
     }
 
     /**
@@ -66,18 +111,47 @@ public class SequenceFinder<T extends AABB> {
      * sequence is the one with the lowest total cost over all cost functions.
      * <p>
      * <b>IMPORTANT: the boxes may not overlap, otherwise they might not be removable!</b> <BR> i.e. Box A = (0,0,0) to
-     * (1,1,1) and Box B = (1,0,0) to (2,1,1) are illegal, because the right side of Box A overlaps with the left side
-     * of Box B. When trying to remove them from the front direction, no box can be removed because both are marked as
-     * to be removed after the other.
+     * (1,1,1) and Box B = (0.5,0,0) to (2,1,1) are illegal, because Box A and Box B overlap. When trying to remove
+     * them from the front direction, no box can be removed because both are marked as to be removed after the other.
+     * <br> Boxes that only touch each other within the touching tolerance, i.e. Box A = (0,0,0) to (1,1,1) and Box
+     * B = (1,0,0) to (2,1,1), do not block each other. <br>
+     * Overlapping boxes are detected before any calculation starts, see {@linkplain OverlapValidator}.
      *
      * @param boxes           a collection of boxes
      * @param opDirsCanChange whether the operating directions can change between box placements
      * @param costFunctions   the cost functions which will decide the optimum sequence
      * @return the optimum sequence
+     * @throws IllegalArgumentException if boxes overlap by more than the touching tolerance, or if the boxes block
+     *                                  each other in a cycle (see {@linkplain CycleDetector})
      */
     public LinkedHashSet<T> calcOptSequence(Collection<T> boxes, boolean opDirsCanChange,
                                             Collection<CostFunction<T>> costFunctions) {
-        // insert the boxes into the octree
+        IdSequence<T> sequence = calcOptSequenceIds(new ArrayList<>(boxes), opDirsCanChange, costFunctions);
+        return sequence == null ? null : sequence.toLinkedHashSet();
+    }
+
+    /**
+     * Calculates the optimum sequence for the list of boxes, like
+     * {@linkplain #calcOptSequence(Collection, boolean, Collection)}, but returns the sequence as the ids of the boxes.
+     * The id of a box is its index in the list. The boxes are only looked up when they are accessed in the result.
+     * <p>
+     * Each box gets its id when it is inserted into the octree, so the octree and the culling of the frusta while
+     * creating the graphs work on arrays and bitsets instead of hashing the boxes. The graphs and the search still work
+     * on the boxes, and each box of the resulting sequence is mapped back to its id by a hash lookup.
+     *
+     * @param boxes           a list of boxes, none of them may be contained twice
+     * @param opDirsCanChange whether the operating directions can change between box placements
+     * @param costFunctions   the cost functions which will decide the optimum sequence
+     * @return the optimum sequence, as the indices of the boxes in the list
+     * @throws IllegalArgumentException if boxes overlap by more than the touching tolerance, a box is contained
+     *                                  twice, or if the boxes block each other in a cycle
+     */
+    public IdSequence<T> calcOptSequenceIds(List<T> boxes, boolean opDirsCanChange,
+                                            Collection<CostFunction<T>> costFunctions) {
+        // reject overlapping boxes, as no sequence exists for them
+        new OverlapValidator<T>(touchingTolerance).validate(boxes);
+
+        // insert the boxes into the octree, which assigns the ids in the order of insertion, i.e. the index in the list
         LooseOctree<T> looseOctree = new LooseOctree<>(maxOctreeDepth, worldSize);
         OctreeController<T> octreeInserter = new OctreeController<>(looseOctree);
         if (!octreeInserter.insertAll(boxes)) {
@@ -85,16 +159,80 @@ public class SequenceFinder<T extends AABB> {
                     "Something went wrong! Not all boxes could be inserted into the loose Octree!"
             );
         }
+        if (looseOctree.size() != boxes.size()) {
+            throw new IllegalArgumentException("The boxes must not contain a box twice!");
+        }
 
         // generate the graphs which implies all possible sequences
-        RemovableCalculator<T> removableCalculator = new RemovableCalculator<>(looseOctree, operatingDirections);
+        RemovableCalculator<T> removableCalculator =
+                new RemovableCalculator<>(looseOctree, operatingDirections, touchingTolerance);
         Map<OperatingDirection, Graph<T>> graphs = removableCalculator.createGraphs(opDirsCanChange);
 
+        // fail early if the boxes block each other in a cycle, as no sequence exists then. If the operating direction
+        // can not change, some directions may still be deadlocked, only search the others
+        Map<OperatingDirection, Graph<T>> removableGraphs = CycleDetector.validate(graphs);
+
         // use the branch and bound algorithm to find the global optimum sequence, by minimizing the total cost, which
         // are the sum of all cost functions
-        BranchAndBound<T> branchNBound = new BranchAndBound<>(graphs, costFunctions);
+        BranchAndBound<T> branchNBound = new BranchAndBound<>(removableGraphs, costFunctions);
+        List<GraphMetrics> metrics = solvingStrategy == null || timeBudget == null
+                ? calcMetrics(removableGraphs)
+                : Collections.emptyList();
+        branchNBound.setStrategy(solvingStrategy != null ? solvingStrategy : SolvingStrategy.select(metrics));
+        branchNBound.setTimeBudget(timeBudget != null ? timeBudget : SolvingStrategy.selectTimeBudget(metrics));
 
         // find the global optimum sequence
-        return branchNBound.findGlobalOptimumSequence();
+        LinkedHashSet<T> sequence = branchNBound.findGlobalOptimumSequence();
+        if (sequence == null) {
+            return null;
+        }
+        int[] ids = new int[sequence.size()];
+        int position = 0;
+        for (T box : sequence) {
+            ids[position++] = looseOctree.idOf(box);
+        }
+        return new IdSequence<>(ids, looseOctree::getObject);
+    }
+
+    /**
+     * Calculate the metrics of each distinct graph, used to select the strategy and the time budget, see
+     * {@linkplain SolvingStrategy#select(Collection)} and {@linkplain SolvingStrategy#selectTimeBudget(Collection)}
+     *
+     * @param graphs the graphs, one for each operating direction. None of them may contain deadlocked nodes, see
+     *               {@linkplain CycleDetector#validate(Map)}.
+     * @return the metrics of each distinct graph
+     */
+    List<GraphMetrics> calcMetrics(Map<OperatingDirection, Graph<T>> graphs) {
+        // the same graph is mapped to all directions if the operating direction can change
+        Set<Graph<T>> distinctGraphs = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctGraphs.addAll(graphs.values());
+        List<GraphMetrics> metrics = new ArrayList<>(distinctGraphs.size());
+        for (Graph<T> graph : distinctGraphs) {
+            metrics.add(GraphMetrics.of(graph));
+        }
+        return metrics;
+    }
+
+    /**
+     * Set the strategy used to find the sequence. By default, or if null is given, the strategy is selected
+     * automatically based on the size and shape of the stack of boxes.
+     *
+     * @param solvingStrategy the strategy, or null to select it automatically
+     */
+    public void setSolvingStrategy(SolvingStrategy solvingStrategy) {
+        this.solvingStrategy = solvingStrategy;
+    }
+
+    /**
+     * Set the time a {@linkplain SolvingStrategy#BUDGETED} search may take. By default, or if null is given, the
+     * time budget is selected automatically based on the estimated number of sequences of the stack of boxes.
+     *
+     * @param timeBudget the time budget, must be positive, or null to select it automatically
+     */
+    public void setTimeBudget(Duration timeBudget) {
+        if (timeBudget != null && (timeBudget.isNegative() || timeBudget.isZero())) {
+            throw new IllegalArgumentException("The time budget must be positive! Time budget: " + timeBudget);
+        }
+        this.timeBudget = timeBudget;
     }
 }
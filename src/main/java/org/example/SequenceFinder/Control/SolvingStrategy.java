@@ -0,0 +1,90 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.Graph.GraphMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * The strategies the {@linkplain BranchAndBound} can use to find a sequence, from the most to the least exact.
+ */
+public enum SolvingStrategy {
+
+    /**
+     * search the whole tree of sequences, pruned by the reference cost, and return the global optimum
+     */
+    EXHAUSTIVE,
+
+    /**
+     * search like {@linkplain #EXHAUSTIVE} until the time budget is used up, and return the best sequence found so far
+     */
+    BUDGETED,
+
+    /**
+     * always remove the box with the cheapest transition from the last removed box, without backtracking. Never
+     * selected automatically, as a {@linkplain #BUDGETED} search starts with the same descent and improves on it.
+     */
+    GREEDY;
+
+    /**
+     * Graphs with at most this many estimated sequences (as a power of 10) are searched exhaustively
+     */
+    static final double EXHAUSTIVE_LOG10_SEQUENCES = 7;
+
+    /**
+     * The time budget of a {@linkplain #BUDGETED} search grows by this much per power of 10 of estimated sequences
+     * above 10^{@value #EXHAUSTIVE_LOG10_SEQUENCES}, within {@linkplain #MIN_TIME_BUDGET} and
+     * {@linkplain #MAX_TIME_BUDGET}. 10^17 sequences get 10 seconds.
+     */
+    static final Duration TIME_BUDGET_PER_LOG10_SEQUENCES = Duration.ofSeconds(1);
+    static final Duration MIN_TIME_BUDGET = Duration.ofSeconds(1);
+    static final Duration MAX_TIME_BUDGET = Duration.ofSeconds(60);
+
+    /**
+     * Select the strategy for the graphs, based on their metrics:
+     * <ul>
+     *     <li>{@linkplain #EXHAUSTIVE} if the total estimated number of sequences is at most
+     *     10^{@value #EXHAUSTIVE_LOG10_SEQUENCES}, e.g. for towers or small stacks</li>
+     *     <li>{@linkplain #BUDGETED} otherwise, e.g. for flat layers with many independent boxes</li>
+     * </ul>
+     *
+     * @param metrics the metrics of each graph that will be searched
+     * @return the strategy
+     */
+    public static SolvingStrategy select(Collection<GraphMetrics> metrics) {
+        return log10Sequences(metrics) <= EXHAUSTIVE_LOG10_SEQUENCES ? EXHAUSTIVE : BUDGETED;
+    }
+
+    /**
+     * Select the time budget of a {@linkplain #BUDGETED} search for the graphs, based on their metrics. The budget
+     * grows linearly with the base 10 logarithm of the total estimated number of sequences, i.e. by
+     * {@linkplain #TIME_BUDGET_PER_LOG10_SEQUENCES} per power of 10 above the limit of an exhaustive search, and is
+     * clamped to [{@linkplain #MIN_TIME_BUDGET}, {@linkplain #MAX_TIME_BUDGET}].
+     *
+     * @param metrics the metrics of each graph that will be searched
+     * @return the time budget
+     */
+    public static Duration selectTimeBudget(Collection<GraphMetrics> metrics) {
+        double excess = log10Sequences(metrics) - EXHAUSTIVE_LOG10_SEQUENCES;
+        if (!(excess > 0)) {
+            return MIN_TIME_BUDGET;
+        }
+        double millis = excess * TIME_BUDGET_PER_LOG10_SEQUENCES.toMillis();
+        return Duration.ofMillis(Math.round(Math.max(MIN_TIME_BUDGET.toMillis(),
+                Math.min(MAX_TIME_BUDGET.toMillis(), millis))));
+    }
+
+    /**
+     * Calculate the base 10 logarithm of the total estimated number of sequences of all graphs
+     */
+    private static double log10Sequences(Collection<GraphMetrics> metrics) {
+        double log10Sequences = Double.NEGATIVE_INFINITY;
+        for (GraphMetrics graphMetrics : metrics) {
+            // log10(10^a + 10^b), as the sequences of all graphs are searched
+            double a = Math.max(log10Sequences, graphMetrics.getLog10SequenceEstimate());
+            double b = Math.min(log10Sequences, graphMetrics.getLog10SequenceEstimate());
+            log10Sequences = a + Math.log10(1 + Math.pow(10, b - a));
+        }
+        return log10Sequences;
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.Octree.Frustum;
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the boxes that block each box from a single {@linkplain OperatingDirection} with a sweep instead of frustum
+ * culling.
+ * <p>
+ * A box B blocks a box A, if the projections of both boxes onto the plane orthogonal to the direction overlap, and B
+ * reaches further towards the direction than the side of A that faces the direction. The boxes are swept in
+ * descending order of how far they reach towards the direction. Before a box is processed, all boxes that reach
+ * further than it are inserted into a uniform grid over the projection plane, so the boxes that block it are exactly
+ * the inserted boxes whose projections overlap its projection, which are found in the cells its projection covers.
+ * <p>
+ * Sorting takes O(N log N) time. The cells are about as large as an average box, so each box covers a few cells and
+ * most candidates found in them are blockers, which results in close to O(E) time for the queries.
+ * <p>
+ * The overlaps are tested with the same contact tolerance as by the {@linkplain Frustum}, so the blockers are the same
+ * as the ones found by culling the frustum of the direction, as long as no box is thinner than the tolerance.
+ *
+ * @param <T> the type of the boxes
+ */
+class SweepLineBlockers<T extends AABB> {
+
+    /**
+     * the boxes, indexed by their id
+     */
+    private final List<T> boxes;
+    private final double contactTolerance;
+
+    /**
+     * @param boxes            the boxes, indexed by their id
+     * @param contactTolerance the tolerance up to which boxes only touch each other, negative if touching boxes block
+     *                         each other
+     */
+    SweepLineBlockers(List<T> boxes, double contactTolerance) {
+        this.boxes = boxes;
+        this.contactTolerance = contactTolerance;
+    }
+
+    /**
+     * Find the blockers of all boxes for the operating direction
+     *
+     * @param opDir the direction from where the boxes are removed
+     * @return the ids of the blockers of each box in ascending order, indexed by the id of the box
+     */
+    int[][] findBlockers(OperatingDirection opDir) {
+        int n = boxes.size();
+        int axis = opDir.getAxis();
+        int u = (axis + 1) % 3;
+        int v = (axis + 2) % 3;
+
+        // how far each box reaches towards the direction
+        double[] reach = new double[n];
+        Integer[] order = new Integer[n];
+        for (int id = 0; id < n; id++) {
+            T box = boxes.get(id);
+            reach[id] = opDir.getSign() > 0 ? box.max(axis) : -box.min(axis);
+            order[id] = id;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer id) -> reach[id]).reversed());
+
+        Grid grid = new Grid(u, v);
+        int[][] rows = new int[n][];
+        // the id of the box the candidate was last found for, so candidates in several cells are only tested once
+        int[] lastFoundFor = new int[n];
+        Arrays.fill(lastFoundFor, -1);
+        int[] found = new int[16];
+
+        int inserted = 0;
+        for (Integer id : order) {
+            T box = boxes.get(id);
+            while (inserted < n && isBeyond(reach[order[inserted]] - reach[id])) {
+                grid.insert(order[inserted]);
+                inserted++;
+            }
+
+            int count = 0;
+            for (int cu = grid.cellOf(u, box.min(u)); cu <= grid.cellOf(u, box.max(u)); cu++) {
+                for (int cv = grid.cellOf(v, box.min(v)); cv <= grid.cellOf(v, box.max(v)); cv++) {
+                    int cell = grid.index(cu, cv);
+                    for (int i = 0; i < grid.sizes[cell]; i++) {
+                        int candidate = grid.cells[cell][i];
+                        if (candidate == id || lastFoundFor[candidate] == id) {
+                            continue;
+                        }
+                        lastFoundFor[candidate] = id;
+                        if (overlaps(box, boxes.get(candidate), u) && overlaps(box, boxes.get(candidate), v)) {
+                            if (count == found.length) {
+                                found = Arrays.copyOf(found, 2 * count);
+                            }
+                            found[count++] = candidate;
+                        }
+                    }
+                }
+            }
+            rows[id] = Arrays.copyOf(found, count);
+            Arrays.sort(rows[id]);
+        }
+        return rows;
+    }
+
+    /**
+     * Check if a box reaches past a plane of the frustum by more than the contact tolerance, see
+     * {@linkplain Frustum#calcVisibility(AABB)}
+     *
+     * @param distance how far the box reaches past the plane
+     * @return true if the box is beyond the plane
+     */
+    private boolean isBeyond(double distance) {
+        return distance >= 0 && distance > contactTolerance;
+    }
+
+    /**
+     * Check if the blocker lies within the side planes of the frustum of the box along the axis
+     */
+    private boolean overlaps(AABB box, AABB blocker, int axis) {
+        return isBeyond(blocker.max(axis) - box.min(axis)) && isBeyond(box.max(axis) - blocker.min(axis));
+    }
+
+    /**
+     * A uniform grid over the projections of all boxes onto the plane of two axes. Each cell lists the ids of the
+     * inserted boxes whose projections cover it. A box whose side lies on the border of two cells is in both cells, so
+     * touching boxes always share a cell.
+     */
+    private class Grid {
+        private final int u;
+        private final int v;
+        private final double[] origins = new double[3];
+        private final double[] cellSizes = new double[3];
+        private final int[] cellCounts = new int[3];
+        private final int[][] cells;
+        private final int[] sizes;
+
+        Grid(int u, int v) {
+            this.u = u;
+            this.v = v;
+            // at most about 4 cells per box, so an uneven distribution of the boxes does not waste memory
+            int maxCellsPerAxis = 2 * (int) Math.ceil(Math.sqrt(boxes.size())) + 1;
+            for (int axis : new int[]{u, v}) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                double extents = 0;
+                for (T box : boxes) {
+                    min = Math.min(min, box.min(axis));
+                    max = Math.max(max, box.max(axis));
+                    extents += box.max(axis) - box.min(axis);
+                }
+                double averageExtent = boxes.isEmpty() ? 1 : extents / boxes.size();
+                int count = averageExtent > 0 && max > min
+                        ? (int) Math.min(maxCellsPerAxis, Math.ceil((max - min) / averageExtent))
+                        : 1;
+                origins[axis] = boxes.isEmpty() ? 0 : min;
+                cellCounts[axis] = Math.max(1, count);
+                cellSizes[axis] = max > min ? (max - min) / cellCounts[axis] : 1;
+            }
+            this.cells = new int[cellCounts[u] * cellCounts[v]][];
+            this.sizes = new int[cells.length];
+        }
+
+        int cellOf(int axis, double coordinate) {
+            int cell = (int) Math.floor((coordinate - origins[axis]) / cellSizes[axis]);
+            return Math.max(0, Math.min(cellCounts[axis] - 1, cell));
+        }
+
+        int index(int cu, int cv) {
+            return cu * cellCounts[v] + cv;
+        }
+
+        void insert(int id) {
+            T box = boxes.get(id);
+            for (int cu = cellOf(u, box.min(u)); cu <= cellOf(u, box.max(u)); cu++) {
+                for (int cv = cellOf(v, box.min(v)); cv <= cellOf(v, box.max(v)); cv++) {
+                    int cell = index(cu, cv);
+                    if (cells[cell] == null) {
+                        cells[cell] = new int[4];
+                    } else if (sizes[cell] == cells[cell].length) {
+                        cells[cell] = Arrays.copyOf(cells[cell], 2 * sizes[cell]);
+                    }
+                    cells[cell][sizes[cell]++] = id;
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package org.example.SequenceFinder.Model.GeometricObjects;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Plane;
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.example.SequenceFinder.OperatingDirection;
 
 import java.math.BigDecimal;
@@ -31,16 +30,30 @@ public class AABB {
     }
 
 
-    Point vertexA;
-    Point vertexB;
+    final Point vertexA;
+    final Point vertexB;
     /**
      * rounding to 5 decimals should be sufficient for most cases
      */
-    int decimalPlaces = 5;
+    final int decimalPlaces = 5;
+
+    /**
+     * the hash code is cached, as AABBs are immutable and used as keys in the octree, the graph and the calculators
+     */
+    private final int hash;
+
+    /**
+     * true if all coordinates of the box are whole numbers, e.g. whole millimetres. Such boxes are handled in the
+     * fixed-point mode: all their coordinates are exact {@code long} values, so no rounding is necessary and
+     * touching or overlapping sides can be decided exactly.
+     */
+    private final boolean fixedPoint;
 
     public AABB(Point vertA, Point vertB) {
         this.vertexA = vertA;
         this.vertexB = vertB;
+        this.hash = 31 * vertA.hashCode() + vertB.hashCode();
+        this.fixedPoint = vertA.isFixedPoint() && vertB.isFixedPoint();
 
         if (vertA.x >= vertB.x ||
                 vertA.y >= vertB.y ||
@@ -58,6 +71,13 @@ public class AABB {
      * @return the center of the box rounded to 5 decimals
      */
     public Point calcCenter() {
+        if (fixedPoint) {
+            // the center of a fixed-point box lies on the half-integer grid, which is represented exactly
+            return new Point(
+                    (vertexA.x + vertexB.x) / 2,
+                    (vertexA.y + vertexB.y) / 2,
+                    (vertexA.z + vertexB.z) / 2);
+        }
         double x = round((vertexA.x + vertexB.x) / 2, decimalPlaces);
         double y = round((vertexA.y + vertexB.y) / 2, decimalPlaces);
         double z = round((vertexA.z + vertexB.z) / 2, decimalPlaces);
@@ -72,6 +92,10 @@ public class AABB {
      * @return the radius of the box rounded to 5 decimals
      */
     public double calcRadius() {
+        if (fixedPoint) {
+            // exact, as half of a whole number is represented exactly
+            return calcFixedPointExtent() / 2.0;
+        }
         Point center = calcCenter();
 
         // doesn't matter whether to use vertexA oder vertexB, as the center point has equal distance
@@ -89,37 +113,206 @@ public class AABB {
     }
 
     /**
-     * Get the corner vertices of the box
+     * Get the minimum coordinate of the box along the given axis, without allocating any objects.
+     *
+     * @param axis the axis: 0 = x, 1 = y, 2 = z
+     * @return the minimum coordinate along the axis
+     */
+    public double min(int axis) {
+        switch (axis) {
+            case 0:
+                return vertexA.x;
+            case 1:
+                return vertexA.y;
+            case 2:
+                return vertexA.z;
+            default:
+                throw new IllegalArgumentException("The axis must be 0 (x), 1 (y) or 2 (z)! Axis: " + axis);
+        }
+    }
+
+    /**
+     * Get the maximum coordinate of the box along the given axis, without allocating any objects.
+     *
+     * @param axis the axis: 0 = x, 1 = y, 2 = z
+     * @return the maximum coordinate along the axis
+     */
+    public double max(int axis) {
+        switch (axis) {
+            case 0:
+                return vertexB.x;
+            case 1:
+                return vertexB.y;
+            case 2:
+                return vertexB.z;
+            default:
+                throw new IllegalArgumentException("The axis must be 0 (x), 1 (y) or 2 (z)! Axis: " + axis);
+        }
+    }
+
+    /**
+     * Check if the box is in the fixed-point mode, i.e. all of its coordinates are whole numbers (for example whole
+     * millimetres) and can be used as exact {@code long} values.
+     *
+     * @return true if all coordinates of the box are whole numbers
+     * @see #fixedMin(int)
+     * @see #fixedMax(int)
+     */
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    /**
+     * Get the minimum coordinate of the box along the given axis as an exact fixed-point value.
+     *
+     * @param axis the axis: 0 = x, 1 = y, 2 = z
+     * @return the minimum coordinate along the axis
+     * @throws IllegalStateException if the box is not in the fixed-point mode
+     */
+    public long fixedMin(int axis) {
+        checkFixedPoint();
+        return (long) min(axis);
+    }
+
+    /**
+     * Get the maximum coordinate of the box along the given axis as an exact fixed-point value.
+     *
+     * @param axis the axis: 0 = x, 1 = y, 2 = z
+     * @return the maximum coordinate along the axis
+     * @throws IllegalStateException if the box is not in the fixed-point mode
+     */
+    public long fixedMax(int axis) {
+        checkFixedPoint();
+        return (long) max(axis);
+    }
+
+    /**
+     * Get the largest edge length of the box as an exact fixed-point value, i.e. twice the {@linkplain #calcRadius()}.
+     *
+     * @return the largest edge length of the box
+     * @throws IllegalStateException if the box is not in the fixed-point mode
+     */
+    public long calcFixedPointExtent() {
+        return Math.max(
+                Math.max(
+                        fixedMax(0) - fixedMin(0),
+                        fixedMax(1) - fixedMin(1)
+                ),
+                fixedMax(2) - fixedMin(2)
+        );
+    }
+
+    /**
+     * Get the x coordinate of the given corner vertex, without allocating any objects.
+     *
+     * @param vertex the corner vertex
+     * @return the x coordinate of the vertex
+     */
+    public double vertexX(BoxVertex vertex) {
+        switch (vertex) {
+            case FRONT_BOTTOM_LEFT:
+            case FRONT_TOP_LEFT:
+            case BACK_BOTTOM_LEFT:
+            case BACK_TOP_LEFT:
+                return vertexA.x;
+            default:
+                return vertexB.x;
+        }
+    }
+
+    /**
+     * Get the y coordinate of the given corner vertex, without allocating any objects.
+     *
+     * @param vertex the corner vertex
+     * @return the y coordinate of the vertex
+     */
+    public double vertexY(BoxVertex vertex) {
+        switch (vertex) {
+            case FRONT_BOTTOM_LEFT:
+            case FRONT_BOTTOM_RIGHT:
+            case FRONT_TOP_LEFT:
+            case FRONT_TOP_RIGHT:
+                return vertexA.y;
+            default:
+                return vertexB.y;
+        }
+    }
+
+    /**
+     * Get the z coordinate of the given corner vertex, without allocating any objects.
+     *
+     * @param vertex the corner vertex
+     * @return the z coordinate of the vertex
+     */
+    public double vertexZ(BoxVertex vertex) {
+        switch (vertex) {
+            case FRONT_BOTTOM_LEFT:
+            case FRONT_BOTTOM_RIGHT:
+            case BACK_BOTTOM_LEFT:
+            case BACK_BOTTOM_RIGHT:
+                return vertexA.z;
+            default:
+                return vertexB.z;
+        }
+    }
+
+    /**
+     * Get the coordinate of the side of the box which is facing towards the given operating direction, along the
+     * direction's axis ({@linkplain OperatingDirection#getAxis()}), without allocating any objects.
+     *
+     * @param opDir the operating direction
+     * @return the coordinate of the side facing towards the operating direction
+     */
+    public double sideOffset(OperatingDirection opDir) {
+        if (opDir.getSign() > 0) {
+            return max(opDir.getAxis());
+        } else {
+            return min(opDir.getAxis());
+        }
+    }
+
+    /**
+     * Get the corner vertices of the box. <br>
+     * Convenience method, use {@linkplain #vertexX(BoxVertex)}, {@linkplain #vertexY(BoxVertex)} and
+     * {@linkplain #vertexZ(BoxVertex)} on hot paths, as they do not allocate any objects.
      *
      * @return the corner vertices of this box
      */
     public HashMap<BoxVertex, Point> getVertices() {
-        Point frontLowerLeft = vertexA;
-        Point frontLowerRight = new Point(vertexB.x, vertexA.y, vertexA.z);
-        Point frontUpperLeft = new Point(vertexA.x, vertexA.y, vertexB.z);
-        Point frontUpperRight = new Point(vertexB.x, vertexA.y, vertexB.z);
-        Point backLowerLeft = new Point(vertexA.x, vertexB.y, vertexA.z);
-        Point backLowerRight = new Point(vertexB.x, vertexB.y, vertexA.z);
-        Point backUpperLeft = new Point(vertexA.x, vertexB.y, vertexB.z);
-        Point backUpperRight = vertexB;
-
         HashMap<BoxVertex, Point> vertices = new HashMap<>();
-        vertices.put(FRONT_BOTTOM_LEFT, frontLowerLeft);
-        vertices.put(FRONT_BOTTOM_RIGHT, frontLowerRight);
-        vertices.put(FRONT_TOP_LEFT, frontUpperLeft);
-        vertices.put(FRONT_TOP_RIGHT, frontUpperRight);
-        vertices.put(BACK_BOTTOM_LEFT, backLowerLeft);
-        vertices.put(BACK_BOTTOM_RIGHT, backLowerRight);
-        vertices.put(BACK_TOP_LEFT, backUpperLeft);
-        vertices.put(BACK_TOP_RIGHT, backUpperRight);
-
+        for (BoxVertex vertex : BoxVertex.values()) {
+            if (vertex == FRONT_BOTTOM_LEFT) {
+                vertices.put(vertex, vertexA);
+            } else if (vertex == BACK_TOP_RIGHT) {
+                vertices.put(vertex, vertexB);
+            } else {
+                vertices.put(vertex, new Point(vertexX(vertex), vertexY(vertex), vertexZ(vertex)));
+            }
+        }
         return vertices;
     }
 
+    /**
+     * Get the side of the box which is facing towards the given operating direction as an {@linkplain AxisPlane}.
+     *
+     * @param opDir              the operating direction
+     * @param normalPointsInside if true, the normal vector of the plane will point towards the inside of the box,
+     *                           therefore in the opposite direction of the given operating direction. If false, the
+     *                           vector will point to the operating direction and therefore outside the box.
+     * @return the side facing towards the given operating direction
+     * @see #getSide(OperatingDirection, boolean)
+     */
+    public AxisPlane getAxisPlane(OperatingDirection opDir, boolean normalPointsInside) {
+        int sign = normalPointsInside ? -opDir.getSign() : opDir.getSign();
+        return new AxisPlane(opDir.getAxis(), sideOffset(opDir), sign);
+    }
+
     /**
      * Get the plane of the box which is facing towards the given operating direction. The normal vector of this face
      * points either towards the operating direction and therefore outside the box, or away from the operating direction
-     * and inside the box.
+     * and inside the box. <br>
+     * Convenience method, use {@linkplain #getAxisPlane(OperatingDirection, boolean)} or
+     * {@linkplain #sideOffset(OperatingDirection)} when no general {@linkplain Plane} is needed.
      *
      * @param opDir              the operating direction
      * @param normalPointsInside if true, the normal vector of the plane will point towards the inside of the box,
@@ -132,32 +325,8 @@ public class AABB {
         // tolerance below which points on the plane are considered identical
         double tolerance = 1e-10;
 
-        HashMap<BoxVertex, Point> vertices = getVertices();
-        Plane plane;
-
         // normals are pointing towards the corresponding operating direction
-        switch (opDir) {
-            case FRONT:
-                plane = new Plane(vertices.get(FRONT_TOP_RIGHT).toVector3D(), new Vector3D(0, -1, 0), tolerance);
-                break;
-            case BACK:
-                plane = new Plane(vertices.get(BACK_TOP_RIGHT).toVector3D(), new Vector3D(0, 1, 0), tolerance);
-                break;
-            case LEFT:
-                plane = new Plane(vertices.get(BACK_TOP_LEFT).toVector3D(), new Vector3D(-1, 0, 0), tolerance);
-                break;
-            case RIGHT:
-                plane = new Plane(vertices.get(FRONT_BOTTOM_RIGHT).toVector3D(), new Vector3D(1, 0, 0), tolerance);
-                break;
-            case TOP:
-                plane = new Plane(vertices.get(FRONT_TOP_LEFT).toVector3D(), new Vector3D(0, 0, 1), tolerance);
-                break;
-            case BOTTOM:
-                plane = new Plane(vertices.get(FRONT_BOTTOM_LEFT).toVector3D(), new Vector3D(0, 0, -1), tolerance);
-                break;
-            default:
-                throw new RuntimeException("Unknown operating direction: " + opDir);
-        }
+        Plane plane = getAxisPlane(opDir, false).toPlane(tolerance);
 
         if (normalPointsInside) {
             plane.revertSelf();
@@ -183,6 +352,26 @@ public class AABB {
         }
     }
 
+    /**
+     * Consistent with {@linkplain #equals(Object)}, two boxes with the same vertices have the same hash code.
+     *
+     * @return the cached hash code of this AABB
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Throw an exception if the box is not in the fixed-point mode
+     */
+    private void checkFixedPoint() {
+        if (!fixedPoint) {
+            throw new IllegalStateException("The box does not have whole number coordinates and can not be used as " +
+                    "fixed-point values: " + this);
+        }
+    }
+
     /**
      * Round values to prevent float point precision errors. <br> Example: (-2.3 + 1.0) = -0.65 but the calculated
      * result is -0.6499999999999999 <br>
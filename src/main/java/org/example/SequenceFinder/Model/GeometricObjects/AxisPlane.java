@@ -0,0 +1,146 @@
+package org.example.SequenceFinder.Model.GeometricObjects;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Plane;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+/**
+ * A plane that is orthogonal to one of the coordinate axes, e.g. the side of an {@linkplain AABB}. <br>
+ * <br>
+ * It is described by the axis it is orthogonal to, its offset along that axis and the sign of its normal. Unlike a
+ * general {@linkplain Plane}, the signed distance of a point only needs a single subtraction.
+ */
+public class AxisPlane {
+
+    /**
+     * the axis the plane is orthogonal to: 0 = x, 1 = y, 2 = z
+     */
+    private final int axis;
+
+    /**
+     * the coordinate of the plane along its axis
+     */
+    private final double offset;
+
+    /**
+     * +1 if the normal points towards the positive axis, -1 otherwise
+     */
+    private final int sign;
+
+    /**
+     * A plane that is orthogonal to one of the coordinate axes.
+     *
+     * @param axis   the axis the plane is orthogonal to: 0 = x, 1 = y, 2 = z
+     * @param offset the coordinate of the plane along its axis
+     * @param sign   +1 if the normal points towards the positive axis, -1 otherwise
+     */
+    public AxisPlane(int axis, double offset, int sign) {
+        if (axis < 0 || axis > 2) {
+            throw new IllegalArgumentException("The axis must be 0 (x), 1 (y) or 2 (z)! Axis: " + axis);
+        }
+        if (sign != 1 && sign != -1) {
+            throw new IllegalArgumentException("The sign must be +1 or -1! Sign: " + sign);
+        }
+        this.axis = axis;
+        this.offset = offset;
+        this.sign = sign;
+    }
+
+    /**
+     * Calculate the signed distance of the given coordinate (along this plane's axis) to the plane. <br>
+     * The distance is positive if the coordinate lies on the side the normal points to.
+     *
+     * @param coordinate the coordinate along this plane's axis
+     * @return the signed distance to the plane
+     */
+    public double signedDistance(double coordinate) {
+        if (sign > 0) {
+            return coordinate - offset;
+        } else {
+            return offset - coordinate;
+        }
+    }
+
+    /**
+     * Calculate the signed distance of the given point to the plane. <br>
+     * The distance is positive if the point lies on the side the normal points to.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param z the z coordinate of the point
+     * @return the signed distance to the plane
+     */
+    public double signedDistance(double x, double y, double z) {
+        switch (axis) {
+            case 0:
+                return signedDistance(x);
+            case 1:
+                return signedDistance(y);
+            default:
+                return signedDistance(z);
+        }
+    }
+
+    /**
+     * Get the same plane with the normal pointing to the opposite direction
+     *
+     * @return the reverted plane
+     */
+    public AxisPlane revert() {
+        return new AxisPlane(axis, offset, -sign);
+    }
+
+    /**
+     * Convert this plane to a general {@linkplain Plane}
+     *
+     * @param tolerance tolerance below which points on the plane are considered identical
+     * @return the plane as a {@linkplain Plane}
+     */
+    public Plane toPlane(double tolerance) {
+        double[] point = new double[3];
+        double[] normal = new double[3];
+        point[axis] = offset;
+        normal[axis] = sign;
+        return new Plane(new Vector3D(point), new Vector3D(normal), tolerance);
+    }
+
+    public int getAxis() {
+        return axis;
+    }
+
+    public double getOffset() {
+        return offset;
+    }
+
+    public int getSign() {
+        return sign;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof AxisPlane) {
+            AxisPlane other = (AxisPlane) o;
+            return this.axis == other.axis &&
+                    this.offset == other.offset &&
+                    this.sign == other.sign;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = axis;
+        result = 31 * result + Double.hashCode(offset + 0.0);
+        result = 31 * result + sign;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "AxisPlane{" +
+                "axis=" + axis + ", " +
+                "offset=" + offset + ", " +
+                "sign=" + sign +
+                '}';
+    }
+}
@@ -7,14 +7,26 @@ import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
  */
 public class Point {
 
-    public double x;
-    public double y;
-    public double z;
+    /**
+     * The largest absolute value up to which every whole number can be represented exactly by a double (2^53). Points
+     * whose coordinates are whole numbers within this range can be used as fixed-point values.
+     */
+    public static final double MAX_FIXED_POINT_VALUE = 9007199254740992.0;
+
+    public final double x;
+    public final double y;
+    public final double z;
+
+    /**
+     * the hash code is cached, as Points are immutable and frequently used as (part of) hash keys
+     */
+    private final int hash;
 
     public Point(double x, double y, double z) {
         this.x = x;
         this.y = y;
         this.z = z;
+        this.hash = calcHashCode(x, y, z);
     }
 
     /**
@@ -39,6 +51,37 @@ public class Point {
         }
     }
 
+    /**
+     * Check if all coordinates of this point are whole numbers that can be represented exactly as {@code long}
+     * fixed-point values, i.e. whether the point lies on the integer grid (for example whole millimetres).
+     *
+     * @return true if all coordinates are exact whole numbers
+     */
+    public boolean isFixedPoint() {
+        return isFixedPoint(x) && isFixedPoint(y) && isFixedPoint(z);
+    }
+
+    /**
+     * Check if the value is a whole number that can be represented exactly as {@code long} fixed-point value.
+     *
+     * @param value the value
+     * @return true if the value is an exact whole number
+     */
+    public static boolean isFixedPoint(double value) {
+        return Math.abs(value) <= MAX_FIXED_POINT_VALUE && Math.rint(value) == value;
+    }
+
+    /**
+     * Consistent with {@linkplain #equals(Object)}: coordinates are compared with {@code ==}, therefore 0.0 and -0.0
+     * must have the same hash code.
+     *
+     * @return the cached hash code of this Point
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
     @Override
     public String toString() {
         return "(" + x + ", " + y + ", " + z + ")";
@@ -53,4 +96,20 @@ public class Point {
     public Point add(Point otherPoint) {
         return new Point(this.x + otherPoint.x, this.y + otherPoint.y, this.z + otherPoint.z);
     }
+
+    /**
+     * Calculate the hash code of the given coordinates. Adding 0.0 maps -0.0 to 0.0, which are equal according to
+     * {@code ==} but have different bit patterns.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the hash code
+     */
+    private static int calcHashCode(double x, double y, double z) {
+        int result = Double.hashCode(x + 0.0);
+        result = 31 * result + Double.hashCode(y + 0.0);
+        result = 31 * result + Double.hashCode(z + 0.0);
+        return result;
+    }
 }
@@ -0,0 +1,192 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A state of the search for a removal sequence: the set of removed nodes of a {@linkplain CompactGraph}, stored as a
+ * bitset of {@code long} words.
+ * <p>
+ * Together with the {@linkplain PredecessorMasks} of the graph, removing a node, undoing it and checking which nodes
+ * are removable are word-parallel bit operations. A state only holds one bit per node, so copying, hashing and
+ * comparing states, e.g. to detect states that were already explored, is cheap.
+ */
+public class BitsetSearchState {
+
+    /**
+     * the predecessor masks of the graph
+     */
+    private final PredecessorMasks masks;
+
+    /**
+     * the removed nodes, bit i of word i / 64 is set if node i is removed
+     */
+    private final long[] removed;
+
+    /**
+     * the number of removed nodes
+     */
+    private int removedCount;
+
+    BitsetSearchState(PredecessorMasks masks) {
+        this.masks = masks;
+        this.removed = new long[masks.words()];
+        this.removedCount = 0;
+    }
+
+    private BitsetSearchState(BitsetSearchState other) {
+        this.masks = other.masks;
+        this.removed = other.removed.clone();
+        this.removedCount = other.removedCount;
+    }
+
+    /**
+     * Remove a node. The node must be removable.
+     *
+     * @param id the id of the node
+     */
+    public void apply(int id) {
+        if (isRemoved(id)) {
+            throw new IllegalGraphStateException("Node: " + id + " has already been removed");
+        }
+        if (!masks.isRemovable(id, removed)) {
+            throw new IllegalGraphStateException("Node: " + id + " has incoming edges and cannot be removed");
+        }
+        removed[id >>> 6] |= 1L << id;
+        removedCount++;
+    }
+
+    /**
+     * Undo the removal of a node.
+     * <p>
+     * The state is only valid if removals are undone in the reverse order they were applied, as nodes that were
+     * removed after this node may depend on it.
+     *
+     * @param id the id of the node
+     */
+    public void undo(int id) {
+        if (!isRemoved(id)) {
+            throw new IllegalGraphStateException("Node: " + id + " has not been removed");
+        }
+        removed[id >>> 6] &= ~(1L << id);
+        removedCount--;
+    }
+
+    /**
+     * Check if a node has been removed
+     *
+     * @param id the id of the node
+     * @return true if the node has been removed
+     */
+    public boolean isRemoved(int id) {
+        if (id < 0 || id >= masks.size()) {
+            throw new IllegalGraphStateException("Node: " + id + " does not exist in the graph");
+        }
+        return (removed[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Check if a node can be removed next, i.e. it is not removed yet and all of its predecessors for at least one
+     * direction are removed.
+     *
+     * @param id the id of the node
+     * @return true if the node is removable
+     */
+    public boolean isRemovable(int id) {
+        return !isRemoved(id) && masks.isRemovable(id, removed);
+    }
+
+    /**
+     * Calculate the removable frontier, i.e. all nodes that can be removed next.
+     *
+     * @return the removable nodes as bitset
+     */
+    public long[] removableFrontier() {
+        long[] frontier = new long[removed.length];
+        forEachRemovable(id -> frontier[id >>> 6] |= 1L << id);
+        return frontier;
+    }
+
+    /**
+     * Perform the given action for each node that can be removed next, in ascending order of the node ids.
+     *
+     * @param action the action
+     */
+    public void forEachRemovable(IntConsumer action) {
+        int size = masks.size();
+        for (int w = 0; w < removed.length; w++) {
+            // only the nodes that are not removed yet are candidates
+            long candidates = ~removed[w];
+            if (w == removed.length - 1 && (size & 63) != 0) {
+                candidates &= (1L << size) - 1;
+            }
+            while (candidates != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                if (masks.isRemovable(id, removed)) {
+                    action.accept(id);
+                }
+                candidates &= candidates - 1;
+            }
+        }
+    }
+
+    /**
+     * Check if all nodes have been removed
+     *
+     * @return true if all nodes have been removed
+     */
+    public boolean isComplete() {
+        return removedCount == masks.size();
+    }
+
+    /**
+     * Get the number of removed nodes
+     *
+     * @return the number of removed nodes
+     */
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Create an independent copy of this state
+     *
+     * @return the copy
+     */
+    public BitsetSearchState copy() {
+        return new BitsetSearchState(this);
+    }
+
+    /**
+     * Two states are equal, if they belong to the same graph and the same nodes are removed
+     *
+     * @param o the other object
+     * @return true if both states are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        } else if (o instanceof BitsetSearchState) {
+            BitsetSearchState other = (BitsetSearchState) o;
+            return this.masks == other.masks &&
+                    this.removedCount == other.removedCount &&
+                    Arrays.equals(this.removed, other.removed);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(removed);
+    }
+
+    @Override
+    public String toString() {
+        return "BitsetSearchState{" +
+                "#removed=" + removedCount + ", " +
+                "#nodes=" + masks.size() +
+                "}";
+    }
+}
@@ -0,0 +1,561 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.*;
+
+/**
+ * An immutable, compact representation of a {@linkplain Graph} in the compressed sparse row (CSR) format.
+ * <p>
+ * Each node is identified by a dense int id from 0 to {@linkplain #size()} - 1. For each
+ * {@linkplain OperatingDirection} the graph represents, the incoming and the outgoing edges are stored in two primitive
+ * arrays each: the targets of the edges of node i are stored in {@code targets[offsets[i]]} to
+ * {@code targets[offsets[i + 1] - 1]}, in ascending order.
+ * <p>
+ * Compared to a {@linkplain Graph}, which stores each edge as an object in two hash sets, a compact graph only needs
+ * two ints per edge and direction and can be traversed without walking hash sets. As the graph is immutable, it
+ * is meant to be read by search and analysis code, which keeps track of removed nodes itself.
+ *
+ * @param <T> the object that is saved in this graph
+ * @see Builder
+ */
+public class CompactGraph<T> {
+
+    /**
+     * the number of operating directions, used to index the per-direction arrays by ordinal
+     */
+    private static final int DIRECTIONS = OperatingDirection.values().length;
+
+    /**
+     * the objects represented by the nodes, indexed by the node id
+     */
+    private final Object[] contents;
+
+    /**
+     * maps each object to the id of the node representing it
+     */
+    private final Map<T, Integer> ids;
+
+    /**
+     * the operating directions this graph represents
+     */
+    private final Set<OperatingDirection> operatingDirections;
+
+    /**
+     * the offsets of the incoming edges, indexed by the ordinal of the operating direction. Null for directions this
+     * graph does not represent.
+     */
+    private final int[][] inOffsets;
+
+    /**
+     * the nodes where the incoming edges start, indexed by the ordinal of the operating direction
+     */
+    private final int[][] inSources;
+
+    /**
+     * the offsets of the outgoing edges, indexed by the ordinal of the operating direction
+     */
+    private final int[][] outOffsets;
+
+    /**
+     * the nodes where the outgoing edges end, indexed by the ordinal of the operating direction
+     */
+    private final int[][] outTargets;
+
+    private CompactGraph(Object[] contents, Map<T, Integer> ids, Set<OperatingDirection> operatingDirections,
+                         int[][] inOffsets, int[][] inSources, int[][] outOffsets, int[][] outTargets) {
+        this.contents = contents;
+        this.ids = ids;
+        this.operatingDirections = Collections.unmodifiableSet(operatingDirections);
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+    }
+
+    /**
+     * Create a compact graph from the given graph.
+     * <p>
+     * The ids of the nodes are assigned in the iteration order of the graph's nodes.
+     *
+     * @param graph the graph
+     * @param <T>   the type of object that the graph contains
+     * @return the compact graph, representing the same nodes and edges as the given graph
+     */
+    public static <T> CompactGraph<T> of(Graph<T> graph) {
+        Collection<GraphNode<T>> nodes = graph.getCopyOfNodes();
+        Builder<T> builder = new Builder<>(graph.getOperatingDirections(), nodes.size());
+
+        for (GraphNode<T> node : nodes) {
+            builder.addNode(node.getContent());
+        }
+        for (GraphNode<T> node : nodes) {
+            int from = builder.idOf(node.getContent());
+            for (GraphNode.DirectedGraphEdge<T> edge : node.getOutgoingEdges()) {
+                int to = builder.idOf(edge.getTo().getContent());
+                for (int bits = edge.getDirections(); bits != 0; bits &= bits - 1) {
+                    builder.addEdge(from, to, OperatingDirection.fromOrdinal(Integer.numberOfTrailingZeros(bits)));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create a compact graph from already compressed rows of outgoing edges. The incoming edges are derived from them.
+     *
+     * @param contents            the objects represented by the nodes, indexed by the node id. Must be unique.
+     * @param operatingDirections the operating directions the graph represents
+     * @param outOffsets          the offsets of the outgoing edges, indexed by the ordinal of the operating direction
+     * @param outTargets          the targets of the outgoing edges, sorted per node, indexed by the ordinal of the
+     *                            operating direction
+     * @param <T>                 the type of object that the graph contains
+     * @return the compact graph
+     */
+    static <T> CompactGraph<T> fromRows(List<T> contents, Set<OperatingDirection> operatingDirections,
+                                        int[][] outOffsets, int[][] outTargets) {
+        Map<T, Integer> ids = new HashMap<>(Graph.capacityFor(contents.size()));
+        for (int id = 0; id < contents.size(); id++) {
+            if (ids.put(contents.get(id), id) != null) {
+                throw new IllegalGraphStateException("The graph already contains a node for " + contents.get(id));
+            }
+        }
+        return withIncomingEdges(contents.toArray(), ids, EnumSet.copyOf(operatingDirections), outOffsets,
+                outTargets);
+    }
+
+    private static <T> CompactGraph<T> withIncomingEdges(Object[] contents, Map<T, Integer> ids,
+                                                         Set<OperatingDirection> operatingDirections,
+                                                         int[][] outOffsets, int[][] outTargets) {
+        int n = contents.length;
+        int[][] inOffsets = new int[DIRECTIONS][];
+        int[][] inSources = new int[DIRECTIONS][];
+        for (OperatingDirection opDir : operatingDirections) {
+            int d = opDir.ordinal();
+            inOffsets[d] = new int[n + 1];
+            inSources[d] = Builder.transpose(outOffsets[d], outTargets[d], n, inOffsets[d]);
+        }
+        return new CompactGraph<>(contents, ids, operatingDirections, inOffsets, inSources, outOffsets, outTargets);
+    }
+
+    /**
+     * Create a mutable {@linkplain Graph} with the same nodes and edges as this compact graph
+     *
+     * @return the graph
+     */
+    public Graph<T> toGraph() {
+        Graph<T> graph = new Graph<>(EnumSet.copyOf(operatingDirections), size());
+        List<GraphNode<T>> nodes = new ArrayList<>(size());
+        for (int id = 0; id < size(); id++) {
+            nodes.add(graph.addNode(getContent(id)));
+        }
+        for (OperatingDirection opDir : operatingDirections) {
+            int[] offsets = outOffsets(opDir);
+            int[] targets = outTargets(opDir);
+            for (int from = 0; from < size(); from++) {
+                for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                    nodes.get(from).addUniqueDirectedEdgeTo(nodes.get(targets[i]), opDir);
+                }
+            }
+        }
+        graph.updateRemovableNodes();
+        return graph;
+    }
+
+    /**
+     * Get the number of nodes
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return contents.length;
+    }
+
+    /**
+     * Get the object represented by the node with the given id
+     *
+     * @param id the id of the node
+     * @return the object represented by the node
+     */
+    @SuppressWarnings("unchecked")
+    public T getContent(int id) {
+        return (T) contents[id];
+    }
+
+    /**
+     * Get the id of the node that represents the given object
+     *
+     * @param content the object
+     * @return the id of the node, or -1 if no node represents the object
+     */
+    public int idOf(T content) {
+        Integer id = ids.get(content);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the graph's operating directions
+     *
+     * @return an unmodifiable set of the graph's operating directions
+     */
+    public Set<OperatingDirection> getOperatingDirections() {
+        return operatingDirections;
+    }
+
+    /**
+     * Get the number of edges for the given {@linkplain OperatingDirection}
+     *
+     * @param opDir the operating direction
+     * @return the number of edges
+     */
+    public int edgeCount(OperatingDirection opDir) {
+        return outTargets(opDir).length;
+    }
+
+    /**
+     * Get the number of incoming edges of a node for the given {@linkplain OperatingDirection}
+     *
+     * @param id    the id of the node
+     * @param opDir the operating direction
+     * @return the number of incoming edges
+     */
+    public int inDegree(int id, OperatingDirection opDir) {
+        int[] offsets = inOffsets(opDir);
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Get the number of outgoing edges of a node for the given {@linkplain OperatingDirection}
+     *
+     * @param id    the id of the node
+     * @param opDir the operating direction
+     * @return the number of outgoing edges
+     */
+    public int outDegree(int id, OperatingDirection opDir) {
+        int[] offsets = outOffsets(opDir);
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Get the offsets of the incoming edges for the given {@linkplain OperatingDirection}. The sources of the incoming
+     * edges of node i are stored in {@linkplain #inSources(OperatingDirection)} from {@code inOffsets[i]} (inclusive)
+     * to {@code inOffsets[i + 1]} (exclusive).
+     * <p>
+     * The array is returned without copying and must not be modified.
+     *
+     * @param opDir the operating direction
+     * @return the offsets of the incoming edges, of length {@linkplain #size()} + 1
+     */
+    public int[] inOffsets(OperatingDirection opDir) {
+        return checkDirection(inOffsets, opDir);
+    }
+
+    /**
+     * Get the nodes where the incoming edges for the given {@linkplain OperatingDirection} start, grouped by the node
+     * where they end and sorted in ascending order per node.
+     * <p>
+     * The array is returned without copying and must not be modified.
+     *
+     * @param opDir the operating direction
+     * @return the sources of the incoming edges
+     * @see #inOffsets(OperatingDirection)
+     */
+    public int[] inSources(OperatingDirection opDir) {
+        return checkDirection(inSources, opDir);
+    }
+
+    /**
+     * Get the offsets of the outgoing edges for the given {@linkplain OperatingDirection}. The targets of the outgoing
+     * edges of node i are stored in {@linkplain #outTargets(OperatingDirection)} from {@code outOffsets[i]}
+     * (inclusive) to {@code outOffsets[i + 1]} (exclusive).
+     * <p>
+     * The array is returned without copying and must not be modified.
+     *
+     * @param opDir the operating direction
+     * @return the offsets of the outgoing edges, of length {@linkplain #size()} + 1
+     */
+    public int[] outOffsets(OperatingDirection opDir) {
+        return checkDirection(outOffsets, opDir);
+    }
+
+    /**
+     * Get the nodes where the outgoing edges for the given {@linkplain OperatingDirection} end, grouped by the node
+     * where they start and sorted in ascending order per node.
+     * <p>
+     * The array is returned without copying and must not be modified.
+     *
+     * @param opDir the operating direction
+     * @return the targets of the outgoing edges
+     * @see #outOffsets(OperatingDirection)
+     */
+    public int[] outTargets(OperatingDirection opDir) {
+        return checkDirection(outTargets, opDir);
+    }
+
+    /**
+     * Check if there is an edge from one node to another for the given {@linkplain OperatingDirection}.
+     *
+     * @param from  the id of the node where the edge starts
+     * @param to    the id of the node where the edge ends
+     * @param opDir the operating direction
+     * @return true if the edge exists
+     */
+    public boolean hasEdge(int from, int to, OperatingDirection opDir) {
+        int[] offsets = outOffsets(opDir);
+        return Arrays.binarySearch(outTargets(opDir), offsets[from], offsets[from + 1], to) >= 0;
+    }
+
+    /**
+     * Check if a node is removable in the complete graph, i.e. it has no incoming edges for at least one of the
+     * graph's {@linkplain OperatingDirection}s.
+     *
+     * @param id the id of the node
+     * @return true if the node is removable
+     */
+    public boolean isRemovable(int id) {
+        for (OperatingDirection opDir : operatingDirections) {
+            if (inDegree(id, opDir) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] checkDirection(int[][] perDirection, OperatingDirection opDir) {
+        int[] array = perDirection[opDir.ordinal()];
+        if (array == null) {
+            throw new IllegalGraphStateException("The graph does not represent the operating direction " + opDir);
+        }
+        return array;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder edges = new StringBuilder();
+        for (OperatingDirection opDir : operatingDirections) {
+            edges.append(", #").append(opDir).append("Edges=").append(edgeCount(opDir));
+        }
+        return "CompactGraph{" +
+                "#nodes=" + size() +
+                edges +
+                "}";
+    }
+
+
+    //
+    //-----------------------------------------------------------------------------------------------------------------
+    //
+
+
+    /**
+     * Builder for a {@linkplain CompactGraph}.
+     * <p>
+     * Nodes receive their ids in the order they are added. Edges can be added in any order; they are sorted into the
+     * compressed rows when the graph is built. An edge that is added twice for the same direction is only stored once.
+     *
+     * @param <T> the object that will be saved in the graph
+     */
+    public static class Builder<T> {
+
+        private final Set<OperatingDirection> operatingDirections;
+        private final List<T> contents;
+        private final Map<T, Integer> ids;
+
+        /**
+         * the start and end nodes of the added edges, indexed by the ordinal of the operating direction
+         */
+        private final int[][] edgeSources = new int[DIRECTIONS][];
+        private final int[][] edgeTargets = new int[DIRECTIONS][];
+        private final int[] edgeCounts = new int[DIRECTIONS];
+
+        private boolean built = false;
+
+        /**
+         * Create a builder for a graph representing the given {@linkplain OperatingDirection}s.
+         *
+         * @param operatingDirections the operating directions the graph will represent
+         */
+        public Builder(Set<OperatingDirection> operatingDirections) {
+            this(operatingDirections, 0);
+        }
+
+        /**
+         * Create a builder for a graph representing the given {@linkplain OperatingDirection}s, that is pre-sized to
+         * hold the expected number of nodes.
+         *
+         * @param operatingDirections the operating directions the graph will represent
+         * @param expectedNodes       the number of nodes that will be added
+         */
+        public Builder(Set<OperatingDirection> operatingDirections, int expectedNodes) {
+            if (operatingDirections == null || operatingDirections.isEmpty()) {
+                throw new IllegalArgumentException("The graph needs at least one operating direction!");
+            }
+            if (expectedNodes < 0) {
+                throw new IllegalArgumentException("The expected number of nodes must not be negative!");
+            }
+            this.operatingDirections = EnumSet.copyOf(operatingDirections);
+            this.contents = new ArrayList<>(expectedNodes);
+            this.ids = new HashMap<>(Graph.capacityFor(expectedNodes));
+            for (OperatingDirection opDir : this.operatingDirections) {
+                edgeSources[opDir.ordinal()] = new int[Math.max(16, expectedNodes)];
+                edgeTargets[opDir.ordinal()] = new int[Math.max(16, expectedNodes)];
+            }
+        }
+
+        /**
+         * Add a node for the given object
+         *
+         * @param content the object that is represented by the node
+         * @return the id of the node
+         */
+        public int addNode(T content) {
+            checkNotBuilt();
+            if (ids.containsKey(content)) {
+                throw new IllegalGraphStateException("The graph already contains a node for " + content);
+            }
+            int id = contents.size();
+            contents.add(content);
+            ids.put(content, id);
+            return id;
+        }
+
+        /**
+         * Get the id of the node that represents the given object
+         *
+         * @param content the object
+         * @return the id of the node, or -1 if no node represents the object
+         */
+        public int idOf(T content) {
+            Integer id = ids.get(content);
+            return id == null ? -1 : id;
+        }
+
+        /**
+         * Add a directed edge for the given {@linkplain OperatingDirection}.
+         *
+         * @param from  the id of the node where the edge starts
+         * @param to    the id of the node where the edge ends
+         * @param opDir the operating direction
+         */
+        public void addEdge(int from, int to, OperatingDirection opDir) {
+            checkNotBuilt();
+            if (from < 0 || from >= contents.size()) {
+                throw new IllegalGraphStateException("Node: " + from + " does not exist in the graph");
+            } else if (to < 0 || to >= contents.size()) {
+                throw new IllegalGraphStateException("Node: " + to + " does not exist in the graph");
+            } else if (from == to) {
+                throw new IllegalGraphStateException("Node: " + from + " can not have an edge to itself");
+            } else if (!operatingDirections.contains(opDir)) {
+                throw new IllegalGraphStateException("The graph does not represent the given operating direction");
+            }
+
+            int d = opDir.ordinal();
+            if (edgeCounts[d] == edgeSources[d].length) {
+                edgeSources[d] = Arrays.copyOf(edgeSources[d], edgeCounts[d] * 2);
+                edgeTargets[d] = Arrays.copyOf(edgeTargets[d], edgeCounts[d] * 2);
+            }
+            edgeSources[d][edgeCounts[d]] = from;
+            edgeTargets[d][edgeCounts[d]] = to;
+            edgeCounts[d]++;
+        }
+
+        /**
+         * Build the compact graph. The builder can not be used afterwards.
+         *
+         * @return the compact graph
+         */
+        public CompactGraph<T> build() {
+            checkNotBuilt();
+            built = true;
+
+            int n = contents.size();
+            int[][] outOffsets = new int[DIRECTIONS][];
+            int[][] outTargets = new int[DIRECTIONS][];
+
+            for (OperatingDirection opDir : operatingDirections) {
+                int d = opDir.ordinal();
+                outOffsets[d] = new int[n + 1];
+                outTargets[d] = toRows(edgeSources[d], edgeTargets[d], edgeCounts[d], n, outOffsets[d]);
+                // free the edge list early, the rows contain the same edges
+                edgeSources[d] = null;
+                edgeTargets[d] = null;
+            }
+
+            return withIncomingEdges(contents.toArray(), ids, operatingDirections, outOffsets, outTargets);
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("The graph has already been built");
+            }
+        }
+
+        /**
+         * Sort the edges into rows by their start node (counting sort), sort each row and remove duplicate edges.
+         *
+         * @param sources the start nodes of the edges
+         * @param targets the end nodes of the edges
+         * @param count   the number of edges
+         * @param n       the number of nodes
+         * @param offsets the array of length n + 1 that receives the offsets of the rows
+         * @return the end nodes of the edges, grouped into rows
+         */
+        private static int[] toRows(int[] sources, int[] targets, int count, int n, int[] offsets) {
+            for (int i = 0; i < count; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] rows = new int[count];
+            int[] next = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < count; i++) {
+                rows[next[sources[i]]++] = targets[i];
+            }
+
+            // sort each row and compact it, skipping duplicates
+            int write = 0;
+            int rowStart = 0;
+            for (int node = 0; node < n; node++) {
+                int rowEnd = offsets[node + 1];
+                Arrays.sort(rows, rowStart, rowEnd);
+                offsets[node] = write;
+                for (int i = rowStart; i < rowEnd; i++) {
+                    if (i == rowStart || rows[i] != rows[i - 1]) {
+                        rows[write++] = rows[i];
+                    }
+                }
+                rowStart = rowEnd;
+            }
+            offsets[n] = write;
+            return write == count ? rows : Arrays.copyOf(rows, write);
+        }
+
+        /**
+         * Transpose the rows, i.e. turn outgoing edges into incoming edges. As the rows are traversed in ascending
+         * order of the start node, the transposed rows are sorted as well.
+         *
+         * @param offsets           the offsets of the rows
+         * @param rows              the rows
+         * @param n                 the number of nodes
+         * @param transposedOffsets the array of length n + 1 that receives the offsets of the transposed rows
+         * @return the transposed rows
+         */
+        static int[] transpose(int[] offsets, int[] rows, int n, int[] transposedOffsets) {
+            for (int target : rows) {
+                transposedOffsets[target + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                transposedOffsets[i + 1] += transposedOffsets[i];
+            }
+            int[] transposed = new int[rows.length];
+            int[] next = Arrays.copyOf(transposedOffsets, n);
+            for (int node = 0; node < n; node++) {
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    transposed[next[rows[i]]++] = node;
+                }
+            }
+            return transposed;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable graph whose adjacency lists are compressed, to keep a large stack of boxes in less memory than a
+ * {@linkplain CompactGraph} once it has been built.
+ * <p>
+ * The incoming and outgoing neighbours of each node are sorted and stored per {@linkplain OperatingDirection} as a
+ * sequence of variable-length integers (7 bits per byte, the highest bit marks that another byte follows):
+ * <ul>
+ *     <li>the first neighbour as the zigzag-encoded difference to the node itself, as neighbours are usually close to
+ *     the node when the ids follow the insertion order of the boxes</li>
+ *     <li>each following neighbour as the gap to the previous one, minus 1</li>
+ * </ul>
+ * Most edges take a single byte, plus 4 bytes per node and list for the start of its row. The rows can only be decoded
+ * sequentially, which is all a traversal needs: use a {@linkplain Cursor} to iterate over them without allocating.
+ * Random access, e.g. {@linkplain #hasEdge(int, int, OperatingDirection)}, takes O(degree).
+ * <p>
+ * The graph can only be created by compressing an existing {@linkplain CompactGraph}, whose node ids it keeps. The
+ * peak memory is therefore that of the compact graph plus the encoding; only afterwards can the compact graph be
+ * dropped. There is no serialized form, see {@linkplain GraphSerializer} for the compact graph. The search of the
+ * {@linkplain org.example.SequenceFinder.Control.SequenceFinder} does not use this graph.
+ *
+ * @param <T> the type of object that the graph contains
+ */
+public class CompressedGraph<T> {
+
+    private static final int DIRECTIONS = OperatingDirection.values().length;
+
+    /**
+     * the content of each node, indexed by the node id
+     */
+    private final Object[] contents;
+
+    /**
+     * the node id of each content
+     */
+    private final Map<T, Integer> ids;
+
+    private final Set<OperatingDirection> operatingDirections;
+
+    /**
+     * the encoded rows and the start of each row, per direction indexed by its ordinal, null for directions the graph
+     * does not represent
+     */
+    private final byte[][] inRows;
+    private final int[][] inStarts;
+    private final byte[][] outRows;
+    private final int[][] outStarts;
+
+    /**
+     * the number of edges per direction, indexed by its ordinal
+     */
+    private final int[] edgeCounts;
+
+    private CompressedGraph(Object[] contents, Map<T, Integer> ids, Set<OperatingDirection> operatingDirections,
+                            byte[][] inRows, int[][] inStarts, byte[][] outRows, int[][] outStarts,
+                            int[] edgeCounts) {
+        this.contents = contents;
+        this.ids = ids;
+        this.operatingDirections = operatingDirections;
+        this.inRows = inRows;
+        this.inStarts = inStarts;
+        this.outRows = outRows;
+        this.outStarts = outStarts;
+        this.edgeCounts = edgeCounts;
+    }
+
+    /**
+     * Compress the graph
+     *
+     * @param graph the graph
+     * @param <T>   the type of object that the graph contains
+     * @return the compressed graph, with the same node ids
+     */
+    public static <T> CompressedGraph<T> of(CompactGraph<T> graph) {
+        int n = graph.size();
+        Object[] contents = new Object[n];
+        Map<T, Integer> ids = new HashMap<>(Graph.capacityFor(n));
+        for (int id = 0; id < n; id++) {
+            contents[id] = graph.getContent(id);
+            ids.put(graph.getContent(id), id);
+        }
+
+        byte[][] inRows = new byte[DIRECTIONS][];
+        int[][] inStarts = new int[DIRECTIONS][];
+        byte[][] outRows = new byte[DIRECTIONS][];
+        int[][] outStarts = new int[DIRECTIONS][];
+        int[] edgeCounts = new int[DIRECTIONS];
+        for (OperatingDirection opDir : graph.getOperatingDirections()) {
+            int d = opDir.ordinal();
+            inStarts[d] = new int[n + 1];
+            inRows[d] = encode(graph.inOffsets(opDir), graph.inSources(opDir), inStarts[d]);
+            outStarts[d] = new int[n + 1];
+            outRows[d] = encode(graph.outOffsets(opDir), graph.outTargets(opDir), outStarts[d]);
+            edgeCounts[d] = graph.edgeCount(opDir);
+        }
+
+        return new CompressedGraph<>(contents, ids,
+                Collections.unmodifiableSet(EnumSet.copyOf(graph.getOperatingDirections())),
+                inRows, inStarts, outRows, outStarts, edgeCounts);
+    }
+
+    /**
+     * Encode the sorted rows of a compressed sparse row representation
+     *
+     * @param offsets    the start of each row in the neighbours, plus the end of the last row
+     * @param neighbours the sorted neighbours of all rows
+     * @param starts     is filled with the start of each encoded row, plus the end of the last row
+     * @return the encoded rows
+     */
+    private static byte[] encode(int[] offsets, int[] neighbours, int[] starts) {
+        ByteWriter writer = new ByteWriter(neighbours.length + 16);
+        int n = starts.length - 1;
+        for (int id = 0; id < n; id++) {
+            starts[id] = writer.size;
+            int previous = -1;
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                int neighbour = neighbours[i];
+                if (previous < 0) {
+                    int delta = neighbour - id;
+                    writer.writeVarInt((delta << 1) ^ (delta >> 31));
+                } else {
+                    writer.writeVarInt(neighbour - previous - 1);
+                }
+                previous = neighbour;
+            }
+        }
+        starts[n] = writer.size;
+        return writer.toArray();
+    }
+
+    /**
+     * Decompress the graph
+     *
+     * @return the graph as a {@linkplain CompactGraph}, with the same node ids
+     */
+    @SuppressWarnings("unchecked")
+    public CompactGraph<T> decompress() {
+        int n = size();
+        int[][] outOffsets = new int[DIRECTIONS][];
+        int[][] outTargets = new int[DIRECTIONS][];
+        Cursor cursor = new Cursor();
+        for (OperatingDirection opDir : operatingDirections) {
+            int d = opDir.ordinal();
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[edgeCounts[d]];
+            int e = 0;
+            for (int id = 0; id < n; id++) {
+                offsets[id] = e;
+                cursor.outgoing(id, opDir);
+                while (cursor.hasNext()) {
+                    targets[e++] = cursor.next();
+                }
+            }
+            offsets[n] = e;
+            outOffsets[d] = offsets;
+            outTargets[d] = targets;
+        }
+        List<T> contentList = new ArrayList<>(n);
+        for (Object content : contents) {
+            contentList.add((T) content);
+        }
+        return CompactGraph.fromRows(contentList, operatingDirections, outOffsets, outTargets);
+    }
+
+    public int size() {
+        return contents.length;
+    }
+
+    /**
+     * Get the content of the node
+     *
+     * @param id the node id
+     * @return the content of the node
+     */
+    @SuppressWarnings("unchecked")
+    public T getContent(int id) {
+        return (T) contents[id];
+    }
+
+    /**
+     * Get the id of the node that represents the content
+     *
+     * @param content the content
+     * @return the node id, or -1 if the content is not part of the graph
+     */
+    public int idOf(T content) {
+        Integer id = ids.get(content);
+        return id == null ? -1 : id;
+    }
+
+    public Set<OperatingDirection> getOperatingDirections() {
+        return operatingDirections;
+    }
+
+    /**
+     * Get the number of edges of the operating direction
+     *
+     * @param opDir the operating direction
+     * @return the number of edges
+     */
+    public int edgeCount(OperatingDirection opDir) {
+        checkDirection(opDir);
+        return edgeCounts[opDir.ordinal()];
+    }
+
+    /**
+     * Get the number of bytes used by the encoded rows and their starts, without the contents
+     *
+     * @return the number of bytes
+     */
+    public long byteSize() {
+        long bytes = 0;
+        for (OperatingDirection opDir : operatingDirections) {
+            int d = opDir.ordinal();
+            bytes += inRows[d].length + outRows[d].length + 4L * (inStarts[d].length + outStarts[d].length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Check if a node has no incoming edges for the operating direction. Takes O(1), as no row has to be decoded.
+     *
+     * @param id    the node id
+     * @param opDir the operating direction
+     * @return true if the node has no incoming edges
+     */
+    public boolean hasNoIncomingEdges(int id, OperatingDirection opDir) {
+        checkDirection(opDir);
+        int[] starts = inStarts[opDir.ordinal()];
+        return starts[id] == starts[id + 1];
+    }
+
+    /**
+     * Count the incoming edges of the node by decoding its row
+     *
+     * @param id    the node id
+     * @param opDir the operating direction
+     * @return the number of incoming edges
+     */
+    public int inDegree(int id, OperatingDirection opDir) {
+        return new Cursor().incoming(id, opDir).count();
+    }
+
+    /**
+     * Count the outgoing edges of the node by decoding its row
+     *
+     * @param id    the node id
+     * @param opDir the operating direction
+     * @return the number of outgoing edges
+     */
+    public int outDegree(int id, OperatingDirection opDir) {
+        return new Cursor().outgoing(id, opDir).count();
+    }
+
+    /**
+     * Check if there is an edge from one node to the other. The row is decoded until the target is passed.
+     *
+     * @param from  the id of the node where the edge starts
+     * @param to    the id of the node where the edge ends
+     * @param opDir the operating direction
+     * @return true if the edge exists
+     */
+    public boolean hasEdge(int from, int to, OperatingDirection opDir) {
+        Cursor cursor = new Cursor().outgoing(from, opDir);
+        while (cursor.hasNext()) {
+            int target = cursor.next();
+            if (target >= to) {
+                return target == to;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Call the action for each node with an edge from the node, in ascending order of their ids
+     *
+     * @param id     the node id
+     * @param opDir  the operating direction
+     * @param action the action
+     */
+    public void forEachOutgoing(int id, OperatingDirection opDir, IntConsumer action) {
+        Cursor cursor = new Cursor().outgoing(id, opDir);
+        while (cursor.hasNext()) {
+            action.accept(cursor.next());
+        }
+    }
+
+    /**
+     * Call the action for each node with an edge to the node, in ascending order of their ids
+     *
+     * @param id     the node id
+     * @param opDir  the operating direction
+     * @param action the action
+     */
+    public void forEachIncoming(int id, OperatingDirection opDir, IntConsumer action) {
+        Cursor cursor = new Cursor().incoming(id, opDir);
+        while (cursor.hasNext()) {
+            action.accept(cursor.next());
+        }
+    }
+
+    private void checkDirection(OperatingDirection opDir) {
+        if (!operatingDirections.contains(opDir)) {
+            throw new IllegalArgumentException("The graph does not represent the operating direction " + opDir);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedGraph{" +
+                "#nodes=" + size() + ", " +
+                "operatingDirections=" + operatingDirections + ", " +
+                "#bytes=" + byteSize() +
+                "}";
+    }
+
+    /**
+     * Decodes a row of the graph. A cursor can be reused for any number of rows, so a traversal only needs a single
+     * cursor per row it decodes at the same time.
+     */
+    public class Cursor {
+        private byte[] rows;
+        private int position;
+        private int end;
+        private int node;
+        private int previous;
+
+        /**
+         * Start decoding the outgoing edges of the node
+         *
+         * @param id    the node id
+         * @param opDir the operating direction
+         * @return this cursor
+         */
+        public Cursor outgoing(int id, OperatingDirection opDir) {
+            checkDirection(opDir);
+            return start(outRows[opDir.ordinal()], outStarts[opDir.ordinal()], id);
+        }
+
+        /**
+         * Start decoding the incoming edges of the node
+         *
+         * @param id    the node id
+         * @param opDir the operating direction
+         * @return this cursor
+         */
+        public Cursor incoming(int id, OperatingDirection opDir) {
+            checkDirection(opDir);
+            return start(inRows[opDir.ordinal()], inStarts[opDir.ordinal()], id);
+        }
+
+        private Cursor start(byte[] rows, int[] starts, int id) {
+            this.rows = rows;
+            this.position = starts[id];
+            this.end = starts[id + 1];
+            this.node = id;
+            this.previous = -1;
+            return this;
+        }
+
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        /**
+         * Decode the next neighbour of the row
+         *
+         * @return the id of the neighbour
+         * @throws NoSuchElementException if the row has no further neighbours
+         */
+        public int next() {
+            if (position >= end) {
+                throw new NoSuchElementException();
+            }
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = rows[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            if (previous < 0) {
+                // zigzag decoding of the difference to the node
+                previous = node + ((value >>> 1) ^ -(value & 1));
+            } else {
+                previous = previous + value + 1;
+            }
+            return previous;
+        }
+
+        /**
+         * Count the remaining neighbours of the row, the cursor is at the end of the row afterwards
+         *
+         * @return the number of remaining neighbours
+         */
+        public int count() {
+            // each value ends with a byte whose highest bit is not set
+            int count = 0;
+            for (; position < end; position++) {
+                if (rows[position] >= 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * A growing byte array for the encoding
+     */
+    private static class ByteWriter {
+        private byte[] bytes;
+        private int size = 0;
+
+        ByteWriter(int capacity) {
+            this.bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeVarInt(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, size + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.*;
+
+/**
+ * Detects nodes of a {@linkplain Graph} that can never be removed, because they are part of a cycle or blocked by one.
+ * <p>
+ * Such cycles are created when boxes overlap or the touching tolerance is too small, and mean that no removal sequence
+ * exists. Detecting them right after the graphs are created lets infeasible inputs fail immediately, instead of after
+ * a search has exhausted all sequences.
+ * <ul>
+ *     <li>The deadlocked nodes are found by removing all removable nodes until none is left (Kahn's algorithm,
+ *     generalized to multiple directions: a node is released once it has no incoming edges for any one
+ *     direction)</li>
+ *     <li>The cycles are the strongly connected components with more than one node, found with Tarjan's algorithm for
+ *     the edges of a single direction</li>
+ * </ul>
+ * Both take O(N + E) time.
+ */
+public class CycleDetector {
+
+    private CycleDetector() {
+    }
+
+    /**
+     * Find all nodes that can never be removed, no matter in which order the other nodes are removed.
+     * <p>
+     * As removing a node never blocks another one, removing every removable node until none is left removes all
+     * nodes that can be removed at all. The graph is not modified.
+     *
+     * @param graph the graph
+     * @param <T>   the type of object that the graph contains
+     * @return the nodes that can never be removed, empty if a removal sequence exists
+     */
+    public static <T> Set<GraphNode<T>> findDeadlockedNodes(Graph<T> graph) {
+        Collection<GraphNode<T>> nodes = graph.getCopyOfNodes();
+        OperatingDirection[] directions = graph.getOperatingDirections().toArray(new OperatingDirection[0]);
+
+        // the remaining incoming edges of each node per direction, indexed like the directions array
+        Map<GraphNode<T>, int[]> remaining = new HashMap<>(Graph.capacityFor(nodes.size()));
+        Deque<GraphNode<T>> released = new ArrayDeque<>();
+        for (GraphNode<T> node : nodes) {
+            int[] counts = new int[directions.length];
+            boolean removable = false;
+            for (int d = 0; d < directions.length; d++) {
+                counts[d] = node.getIncomingCount(directions[d]);
+                removable |= counts[d] == 0;
+            }
+            remaining.put(node, counts);
+            if (removable) {
+                released.add(node);
+            }
+        }
+
+        Set<GraphNode<T>> deadlocked = new HashSet<>(nodes);
+        while (!released.isEmpty()) {
+            GraphNode<T> node = released.poll();
+            deadlocked.remove(node);
+
+            for (GraphNode.DirectedGraphEdge<T> edge : node.getOutgoingEdges()) {
+                GraphNode<T> target = edge.getTo();
+                int[] counts = remaining.get(target);
+                // a node is released exactly once, when the first of its directions becomes free
+                boolean wasBlocked = !isFree(counts);
+                for (int d = 0; d < directions.length; d++) {
+                    if (edge.hasDirection(directions[d])) {
+                        counts[d]--;
+                    }
+                }
+                if (wasBlocked && isFree(counts)) {
+                    released.add(target);
+                }
+            }
+        }
+        return deadlocked;
+    }
+
+    private static boolean isFree(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find all cycles formed by the edges of the given {@linkplain OperatingDirection}, i.e. all strongly connected
+     * components with more than one node.
+     *
+     * @param graph the graph
+     * @param opDir the operating direction
+     * @param <T>   the type of object that the graph contains
+     * @return the cycles, each as the set of objects of the nodes that form it
+     */
+    public static <T> List<Set<T>> findCycles(Graph<T> graph, OperatingDirection opDir) {
+        if (!graph.getOperatingDirections().contains(opDir)) {
+            throw new IllegalGraphStateException("The graph does not represent the given operating direction");
+        }
+        List<GraphNode<T>> nodes = new ArrayList<>(graph.getCopyOfNodes());
+        Map<GraphNode<T>, Integer> ids = new HashMap<>(Graph.capacityFor(nodes.size()));
+        for (int i = 0; i < nodes.size(); i++) {
+            ids.put(nodes.get(i), i);
+        }
+
+        int n = nodes.size();
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+        Deque<Integer> componentStack = new ArrayDeque<>();
+        List<Set<T>> cycles = new ArrayList<>();
+        int nextIndex = 0;
+
+        // iterative Tarjan: each frame holds a node and the iterator over its successors, so deep graphs do not
+        // overflow the call stack
+        Deque<Integer> callStack = new ArrayDeque<>();
+        Deque<Iterator<GraphNode<T>>> successorStack = new ArrayDeque<>();
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = lowLink[root] = nextIndex++;
+            componentStack.push(root);
+            onStack[root] = true;
+            callStack.push(root);
+            successorStack.push(nodes.get(root).getCopyOfOutgoingNodes(opDir).iterator());
+
+            while (!callStack.isEmpty()) {
+                int node = callStack.peek();
+                Iterator<GraphNode<T>> successors = successorStack.peek();
+
+                if (successors.hasNext()) {
+                    int successor = ids.get(successors.next());
+                    if (index[successor] == -1) {
+                        index[successor] = lowLink[successor] = nextIndex++;
+                        componentStack.push(successor);
+                        onStack[successor] = true;
+                        callStack.push(successor);
+                        successorStack.push(nodes.get(successor).getCopyOfOutgoingNodes(opDir).iterator());
+                    } else if (onStack[successor]) {
+                        lowLink[node] = Math.min(lowLink[node], index[successor]);
+                    }
+                } else {
+                    callStack.pop();
+                    successorStack.pop();
+                    if (!callStack.isEmpty()) {
+                        int parent = callStack.peek();
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                    }
+
+                    // the node is the root of a strongly connected component
+                    if (lowLink[node] == index[node]) {
+                        Set<T> component = new LinkedHashSet<>();
+                        int member;
+                        do {
+                            member = componentStack.pop();
+                            onStack[member] = false;
+                            component.add(nodes.get(member).getContent());
+                        } while (member != node);
+                        if (component.size() > 1) {
+                            cycles.add(component);
+                        }
+                    }
+                }
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Validate that a removal sequence exists for at least one of the given graphs, and keep only the graphs without
+     * deadlocked nodes, i.e. the graphs that can be removed completely. The others may still contain cycles, and have
+     * to be dropped before searching the graphs or calculating their metrics, as no sequence exists for them.
+     * <p>
+     * The same graph is mapped to all directions if the directions can change, so each distinct graph is checked only
+     * once.
+     *
+     * @param graphs the graphs, e.g. as created by the
+     *               {@linkplain org.example.SequenceFinder.Control.RemovableCalculator}
+     * @param <T>    the type of object that the graphs contain
+     * @return a new map of the operating directions whose graph can be removed completely, never empty
+     * @throws IllegalGraphStateException if no graph can be removed completely. The message contains the cycles of
+     *                                    each graph.
+     */
+    public static <T> Map<OperatingDirection, Graph<T>> validate(Map<OperatingDirection, Graph<T>> graphs) {
+        Map<Graph<T>, Boolean> removable = new IdentityHashMap<>();
+        Map<OperatingDirection, Graph<T>> removableGraphs = new EnumMap<>(OperatingDirection.class);
+        StringBuilder diagnosis = new StringBuilder();
+
+        for (Map.Entry<OperatingDirection, Graph<T>> entry : graphs.entrySet()) {
+            Graph<T> graph = entry.getValue();
+            Boolean graphRemovable = removable.get(graph);
+            if (graphRemovable == null) {
+                Set<GraphNode<T>> deadlocked = findDeadlockedNodes(graph);
+                graphRemovable = deadlocked.isEmpty();
+                removable.put(graph, graphRemovable);
+                if (!graphRemovable) {
+                    appendDiagnosis(diagnosis, graph, deadlocked);
+                }
+            }
+            if (graphRemovable) {
+                removableGraphs.put(entry.getKey(), graph);
+            }
+        }
+
+        if (removableGraphs.isEmpty()) {
+            throw new IllegalGraphStateException("No removal sequence exists, the boxes block each other:" + diagnosis);
+        }
+        return removableGraphs;
+    }
+
+    /**
+     * Describe the deadlocked nodes and the cycles of each direction of the graph
+     */
+    private static <T> void appendDiagnosis(StringBuilder diagnosis, Graph<T> graph, Set<GraphNode<T>> deadlocked) {
+        diagnosis.append("\n")
+                .append(deadlocked.size())
+                .append(" box(es) can never be removed from ")
+                .append(graph.getOperatingDirections());
+        for (OperatingDirection opDir : graph.getOperatingDirections()) {
+            for (Set<T> cycle : findCycles(graph, opDir)) {
+                diagnosis.append("\n  cycle for ").append(opDir).append(": ").append(cycle);
+            }
+        }
+    }
+}
@@ -28,13 +28,23 @@ public class Graph<T> {
     /**
      * nodes with no incoming edges are removable
      */
-    private final Set<GraphNode<T>> removableNodes;
+    private final RemovableFrontier<T> removableNodes;
 
     /**
      * Used to know which OperatingDirection this graph represents.
      */
     private final Set<OperatingDirection> operatingDirections;
 
+    /**
+     * the bitmask of the operating directions, used for the removability checks
+     */
+    private final int directionMask;
+
+    /**
+     * the number of removals that have not been undone, used to make sure they are undone in reverse order
+     */
+    private int removals = 0;
+
     /**
      * Creates a new directed Graph for the given {@linkplain OperatingDirection}s.
      * <p>
@@ -52,68 +62,100 @@ public class Graph<T> {
      * @param operatingDirections the operating directions this graph will represent
      */
     public Graph(Set<OperatingDirection> operatingDirections) {
+        this(operatingDirections, 0);
+    }
+
+    /**
+     * Creates a new directed Graph for the given {@linkplain OperatingDirection}s, whose internal sets are pre-sized
+     * to hold the expected number of nodes without rehashing.
+     *
+     * @param operatingDirections the operating directions this graph will represent
+     * @param expectedNodes       the number of nodes that will be added to the graph
+     * @see #Graph(Set)
+     */
+    public Graph(Set<OperatingDirection> operatingDirections, int expectedNodes) {
         if (operatingDirections == null) {
             throw new IllegalArgumentException("The operating directions must not be null!");
         }
+        if (expectedNodes < 0) {
+            throw new IllegalArgumentException("The expected number of nodes must not be negative!");
+        }
         this.operatingDirections = operatingDirections;
-        this.nodes = new HashSet<>();
-        this.removableNodes = new HashSet<>();
+        this.directionMask = OperatingDirection.maskOf(operatingDirections);
+        this.nodes = new HashSet<>(capacityFor(expectedNodes));
+        this.removableNodes = new RemovableFrontier<>(expectedNodes);
     }
 
     /**
      * Merge the set of graphs into a single graph.
      * <p>
      * Each node has multiple edges, one for each graph in the set.
+     * <p>
+     * The merge takes O(N + E) for N nodes and E edges of all graphs: the edges are copied without the duplicate
+     * checks of {@linkplain #addDirectedEdge(GraphNode, GraphNode, OperatingDirection)}, as each edge of a graph is
+     * unique and edges of different graphs belong to different operating directions. The removable nodes are
+     * determined once, after all edges were added.
      *
      * @param graphSet the set of graphs
      * @param <T>      the type of object that each graph contains. This type must be the same for all graphs
      * @return the merged graph
      */
     public static <T> Graph<T> merge(HashSet<Graph<T>> graphSet) {
-        Set<GraphNode<T>> allNodes = new HashSet<>();
         Set<OperatingDirection> opDirs = new HashSet<>();
-        Graph<T> finalGraph = new Graph<>(opDirs);
-
-        // collect all nodes
+        int maxNodes = 0;
         for (Graph<T> graph : graphSet) {
-            allNodes.addAll(graph.getCopyOfNodes());
-            opDirs.addAll(graph.getOperatingDirections());
+            for (OperatingDirection opDir : graph.getOperatingDirections()) {
+                if (!opDirs.add(opDir)) {
+                    throw new IllegalGraphStateException("The operating direction " + opDir + " is represented by " +
+                            "more than one of the merged graphs");
+                }
+            }
+            maxNodes = Math.max(maxNodes, graph.nodes.size());
         }
 
         // as each node represents an object (=content), and each graph represents a different operating direction,
-        // collect the contents of all nodes. The nodes themselves, even if they represent the same object, are
-        // different Java Objects, as they have different edges.
+        // the nodes of the final graph are keyed by their content. The nodes of the other graphs, even if they
+        // represent the same object, are different Java Objects, as they have different edges.
         //
-        // important that contents is a set to avoid duplicates
-        Set<T> contents = new HashSet<>();
-        for (GraphNode<T> node : allNodes) {
-            contents.add(node.getContent());
-        }
-
-        // create the nodes in the final graph and collect them in a map, to be able to access them by their content
-        Map<T, GraphNode<T>> finalGraphNodes = new HashMap<>();
-        for (T content : contents) {
-            GraphNode<T> finalGraphNode = finalGraph.addNode(content);
-            finalGraphNodes.put(content, finalGraphNode);
+        // usually all graphs contain the same objects, so the largest graph determines the size of the map
+        Graph<T> finalGraph = new Graph<>(opDirs, maxNodes);
+        Map<T, GraphNode<T>> finalGraphNodes = new HashMap<>(capacityFor(maxNodes));
+        for (Graph<T> graph : graphSet) {
+            for (GraphNode<T> node : graph.nodes) {
+                finalGraphNodes.computeIfAbsent(node.getContent(), finalGraph::addNode);
+            }
         }
 
         // add the edges to the final graph
-        for (GraphNode<T> nodeFromOtherGraph : allNodes){
-            T nodeContent = nodeFromOtherGraph.getContent();
-            Collection<GraphNode.DirectedGraphEdge<T>> outgoingEdges = nodeFromOtherGraph.getOutgoingEdges();
-
-            // because ALL nodes are handled, all edges are covered if for each node the outgoing edges are added to
-            // the final graph.
-            GraphNode<T> from = finalGraphNodes.get(nodeContent);
-            for (GraphNode.DirectedGraphEdge<T> edge : outgoingEdges) {
-                GraphNode<T> to = finalGraphNodes.get(edge.getTo().getContent());
-                finalGraph.addDirectedEdge(from, to, edge.getOperatingDirection());
+        for (Graph<T> graph : graphSet) {
+            for (GraphNode<T> nodeFromOtherGraph : graph.nodes) {
+                // because ALL nodes are handled, all edges are covered if for each node the outgoing edges are
+                // added to the final graph.
+                GraphNode<T> from = finalGraphNodes.get(nodeFromOtherGraph.getContent());
+                for (GraphNode.DirectedGraphEdge<T> edge : nodeFromOtherGraph.getOutgoingEdges()) {
+                    GraphNode<T> to = finalGraphNodes.get(edge.getTo().getContent());
+                    for (int bits = edge.getDirections(); bits != 0; bits &= bits - 1) {
+                        from.addUniqueDirectedEdgeTo(to,
+                                OperatingDirection.fromOrdinal(Integer.numberOfTrailingZeros(bits)));
+                    }
+                }
             }
         }
 
+        // all nodes were added as removable, keep only those that have no incoming edges for some direction
+        finalGraph.updateRemovableNodes();
+
         return finalGraph;
     }
 
+    /**
+     * Remove all nodes from the removable nodes, that have incoming edges for all operating directions. Used after
+     * edges were added without updating the removable nodes.
+     */
+    void updateRemovableNodes() {
+        this.removableNodes.retainIf(node -> node.isRemovable(this.directionMask));
+    }
+
     /**
      * Create a new node in the graph.
      *
@@ -138,19 +180,63 @@ public class Graph<T> {
     /**
      * Remove a node from the graph and all of its outgoing edges, if it has no incoming edges. All nodes that now have
      * no incoming edges for at least one of the given {@linkplain OperatingDirection} become removable.
+     * <p>
+     * The returned record can be used to undo the removal with {@linkplain #restoreNode(NodeRemoval)}, so a search can
+     * explore alternative sequences on a single graph instead of copying it.
      *
      * @param node the node that will be removed
+     * @return the record of the removal
      */
-    public void removeNode(GraphNode<T> node) {
-        if (!this.nodes.remove(node)) {
+    public NodeRemoval<T> removeNode(GraphNode<T> node) {
+        if (!this.nodes.contains(node)) {
             throw new IllegalGraphStateException("Node: " + node + " does not exist in the graph");
         }
         if (!this.removableNodes.remove(node)) {
             throw new IllegalGraphStateException("Node: " + node + " has incoming edges and cannot be removed");
         }
+        this.nodes.remove(node);
+
+        // the edge objects are kept, so they can be re-inserted when the removal is undone
+        List<GraphNode.DirectedGraphEdge<T>> edges = node.getCopyOfEdges();
+
+        List<GraphNode<T>> newlyRemovable = new ArrayList<>();
+        for (GraphNode<T> nowRemovable : node.removeAllEdges(this.directionMask)) {
+            if (this.removableNodes.add(nowRemovable)) {
+                newlyRemovable.add(nowRemovable);
+            }
+        }
 
-        HashSet<GraphNode<T>> nowRemovable = node.removeAllEdges(this.operatingDirections);
-        this.removableNodes.addAll(nowRemovable);
+        return new NodeRemoval<>(this, removals++, node, edges, newlyRemovable);
+    }
+
+    /**
+     * Undo the removal of a node: the node and its edges are added to the graph again, and the nodes that only became
+     * removable because of the removal are no longer removable. This takes O(degree of the node).
+     * <p>
+     * Removals must be undone in the reverse order they were made, i.e. only the most recent removal that has not
+     * been undone yet can be undone.
+     *
+     * @param removal the record of the removal, as returned by {@linkplain #removeNode(GraphNode)}
+     */
+    public void restoreNode(NodeRemoval<T> removal) {
+        if (removal.graph != this) {
+            throw new IllegalGraphStateException("The node " + removal.getNode() + " was not removed from this graph");
+        }
+        if (removal.depth != removals - 1) {
+            throw new IllegalGraphStateException("Only the most recent removal can be undone, but the removal of " +
+                    removal.getNode() + " is not the most recent one");
+        }
+        removals--;
+
+        GraphNode<T> node = removal.node;
+        this.nodes.add(node);
+        node.restoreEdges(removal.edges);
+
+        for (GraphNode<T> noLongerRemovable : removal.newlyRemovableNodes) {
+            this.removableNodes.remove(noLongerRemovable);
+        }
+        // the node was removable, otherwise it could not have been removed
+        this.removableNodes.add(node);
     }
 
 
@@ -175,18 +261,113 @@ public class Graph<T> {
             from.addDirectedEdgeTo(to, operatingDirection);
 
             // the node stays removable, if it is removable from any of the operating directions
-            if(this.removableNodes.contains(to)) {
-                boolean removable = false;
-                for (OperatingDirection direction : this.operatingDirections) {
-                    if (!to.hasIncomingEdges(direction)) {
-                        removable = true;
-                    }
+            if (!to.isRemovable(this.directionMask)) {
+                this.removableNodes.remove(to);
+            }
+        }
+    }
+
+    /**
+     * Remove all edges that are implied transitively by other edges, i.e. the edge from u to w is removed if there is
+     * another path from u to w. A node is removable in the same order as before, but every later removal has to update
+     * fewer edges.
+     * <p>
+     * The reduction is only valid for graphs of a single {@linkplain OperatingDirection}: in a graph of multiple
+     * directions, the node on the other path can be removed from another direction first, so the reduced edge would
+     * be the only edge keeping the node from being removed.
+     * <p>
+     * The nodes are visited in reverse topological order, and the nodes reachable from each node are collected in a
+     * bitset. The successors of a node are checked in topological order, so a successor that is reachable through an
+     * earlier successor is recognized as redundant. This takes O(N * E / 64) time and O(N * N / 8) bytes.
+     *
+     * @return the number of removed edges
+     * @throws IllegalGraphStateException if the graph represents multiple operating directions or contains a cycle
+     */
+    public int reduceTransitively() {
+        if (this.operatingDirections.size() != 1) {
+            throw new IllegalGraphStateException("The transitive reduction is only valid for graphs of a single " +
+                    "operating direction, but the graph represents " + this.operatingDirections);
+        }
+        OperatingDirection opDir = this.operatingDirections.iterator().next();
+
+        List<GraphNode<T>> order = topologicalOrder();
+        Map<GraphNode<T>, Integer> positions = new HashMap<>(capacityFor(order.size()));
+        for (int i = 0; i < order.size(); i++) {
+            positions.put(order.get(i), i);
+        }
+
+        // the nodes reachable from each node, indexed by the positions in the topological order
+        BitSet[] reachable = new BitSet[order.size()];
+        int removedEdges = 0;
+
+        for (int i = order.size() - 1; i >= 0; i--) {
+            GraphNode<T> node = order.get(i);
+            BitSet reach = new BitSet(order.size());
+
+            int[] successors = node.getCopyOfOutgoingNodes().stream()
+                    .mapToInt(positions::get)
+                    .sorted()
+                    .toArray();
+            for (int successor : successors) {
+                if (reach.get(successor)) {
+                    node.removeDirectedEdgeTo(order.get(successor), opDir);
+                    removedEdges++;
+                } else {
+                    reach.set(successor);
+                    reach.or(reachable[successor]);
                 }
-                if (!removable) {
-                    this.removableNodes.remove(to);
+            }
+            reachable[i] = reach;
+        }
+        return removedEdges;
+    }
+
+    /**
+     * Calculate a topological order of the nodes using Kahn's algorithm, i.e. each node is placed after all nodes that
+     * have an edge to it (for any direction).
+     *
+     * @return the nodes in topological order
+     * @throws IllegalGraphStateException if the graph contains a cycle
+     */
+    List<GraphNode<T>> topologicalOrder() {
+        Map<GraphNode<T>, Integer> inDegrees = new HashMap<>(capacityFor(this.nodes.size()));
+        Deque<GraphNode<T>> ready = new ArrayDeque<>();
+        for (GraphNode<T> node : this.nodes) {
+            int inDegree = node.getCopyOfIncomingNodes().size();
+            inDegrees.put(node, inDegree);
+            if (inDegree == 0) {
+                ready.add(node);
+            }
+        }
+
+        List<GraphNode<T>> order = new ArrayList<>(this.nodes.size());
+        while (!ready.isEmpty()) {
+            GraphNode<T> node = ready.poll();
+            order.add(node);
+            for (GraphNode<T> successor : node.getCopyOfOutgoingNodes()) {
+                if (inDegrees.merge(successor, -1, Integer::sum) == 0) {
+                    ready.add(successor);
                 }
             }
         }
+
+        if (order.size() != this.nodes.size()) {
+            throw new IllegalGraphStateException("The graph contains a cycle, " +
+                    (this.nodes.size() - order.size()) + " nodes can never be removed");
+        }
+        return order;
+    }
+
+    /**
+     * Create an immutable snapshot of the current state of the graph. Removing nodes from the snapshot creates new
+     * snapshots and neither changes this graph nor the snapshot, so a snapshot can be forked and explored by multiple
+     * threads at once.
+     *
+     * @return the snapshot
+     * @see GraphSnapshot
+     */
+    public GraphSnapshot<T> snapshot() {
+        return GraphSnapshot.of(CompactGraph.of(this));
     }
 
     /**
@@ -203,9 +384,24 @@ public class Graph<T> {
      * Get a copy of the removable nodes
      *
      * @return a copy of the removable nodes
+     * @see #getRemovableNodes()
      */
     public Collection<GraphNode<T>> getCopyOfRemovableNodes() {
-        return new HashSet<>(this.removableNodes);
+        HashSet<GraphNode<T>> copy = new HashSet<>(capacityFor(this.removableNodes.size()));
+        for (GraphNode<T> node : this.removableNodes) {
+            copy.add(node);
+        }
+        return copy;
+    }
+
+    /**
+     * Get the removable nodes without copying them. The frontier is updated by {@linkplain #removeNode(GraphNode)} and
+     * {@linkplain #restoreNode(NodeRemoval)}, so it always reflects the current state of the graph.
+     *
+     * @return the removable nodes
+     */
+    public RemovableFrontier<T> getRemovableNodes() {
+        return this.removableNodes;
     }
 
     /**
@@ -225,4 +421,15 @@ public class Graph<T> {
     public Set<OperatingDirection> getOperatingDirections() {
         return this.operatingDirections;
     }
+
+    /**
+     * Calculate the initial capacity of a hash based collection, so that it can hold the given number of elements
+     * without rehashing (assuming the default load factor of 0.75).
+     *
+     * @param expectedSize the number of elements
+     * @return the initial capacity
+     */
+    static int capacityFor(int expectedSize) {
+        return (int) (expectedSize / 0.75f) + 1;
+    }
 }
@@ -0,0 +1,209 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Cheap structural metrics of a {@linkplain Graph}, used to estimate how hard it is to find the optimum sequence.
+ * <p>
+ * A narrow tower has few removable nodes at any time, so it has few sequences, while a flat layer of independent
+ * boxes can be removed in any order. The metrics describe where a graph lies between these extremes:
+ * <ul>
+ *     <li>the number of nodes and edges, and the edge density</li>
+ *     <li>the number of weakly connected components, i.e. groups of boxes that do not block each other</li>
+ *     <li>the number of topological levels and the size of the largest level, which is an estimate of the width of
+ *     the graph, i.e. of the largest set of boxes that can be removed in any order</li>
+ *     <li>the largest and the average number of removable nodes during a random removal sequence, and the estimated
+ *     number of removal sequences. The product of the numbers of removable nodes along a random sequence is an
+ *     unbiased estimate of the number of sequences (Knuth's estimator), which is reported as its base 10 logarithm.
+ *     </li>
+ * </ul>
+ * Calculating the metrics takes O(N + E log E) time in the worst case: the {@linkplain CompactGraph} sorts the edges of
+ * each node, the {@linkplain TopologicalBounds} binary-search per edge, the union-find of the components only halves
+ * paths, and the random removal sequence removes and restores each node of the graph, which copies its edges and
+ * updates the hash maps of its neighbours. The graph is restored to its initial state afterwards.
+ */
+public class GraphMetrics {
+
+    /**
+     * the seed of the random sequence, so the metrics of a graph are always the same
+     */
+    static final long SEED = 42;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int componentCount;
+    private final int levelCount;
+    private final int widthEstimate;
+    private final int maxFrontierSize;
+    private final double averageFrontierSize;
+    private final double log10SequenceEstimate;
+
+    private GraphMetrics(int nodeCount, int edgeCount, int componentCount, int levelCount, int widthEstimate,
+                         int maxFrontierSize, double averageFrontierSize, double log10SequenceEstimate) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.componentCount = componentCount;
+        this.levelCount = levelCount;
+        this.widthEstimate = widthEstimate;
+        this.maxFrontierSize = maxFrontierSize;
+        this.averageFrontierSize = averageFrontierSize;
+        this.log10SequenceEstimate = log10SequenceEstimate;
+    }
+
+    /**
+     * Calculate the metrics of the graph
+     *
+     * @param graph the graph, it is restored to its initial state afterwards
+     * @param <T>   the type of object that the graph contains
+     * @return the metrics
+     * @throws IllegalGraphStateException if some nodes can never be removed
+     */
+    public static <T> GraphMetrics of(Graph<T> graph) {
+        CompactGraph<T> compact = CompactGraph.of(graph);
+        int n = compact.size();
+
+        // count node pairs, not directions, as a pair of boxes only has to be ordered once
+        int edges = 0;
+        for (GraphNode<T> node : graph.getCopyOfNodes()) {
+            edges += node.getOutgoingEdges().size();
+        }
+
+        TopologicalBounds<T> bounds = TopologicalBounds.of(compact);
+        int levels = bounds.getLevelCount();
+        int[] levelSizes = new int[levels];
+        int width = 0;
+        for (int id = 0; id < n; id++) {
+            width = Math.max(width, ++levelSizes[bounds.getEarliest(id)]);
+        }
+
+        // remove random removable nodes until the graph is empty, and undo the removals afterwards
+        Random random = new Random(SEED);
+        Deque<NodeRemoval<T>> removals = new ArrayDeque<>(n);
+        int maxFrontier = 0;
+        long frontierSum = 0;
+        double log10Sequences = 0;
+        RemovableFrontier<T> frontier = graph.getRemovableNodes();
+        while (!frontier.isEmpty()) {
+            int size = frontier.size();
+            maxFrontier = Math.max(maxFrontier, size);
+            frontierSum += size;
+            log10Sequences += Math.log10(size);
+            removals.push(graph.removeNode(frontier.get(random.nextInt(size))));
+        }
+        int steps = removals.size();
+        while (!removals.isEmpty()) {
+            graph.restoreNode(removals.pop());
+        }
+
+        return new GraphMetrics(n, edges, countComponents(compact), levels, width, maxFrontier,
+                steps == 0 ? 0 : (double) frontierSum / steps, log10Sequences);
+    }
+
+    /**
+     * Count the weakly connected components with a union-find over the edges of all directions
+     */
+    private static int countComponents(CompactGraph<?> graph) {
+        int n = graph.size();
+        int[] parents = new int[n];
+        for (int id = 0; id < n; id++) {
+            parents[id] = id;
+        }
+        int components = n;
+        for (OperatingDirection opDir : graph.getOperatingDirections()) {
+            int[] offsets = graph.outOffsets(opDir);
+            int[] targets = graph.outTargets(opDir);
+            for (int id = 0; id < n; id++) {
+                for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                    int a = find(parents, id);
+                    int b = find(parents, targets[e]);
+                    if (a != b) {
+                        parents[a] = b;
+                        components--;
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Find the root of the node, and halve the path to it
+     */
+    private static int find(int[] parents, int id) {
+        while (parents[id] != id) {
+            parents[id] = parents[parents[id]];
+            id = parents[id];
+        }
+        return id;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get the ratio of the edges to the largest possible number of edges, i.e. one edge between each pair of nodes
+     *
+     * @return the density, from 0 for independent nodes to 0.5 for a total order
+     */
+    public double getDensity() {
+        return nodeCount < 2 ? 0 : (double) edgeCount / ((double) nodeCount * (nodeCount - 1));
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Get the number of nodes of the largest topological level. In a graph of a single direction, the nodes of a
+     * level do not block each other, so the width of the graph is at least this large.
+     *
+     * @return the estimated width
+     */
+    public int getWidthEstimate() {
+        return widthEstimate;
+    }
+
+    public int getMaxFrontierSize() {
+        return maxFrontierSize;
+    }
+
+    public double getAverageFrontierSize() {
+        return averageFrontierSize;
+    }
+
+    /**
+     * Get the base 10 logarithm of the estimated number of removal sequences
+     *
+     * @return the estimated number of digits of the number of sequences, 0 if there is only a single sequence
+     */
+    public double getLog10SequenceEstimate() {
+        return log10SequenceEstimate;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphMetrics{" +
+                "nodes=" + nodeCount + ", " +
+                "edges=" + edgeCount + ", " +
+                "components=" + componentCount + ", " +
+                "levels=" + levelCount + ", " +
+                "width>=" + widthEstimate + ", " +
+                "maxFrontier=" + maxFrontierSize + ", " +
+                "avgFrontier=" + String.format("%.2f", averageFrontierSize) + ", " +
+                "sequences~10^" + String.format("%.1f", log10SequenceEstimate) +
+                "}";
+    }
+}
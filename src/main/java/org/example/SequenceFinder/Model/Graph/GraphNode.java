@@ -4,13 +4,19 @@ import org.example.SequenceFinder.OperatingDirection;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 
 /**
  * A node in the {@linkplain Graph}
+ * <p>
+ * Between two nodes there is at most one {@linkplain DirectedGraphEdge} per direction of travel. An edge carries a
+ * bitmask of the {@linkplain OperatingDirection}s it exists for (see {@linkplain OperatingDirection#mask()}), so
+ * merged graphs and pairs of objects that block each other for several reasons do not create multiple edges.
  *
  * @param <T> the type of object that is stored in this node
  */
@@ -21,19 +27,35 @@ public class GraphNode<T> {
     private final T content;
 
     /**
-     * nodes with an outgoing edge to this node
+     * edges from other nodes to this node, keyed by the node where the edge starts
      */
-    private final HashSet<DirectedGraphEdge<T>> incomingEdges;
+    private final HashMap<GraphNode<T>, DirectedGraphEdge<T>> incomingEdges;
 
     /**
-     * nodes with an incoming edge from this node
+     * edges from this node to other nodes, keyed by the node where the edge ends
      */
-    private final HashSet<DirectedGraphEdge<T>> outgoingEdges;
+    private final HashMap<GraphNode<T>, DirectedGraphEdge<T>> outgoingEdges;
+
+    /**
+     * the number of incoming edges per {@linkplain OperatingDirection}, indexed by the ordinal of the direction
+     */
+    private final int[] incomingCounts = new int[OperatingDirection.values().length];
+
+    /**
+     * the number of outgoing edges per {@linkplain OperatingDirection}, indexed by the ordinal of the direction
+     */
+    private final int[] outgoingCounts = new int[OperatingDirection.values().length];
+
+    /**
+     * the hash code is cached, as the content of a node never changes
+     */
+    private final int hash;
 
     GraphNode(T content) {
         this.content = content;
-        this.incomingEdges = new HashSet<>();
-        this.outgoingEdges = new HashSet<>();
+        this.hash = Objects.hashCode(content);
+        this.incomingEdges = new HashMap<>();
+        this.outgoingEdges = new HashMap<>();
     }
 
     @Override
@@ -47,20 +69,33 @@ public class GraphNode<T> {
     }
 
     /**
-     * Two graph nodes are equal, if they represent the same object, i.e. they have the same content
+     * Two graph nodes are equal, if they represent the same object, i.e. they have equal content
      *
      * @param o the other object
-     * @return true if both object have the same content
+     * @return true if both object have equal content
      */
     @Override
     public boolean equals(Object o) {
-        if (o instanceof GraphNode) {
-            return this.content == ((GraphNode<?>) o).getContent();
+        if (o == this) {
+            return true;
+        } else if (o instanceof GraphNode) {
+            GraphNode<?> other = (GraphNode<?>) o;
+            return this.hash == other.hash && Objects.equals(this.content, other.getContent());
         } else {
             return false;
         }
     }
 
+    /**
+     * Consistent with {@linkplain #equals(Object)}, the hash code is the (cached) hash code of the content
+     *
+     * @return the hash code of this node's content
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
     /**
      * Remove all incoming and outgoing edges from this node and return the nodes that, as a result of this, are now
      * removable. This method is called when the node is removed from the graph.
@@ -74,36 +109,81 @@ public class GraphNode<T> {
      * @return the nodes that are now removable
      */
     HashSet<GraphNode<T>> removeAllEdges(Set<OperatingDirection> opDirs) {
+        return removeAllEdges(opDirs == null ? 0 : OperatingDirection.maskOf(opDirs));
+    }
+
+    /**
+     * Remove all incoming and outgoing edges from this node and return the nodes that, as a result of this, are now
+     * removable. This method is called when the node is removed from the graph.
+     * <p>
+     * When a bitmask of {@linkplain  OperatingDirection}s is given, the nodes that are removable are those, who have no
+     * incoming edges for at least one of the directions in the mask.
+     * <p>
+     * Otherwise, i.e. for an empty mask, the removable nodes are those, who have no incoming edges at all.
+     *
+     * @param opDirMask the bitmask of the directions for which the removable nodes are calculated (can be 0)
+     * @return the nodes that are now removable
+     */
+    HashSet<GraphNode<T>> removeAllEdges(int opDirMask) {
 
         // nodes with no incoming edges are removable
         HashSet<GraphNode<T>> removableNodes = new HashSet<>();
 
-        for (DirectedGraphEdge<T> edge : this.outgoingEdges) {
+        // each edge is removed directly from the other node's map, so no search for the matching edge is needed
+        for (DirectedGraphEdge<T> edge : this.outgoingEdges.values()) {
             GraphNode<T> targetNode = edge.getTo();
-            targetNode.removeDirectedEdgeFrom(this, null);
+            targetNode.incomingEdges.remove(this);
+            edge.countOut(edge.directions);
 
-            if (opDirs == null) {
+            if (opDirMask == 0) {
                 if (!targetNode.hasIncomingEdges(null)) {
                     removableNodes.add(targetNode);
                 }
-            } else {
-                for (OperatingDirection opDir : opDirs) {
-                    if (!targetNode.hasIncomingEdges(opDir)) {
-                        removableNodes.add(targetNode);
-                    }
-                }
+            } else if (targetNode.isRemovable(opDirMask)) {
+                removableNodes.add(targetNode);
             }
         }
         this.outgoingEdges.clear();
 
-        for (DirectedGraphEdge<T> edge : this.incomingEdges) {
-            edge.getFrom().removeDirectedEdgeTo(this, null);
+        for (DirectedGraphEdge<T> edge : this.incomingEdges.values()) {
+            edge.getFrom().outgoingEdges.remove(this);
+            edge.countOut(edge.directions);
         }
         this.incomingEdges.clear();
 
         return removableNodes;
     }
 
+    /**
+     * Get a copy of all incoming and outgoing edges of this node
+     *
+     * @return a copy of all edges of this node
+     */
+    List<DirectedGraphEdge<T>> getCopyOfEdges() {
+        List<DirectedGraphEdge<T>> edges = new ArrayList<>(this.incomingEdges.size() + this.outgoingEdges.size());
+        edges.addAll(this.incomingEdges.values());
+        edges.addAll(this.outgoingEdges.values());
+        return edges;
+    }
+
+    /**
+     * Re-insert edges that were removed from this node by {@linkplain #removeAllEdges(int)}. Each edge is added to
+     * both of its nodes again.
+     *
+     * @param edges the edges, each of them must start or end at this node
+     */
+    void restoreEdges(Collection<DirectedGraphEdge<T>> edges) {
+        for (DirectedGraphEdge<T> edge : edges) {
+            if (edge.getFrom() != this && edge.getTo() != this) {
+                throw new IllegalGraphStateException("The edge from " + edge.getFrom() + " to " + edge.getTo() +
+                        " does not belong to the node " + this);
+            }
+            edge.getFrom().outgoingEdges.put(edge.getTo(), edge);
+            edge.getTo().incomingEdges.put(edge.getFrom(), edge);
+            edge.countIn(edge.directions);
+        }
+    }
+
     /**
      * Add a directed edge from the given node to this node for the given {@linkplain OperatingDirection}..
      *
@@ -111,31 +191,15 @@ public class GraphNode<T> {
      * @param opDir the operating direction (can be null)
      */
     void addDirectedEdgeFrom(GraphNode<T> from, OperatingDirection opDir) {
-        if (from.outgoingEdges.stream()
-                .map(DirectedGraphEdge::getTo)
-                .anyMatch(this::equals)) {
+        if (from.outgoingEdges.containsKey(this)) {
             throw new IllegalGraphStateException("The node " + from + " already has an outgoing edge " +
                     "to " + this);
         }
-        if (this.incomingEdges.stream()
-                .map(DirectedGraphEdge::getFrom)
-                .anyMatch(from::equals)) {
+        if (this.incomingEdges.containsKey(from)) {
             throw new IllegalGraphStateException("The node " + this + " already has an incoming edge " +
                     "from " + from);
         }
-        DirectedGraphEdge<T> edge = new DirectedGraphEdge<>(from, this, opDir);
-
-        // add the edge to this node's incoming edges
-        if (!this.incomingEdges.add(edge)) {
-            throw new IllegalGraphStateException("The node " + from + " already has an incoming edge " +
-                    "from " + this);
-        }
-
-        // add the edge to the other node's outgoing edges
-        if (!from.outgoingEdges.add(edge)) {
-            throw new IllegalGraphStateException("The node " + this + " already has an outgoing edge " +
-                    "to " + from);
-        }
+        from.addUniqueDirectedEdgeTo(this, opDir);
     }
 
     /**
@@ -145,28 +209,38 @@ public class GraphNode<T> {
      * @param opDir the operating direction (can be null)
      */
     void addDirectedEdgeTo(GraphNode<T> to, OperatingDirection opDir) {
-        if (this.outgoingEdges.stream()
-                .filter(edge -> edge.getOperatingDirection().equals(opDir))
-                .map(DirectedGraphEdge::getTo)
-                .anyMatch(to::equals)) {
+        DirectedGraphEdge<T> edge = this.outgoingEdges.get(to);
+        if (edge != null && opDir != null && edge.hasDirection(opDir)) {
             throw new IllegalGraphStateException("The node " + this + " already has an outgoing edge for " +
                     "OperatingDirection " + opDir + " to " + to);
         }
-        if (to.incomingEdges.stream()
-                .filter(edge -> edge.getOperatingDirection().equals(opDir))
-                .map(DirectedGraphEdge::getFrom)
-                .anyMatch(this::equals)) {
-            throw new IllegalGraphStateException("The node " + to + " already has an incoming edge for " +
-                    "OperatingDirection " + opDir + " from " + this);
-        }
-
-        DirectedGraphEdge<T> edge = new DirectedGraphEdge<>(this, to, opDir);
-
-        // add the edge to the other node's outgoing edges
-        this.outgoingEdges.add(edge);
+        addUniqueDirectedEdgeTo(to, opDir);
+    }
 
-        // add the edge to this node's incoming edges
-        to.incomingEdges.add(edge);
+    /**
+     * Add a directed edge to the given node from this node for the given {@linkplain OperatingDirection}, without
+     * checking if the edge already exists for the direction. Only used when the edge is known to be unique, e.g. when
+     * merging graphs.
+     * <p>
+     * If there already is an edge to the node for other directions, the direction is added to that edge.
+     *
+     * @param to    the end of the directed edge
+     * @param opDir the operating direction
+     */
+    void addUniqueDirectedEdgeTo(GraphNode<T> to, OperatingDirection opDir) {
+        if (opDir == null) {
+            throw new IllegalArgumentException("The operating direction must not be null, the edge needs to " +
+                    "represent a direction");
+        }
+        DirectedGraphEdge<T> edge = this.outgoingEdges.get(to);
+        if (edge == null) {
+            edge = new DirectedGraphEdge<>(this, to, opDir);
+            this.outgoingEdges.put(to, edge);
+            to.incomingEdges.put(this, edge);
+        } else {
+            edge.directions |= opDir.mask();
+        }
+        edge.countIn(opDir.mask());
     }
 
     /**
@@ -176,51 +250,7 @@ public class GraphNode<T> {
      * @param opDir the operating direction (can be null)
      */
     void removeDirectedEdgeFrom(GraphNode<T> from, OperatingDirection opDir) {
-        boolean removed = false;
-
-        // remove ALL directed edges from the given node to this node if no OperatingDirection is given
-        if (opDir == null) {
-            for (DirectedGraphEdge<T> edge : from.outgoingEdges) {
-                if (edge.getTo().equals(this)) {
-                    removed = from.outgoingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + from + " does not have an outgoing edge " +
-                        "to " + this);
-            }
-            removed = false;
-            for (DirectedGraphEdge<T> edge : this.incomingEdges) {
-                if (edge.getFrom().equals(from)) {
-                    removed = this.incomingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + this + " does not have an incoming edge " +
-                        "from " + from);
-            }
-
-            // remove ONLY the directed edge with the given OperatingDirection from the given node to this node
-        } else {
-            for (DirectedGraphEdge<T> edge : from.outgoingEdges) {
-                if (edge.getTo().equals(this) && edge.getOperatingDirection().equals(opDir)) {
-                    removed = from.outgoingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + from + " does not have an outgoing edge " +
-                        "to " + this + " for the given operating direction " + opDir);
-            }
-            for (DirectedGraphEdge<T> edge : this.incomingEdges) {
-                if (edge.getFrom().equals(from) && edge.getOperatingDirection().equals(opDir)) {
-                    removed = this.incomingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + this + " does not have an incoming edge " +
-                        "from " + from + " for the given operating direction " + opDir);
-            }
-        }
+        removeDirectedEdges(from, this, opDir);
     }
 
     /**
@@ -230,49 +260,32 @@ public class GraphNode<T> {
      * @param opDir the operating direction (can be null)
      */
     void removeDirectedEdgeTo(GraphNode<T> to, OperatingDirection opDir) {
-        boolean removed = false;
+        removeDirectedEdges(this, to, opDir);
+    }
 
-        // remove ALL directed edges from the given node to this node if no OperatingDirection is given
-        if (opDir == null) {
-            for (DirectedGraphEdge<T> edge : this.outgoingEdges) {
-                if (edge.getTo().equals(to)) {
-                    removed = this.outgoingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + this + " does not have an outgoing edge " +
-                        "to " + to);
-            }
-            for (DirectedGraphEdge<T> edge : to.incomingEdges) {
-                if (edge.getFrom().equals(this)) {
-                    removed = to.incomingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + to + " does not have an incoming edge " +
-                        "from " + this);
-            }
+    /**
+     * Remove the directed edge between the given nodes for the given {@linkplain OperatingDirection}, or ALL directed
+     * edges between them if no {@linkplain OperatingDirection} is given.
+     *
+     * @param from  the start of the directed edge
+     * @param to    the end of the directed edge
+     * @param opDir the operating direction (can be null)
+     */
+    private static <T> void removeDirectedEdges(GraphNode<T> from, GraphNode<T> to, OperatingDirection opDir) {
+        DirectedGraphEdge<T> edge = from.outgoingEdges.get(to);
+        if (edge == null || (opDir != null && !edge.hasDirection(opDir))) {
+            throw new IllegalGraphStateException("The node " + from + " does not have an outgoing edge " +
+                    "to " + to + (opDir == null ? "" : " for the given operating direction " + opDir));
+        }
 
-            // remove ONLY the directed edge with the given OperatingDirection from the given node to this node
-        } else {
-            for (DirectedGraphEdge<T> edge : this.outgoingEdges) {
-                if (edge.getTo().equals(to) && edge.getOperatingDirection().equals(opDir)) {
-                    removed = this.outgoingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + this + " does not have an outgoing edge " +
-                        "to " + to + " for the given operating direction " + opDir);
-            }
-            for (DirectedGraphEdge<T> edge : to.incomingEdges) {
-                if (edge.getFrom().equals(this) && edge.getOperatingDirection().equals(opDir)) {
-                    removed = to.incomingEdges.remove(edge);
-                }
-            }
-            if (!removed) {
-                throw new IllegalGraphStateException("The node " + to + " does not have an incoming edge " +
-                        "from " + this + " for the given operating direction " + opDir);
-            }
+        int removedDirections = opDir == null ? edge.directions : opDir.mask();
+        edge.countOut(removedDirections);
+        edge.directions &= ~removedDirections;
+
+        // the edge only exists as long as it represents at least one direction
+        if (edge.directions == 0) {
+            from.outgoingEdges.remove(to);
+            to.incomingEdges.remove(from);
         }
     }
 
@@ -290,9 +303,7 @@ public class GraphNode<T> {
 
             // check if the node has any incoming edges for the given OperatingDirection
         } else {
-            return this.incomingEdges.stream()
-                    .map(DirectedGraphEdge::getOperatingDirection)
-                    .anyMatch(opDir::equals);
+            return this.incomingCounts[opDir.ordinal()] > 0;
         }
     }
 
@@ -310,12 +321,20 @@ public class GraphNode<T> {
 
             // check if the node has any outgoing edges for the given OperatingDirection
         } else {
-            return this.outgoingEdges.stream()
-                    .map(DirectedGraphEdge::getOperatingDirection)
-                    .anyMatch(opDir::equals);
+            return this.outgoingCounts[opDir.ordinal()] > 0;
         }
     }
 
+    /**
+     * Get the number of incoming edges for the given {@linkplain OperatingDirection}
+     *
+     * @param opDir the operating direction
+     * @return the number of incoming edges
+     */
+    int getIncomingCount(OperatingDirection opDir) {
+        return this.incomingCounts[opDir.ordinal()];
+    }
+
     public T getContent() {
         return content;
     }
@@ -326,9 +345,7 @@ public class GraphNode<T> {
      * @return a copy of the nodes that have an outgoing edge to this node
      */
     public Collection<GraphNode<T>> getCopyOfIncomingNodes() {
-        return incomingEdges.stream()
-                .map(DirectedGraphEdge::getFrom)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return new ArrayList<>(incomingEdges.keySet());
     }
 
     /**
@@ -337,9 +354,7 @@ public class GraphNode<T> {
      * @return a copy of the nodes that have an incoming edge from this node
      */
     public Collection<GraphNode<T>> getCopyOfOutgoingNodes() {
-        return outgoingEdges.stream()
-                .map(DirectedGraphEdge::getTo)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return new ArrayList<>(outgoingEdges.keySet());
     }
 
     /**
@@ -348,10 +363,13 @@ public class GraphNode<T> {
      * @return a copy of the nodes that have an outgoing edge to this node
      */
     public Collection<GraphNode<T>> getCopyOfIncomingNodes(OperatingDirection opDir) {
-        return incomingEdges.stream()
-                .filter(edge -> edge.getOperatingDirection().equals(opDir))
-                .map(DirectedGraphEdge::getFrom)
-                .collect(Collectors.toCollection(ArrayList::new));
+        Collection<GraphNode<T>> nodes = new ArrayList<>(incomingCounts[opDir.ordinal()]);
+        for (DirectedGraphEdge<T> edge : incomingEdges.values()) {
+            if (edge.hasDirection(opDir)) {
+                nodes.add(edge.getFrom());
+            }
+        }
+        return nodes;
     }
 
     /**
@@ -360,10 +378,13 @@ public class GraphNode<T> {
      * @return a copy of the nodes that have an incoming edge from this node
      */
     public Collection<GraphNode<T>> getCopyOfOutgoingNodes(OperatingDirection opDir) {
-        return outgoingEdges.stream()
-                .filter(edge -> edge.getOperatingDirection().equals(opDir))
-                .map(DirectedGraphEdge::getTo)
-                .collect(Collectors.toCollection(ArrayList::new));
+        Collection<GraphNode<T>> nodes = new ArrayList<>(outgoingCounts[opDir.ordinal()]);
+        for (DirectedGraphEdge<T> edge : outgoingEdges.values()) {
+            if (edge.hasDirection(opDir)) {
+                nodes.add(edge.getTo());
+            }
+        }
+        return nodes;
     }
 
     /**
@@ -375,8 +396,7 @@ public class GraphNode<T> {
      * @return true if the node is removable from the given operating direction.
      */
     boolean isRemovable(OperatingDirection opDir) {
-        return this.incomingEdges.stream()
-                .noneMatch(edge -> edge.getOperatingDirection().equals(opDir));
+        return this.incomingCounts[opDir.ordinal()] == 0;
     }
 
     /**
@@ -388,8 +408,24 @@ public class GraphNode<T> {
      * @return true if the node is removable from any of the given operating directions.
      */
     boolean isRemovable(Set<OperatingDirection> opDirs) {
-        return opDirs.stream()
-                .anyMatch(this::isRemovable);
+        return isRemovable(OperatingDirection.maskOf(opDirs));
+    }
+
+    /**
+     * Check if the node is removable from any of the {@linkplain OperatingDirection}s in the given bitmask.
+     * <p>
+     * A node is removable from a direction, if it has no incoming edges from this direction.
+     *
+     * @param opDirMask the bitmask of the OperatingDirections
+     * @return true if the node is removable from any of the given operating directions.
+     */
+    boolean isRemovable(int opDirMask) {
+        for (int bits = opDirMask; bits != 0; bits &= bits - 1) {
+            if (this.incomingCounts[Integer.numberOfTrailingZeros(bits)] == 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -398,7 +434,7 @@ public class GraphNode<T> {
      * @return the outgoing edges of this node
      */
     Collection<DirectedGraphEdge<T>> getOutgoingEdges() {
-        return this.outgoingEdges;
+        return this.outgoingEdges.values();
     }
 
 
@@ -409,6 +445,8 @@ public class GraphNode<T> {
 
     /**
      * An edge in the {@linkplain Graph}.
+     * <p>
+     * The edge exists for one or more {@linkplain OperatingDirection}s, stored as bitmask.
      *
      * @param <T> the type of object that is stored in the nodes of the graph
      */
@@ -424,15 +462,16 @@ public class GraphNode<T> {
         GraphNode<T> to;
 
         /**
-         * the {@linkplain OperatingDirection} the edge corresponds to
+         * the bitmask of the {@linkplain OperatingDirection}s the edge corresponds to
          */
-        OperatingDirection operatingDirection;
+        int directions;
 
         /**
          * Creates a new edge from the given nodes.
          *
-         * @param from the node where the edge starts
-         * @param to   the node where the edge ends
+         * @param from               the node where the edge starts
+         * @param to                 the node where the edge ends
+         * @param operatingDirection the first operating direction the edge corresponds to
          */
         DirectedGraphEdge(GraphNode<T> from, GraphNode<T> to, OperatingDirection operatingDirection) {
             if(operatingDirection == null){
@@ -441,11 +480,21 @@ public class GraphNode<T> {
             }
             this.from = from;
             this.to = to;
-            this.operatingDirection = operatingDirection;
+            this.directions = operatingDirection.mask();
         }
 
-        OperatingDirection getOperatingDirection() {
-            return operatingDirection;
+        /**
+         * Get the bitmask of the operating directions the edge corresponds to
+         *
+         * @return the bitmask of the operating directions
+         * @see OperatingDirection#mask()
+         */
+        int getDirections() {
+            return directions;
+        }
+
+        boolean hasDirection(OperatingDirection opDir) {
+            return (directions & opDir.mask()) != 0;
         }
 
         GraphNode<T> getFrom() {
@@ -455,6 +504,32 @@ public class GraphNode<T> {
         GraphNode<T> getTo() {
             return to;
         }
+
+        /**
+         * Count the given directions of this edge in the edge counters of both of its nodes
+         *
+         * @param directionMask the bitmask of the directions
+         */
+        void countIn(int directionMask) {
+            for (int bits = directionMask; bits != 0; bits &= bits - 1) {
+                int d = Integer.numberOfTrailingZeros(bits);
+                from.outgoingCounts[d]++;
+                to.incomingCounts[d]++;
+            }
+        }
+
+        /**
+         * Remove the given directions of this edge from the edge counters of both of its nodes
+         *
+         * @param directionMask the bitmask of the directions
+         */
+        void countOut(int directionMask) {
+            for (int bits = directionMask; bits != 0; bits &= bits - 1) {
+                int d = Integer.numberOfTrailingZeros(bits);
+                from.outgoingCounts[d]--;
+                to.incomingCounts[d]--;
+            }
+        }
     }
 
 }
@@ -0,0 +1,247 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes and reads {@linkplain CompactGraph}s in a compact binary format, so the graph of a stack of boxes can be
+ * cached and reused instead of being recalculated by the
+ * {@linkplain org.example.SequenceFinder.Control.RemovableCalculator}.
+ * <p>
+ * The file consists of big-endian ints:
+ * <pre>
+ * magic number, version, number of nodes n, bitmask of the operating directions, flags
+ * for each operating direction in the order of their ordinal:
+ *     number of edges m, offsets of the outgoing edges (n + 1 ints), targets of the outgoing edges (m ints)
+ * if the flag for content ids is set: the content id of each node (n ints)
+ * </pre>
+ * Only the outgoing edges are stored. Reading a graph is not free: all ints are copied from the file into new arrays,
+ * and the incoming edges are rebuilt by transposing the outgoing edges, see
+ * {@linkplain CompactGraph#fromRows(List, Set, int[][], int[][])}. It only saves the culling of the
+ * {@linkplain org.example.SequenceFinder.Control.RemovableCalculator}.
+ * <p>
+ * Files of up to {@value #MAP_THRESHOLD} bytes are read into a buffer on the heap. Larger files are memory-mapped, so
+ * the arrays are copied directly from the page cache. A mapped buffer is only released when it is garbage collected,
+ * which Java 8 offers no way to force. Until then, the file can not be overwritten or deleted on Windows, so writing a
+ * large graph to the file it was just read from may fail there.
+ */
+public class GraphSerializer {
+
+    /**
+     * "SFGR", identifies graph files
+     */
+    static final int MAGIC = 0x53464752;
+
+    static final int VERSION = 1;
+
+    /**
+     * flag that is set if the file contains content ids
+     */
+    static final int CONTENT_IDS = 1;
+
+    private static final int HEADER_INTS = 5;
+
+    /**
+     * files larger than this many bytes are memory-mapped instead of read into a buffer on the heap
+     */
+    static final int MAP_THRESHOLD = 1 << 20;
+
+    private GraphSerializer() {
+    }
+
+    /**
+     * Write the graph to a file, without content ids. The node ids are the only reference to the contents.
+     *
+     * @param graph the graph
+     * @param file  the file, which is created or overwritten
+     * @throws IOException if the file can not be written
+     */
+    public static void write(CompactGraph<?> graph, Path file) throws IOException {
+        writeGraph(graph, file, null);
+    }
+
+    /**
+     * Write the graph to a file, together with an id for the content of each node, e.g. the index of the box in the
+     * input, so the contents can be resolved when the graph is read.
+     *
+     * @param graph     the graph
+     * @param file      the file, which is created or overwritten
+     * @param contentId returns the id of a node's content
+     * @param <T>       the type of object that the graph contains
+     * @throws IOException if the file can not be written
+     */
+    public static <T> void write(CompactGraph<T> graph, Path file, ToIntFunction<T> contentId) throws IOException {
+        if (contentId == null) {
+            throw new IllegalArgumentException("The content id function must not be null!");
+        }
+        writeGraph(graph, file, contentId);
+    }
+
+    private static <T> void writeGraph(CompactGraph<T> graph, Path file, ToIntFunction<T> contentId)
+            throws IOException {
+        int n = graph.size();
+        Set<OperatingDirection> opDirs = graph.getOperatingDirections();
+
+        long ints = HEADER_INTS + (contentId == null ? 0 : n);
+        for (OperatingDirection opDir : opDirs) {
+            ints += 1 + (n + 1) + graph.edgeCount(opDir);
+        }
+        if (ints * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("The graph is too large to be written: " + ints + " ints");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) ints * Integer.BYTES);
+        IntBuffer intBuffer = buffer.asIntBuffer();
+        intBuffer.put(MAGIC)
+                .put(VERSION)
+                .put(n)
+                .put(OperatingDirection.maskOf(opDirs))
+                .put(contentId == null ? 0 : CONTENT_IDS);
+
+        for (OperatingDirection opDir : OperatingDirection.values()) {
+            if (opDirs.contains(opDir)) {
+                intBuffer.put(graph.edgeCount(opDir));
+                intBuffer.put(graph.outOffsets(opDir));
+                intBuffer.put(graph.outTargets(opDir));
+            }
+        }
+        if (contentId != null) {
+            for (int id = 0; id < n; id++) {
+                intBuffer.put(contentId.applyAsInt(graph.getContent(id)));
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Read a graph from a file. The content of each node is resolved from its content id, or from its node id if the
+     * file contains no content ids.
+     *
+     * @param file    the file
+     * @param content returns the content for the id
+     * @param <T>     the type of object that the graph contains
+     * @return the graph
+     * @throws IOException if the file can not be read or is not a valid graph file
+     */
+    public static <T> CompactGraph<T> read(Path file, IntFunction<T> content) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            IntBuffer ints = load(channel, file).asIntBuffer();
+
+            if (ints.remaining() < HEADER_INTS || ints.get() != MAGIC) {
+                throw new IOException("The file " + file + " is not a graph file");
+            }
+            int version = ints.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported graph file version " + version + " in " + file);
+            }
+            int n = ints.get();
+            int directionMask = ints.get();
+            int flags = ints.get();
+            if (n < 0 || directionMask == 0) {
+                throw new IOException("Invalid graph file header in " + file);
+            }
+
+            int[][] outOffsets = new int[OperatingDirection.values().length][];
+            int[][] outTargets = new int[OperatingDirection.values().length][];
+            for (OperatingDirection opDir : OperatingDirection.values()) {
+                if ((directionMask & opDir.mask()) == 0) {
+                    continue;
+                }
+                int m = readLength(ints, file);
+                int[] offsets = readInts(ints, (long) n + 1, file);
+                int[] targets = readInts(ints, m, file);
+                validateRows(offsets, targets, n, file);
+                outOffsets[opDir.ordinal()] = offsets;
+                outTargets[opDir.ordinal()] = targets;
+            }
+
+            int[] contentIds = (flags & CONTENT_IDS) != 0 ? readInts(ints, n, file) : null;
+            List<T> contents = new ArrayList<>(n);
+            for (int id = 0; id < n; id++) {
+                contents.add(content.apply(contentIds == null ? id : contentIds[id]));
+            }
+
+            return CompactGraph.fromRows(contents, OperatingDirection.fromMask(directionMask), outOffsets,
+                    outTargets);
+        }
+    }
+
+    /**
+     * Read a small file into a buffer on the heap, or map a large one, see {@linkplain #MAP_THRESHOLD}
+     */
+    private static ByteBuffer load(FileChannel channel, Path file) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The file " + file + " is too large to be a graph file");
+        }
+        if (size > MAP_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of the graph file " + file);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int readLength(IntBuffer ints, Path file) throws IOException {
+        if (!ints.hasRemaining()) {
+            throw new IOException("Unexpected end of the graph file " + file);
+        }
+        int length = ints.get();
+        if (length < 0) {
+            throw new IOException("Invalid number of edges " + length + " in " + file);
+        }
+        return length;
+    }
+
+    private static int[] readInts(IntBuffer ints, long count, Path file) throws IOException {
+        // the count is a long, so n + 1 can not overflow for a corrupt number of nodes
+        if (ints.remaining() < count) {
+            throw new IOException("Unexpected end of the graph file " + file);
+        }
+        int[] values = new int[(int) count];
+        ints.get(values);
+        return values;
+    }
+
+    /**
+     * Check that the rows read from the file form a valid graph, so a corrupt file is rejected instead of failing later
+     */
+    private static void validateRows(int[] offsets, int[] targets, int n, Path file) throws IOException {
+        if (offsets[0] != 0 || offsets[n] != targets.length) {
+            throw new IOException("Invalid edge offsets in " + file);
+        }
+        for (int node = 0; node < n; node++) {
+            if (offsets[node] > offsets[node + 1]) {
+                throw new IOException("Invalid edge offsets in " + file);
+            }
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (targets[i] < 0 || targets[i] >= n || targets[i] == node ||
+                        (i > offsets[node] && targets[i] <= targets[i - 1])) {
+                    throw new IOException("Invalid edge from node " + node + " in " + file);
+                }
+            }
+        }
+    }
+}
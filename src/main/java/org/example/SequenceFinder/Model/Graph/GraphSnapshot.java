@@ -0,0 +1,198 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable state of a {@linkplain CompactGraph} during the removal of its nodes.
+ * <p>
+ * Removing a node does not change the snapshot, but returns a new snapshot. The remaining in-degrees of the nodes and
+ * the removed flags are stored in {@linkplain PersistentIntArray}s, so the new snapshot shares everything but the
+ * changed values with the old one and removing a node only touches the node and its successors. As snapshots never
+ * change, forking is free: multiple threads can explore different removal sequences starting from the same snapshot
+ * without locks and without copying the graph.
+ *
+ * @param <T> the object that is saved in the graph
+ */
+public class GraphSnapshot<T> {
+
+    /**
+     * the graph, which is shared by all snapshots
+     */
+    private final CompactGraph<T> graph;
+
+    /**
+     * the operating directions of the graph
+     */
+    private final OperatingDirection[] directions;
+
+    /**
+     * the number of incoming edges from nodes that are not removed yet, at index
+     * {@code directionIndex * size + nodeId}
+     */
+    private final PersistentIntArray inDegrees;
+
+    /**
+     * 1 if the node is removed, 0 otherwise
+     */
+    private final PersistentIntArray removed;
+
+    /**
+     * the number of removed nodes
+     */
+    private final int removedCount;
+
+    private GraphSnapshot(CompactGraph<T> graph, OperatingDirection[] directions, PersistentIntArray inDegrees,
+                          PersistentIntArray removed, int removedCount) {
+        this.graph = graph;
+        this.directions = directions;
+        this.inDegrees = inDegrees;
+        this.removed = removed;
+        this.removedCount = removedCount;
+    }
+
+    /**
+     * Create the snapshot of the given graph where no node is removed yet
+     *
+     * @param graph the graph
+     * @param <T>   the type of object that the graph contains
+     * @return the initial snapshot
+     */
+    public static <T> GraphSnapshot<T> of(CompactGraph<T> graph) {
+        OperatingDirection[] directions = graph.getOperatingDirections().toArray(new OperatingDirection[0]);
+        int size = graph.size();
+
+        int[] inDegrees = new int[directions.length * size];
+        for (int d = 0; d < directions.length; d++) {
+            for (int node = 0; node < size; node++) {
+                inDegrees[d * size + node] = graph.inDegree(node, directions[d]);
+            }
+        }
+        return new GraphSnapshot<>(graph, directions, PersistentIntArray.of(inDegrees),
+                PersistentIntArray.of(new int[size]), 0);
+    }
+
+    /**
+     * Remove a node and all of its edges. This snapshot is not changed.
+     *
+     * @param id the id of the node
+     * @return the snapshot after the removal
+     */
+    public GraphSnapshot<T> removeNode(int id) {
+        if (isRemoved(id)) {
+            throw new IllegalGraphStateException("Node: " + id + " has already been removed");
+        }
+        if (!isRemovable(id)) {
+            throw new IllegalGraphStateException("Node: " + id + " has incoming edges and cannot be removed");
+        }
+
+        int size = graph.size();
+        PersistentIntArray newInDegrees = inDegrees;
+        for (int d = 0; d < directions.length; d++) {
+            int[] offsets = graph.outOffsets(directions[d]);
+            int[] targets = graph.outTargets(directions[d]);
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                int index = d * size + targets[i];
+                newInDegrees = newInDegrees.set(index, newInDegrees.get(index) - 1);
+            }
+        }
+        return new GraphSnapshot<>(graph, directions, newInDegrees, removed.set(id, 1), removedCount + 1);
+    }
+
+    /**
+     * Check if a node has been removed
+     *
+     * @param id the id of the node
+     * @return true if the node has been removed
+     */
+    public boolean isRemoved(int id) {
+        if (id < 0 || id >= graph.size()) {
+            throw new IllegalGraphStateException("Node: " + id + " does not exist in the graph");
+        }
+        return removed.get(id) != 0;
+    }
+
+    /**
+     * Check if a node can be removed next, i.e. it is not removed yet and has no incoming edges from remaining nodes
+     * for at least one of the graph's {@linkplain OperatingDirection}s.
+     *
+     * @param id the id of the node
+     * @return true if the node is removable
+     */
+    public boolean isRemovable(int id) {
+        if (isRemoved(id)) {
+            return false;
+        }
+        for (int d = 0; d < directions.length; d++) {
+            if (inDegrees.get(d * graph.size() + id) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of incoming edges of a node from nodes that are not removed yet
+     *
+     * @param id    the id of the node
+     * @param opDir the operating direction
+     * @return the number of remaining incoming edges
+     */
+    public int inDegree(int id, OperatingDirection opDir) {
+        for (int d = 0; d < directions.length; d++) {
+            if (directions[d] == opDir) {
+                return inDegrees.get(d * graph.size() + id);
+            }
+        }
+        throw new IllegalGraphStateException("The graph does not represent the operating direction " + opDir);
+    }
+
+    /**
+     * Perform the given action for each node that can be removed next, in ascending order of the node ids.
+     *
+     * @param action the action
+     */
+    public void forEachRemovable(IntConsumer action) {
+        for (int id = 0; id < graph.size(); id++) {
+            if (isRemovable(id)) {
+                action.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Check if all nodes have been removed
+     *
+     * @return true if all nodes have been removed
+     */
+    public boolean isComplete() {
+        return removedCount == graph.size();
+    }
+
+    /**
+     * Get the number of removed nodes
+     *
+     * @return the number of removed nodes
+     */
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Get the graph this snapshot belongs to
+     *
+     * @return the graph
+     */
+    public CompactGraph<T> getGraph() {
+        return graph;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphSnapshot{" +
+                "#removed=" + removedCount + ", " +
+                "#nodes=" + graph.size() +
+                "}";
+    }
+}
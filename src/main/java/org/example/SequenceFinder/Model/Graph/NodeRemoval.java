@@ -0,0 +1,73 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The record of a node that was removed from a {@linkplain Graph}. It is returned by
+ * {@linkplain Graph#removeNode(GraphNode)} and can be passed to {@linkplain Graph#restoreNode(NodeRemoval)} to undo the
+ * removal.
+ * <p>
+ * Removals must be undone in the reverse order they were made, like the steps of a depth-first search.
+ *
+ * @param <T> the type of object that is stored in the graph
+ */
+public class NodeRemoval<T> {
+
+    /**
+     * the graph the node was removed from
+     */
+    final Graph<T> graph;
+
+    /**
+     * the number of removals that were made on the graph before this removal, used to enforce the order of undoing
+     */
+    final int depth;
+
+    /**
+     * the removed node
+     */
+    final GraphNode<T> node;
+
+    /**
+     * the edges the node had when it was removed
+     */
+    final List<GraphNode.DirectedGraphEdge<T>> edges;
+
+    /**
+     * the nodes that only became removable because the node was removed
+     */
+    final List<GraphNode<T>> newlyRemovableNodes;
+
+    NodeRemoval(Graph<T> graph, int depth, GraphNode<T> node, List<GraphNode.DirectedGraphEdge<T>> edges,
+                List<GraphNode<T>> newlyRemovableNodes) {
+        this.graph = graph;
+        this.depth = depth;
+        this.node = node;
+        this.edges = edges;
+        this.newlyRemovableNodes = newlyRemovableNodes;
+    }
+
+    public GraphNode<T> getNode() {
+        return node;
+    }
+
+    /**
+     * Get the nodes that were not removable before the node was removed, but are removable afterwards
+     *
+     * @return an unmodifiable view of the newly removable nodes
+     */
+    public Collection<GraphNode<T>> getNewlyRemovableNodes() {
+        return Collections.unmodifiableList(newlyRemovableNodes);
+    }
+
+    @Override
+    public String toString() {
+        return "NodeRemoval{" +
+                "node=" + node + ", " +
+                "#edges=" + edges.size() + ", " +
+                "#newlyRemovableNodes=" + newlyRemovableNodes.size() +
+                "}";
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.SequenceFinder.Model.Graph;
+
+/**
+ * An immutable array of ints, where changing a value creates a new array that shares all unchanged parts with the old
+ * one.
+ * <p>
+ * The values are stored in the leaves of a trie with 32 children per node. Reading a value walks down the trie,
+ * setting a value copies only the nodes on the path from the root to the leaf (path copying). Both take
+ * O(log32(size)) time, which is at most 3 levels for 32768 values.
+ */
+final class PersistentIntArray {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * the number of values
+     */
+    private final int size;
+
+    /**
+     * the number of bits the index is shifted to get the child index at the root. 0 if the root is a leaf.
+     */
+    private final int shift;
+
+    /**
+     * the root of the trie. Inner nodes are {@code Object[]}, leaves are {@code int[]}.
+     */
+    private final Object root;
+
+    private PersistentIntArray(int size, int shift, Object root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Create a persistent array containing the given values
+     *
+     * @param values the values
+     * @return the persistent array
+     */
+    static PersistentIntArray of(int[] values) {
+        int shift = 0;
+        while (((long) WIDTH << shift) < values.length) {
+            shift += BITS;
+        }
+        return new PersistentIntArray(values.length, shift, build(values, 0, shift));
+    }
+
+    private static Object build(int[] values, int offset, int shift) {
+        if (shift == 0) {
+            int[] leaf = new int[WIDTH];
+            System.arraycopy(values, offset, leaf, 0, Math.max(0, Math.min(WIDTH, values.length - offset)));
+            return leaf;
+        }
+        Object[] children = new Object[WIDTH];
+        for (int i = 0; i < WIDTH; i++) {
+            int childOffset = offset + (i << shift);
+            if (childOffset >= values.length) {
+                break;
+            }
+            children[i] = build(values, childOffset, shift - BITS);
+        }
+        return children;
+    }
+
+    /**
+     * Get the value at the given index
+     *
+     * @param index the index
+     * @return the value
+     */
+    int get(int index) {
+        checkIndex(index);
+        Object node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            node = ((Object[]) node)[(index >>> s) & MASK];
+        }
+        return ((int[]) node)[index & MASK];
+    }
+
+    /**
+     * Create an array where the value at the given index is changed. This array is not modified.
+     *
+     * @param index the index
+     * @param value the new value
+     * @return the changed array, or this array if the value is unchanged
+     */
+    PersistentIntArray set(int index, int value) {
+        if (get(index) == value) {
+            return this;
+        }
+        return new PersistentIntArray(size, shift, set(root, shift, index, value));
+    }
+
+    private static Object set(Object node, int shift, int index, int value) {
+        if (shift == 0) {
+            int[] leaf = ((int[]) node).clone();
+            leaf[index & MASK] = value;
+            return leaf;
+        }
+        Object[] children = ((Object[]) node).clone();
+        int child = (index >>> shift) & MASK;
+        children[child] = set(children[child], shift - BITS, index, value);
+        return children;
+    }
+
+    /**
+     * Get the number of values
+     *
+     * @return the number of values
+     */
+    int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
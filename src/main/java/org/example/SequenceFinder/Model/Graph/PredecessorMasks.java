@@ -0,0 +1,185 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.Set;
+
+/**
+ * The predecessors of each node of a {@linkplain CompactGraph} as bitsets, one per {@linkplain OperatingDirection}.
+ * <p>
+ * A node is removable, if all of its predecessors for at least one direction have been removed. With the removed nodes
+ * stored as a bitset as well, this check is a word-parallel bit operation: the node is removable from a direction if
+ * {@code predecessors & ~removed} is zero in every word. Words outside the range where a node has predecessors are
+ * skipped.
+ * <p>
+ * The masks take {@code size / 64} longs per node and direction and are meant for stacks of up to a few thousand
+ * boxes.
+ *
+ * @see BitsetSearchState
+ */
+public class PredecessorMasks {
+
+    /**
+     * the number of nodes
+     */
+    private final int size;
+
+    /**
+     * the number of longs needed to store one bit per node
+     */
+    private final int words;
+
+    /**
+     * the operating directions of the graph
+     */
+    private final OperatingDirection[] directions;
+
+    /**
+     * the predecessor bitsets, indexed by the index of the direction in {@linkplain #directions} and the node id. Null
+     * if the node has no predecessors for the direction.
+     */
+    private final long[][][] masks;
+
+    /**
+     * the index of the first word of each mask that is not zero
+     */
+    private final int[][] firstWords;
+
+    /**
+     * the index after the last word of each mask that is not zero
+     */
+    private final int[][] endWords;
+
+    private PredecessorMasks(int size, OperatingDirection[] directions, long[][][] masks, int[][] firstWords,
+                             int[][] endWords) {
+        this.size = size;
+        this.words = wordsFor(size);
+        this.directions = directions;
+        this.masks = masks;
+        this.firstWords = firstWords;
+        this.endWords = endWords;
+    }
+
+    /**
+     * Precompute the predecessor masks of all nodes of the given graph
+     *
+     * @param graph the graph
+     * @return the predecessor masks
+     */
+    public static PredecessorMasks of(CompactGraph<?> graph) {
+        int size = graph.size();
+        int words = wordsFor(size);
+        Set<OperatingDirection> opDirs = graph.getOperatingDirections();
+        OperatingDirection[] directions = opDirs.toArray(new OperatingDirection[0]);
+
+        long[][][] masks = new long[directions.length][size][];
+        int[][] firstWords = new int[directions.length][size];
+        int[][] endWords = new int[directions.length][size];
+
+        for (int d = 0; d < directions.length; d++) {
+            int[] offsets = graph.inOffsets(directions[d]);
+            int[] sources = graph.inSources(directions[d]);
+
+            for (int node = 0; node < size; node++) {
+                int start = offsets[node];
+                int end = offsets[node + 1];
+                if (start == end) {
+                    continue;
+                }
+                long[] mask = new long[words];
+                for (int i = start; i < end; i++) {
+                    mask[sources[i] >>> 6] |= 1L << sources[i];
+                }
+                masks[d][node] = mask;
+                // the sources are sorted, so the first and the last source determine the range of words
+                firstWords[d][node] = sources[start] >>> 6;
+                endWords[d][node] = (sources[end - 1] >>> 6) + 1;
+            }
+        }
+        return new PredecessorMasks(size, directions, masks, firstWords, endWords);
+    }
+
+    /**
+     * Calculate the number of longs needed to store one bit for each of the given number of nodes
+     *
+     * @param size the number of nodes
+     * @return the number of longs
+     */
+    static int wordsFor(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Check if a node is removable, i.e. all of its predecessors for at least one direction are removed.
+     *
+     * @param id      the id of the node
+     * @param removed the removed nodes as bitset
+     * @return true if the node is removable
+     */
+    public boolean isRemovable(int id, long[] removed) {
+        for (int d = 0; d < directions.length; d++) {
+            if (isRemovable(d, id, removed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a node is removable from the given {@linkplain OperatingDirection}, i.e. all of its predecessors for
+     * this direction are removed.
+     *
+     * @param id      the id of the node
+     * @param opDir   the operating direction
+     * @param removed the removed nodes as bitset
+     * @return true if the node is removable from the direction
+     */
+    public boolean isRemovable(int id, OperatingDirection opDir, long[] removed) {
+        for (int d = 0; d < directions.length; d++) {
+            if (directions[d] == opDir) {
+                return isRemovable(d, id, removed);
+            }
+        }
+        throw new IllegalGraphStateException("The graph does not represent the operating direction " + opDir);
+    }
+
+    private boolean isRemovable(int d, int id, long[] removed) {
+        long[] mask = masks[d][id];
+        if (mask == null) {
+            return true;
+        }
+        for (int w = firstWords[d][id]; w < endWords[d][id]; w++) {
+            if ((mask[w] & ~removed[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create the search state where no node is removed yet
+     *
+     * @return the initial search state
+     */
+    public BitsetSearchState initialState() {
+        return new BitsetSearchState(this);
+    }
+
+    /**
+     * Get the number of nodes
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of longs needed to store one bit per node
+     *
+     * @return the number of longs
+     */
+    public int words() {
+        return words;
+    }
+}
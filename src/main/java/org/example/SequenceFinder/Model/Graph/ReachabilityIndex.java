@@ -0,0 +1,477 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.*;
+
+/**
+ * Answers which boxes have to be removed before a box, directly or transitively, for one
+ * {@linkplain OperatingDirection} of a graph. Box v is a <i>blocker</i> of box w, if there is a path from v to w in the
+ * graph, and w is then <i>blocked</i> by v.
+ * <p>
+ * The index is built once, e.g. right after the graphs are created, and does not change when nodes are removed from
+ * the graph. Two representations are used, depending on the size of the graph:
+ * <ul>
+ *     <li>Up to {@linkplain #CLOSURE_LIMIT} nodes, the transitive closure is stored as one bitset of blocked nodes per
+ *     node, built in reverse topological order in O(N * E / 64). Queries and counts take O(1). Collecting the
+ *     blocked nodes of a node takes O(N / 64 + result), collecting its blockers O(N), as only the rows of the closure
+ *     are stored.</li>
+ *     <li>Larger graphs would need too much memory for the closure, so each node is labeled with its topological
+ *     level and an interval [lowest post-order number of its descendants, its post-order number] (GRAIL labeling).
+ *     If v blocks w, the level of v is lower and the interval of v contains the interval of w. Many queries are
+ *     answered by these labels alone, the others by a depth-first search that skips all nodes whose labels rule them
+ *     out, which still takes O(N + E) in the worst case. Counts and collections are a single depth-first search over
+ *     the edges, O(N + E); counts are cached after the first request.</li>
+ * </ul>
+ * The index is not thread-safe: the searches share their buffers, and the counts are cached lazily.
+ *
+ * @param <T> the type of object that the graph contains
+ */
+public class ReachabilityIndex<T> {
+
+    /**
+     * the largest number of nodes for which the transitive closure is stored, which then takes up to 32 MiB
+     */
+    static final int CLOSURE_LIMIT = 1 << 14;
+
+    private final CompactGraph<T> graph;
+    private final OperatingDirection opDir;
+
+    /**
+     * the nodes blocked by each node, indexed by the node id. Null if the graph is too large.
+     */
+    private final long[][] blocked;
+
+    /**
+     * the topological level of each node, i.e. the length of the longest path to it. Null if the closure is stored.
+     */
+    private final int[] levels;
+
+    /**
+     * the post-order number of each node, and the lowest post-order number of all nodes it blocks. Null if the closure
+     * is stored.
+     */
+    private final int[] post;
+    private final int[] low;
+
+    /**
+     * the number of blockers and of blocked nodes of each node, -1 if not yet calculated
+     */
+    private final int[] blockerCounts;
+    private final int[] blockedCounts;
+
+    /**
+     * the nodes visited by the current search, marked with the number of the search, so it never has to be cleared
+     */
+    private final int[] visited;
+    private int searches = 0;
+    private final int[] stack;
+
+    private ReachabilityIndex(CompactGraph<T> graph, OperatingDirection opDir, boolean closure) {
+        if (!graph.getOperatingDirections().contains(opDir)) {
+            throw new IllegalArgumentException("The graph does not represent the operating direction " + opDir);
+        }
+        this.graph = graph;
+        this.opDir = opDir;
+
+        int n = graph.size();
+        int[] order = topologicalOrder();
+        this.blockerCounts = new int[n];
+        this.blockedCounts = new int[n];
+
+        if (closure) {
+            this.blocked = buildClosure(order);
+            this.levels = null;
+            this.post = null;
+            this.low = null;
+            this.visited = null;
+            this.stack = null;
+        } else {
+            this.blocked = null;
+            this.levels = new int[n];
+            this.post = new int[n];
+            this.low = new int[n];
+            this.visited = new int[n];
+            this.stack = new int[n];
+            buildLabels(order);
+            Arrays.fill(blockerCounts, -1);
+            Arrays.fill(blockedCounts, -1);
+        }
+    }
+
+    /**
+     * Build the reachability index for one operating direction of the graph
+     *
+     * @param graph the graph
+     * @param opDir the operating direction whose edges are considered
+     * @param <T>   the type of object that the graph contains
+     * @return the reachability index
+     * @throws IllegalArgumentException   if the graph does not represent the operating direction
+     * @throws IllegalGraphStateException if the edges of the operating direction form a cycle
+     */
+    public static <T> ReachabilityIndex<T> of(CompactGraph<T> graph, OperatingDirection opDir) {
+        return new ReachabilityIndex<>(graph, opDir, graph.size() <= CLOSURE_LIMIT);
+    }
+
+    /**
+     * Build the reachability index for one operating direction of the graph, see
+     * {@linkplain #of(CompactGraph, OperatingDirection)}. Nodes that were removed from the graph are not part of the
+     * index.
+     *
+     * @param graph the graph
+     * @param opDir the operating direction whose edges are considered
+     * @param <T>   the type of object that the graph contains
+     * @return the reachability index
+     */
+    public static <T> ReachabilityIndex<T> of(Graph<T> graph, OperatingDirection opDir) {
+        return of(CompactGraph.of(graph), opDir);
+    }
+
+    /**
+     * Build the index with the given representation, used to test the labels on small graphs
+     */
+    static <T> ReachabilityIndex<T> of(CompactGraph<T> graph, OperatingDirection opDir, boolean closure) {
+        return new ReachabilityIndex<>(graph, opDir, closure);
+    }
+
+    /**
+     * Calculate a topological order of the nodes using Kahn's algorithm
+     */
+    private int[] topologicalOrder() {
+        int n = graph.size();
+        int[] offsets = graph.outOffsets(opDir);
+        int[] targets = graph.outTargets(opDir);
+        int[] inDegrees = new int[n];
+        for (int target : targets) {
+            inDegrees[target]++;
+        }
+
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int id = 0; id < n; id++) {
+            if (inDegrees[id] == 0) {
+                order[tail++] = id;
+            }
+        }
+        while (head < tail) {
+            int id = order[head++];
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                if (--inDegrees[targets[i]] == 0) {
+                    order[tail++] = targets[i];
+                }
+            }
+        }
+
+        if (tail != n) {
+            throw new IllegalGraphStateException("The graph contains a cycle for the operating direction " + opDir +
+                    ", " + (n - tail) + " nodes can never be removed");
+        }
+        return order;
+    }
+
+    /**
+     * Collect the nodes blocked by each node in reverse topological order, so the rows of all successors are complete
+     * when a node is reached
+     */
+    private long[][] buildClosure(int[] order) {
+        int n = graph.size();
+        int words = (n + 63) >>> 6;
+        int[] offsets = graph.outOffsets(opDir);
+        int[] targets = graph.outTargets(opDir);
+
+        long[][] rows = new long[n][];
+        for (int i = n - 1; i >= 0; i--) {
+            int id = order[i];
+            long[] row = new long[words];
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                int target = targets[e];
+                if ((row[target >>> 6] & (1L << target)) != 0) {
+                    // already reachable through another successor
+                    continue;
+                }
+                row[target >>> 6] |= 1L << target;
+                long[] targetRow = rows[target];
+                for (int w = 0; w < words; w++) {
+                    row[w] |= targetRow[w];
+                }
+            }
+            rows[id] = row;
+        }
+
+        for (int id = 0; id < n; id++) {
+            long[] row = rows[id];
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                long bits = row[w];
+                count += Long.bitCount(bits);
+                for (; bits != 0; bits &= bits - 1) {
+                    blockerCounts[(w << 6) + Long.numberOfTrailingZeros(bits)]++;
+                }
+            }
+            blockedCounts[id] = count;
+        }
+        return rows;
+    }
+
+    /**
+     * Calculate the levels, post-order numbers and lowest post-order numbers of all nodes
+     */
+    private void buildLabels(int[] order) {
+        int n = graph.size();
+        int[] offsets = graph.outOffsets(opDir);
+        int[] targets = graph.outTargets(opDir);
+
+        for (int id : order) {
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                levels[targets[e]] = Math.max(levels[targets[e]], levels[id] + 1);
+            }
+        }
+
+        // iterative depth-first search from each node in topological order, so the roots are visited first
+        int[] next = new int[n];
+        boolean[] discovered = new boolean[n];
+        int counter = 0;
+        for (int root : order) {
+            if (discovered[root]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            discovered[root] = true;
+            next[root] = offsets[root];
+            while (top > 0) {
+                int id = stack[top - 1];
+                if (next[id] < offsets[id + 1]) {
+                    int target = targets[next[id]++];
+                    if (!discovered[target]) {
+                        discovered[target] = true;
+                        next[target] = offsets[target];
+                        stack[top++] = target;
+                    }
+                } else {
+                    top--;
+                    post[id] = counter++;
+                }
+            }
+        }
+
+        // the lowest post-order number in the subgraph below each node, in reverse topological order
+        for (int i = n - 1; i >= 0; i--) {
+            int id = order[i];
+            int lowest = post[id];
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                lowest = Math.min(lowest, low[targets[e]]);
+            }
+            low[id] = lowest;
+        }
+    }
+
+    /**
+     * Check if the node with the id blocker has to be removed before the node with the id box, i.e. there is a path
+     * from blocker to box
+     *
+     * @param blocker the id of the blocker
+     * @param box     the id of the box
+     * @return true if blocker blocks box directly or transitively
+     */
+    public boolean blocks(int blocker, int box) {
+        if (blocked != null) {
+            return (blocked[blocker][box >>> 6] & (1L << box)) != 0;
+        }
+        if (blocker == box || !canBlock(blocker, box)) {
+            return false;
+        }
+
+        // depth-first search from the blocker, skipping all nodes whose labels rule out a path to the box
+        int[] offsets = graph.outOffsets(opDir);
+        int[] targets = graph.outTargets(opDir);
+        int search = ++searches;
+        int top = 0;
+        stack[top++] = blocker;
+        visited[blocker] = search;
+        while (top > 0) {
+            int id = stack[--top];
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                int target = targets[e];
+                if (target == box) {
+                    return true;
+                }
+                if (visited[target] != search && canBlock(target, box)) {
+                    visited[target] = search;
+                    stack[top++] = target;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the labels allow a path from one node to the other
+     */
+    private boolean canBlock(int blocker, int box) {
+        return levels[blocker] < levels[box] && low[blocker] <= low[box] && post[box] < post[blocker];
+    }
+
+    /**
+     * Check if the blocker has to be removed before the box
+     *
+     * @param blocker the blocker
+     * @param box     the box
+     * @return true if blocker blocks box directly or transitively
+     * @throws IllegalArgumentException if one of the objects is not part of the graph
+     * @see #blocks(int, int)
+     */
+    public boolean blocks(T blocker, T box) {
+        return blocks(idOf(blocker), idOf(box));
+    }
+
+    /**
+     * Count the nodes that have to be removed before the node, directly or transitively
+     *
+     * @param box the id of the node
+     * @return the number of blockers
+     */
+    public int countBlockers(int box) {
+        if (blockerCounts[box] < 0) {
+            blockerCounts[box] = countReachable(box, graph.inOffsets(opDir), graph.inSources(opDir), null);
+        }
+        return blockerCounts[box];
+    }
+
+    /**
+     * Count the nodes that can only be removed after the node, directly or transitively
+     *
+     * @param blocker the id of the node
+     * @return the number of blocked nodes
+     */
+    public int countBlocked(int blocker) {
+        if (blockedCounts[blocker] < 0) {
+            blockedCounts[blocker] = countReachable(blocker, graph.outOffsets(opDir), graph.outTargets(opDir), null);
+        }
+        return blockedCounts[blocker];
+    }
+
+    /**
+     * Count the nodes reachable from the start, following the given edges, and add their content to the collection
+     *
+     * @param reached the collection the content of the reachable nodes is added to, null to only count them
+     */
+    private int countReachable(int start, int[] offsets, int[] neighbours, Collection<T> reached) {
+        int search = ++searches;
+        int count = 0;
+        int top = 0;
+        stack[top++] = start;
+        visited[start] = search;
+        while (top > 0) {
+            int id = stack[--top];
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                int neighbour = neighbours[e];
+                if (visited[neighbour] != search) {
+                    visited[neighbour] = search;
+                    stack[top++] = neighbour;
+                    count++;
+                    if (reached != null) {
+                        reached.add(graph.getContent(neighbour));
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the boxes that have to be removed before the box, directly or transitively
+     *
+     * @param box the box
+     * @return the number of blockers
+     * @throws IllegalArgumentException if the box is not part of the graph
+     */
+    public int countBlockers(T box) {
+        return countBlockers(idOf(box));
+    }
+
+    /**
+     * Count the boxes that can only be removed after the box, directly or transitively
+     *
+     * @param blocker the box
+     * @return the number of blocked boxes
+     * @throws IllegalArgumentException if the box is not part of the graph
+     */
+    public int countBlocked(T blocker) {
+        return countBlocked(idOf(blocker));
+    }
+
+    /**
+     * Get all boxes that have to be removed before the box, directly or transitively
+     *
+     * @param box the box
+     * @return the blockers
+     * @throws IllegalArgumentException if the box is not part of the graph
+     */
+    public Set<T> getBlockers(T box) {
+        int id = idOf(box);
+        Set<T> blockers = new HashSet<>(Graph.capacityFor(countBlockers(id)));
+        if (blocked == null) {
+            countReachable(id, graph.inOffsets(opDir), graph.inSources(opDir), blockers);
+            return blockers;
+        }
+        // only the rows of the closure are stored, so check the column of the box in each row
+        int word = id >>> 6;
+        long mask = 1L << id;
+        for (int other = 0; other < graph.size(); other++) {
+            if ((blocked[other][word] & mask) != 0) {
+                blockers.add(graph.getContent(other));
+            }
+        }
+        return blockers;
+    }
+
+    /**
+     * Get all boxes that can only be removed after the box, directly or transitively
+     *
+     * @param blocker the box
+     * @return the blocked boxes
+     * @throws IllegalArgumentException if the box is not part of the graph
+     */
+    public Set<T> getBlocked(T blocker) {
+        int id = idOf(blocker);
+        Set<T> blockedBoxes = new HashSet<>(Graph.capacityFor(countBlocked(id)));
+        if (blocked == null) {
+            countReachable(id, graph.outOffsets(opDir), graph.outTargets(opDir), blockedBoxes);
+            return blockedBoxes;
+        }
+        long[] row = blocked[id];
+        for (int w = 0; w < row.length; w++) {
+            for (long bits = row[w]; bits != 0; bits &= bits - 1) {
+                blockedBoxes.add(graph.getContent((w << 6) + Long.numberOfTrailingZeros(bits)));
+            }
+        }
+        return blockedBoxes;
+    }
+
+    /**
+     * Check if the transitive closure is stored, or the labels are used
+     *
+     * @return true if the transitive closure is stored
+     */
+    boolean isClosure() {
+        return blocked != null;
+    }
+
+    public CompactGraph<T> getGraph() {
+        return graph;
+    }
+
+    public OperatingDirection getOperatingDirection() {
+        return opDir;
+    }
+
+    private int idOf(T content) {
+        int id = graph.idOf(content);
+        if (id < 0) {
+            throw new IllegalArgumentException("The object " + content + " is not part of the graph");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,254 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The removable nodes of a {@linkplain Graph}, i.e. the frontier of a search through the possible sequences. It is
+ * maintained by the graph while nodes are removed and restored, so it never has to be copied.
+ * <p>
+ * The nodes are stored in an array, and the position of each node in a map. Adding, removing and checking a node
+ * takes O(1); a node is removed by moving the last node to its position. The iteration order is therefore stable as
+ * long as the frontier does not change, but not sorted in any way. Use
+ * {@linkplain #sortInto(List, double[], ToDoubleFunction)} to get the nodes ordered by a priority.
+ * <p>
+ * The frontier can only be changed by its graph. Changing the graph while iterating over the frontier results in a
+ * {@linkplain ConcurrentModificationException}.
+ *
+ * @param <T> the type of object that is stored in the graph
+ */
+public class RemovableFrontier<T> implements Iterable<GraphNode<T>> {
+
+    /**
+     * the removable nodes, the first {@code size} entries are used
+     */
+    private GraphNode<T>[] nodes;
+
+    private int size = 0;
+
+    /**
+     * the position of each node in {@code nodes}
+     */
+    private final HashMap<GraphNode<T>, Integer> positions;
+
+    /**
+     * the number of changes, used to detect changes while iterating
+     */
+    private int modifications = 0;
+
+    /**
+     * the priorities of the nodes by their position, and the positions in sorted order, reused by each call of
+     * {@linkplain #sortInto(List, double[], ToDoubleFunction)}
+     */
+    private double[] keys = new double[0];
+    private int[] order = new int[0];
+    private int[] merged = new int[0];
+
+    RemovableFrontier(int expectedNodes) {
+        // generic arrays can not be created. The cast is safe, as the array is private and only ever filled with
+        // nodes of type GraphNode<T>.
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        GraphNode<T>[] initialNodes = (GraphNode<T>[]) new GraphNode[Math.max(4, expectedNodes)];
+        this.nodes = initialNodes;
+        this.positions = new HashMap<>(Graph.capacityFor(expectedNodes));
+    }
+
+    /**
+     * Add the node to the frontier
+     *
+     * @param node the node
+     * @return true if the node was added, false if it already is part of the frontier
+     */
+    boolean add(GraphNode<T> node) {
+        if (positions.putIfAbsent(node, size) != null) {
+            return false;
+        }
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+        }
+        nodes[size++] = node;
+        modifications++;
+        return true;
+    }
+
+    /**
+     * Remove the node from the frontier, the last node takes its position
+     *
+     * @param node the node
+     * @return true if the node was removed, false if it is not part of the frontier
+     */
+    boolean remove(GraphNode<T> node) {
+        Integer position = positions.remove(node);
+        if (position == null) {
+            return false;
+        }
+        GraphNode<T> last = nodes[--size];
+        nodes[size] = null;
+        if (position != size) {
+            nodes[position] = last;
+            positions.put(last, position);
+        }
+        modifications++;
+        return true;
+    }
+
+    /**
+     * Remove all nodes from the frontier that do not fulfill the condition
+     *
+     * @param condition the condition
+     */
+    void retainIf(Predicate<GraphNode<T>> condition) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (!condition.test(nodes[i])) {
+                remove(nodes[i]);
+            }
+        }
+    }
+
+    /**
+     * Check if the node is part of the frontier
+     *
+     * @param node the node
+     * @return true if the node is removable
+     */
+    public boolean contains(GraphNode<T> node) {
+        return positions.containsKey(node);
+    }
+
+    /**
+     * Return the number of removable nodes
+     *
+     * @return the number of removable nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the node at the given position. Together with {@linkplain #size()}, this allows iterating over the
+     * frontier without creating an iterator.
+     *
+     * @param position the position, from 0 to {@code size() - 1}
+     * @return the node at the position
+     */
+    public GraphNode<T> get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size);
+        }
+        return nodes[position];
+    }
+
+    /**
+     * Copy the removable nodes into the buffer, ordered by the priority in ascending order. The priority of each node
+     * is calculated once and stored in the priorities array at the same position. Nodes with equal priority keep the
+     * order of the frontier.
+     * <p>
+     * The buffer and the array can be reused for each call, so a search does not allocate anything once they are
+     * large enough. The priority can depend on the search state, e.g. the cost of the transition from the last removed
+     * node, so it is not maintained by the frontier itself.
+     *
+     * @param buffer     the list the nodes are copied into, it is cleared first
+     * @param priorities the array the priorities are stored in. If it is too small, a new array is created.
+     * @param priority   calculates the priority of a node, lower values are ordered first
+     * @return the array holding the priorities, which is either the given array or a larger one
+     */
+    public double[] sortInto(List<GraphNode<T>> buffer, double[] priorities, ToDoubleFunction<GraphNode<T>> priority) {
+        if (priorities == null || priorities.length < size) {
+            priorities = new double[Math.max(size, 2 * (priorities == null ? 0 : priorities.length))];
+        }
+        if (keys.length < size) {
+            keys = new double[nodes.length];
+            order = new int[nodes.length];
+            merged = new int[nodes.length];
+        }
+        buffer.clear();
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = priority.applyAsDouble(nodes[i]);
+            order[i] = i;
+        }
+        int[] sorted = sortPositions();
+        for (int i = 0; i < size; i++) {
+            priorities[i] = keys[sorted[i]];
+            buffer.add(nodes[sorted[i]]);
+        }
+        return priorities;
+    }
+
+    /**
+     * Sort the positions in {@code order} by their key with a bottom-up merge sort, O(size * log(size)). The sort is
+     * stable, so positions with equal keys keep their order.
+     *
+     * @return the array holding the sorted positions, either {@code order} or {@code merged}
+     */
+    private int[] sortPositions() {
+        int[] from = order;
+        int[] to = merged;
+        for (int width = 1; width < size; width *= 2) {
+            for (int left = 0; left < size; left += 2 * width) {
+                int mid = Math.min(left + width, size);
+                int right = Math.min(left + 2 * width, size);
+                int i = left;
+                int j = mid;
+                int k = left;
+                while (i < mid && j < right) {
+                    // take the right position only if its key is strictly lower, to keep the sort stable
+                    to[k++] = keys[from[j]] < keys[from[i]] ? from[j++] : from[i++];
+                }
+                while (i < mid) {
+                    to[k++] = from[i++];
+                }
+                while (j < right) {
+                    to[k++] = from[j++];
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    /**
+     * Iterate over the removable nodes without copying them
+     *
+     * @return an iterator over the removable nodes
+     */
+    @Override
+    public Iterator<GraphNode<T>> iterator() {
+        return new Iterator<GraphNode<T>>() {
+            private final int expectedModifications = modifications;
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public GraphNode<T> next() {
+                if (modifications != expectedModifications) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return nodes[position++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "RemovableFrontier[", "]");
+        for (int i = 0; i < size; i++) {
+            joiner.add(String.valueOf(nodes[i].getContent()));
+        }
+        return joiner.toString();
+    }
+}
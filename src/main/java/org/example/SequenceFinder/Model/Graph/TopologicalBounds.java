@@ -0,0 +1,349 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The earliest and the latest position at which each node can be removed, counted from 0, for a set of
+ * {@linkplain OperatingDirection}s of a graph. Both are bounds: every removal sequence removes a node at a position
+ * between them, but not every position between them is possible.
+ * <ul>
+ *     <li>The earliest position is the topological level of a node, i.e. the length of the longest path of blockers
+ *     that have to be removed before it. If several directions are considered and the direction can change, a node is
+ *     removable once all of its blockers for any one direction are removed, so its earliest position is the minimum
+ *     over the directions of the maximum over the blockers. The values are settled in ascending order with a bucket
+ *     queue, like in Dijkstra's algorithm, as the edges of different directions can form cycles.</li>
+ *     <li>The latest position is the number of nodes minus the length of the longest path of nodes that have to be
+ *     removed after it. Only the edges that exist for all considered directions are followed, because the other
+ *     edges can be avoided by choosing another direction.</li>
+ * </ul>
+ * Both take O(N + E) time, plus a binary search per edge to find the edges that exist for all directions. A search
+ * can use them to prune a partial sequence as soon as a node is placed outside its bounds, and the slack, i.e. the
+ * difference of both positions, to prefer nodes that have little choice.
+ *
+ * @param <T> the type of object that the graph contains
+ */
+public class TopologicalBounds<T> {
+
+    private final CompactGraph<T> graph;
+    private final Set<OperatingDirection> opDirs;
+
+    /**
+     * the earliest and latest position of each node, indexed by the node id
+     */
+    private final int[] earliest;
+    private final int[] latest;
+
+    private TopologicalBounds(CompactGraph<T> graph, Set<OperatingDirection> opDirs) {
+        if (opDirs.isEmpty()) {
+            throw new IllegalArgumentException("The bounds need at least one operating direction!");
+        }
+        if (!graph.getOperatingDirections().containsAll(opDirs)) {
+            throw new IllegalArgumentException("The graph does not represent all operating directions " + opDirs);
+        }
+        this.graph = graph;
+        this.opDirs = opDirs;
+        this.earliest = calcEarliest();
+        this.latest = calcLatest();
+    }
+
+    /**
+     * Calculate the bounds for a single operating direction of the graph
+     *
+     * @param graph the graph
+     * @param opDir the operating direction, i.e. only the edges of this direction are considered
+     * @param <T>   the type of object that the graph contains
+     * @return the bounds
+     * @throws IllegalArgumentException   if the graph does not represent the operating direction
+     * @throws IllegalGraphStateException if some nodes can never be removed
+     */
+    public static <T> TopologicalBounds<T> of(CompactGraph<T> graph, OperatingDirection opDir) {
+        return new TopologicalBounds<>(graph, Collections.singleton(opDir));
+    }
+
+    /**
+     * Calculate the bounds for all operating directions of the graph, assuming that the direction can change between
+     * removals
+     *
+     * @param graph the graph
+     * @param <T>   the type of object that the graph contains
+     * @return the bounds
+     * @throws IllegalGraphStateException if some nodes can never be removed
+     */
+    public static <T> TopologicalBounds<T> of(CompactGraph<T> graph) {
+        return new TopologicalBounds<>(graph, graph.getOperatingDirections());
+    }
+
+    /**
+     * Calculate the bounds for all operating directions of the graph, see {@linkplain #of(CompactGraph)}
+     *
+     * @param graph the graph
+     * @param <T>   the type of object that the graph contains
+     * @return the bounds
+     */
+    public static <T> TopologicalBounds<T> of(Graph<T> graph) {
+        return of(CompactGraph.of(graph));
+    }
+
+    /**
+     * Settle the earliest positions in ascending order. A node gets a candidate position once all of its blockers for
+     * one direction are settled, and is settled with its smallest candidate. As the positions never decrease, a bucket
+     * per position replaces the priority queue.
+     */
+    private int[] calcEarliest() {
+        int n = graph.size();
+        int directions = OperatingDirection.values().length;
+
+        // remaining blockers and the largest position of the settled blockers, per direction and node
+        int[][] remaining = new int[directions][];
+        int[][] maxBlocker = new int[directions][];
+
+        int[] tentative = new int[n];
+        Arrays.fill(tentative, Integer.MAX_VALUE);
+        IntBuckets buckets = new IntBuckets(n);
+
+        for (OperatingDirection opDir : opDirs) {
+            int[] inOffsets = graph.inOffsets(opDir);
+            int[] counts = new int[n];
+            for (int id = 0; id < n; id++) {
+                counts[id] = inOffsets[id + 1] - inOffsets[id];
+                if (counts[id] == 0 && tentative[id] != 0) {
+                    tentative[id] = 0;
+                    buckets.add(0, id);
+                }
+            }
+            remaining[opDir.ordinal()] = counts;
+            int[] max = new int[n];
+            Arrays.fill(max, -1);
+            maxBlocker[opDir.ordinal()] = max;
+        }
+
+        int[] settled = new int[n];
+        Arrays.fill(settled, -1);
+        int settledCount = 0;
+        for (int position = 0; position < n; position++) {
+            for (int i = 0; i < buckets.size(position); i++) {
+                int id = buckets.get(position, i);
+                if (settled[id] >= 0 || tentative[id] != position) {
+                    // already settled with a smaller position
+                    continue;
+                }
+                settled[id] = position;
+                settledCount++;
+
+                for (OperatingDirection opDir : opDirs) {
+                    int[] outOffsets = graph.outOffsets(opDir);
+                    int[] outTargets = graph.outTargets(opDir);
+                    int[] counts = remaining[opDir.ordinal()];
+                    int[] max = maxBlocker[opDir.ordinal()];
+                    for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++) {
+                        int target = outTargets[e];
+                        max[target] = Math.max(max[target], position);
+                        if (--counts[target] == 0 && max[target] + 1 < tentative[target]) {
+                            tentative[target] = max[target] + 1;
+                            buckets.add(max[target] + 1, target);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (settledCount != n) {
+            throw new IllegalGraphStateException((n - settledCount) + " nodes can never be removed from the " +
+                    "directions " + opDirs);
+        }
+        return settled;
+    }
+
+    /**
+     * Calculate the latest positions from the longest paths of edges that exist for all directions, in reverse
+     * topological order of these edges
+     */
+    private int[] calcLatest() {
+        int n = graph.size();
+        OperatingDirection first = opDirs.iterator().next();
+        int[] outOffsets = graph.outOffsets(first);
+        int[] outTargets = graph.outTargets(first);
+
+        // mark the edges of the first direction that exist for all directions
+        boolean[] mandatory = new boolean[outTargets.length];
+        int[] inDegrees = new int[n];
+        for (int id = 0; id < n; id++) {
+            for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++) {
+                boolean all = true;
+                for (OperatingDirection opDir : opDirs) {
+                    if (opDir != first && !graph.hasEdge(id, outTargets[e], opDir)) {
+                        all = false;
+                        break;
+                    }
+                }
+                if (all) {
+                    mandatory[e] = true;
+                    inDegrees[outTargets[e]]++;
+                }
+            }
+        }
+
+        // the mandatory edges form no cycle, as all nodes are removable
+        int[] order = new int[n];
+        int tail = 0;
+        for (int id = 0; id < n; id++) {
+            if (inDegrees[id] == 0) {
+                order[tail++] = id;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int id = order[head];
+            for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++) {
+                if (mandatory[e] && --inDegrees[outTargets[e]] == 0) {
+                    order[tail++] = outTargets[e];
+                }
+            }
+        }
+
+        // the number of nodes on the longest path that has to follow each node
+        int[] followers = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int id = order[i];
+            for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++) {
+                if (mandatory[e]) {
+                    followers[id] = Math.max(followers[id], followers[outTargets[e]] + 1);
+                }
+            }
+        }
+
+        int[] positions = new int[n];
+        for (int id = 0; id < n; id++) {
+            positions[id] = n - 1 - followers[id];
+        }
+        return positions;
+    }
+
+    /**
+     * Get the earliest position at which the node can be removed
+     *
+     * @param id the id of the node
+     * @return the earliest position, starting at 0
+     */
+    public int getEarliest(int id) {
+        return earliest[id];
+    }
+
+    /**
+     * Get the latest position at which the node can be removed
+     *
+     * @param id the id of the node
+     * @return the latest position, at most the number of nodes minus 1
+     */
+    public int getLatest(int id) {
+        return latest[id];
+    }
+
+    /**
+     * Get the number of positions the node can be moved between its bounds. Nodes with little slack should be placed
+     * first, because they have the least choice.
+     *
+     * @param id the id of the node
+     * @return the latest minus the earliest position
+     */
+    public int getSlack(int id) {
+        return latest[id] - earliest[id];
+    }
+
+    /**
+     * Check if the node can be removed at the given position, according to its bounds. A partial sequence with a node
+     * outside of its bounds can not be completed.
+     *
+     * @param id       the id of the node
+     * @param position the position, starting at 0
+     * @return true if the position is within the bounds of the node
+     */
+    public boolean isWithinBounds(int id, int position) {
+        return earliest[id] <= position && position <= latest[id];
+    }
+
+    /**
+     * Get the earliest position at which the box can be removed
+     *
+     * @param box the box
+     * @return the earliest position, starting at 0
+     * @throws IllegalArgumentException if the box is not part of the graph
+     */
+    public int getEarliest(T box) {
+        return getEarliest(idOf(box));
+    }
+
+    /**
+     * Get the latest position at which the box can be removed
+     *
+     * @param box the box
+     * @return the latest position
+     * @throws IllegalArgumentException if the box is not part of the graph
+     */
+    public int getLatest(T box) {
+        return getLatest(idOf(box));
+    }
+
+    /**
+     * Get the number of topological levels, i.e. the largest earliest position plus 1
+     *
+     * @return the number of levels, 0 for an empty graph
+     */
+    public int getLevelCount() {
+        int levels = 0;
+        for (int position : earliest) {
+            levels = Math.max(levels, position + 1);
+        }
+        return levels;
+    }
+
+    public CompactGraph<T> getGraph() {
+        return graph;
+    }
+
+    public Set<OperatingDirection> getOperatingDirections() {
+        return opDirs;
+    }
+
+    private int idOf(T content) {
+        int id = graph.idOf(content);
+        if (id < 0) {
+            throw new IllegalArgumentException("The object " + content + " is not part of the graph");
+        }
+        return id;
+    }
+
+    /**
+     * Lists of ints, one per position, backed by growing arrays
+     */
+    private static class IntBuckets {
+        private final int[][] values;
+        private final int[] sizes;
+
+        IntBuckets(int positions) {
+            this.values = new int[positions][];
+            this.sizes = new int[positions];
+        }
+
+        void add(int position, int value) {
+            int[] bucket = values[position];
+            if (bucket == null) {
+                bucket = values[position] = new int[4];
+            } else if (sizes[position] == bucket.length) {
+                bucket = values[position] = Arrays.copyOf(bucket, 2 * bucket.length);
+            }
+            bucket[sizes[position]++] = value;
+        }
+
+        int size(int position) {
+            return sizes[position];
+        }
+
+        int get(int position, int index) {
+            return values[position][index];
+        }
+    }
+}
@@ -3,11 +3,10 @@ package org.example.SequenceFinder.Model.Octree;
 import org.apache.commons.math3.geometry.euclidean.threed.Line;
 import org.apache.commons.math3.geometry.euclidean.threed.Plane;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.MathArrays;
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
-import org.example.SequenceFinder.Model.GeometricObjects.Point;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 
@@ -24,6 +23,12 @@ import java.util.Map;
  */
 public class Frustum {
 
+    /**
+     * Contact tolerance which disables the contact classification: boxes that touch a plane of the frustum intersect
+     * the frustum.
+     */
+    public static final double NO_CONTACT_TOLERANCE = -1;
+
     /**
      * All six sides of the frustum
      */
@@ -40,6 +45,23 @@ public class Frustum {
     private final Vector3D worldOrigin;
     private final Map<FrustumSides, Plane> planesMap;
 
+    /**
+     * the normals of the planes, one row (x, y, z) per plane. Precomputed so that
+     * {@linkplain #calcVisibility(AABB)} does not need to allocate any objects.
+     */
+    private final double[][] normals;
+
+    /**
+     * the offsets of the planes relative to the {@linkplain #worldOrigin}, in the same order as {@linkplain #normals}
+     */
+    private final double[] offsets;
+
+    /**
+     * boxes that lie behind a plane, or in front of it by no more than this tolerance, only touch the frustum and are
+     * not visible. A negative value disables this, then touching boxes are partly visible.
+     */
+    private final double contactTolerance;
+
     /**
      * Describes the view frustum. It is used to identify objects that lay in front or above another object in the
      * octree. <br>
@@ -58,6 +80,33 @@ public class Frustum {
      * @param right  right plane
      */
     public Frustum(Plane front, Plane back, Plane left, Plane right, Plane top, Plane bottom) {
+        this(front, back, left, right, top, bottom, NO_CONTACT_TOLERANCE);
+    }
+
+    /**
+     * Describes the view frustum, like {@linkplain #Frustum(Plane, Plane, Plane, Plane, Plane, Plane)}, but boxes
+     * that only touch the frustum are {@linkplain Visibility#NOT_VISIBLE}. <br>
+     * <br>
+     * A box touches the frustum, if it reaches past one of the frustum's planes by no more than the contact
+     * tolerance. Thus, boxes that merely share a side or an edge with the box the frustum was created from, do not
+     * block that box.
+     *
+     * @param front            the side of the box that points towards the operating directions
+     * @param bottom           bottom plane
+     * @param top              top plane
+     * @param back             the border of the world at the operating direction
+     * @param left             left plane
+     * @param right            right plane
+     * @param contactTolerance the tolerance up to which boxes only touch the frustum. A negative value, e.g.
+     *                         {@linkplain #NO_CONTACT_TOLERANCE}, disables the contact classification.
+     */
+    public Frustum(Plane front, Plane back, Plane left, Plane right, Plane top, Plane bottom,
+                   double contactTolerance) {
+        if (Double.isNaN(contactTolerance)) {
+            throw new IllegalArgumentException("The contact tolerance must be a number!");
+        }
+        this.contactTolerance = contactTolerance;
+
         // The LooseOctree's worldOrigin / worldCenter is at (0, 0, 0). As the frustum is applied to the boxes which
         // are stored in the LooseOctree, the Frustum's worldOrigin must be at (0, 0, 0) as well. Otherwise, errors
         // will occur.
@@ -78,6 +127,15 @@ public class Frustum {
         if (!allNormalsPointInside()) {
             throw new IllegalArgumentException("All plane normals must point inside the frustum!");
         }
+
+        this.normals = new double[planesMap.size()][];
+        this.offsets = new double[planesMap.size()];
+        int i = 0;
+        for (Plane p : planesMap.values()) {
+            normals[i] = p.getNormal().normalize().toArray();
+            offsets[i] = p.getOffset(worldOrigin);
+            i++;
+        }
     }
 
     /**
@@ -153,6 +211,9 @@ public class Frustum {
     /**
      * Calculate the {@linkplain Visibility} of the given box with this view frustum <br>
      * <br>
+     * Boxes that only touch the frustum within the contact tolerance are not visible, see
+     * {@linkplain #Frustum(Plane, Plane, Plane, Plane, Plane, Plane, double)}. <br>
+     * <br>
      * Based on <i>Ned Greene</i>'s algorithm in chapter 'Box-Plane and Rectangle-Line Intersection' of his publication
      * <i>Detecting Intersection of a Rectangular Solid and a Convex Polyhedron</i>, published in
      * <i>Graphics Gems (1994) by Paul S. Heckbert</i>.
@@ -163,7 +224,7 @@ public class Frustum {
     public Visibility calcVisibility(AABB b) {
         boolean intersects = false;
 
-        for (Plane p : planesMap.values()) {
+        for (int i = 0; i < normals.length; i++) {
             /*
             Plane formula:
             The normal of each plane points inside the frustum.
@@ -173,12 +234,18 @@ public class Frustum {
             A point u=(u1, u2, u3) is behind a plane p, iff A*u1 + B*u2 + C*u3 + d < 0.  The other way around,a point
             u=(u1, u2, u3) is in front of a plane p,    iff A*u1 + B*u2 + C*u3 + d > 0. */
 
-            // FIXME: more efficient calculation available. The paper says for AABB the n- and p-vertex are always the
-            //  same for a given plane and need not be calculated more than once.
-            Vector3D pVertex = calcPVertex(b, p); // is a point
-            Vector3D nVertex = calcNVertex(b, p); // is a point
-            Vector3D normalVector = p.getNormal().normalize(); // is a vector
-            double d = p.getOffset(worldOrigin);
+            // As the paper says, for an AABB the n- and p-vertex only depend on the signs of the plane's normal, so
+            // they are selected per coordinate instead of testing all eight corners.
+            double[] normal = normals[i];
+            double d = offsets[i];
+            double pVertexDist = MathArrays.linearCombination(
+                    normal[0], normal[0] >= 0 ? b.max(0) : b.min(0),
+                    normal[1], normal[1] >= 0 ? b.max(1) : b.min(1),
+                    normal[2], normal[2] >= 0 ? b.max(2) : b.min(2)) + d;
+            double nVertexDist = MathArrays.linearCombination(
+                    normal[0], normal[0] >= 0 ? b.min(0) : b.max(0),
+                    normal[1], normal[1] >= 0 ? b.min(1) : b.max(1),
+                    normal[2], normal[2] >= 0 ? b.min(2) : b.max(2)) + d;
 
             /*
             Box is in front of all planes               => inside the frustum
@@ -187,11 +254,15 @@ public class Frustum {
             is not behind any plane                     => intersecting the frustum
 
             A 2D illustration with a trapezoid could be useful for a visualization. */
-            if (normalVector.dotProduct(pVertex) + d < 0) {
+            if (pVertexDist < 0) {
                 // b lies entirely in p's negative half-space, and is therefore behind the plane and outside the frustum
                 return Visibility.NOT_VISIBLE;
 
-            } else if (normalVector.dotProduct(nVertex) + d > 0) {
+            } else if (pVertexDist <= contactTolerance) {
+                // b reaches past the plane by no more than the tolerance, it only touches the frustum
+                return Visibility.NOT_VISIBLE;
+
+            } else if (nVertexDist > 0) {
                 // b lies entirely in p's positive half-space, and is therefore in front of the plane and potentially
                 // inside the frustum
                 continue;
@@ -208,75 +279,4 @@ public class Frustum {
             return Visibility.FULLY_VISIBLE;
         }
     }
-
-    /**
-     * Calculates the positive (aka maximum) vertex of the given AABB.
-     * <p>
-     * The p vertex is the corner of the AABB, that is the furthest along the plane's normal's direction. If the p
-     * vertex is behind the plane, the whole AABB is behind the plane.
-     * <p>
-     * See https://www.lighthouse3d.com/tutorials/view-frustum-culling/geometric-approach-testing-boxes-ii/ for a
-     * visualization
-     *
-     * @param aabb  the given AABB
-     * @param plane the plane
-     * @return the p vertex of the AABB
-     */
-    private Vector3D calcPVertex(AABB aabb, Plane plane) {
-        HashMap<AABB.BoxVertex, Point> vertices = aabb.getVertices();
-        Vector3D normal = plane.getNormal();
-        double d = plane.getOffset(worldOrigin);
-
-        // get any start value to compare against
-        Point pVertex = vertices.remove(AABB.BoxVertex.FRONT_BOTTOM_LEFT);
-        double bestDistAlongNormal = normal.dotProduct(new Vector3D(pVertex.x, pVertex.y, pVertex.z)) + d;
-
-        for (Point vertex : vertices.values()) {
-            // if the current vertex is further ALONG the plane's normal than the current pVertex, the pVertex
-            // is updated
-            double vertexDistAlongNormal = normal.dotProduct(new Vector3D(vertex.x, vertex.y, vertex.z)) + d;
-            if (vertexDistAlongNormal > bestDistAlongNormal) {
-                pVertex = vertex;
-                bestDistAlongNormal = vertexDistAlongNormal;
-            }
-        }
-
-        return new Vector3D(pVertex.x, pVertex.y, pVertex.z);
-    }
-
-    /**
-     * Calculates the negative (aka minimum) vertex of the given AABB.
-     * <p>
-     * The n vertex is the corner of the AABB, that is the furthest against the plane's normal's direction. If the p
-     * vertex is not behind the plane, the n vertex needs to be tested to decide whether the object is fully or partly
-     * within the frustum.
-     * <p>
-     * See https://www.lighthouse3d.com/tutorials/view-frustum-culling/geometric-approach-testing-boxes-ii/ for a
-     * visualization
-     *
-     * @param aabb  the given AABB
-     * @param plane the plane
-     * @return the n vertex of the AABB
-     */
-    private Vector3D calcNVertex(AABB aabb, Plane plane) {
-        HashMap<AABB.BoxVertex, Point> vertices = aabb.getVertices();
-        Vector3D normal = plane.getNormal();
-        double d = plane.getOffset(worldOrigin);
-
-        // get a start value to compare against
-        Point nVertex = vertices.remove(AABB.BoxVertex.FRONT_BOTTOM_LEFT);
-        double bestDistAlongNormal = normal.dotProduct(new Vector3D(nVertex.x, nVertex.y, nVertex.z)) + d;
-
-        for (Point vertex : vertices.values()) {
-            // if the current vertex is further AGAINST the plane's normal than the current nVertex, the nVertex
-            // is updated
-            double vertexDistAlongNormal = normal.dotProduct(new Vector3D(vertex.x, vertex.y, vertex.z)) + d;
-            if (vertexDistAlongNormal < bestDistAlongNormal) {
-                nVertex = vertex;
-                bestDistAlongNormal = vertexDistAlongNormal;
-            }
-        }
-
-        return new Vector3D(nVertex.x, nVertex.y, nVertex.z);
-    }
 }
@@ -2,9 +2,10 @@ package org.example.SequenceFinder.Model.Octree;
 
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
 import org.example.SequenceFinder.Model.GeometricObjects.Point;
+import org.example.SequenceFinder.OperatingDirection;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * A Loose Octree, with a maximum depth, to store each object based on its position in the world. Used to improve
@@ -54,6 +55,16 @@ public class LooseOctree<T extends AABB> {
     // protected to enable test class access to this field
     protected OctreeNode<T>[][][][] nodes;
 
+    /**
+     * all inserted objects, indexed by their id. Ids are assigned densely in the order of insertion.
+     */
+    private final ArrayList<T> objectsById = new ArrayList<>();
+
+    /**
+     * the id of each inserted object. Only used on insertion and to look up ids, culling works on the ids alone.
+     */
+    private final HashMap<T, Integer> ids = new HashMap<>();
+
     /**
      * Create a Loose Octree, with a maximum depth, to store each object based on its position in the world. Used to
      * improve performance of frustum culling
@@ -85,7 +96,7 @@ public class LooseOctree<T extends AABB> {
         AABB rootAABB = new AABB(
                 new Point(-looseWorldSize / 2, -looseWorldSize / 2, -looseWorldSize / 2),
                 new Point(looseWorldSize / 2, looseWorldSize / 2, looseWorldSize / 2));
-        nodes[0][0][0][0] = new OctreeNode<>(rootAABB);
+        nodes[0][0][0][0] = new OctreeNode<>(rootAABB, objectsById);
 
         // init the array correctly to hold only the maximum allowed number of nodes per depth:
         //  depth=1 => 2 nodes per Dimension and 8 total, depth=2 => 4 nodes per dimension and 16 total, ...
@@ -103,7 +114,7 @@ public class LooseOctree<T extends AABB> {
 
 
                         AABB nodeBoundingBox = calcNodeAABB(depth, x, y, z, parentAABBCenter);
-                        nodes[depth][x][y][z] = new OctreeNode<>(nodeBoundingBox);
+                        nodes[depth][x][y][z] = new OctreeNode<>(nodeBoundingBox, objectsById);
 
                         // add an edge from the parent to the newly generated node
                         nodes[depth][x][y][z].setParent(parentNode);
@@ -228,34 +239,107 @@ public class LooseOctree<T extends AABB> {
      * values are cast to ints and are therefore usable as indices.
      */
     public Point calcIndex(T t) {
+        if (t.isFixedPoint()) {
+            return calcFixedPointIndex(t);
+        }
         double radius = t.calcRadius();
+        Point center = t.calcCenter();
 
         // check if the object is fully enclosed in the world; the world is centered at the coordinate system origin
-        if (t.calcCenter().x < (double) -worldSize / 2 + radius ||
-                t.calcCenter().y < (double) -worldSize / 2 + radius ||
-                t.calcCenter().z < (double) -worldSize / 2 + radius ||
-                t.calcCenter().x > (double) worldSize / 2 - radius ||
-                t.calcCenter().y > (double) worldSize / 2 - radius ||
-                t.calcCenter().z > (double) worldSize / 2 - radius) {
+        if (center.x < (double) -worldSize / 2 + radius ||
+                center.y < (double) -worldSize / 2 + radius ||
+                center.z < (double) -worldSize / 2 + radius ||
+                center.x > (double) worldSize / 2 - radius ||
+                center.y > (double) worldSize / 2 - radius ||
+                center.z > (double) worldSize / 2 - radius) {
             throw new IllegalArgumentException("Object is not fully enclosed in the world \n" +
-                    "object radius: " + radius + ", object position: " + t.calcCenter() + ", worldSize: " + worldSize);
+                    "object radius: " + radius + ", object position: " + center + ", worldSize: " + worldSize);
         }
 
-        int x = (int) Math.floor((t.calcCenter().x + (double) worldSize / 2) /
-                boundingCubeSpacing(calcDepth(radius)));
-        int y = (int) Math.floor((t.calcCenter().y + (double) worldSize / 2) /
-                boundingCubeSpacing(calcDepth(radius)));
-        int z = (int) Math.floor((t.calcCenter().z + (double) worldSize / 2) /
-                boundingCubeSpacing(calcDepth(radius)));
+        int spacing = boundingCubeSpacing(calcDepth(radius));
+        int x = (int) Math.floor((center.x + (double) worldSize / 2) / spacing);
+        int y = (int) Math.floor((center.y + (double) worldSize / 2) / spacing);
+        int z = (int) Math.floor((center.z + (double) worldSize / 2) / spacing);
 
         return new Point(x, y, z);
     }
 
+    /**
+     * Calculates at which depth the fixed-point object will fit in the tree, using integer arithmetic only.
+     * <p>
+     * Equivalent to {@code calcDepth(t.calcRadius())}: the deepest level d for which
+     * {@code radius <= worldSize / 2^d}, i.e. {@code extent * 2^d <= 2 * worldSize}.
+     *
+     * @param t the object, must be in the fixed-point mode
+     * @return the depth at which the object will be placed
+     * @see AABB#isFixedPoint()
+     */
+    private int calcFixedPointDepth(T t) {
+        long extent = t.calcFixedPointExtent();
+        long doubleWorldSize = 2L * worldSize;
+
+        // radius > worldSize / 2  <=>  extent > worldSize
+        if (extent > worldSize) {
+            throw new IllegalArgumentException(
+                    "Object radius is too high! The object is larger than the world itself! \n" +
+                            "object radius: " + extent / 2.0 + ", worldSize: " + worldSize);
+        }
+
+        int depth = 0;
+        long scaledExtent = extent;
+        while (depth < maxDepth && 2 * scaledExtent <= doubleWorldSize) {
+            scaledExtent *= 2;
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Calculates the x,y,z indices of a fixed-point object using integer arithmetic only. The result is the same as
+     * the one of the floating point calculation in {@linkplain #calcIndex(AABB)}, but neither rounding nor division of
+     * doubles is necessary.
+     * <p>
+     * As all values are doubled, the center of the object is {@code min + max} and half the world size is
+     * {@code worldSize}.
+     *
+     * @param t the object, must be in the fixed-point mode
+     * @return the indices wrapped in a Point object
+     * @see AABB#isFixedPoint()
+     */
+    private Point calcFixedPointIndex(T t) {
+        long extent = t.calcFixedPointExtent();
+        int[] indices = new int[3];
+
+        for (int axis = 0; axis < 3; axis++) {
+            long doubleCenter = t.fixedMin(axis) + t.fixedMax(axis);
+
+            // check if the object is fully enclosed in the world; the world is centered at the coordinate system
+            // origin
+            if (doubleCenter < -worldSize + extent || doubleCenter > worldSize - extent) {
+                throw new IllegalArgumentException("Object is not fully enclosed in the world \n" +
+                        "object radius: " + t.calcRadius() + ", object position: " + t.calcCenter() + ", " +
+                        "worldSize: " + worldSize);
+            }
+        }
+
+        long doubleSpacing = 2L * boundingCubeSpacing(calcFixedPointDepth(t));
+        for (int axis = 0; axis < 3; axis++) {
+            long doubleCenter = t.fixedMin(axis) + t.fixedMax(axis);
+            indices[axis] = (int) Math.floorDiv(doubleCenter + worldSize, doubleSpacing);
+        }
+
+        return new Point(indices[0], indices[1], indices[2]);
+    }
+
     /**
      * Inserts an object into the octree.
      * <p>
      * The insertion assumes the world is centered at the coordinate system origin.
      * <p>
+     * Each object gets an id on its first insertion, which is the number of objects that were inserted before it. The
+     * ids are dense, i.e. 0 to {@code size() - 1}, and can be used to index arrays or {@linkplain BitSet}s instead of
+     * hashing the objects.
+     * <p>
      * Note: this procedure is not ideal, as it does not find the tightest possible containing node for all cases. To
      * find the tightest possible containing node, the child nodes of the calculated node must be checked whether the
      * object fits into one of them or not.
@@ -264,14 +348,25 @@ public class LooseOctree<T extends AABB> {
      * @return returns true if inserted successfully
      */
     public boolean insertObject(T objectToInsert) {
-        int depth = calcDepth(objectToInsert.calcRadius());
+        int depth;
+        if (objectToInsert.isFixedPoint()) {
+            depth = calcFixedPointDepth(objectToInsert);
+        } else {
+            depth = calcDepth(objectToInsert.calcRadius());
+        }
         Point index = calcIndex(objectToInsert);
 
         // cast to int is no problem, as calcIndex casts the Point's x, y and z to int previously
-        this.nodes[depth][(int) index.x][(int) index.y][(int) index.z].insertObject(objectToInsert);
-
-        // check if insertion was successful
-        return this.nodes[depth][(int) index.x][(int) index.y][(int) index.z].getContent().contains(objectToInsert);
+        OctreeNode<T> node = this.nodes[depth][(int) index.x][(int) index.y][(int) index.z];
+
+        // an object that was inserted before is already stored in the same node
+        if (!ids.containsKey(objectToInsert)) {
+            int id = objectsById.size();
+            objectsById.add(objectToInsert);
+            ids.put(objectToInsert, id);
+            node.insertObject(id);
+        }
+        return true;
     }
 
     /**
@@ -293,6 +388,228 @@ public class LooseOctree<T extends AABB> {
         return nodes[0][0][0][0].cullFrustum(f, new HashSet<>());
     }
 
+    /**
+     * Cull all objects against the frustum and set the ids of the objects that fully or partially lay within the
+     * frustum. Unlike {@linkplain #cullAgainst(Frustum)}, no objects are hashed, so this is the preferred method when
+     * culling many frusta.
+     *
+     * @param f          the frustum
+     * @param visibleIds the set the ids are added to. It is not cleared, so it can be reused after clearing it.
+     * @return the given set, including the ids of the objects that fully or partially lay within the frustum
+     * @see #idOf(AABB)
+     */
+    public BitSet cullAgainst(Frustum f, BitSet visibleIds) {
+        return nodes[0][0][0][0].cullFrustum(f, visibleIds);
+    }
+
+    /**
+     * Find all pairs of objects (A, B) where B lies in the frustum of A for the operating direction, i.e. where B has
+     * to be removed before A can be removed from the direction, like culling the frustum of each object with
+     * {@linkplain #cullAgainst(Frustum, BitSet)}. Touching objects block each other, see
+     * {@linkplain Frustum#NO_CONTACT_TOLERANCE}.
+     *
+     * @param opDir the operating direction
+     * @param pairs is called with A and B for each pair
+     * @see #selfJoinIds(OperatingDirection, double, IdPairConsumer)
+     */
+    public void selfJoin(OperatingDirection opDir, BiConsumer<T, T> pairs) {
+        selfJoin(opDir, Frustum.NO_CONTACT_TOLERANCE, pairs);
+    }
+
+    /**
+     * Find all pairs of objects (A, B) where B lies in the frustum of A for the operating direction, see
+     * {@linkplain #selfJoinIds(OperatingDirection, double, IdPairConsumer)}
+     *
+     * @param opDir            the operating direction
+     * @param contactTolerance the tolerance up to which objects only touch each other, see
+     *                         {@linkplain Frustum#NO_CONTACT_TOLERANCE}
+     * @param pairs            is called with A and B for each pair
+     */
+    public void selfJoin(OperatingDirection opDir, double contactTolerance, BiConsumer<T, T> pairs) {
+        selfJoinIds(opDir, contactTolerance, (id, blockerId) -> pairs.accept(objectsById.get(id),
+                objectsById.get(blockerId)));
+    }
+
+    /**
+     * Find all pairs of objects (A, B) where B lies in the frustum of A for the operating direction, i.e. where the
+     * projections of both objects onto the plane orthogonal to the direction overlap, and B reaches further towards
+     * the direction than the side of A that faces the direction. The pairs are the same as when culling the frustum of
+     * each object, as long as no object is thinner than the contact tolerance.
+     * <p>
+     * Instead of traversing the tree from the root once per object, pairs of nodes are traversed together, starting
+     * with the pair (root, root). If no object of the first node can be blocked by an object of the second node, the
+     * whole pair is pruned with a single test. Otherwise, the node with the larger subtree is split into its content
+     * and its children, and the resulting pairs are traversed, until the contents of two nodes are tested object by
+     * object. The tests use the tight bounds of the content of each node and its subtree, which are updated at the
+     * start of each join.
+     * <p>
+     * The join updates state of the nodes, so it must not be called concurrently on the same octree.
+     *
+     * @param opDir            the operating direction
+     * @param contactTolerance the tolerance up to which objects only touch each other, see
+     *                         {@linkplain Frustum#NO_CONTACT_TOLERANCE}
+     * @param pairs            is called with the ids of A and B for each pair
+     * @see #idOf(AABB)
+     */
+    public void selfJoinIds(OperatingDirection opDir, double contactTolerance, IdPairConsumer pairs) {
+        if (Double.isNaN(contactTolerance)) {
+            throw new IllegalArgumentException("The contact tolerance must be a number!");
+        }
+        OctreeNode<T> root = nodes[0][0][0][0];
+        root.updateBounds();
+        new SelfJoin(opDir, contactTolerance, pairs).join(root, true, root, true);
+    }
+
+    /**
+     * Receives the pairs of a {@linkplain #selfJoinIds(OperatingDirection, double, IdPairConsumer)}
+     */
+    public interface IdPairConsumer {
+
+        /**
+         * Receive a pair of objects
+         *
+         * @param id        the id of object A
+         * @param blockerId the id of object B, which lies in the frustum of A
+         */
+        void accept(int id, int blockerId);
+    }
+
+    /**
+     * The state of a single self join
+     */
+    private class SelfJoin {
+        private final int axis;
+        private final int u;
+        private final int v;
+        private final boolean positive;
+        private final double contactTolerance;
+        private final IdPairConsumer pairs;
+
+        SelfJoin(OperatingDirection opDir, double contactTolerance, IdPairConsumer pairs) {
+            this.axis = opDir.getAxis();
+            this.u = (axis + 1) % 3;
+            this.v = (axis + 2) % 3;
+            this.positive = opDir.getSign() > 0;
+            this.contactTolerance = contactTolerance;
+            this.pairs = pairs;
+        }
+
+        /**
+         * Find the pairs of the objects of node a, and the objects of node b that block them
+         *
+         * @param a        the node of the blocked objects
+         * @param aSubtree whether the objects of the whole subtree of a are considered, or only its content
+         * @param b        the node of the blocking objects
+         * @param bSubtree whether the objects of the whole subtree of b are considered, or only its content
+         */
+        void join(OctreeNode<T> a, boolean aSubtree, OctreeNode<T> b, boolean bSubtree) {
+            OctreeNode.Bounds aBounds = a.getBounds(aSubtree);
+            OctreeNode.Bounds bBounds = b.getBounds(bSubtree);
+            if (aBounds == null || bBounds == null || !mayBlock(aBounds, bBounds)) {
+                return;
+            }
+
+            if (!aSubtree && !bSubtree) {
+                joinContent(a, b);
+            } else if (aSubtree && (!bSubtree || aBounds.extent() >= bBounds.extent())) {
+                join(a, false, b, bSubtree);
+                for (OctreeNode<T> child : a.getChildren()) {
+                    join(child, true, b, bSubtree);
+                }
+            } else {
+                join(a, aSubtree, b, false);
+                for (OctreeNode<T> child : b.getChildren()) {
+                    join(a, aSubtree, child, true);
+                }
+            }
+        }
+
+        /**
+         * Test the content of node a against the content of node b, object by object
+         */
+        private void joinContent(OctreeNode<T> a, OctreeNode<T> b) {
+            int[] aIds = a.getContentIds();
+            int[] bIds = b.getContentIds();
+            for (int i = 0; i < a.getContentIdCount(); i++) {
+                T box = objectsById.get(aIds[i]);
+                for (int j = 0; j < b.getContentIdCount(); j++) {
+                    if (aIds[i] != bIds[j] && blocks(box, objectsById.get(bIds[j]))) {
+                        pairs.accept(aIds[i], bIds[j]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Check if the blocker lies in the frustum of the box
+         */
+        private boolean blocks(T box, T blocker) {
+            double reach = positive ? blocker.max(axis) - box.max(axis) : box.min(axis) - blocker.min(axis);
+            return isBeyond(reach)
+                    && isBeyond(blocker.max(u) - box.min(u)) && isBeyond(box.max(u) - blocker.min(u))
+                    && isBeyond(blocker.max(v) - box.min(v)) && isBeyond(box.max(v) - blocker.min(v));
+        }
+
+        /**
+         * Check if any of the boxes within the bounds a can be blocked by any of the boxes within the bounds b, i.e.
+         * if {@linkplain #blocks(AABB, AABB)} can be true for any pair
+         */
+        private boolean mayBlock(OctreeNode.Bounds a, OctreeNode.Bounds b) {
+            double reach = positive ? b.maxMax[axis] - a.minMax[axis] : a.maxMin[axis] - b.minMin[axis];
+            return isBeyond(reach)
+                    && isBeyond(b.maxMax[u] - a.minMin[u]) && isBeyond(a.maxMax[u] - b.minMin[u])
+                    && isBeyond(b.maxMax[v] - a.minMin[v]) && isBeyond(a.maxMax[v] - b.minMin[v]);
+        }
+
+        /**
+         * Check if a box reaches past a plane of the frustum by more than the contact tolerance, see
+         * {@linkplain Frustum#calcVisibility(AABB)}
+         */
+        private boolean isBeyond(double distance) {
+            return distance >= 0 && distance > contactTolerance;
+        }
+    }
+
+    /**
+     * Return the number of objects that are stored in the octree
+     *
+     * @return the number of objects, which is one more than the largest id
+     */
+    public int size() {
+        return objectsById.size();
+    }
+
+    /**
+     * Return the id of the object, which is assigned when the object is inserted
+     *
+     * @param t the object
+     * @return the id of the object, or -1 if the object was not inserted
+     */
+    public int idOf(T t) {
+        Integer id = ids.get(t);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the object with the given id
+     *
+     * @param id the id
+     * @return the object with the id
+     * @throws IndexOutOfBoundsException if no object has the id
+     */
+    public T getObject(int id) {
+        return objectsById.get(id);
+    }
+
+    /**
+     * Return all objects that are stored in the octree, indexed by their id
+     *
+     * @return an unmodifiable view of all objects, in the order of their ids
+     */
+    public List<T> getObjectsById() {
+        return Collections.unmodifiableList(objectsById);
+    }
+
     /**
      * Return all objects that are stored in the octree
      *
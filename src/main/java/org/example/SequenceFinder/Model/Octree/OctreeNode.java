@@ -2,8 +2,11 @@ package org.example.SequenceFinder.Model.Octree;
 
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
 /**
  * A node in the {@linkplain LooseOctree}. <br>
@@ -15,36 +18,48 @@ import java.util.HashSet;
  */
 class OctreeNode<T extends AABB> {
 
-    private final HashSet<T> content;
+    /**
+     * the ids of the content, see {@linkplain LooseOctree#idOf(AABB)}. Only the first {@code contentIdCount} entries
+     * are used. The objects themselves are only stored once, in {@code objectsById}.
+     */
+    private int[] contentIds;
+    private int contentIdCount;
+    private final List<T> objectsById;
     private final AABB boundingBox;
     private final HashSet<OctreeNode<T>> children;
 
     /**
-     * Create a new OctreeNode
+     * the bounds of the content of this node and of its whole subtree, null if they are empty. Only valid after
+     * {@linkplain #updateBounds(List)}, see {@linkplain Bounds}.
      */
-    OctreeNode(AABB boundingBox) {
-        this.content = new HashSet<>();
-        this.boundingBox = boundingBox;
-        this.children = new HashSet<>();
-    }
-
+    private Bounds contentBounds;
+    private Bounds subtreeBounds;
 
     /**
-     * Insert the given object into the OctreeNode
+     * Create a new OctreeNode
      *
-     * @param toBeInserted the object that will be inserted
+     * @param boundingBox the bounding box of the node
+     * @param objectsById the objects of the octree, indexed by their id
      */
-    void insertObject(T toBeInserted) {
-        this.content.add(toBeInserted);
+    OctreeNode(AABB boundingBox, List<T> objectsById) {
+        this.contentIds = new int[0];
+        this.objectsById = objectsById;
+        this.boundingBox = boundingBox;
+        this.children = new HashSet<>();
     }
 
+
     /**
-     * Insert the given objects into the OctreeNode. Duplicate entries are ignored.
+     * Insert the object with the given id into the OctreeNode. The id must not have been inserted before, which the
+     * {@linkplain LooseOctree} ensures by assigning each object a single id.
      *
-     * @param toBeInserted the objects that will be inserted
+     * @param id the id of the object, see {@linkplain LooseOctree#idOf(AABB)}
      */
-    void insertObjects(Collection<T> toBeInserted) {
-        this.content.addAll(toBeInserted);
+    void insertObject(int id) {
+        if (contentIdCount == contentIds.length) {
+            contentIds = Arrays.copyOf(contentIds, Math.max(4, 2 * contentIds.length));
+        }
+        contentIds[contentIdCount++] = id;
     }
 
     /**
@@ -68,12 +83,20 @@ class OctreeNode<T extends AABB> {
     /**
      * Return the content of this OctreeNode
      *
-     * @return the content of this OctreeNode
+     * @return a new set of the content of this OctreeNode
      */
     HashSet<T> getContent() {
+        HashSet<T> content = new HashSet<>();
+        addContent(content);
         return content;
     }
 
+    private void addContent(Collection<T> objects) {
+        for (int i = 0; i < contentIdCount; i++) {
+            objects.add(objectsById.get(contentIds[i]));
+        }
+    }
+
     AABB getAABB() {
         return boundingBox;
     }
@@ -97,12 +120,13 @@ class OctreeNode<T extends AABB> {
 
         } else if (nodeVisibility == Visibility.FULLY_VISIBLE) {
             // the node and all its child nodes are fully visible, therefore the content of the whole subtree is visible
-            visibleObjects.addAll(getSubtreeContent());
+            addSubtreeContent(visibleObjects);
             return visibleObjects;
 
         } else if (nodeVisibility == Visibility.PARTLY_VISIBLE) {
             // check the visibility of this node's content
-            for (T object : content) {
+            for (int i = 0; i < contentIdCount; i++) {
+                T object = objectsById.get(contentIds[i]);
                 if (frustum.calcVisibility(object) != Visibility.NOT_VISIBLE) {
                     visibleObjects.add(object);
                 }
@@ -119,21 +143,189 @@ class OctreeNode<T extends AABB> {
         }
     }
 
+    /**
+     * Cull the frustum against this node and its subtree, and set the ids of the objects that fully or partly lay
+     * within the frustum. Only objects that were inserted with an id are considered.
+     *
+     * @param frustum    the frustum that will be used to cull the Octree
+     * @param visibleIds the ids of the objects that are known to be visible
+     * @return the given ids, including the ids of the visible objects of this node and its subtree
+     */
+    BitSet cullFrustum(Frustum frustum, BitSet visibleIds) {
+        Visibility nodeVisibility = frustum.calcVisibility(boundingBox);
+
+        if (nodeVisibility == Visibility.NOT_VISIBLE) {
+            return visibleIds;
+
+        } else if (nodeVisibility == Visibility.FULLY_VISIBLE) {
+            // the whole subtree is visible, no need to check the objects
+            addSubtreeIds(visibleIds);
+            return visibleIds;
+
+        } else if (nodeVisibility == Visibility.PARTLY_VISIBLE) {
+            for (int i = 0; i < contentIdCount; i++) {
+                int id = contentIds[i];
+                if (!visibleIds.get(id) && frustum.calcVisibility(objectsById.get(id)) != Visibility.NOT_VISIBLE) {
+                    visibleIds.set(id);
+                }
+            }
+            for (OctreeNode<T> child : children) {
+                child.cullFrustum(frustum, visibleIds);
+            }
+            return visibleIds;
+
+        } else {
+            throw new IllegalStateException("Visibility is not defined");
+        }
+    }
+
+    /**
+     * Update the bounds of the content of this node and its subtree, for all nodes of the subtree
+     *
+     * @return the bounds of the subtree, null if it is empty
+     */
+    Bounds updateBounds() {
+        contentBounds = null;
+        for (int i = 0; i < contentIdCount; i++) {
+            contentBounds = Bounds.include(contentBounds, objectsById.get(contentIds[i]));
+        }
+        subtreeBounds = contentBounds == null ? null : contentBounds.copy();
+        for (OctreeNode<T> child : children) {
+            Bounds childBounds = child.updateBounds();
+            if (childBounds != null) {
+                subtreeBounds = subtreeBounds == null ? childBounds.copy() : subtreeBounds.include(childBounds);
+            }
+        }
+        return subtreeBounds;
+    }
+
+    /**
+     * Get the bounds of the content of this node, or of its whole subtree
+     *
+     * @param subtree whether the bounds of the whole subtree are returned
+     * @return the bounds, null if there is no content
+     */
+    Bounds getBounds(boolean subtree) {
+        return subtree ? subtreeBounds : contentBounds;
+    }
+
+    HashSet<OctreeNode<T>> getChildren() {
+        return children;
+    }
+
+    /**
+     * Get the ids of the content, only the first {@linkplain #getContentIdCount()} entries are used
+     *
+     * @return the ids of the content
+     */
+    int[] getContentIds() {
+        return contentIds;
+    }
+
+    int getContentIdCount() {
+        return contentIdCount;
+    }
+
+    /**
+     * Set the ids of the content of the whole subtree of this node (including the content of this node)
+     *
+     * @param ids the ids
+     */
+    private void addSubtreeIds(BitSet ids) {
+        for (int i = 0; i < contentIdCount; i++) {
+            ids.set(contentIds[i]);
+        }
+        for (OctreeNode<T> child : children) {
+            child.addSubtreeIds(ids);
+        }
+    }
+
     /**
      * Get the content of the whole subtree of this node (including the content of this node)
      *
      * @return the content of the whole subtree of this node (including the content of this node)
      */
     Collection<T> getSubtreeContent() {
-        Collection<T> subtreeContent = new HashSet<>(content);
+        Collection<T> subtreeContent = new HashSet<>();
+        addSubtreeContent(subtreeContent);
+        return subtreeContent;
+    }
 
-        if (children.isEmpty()) {
-            return subtreeContent;
-        } else {
-            for (OctreeNode<T> child : children) {
-                subtreeContent.addAll(child.getSubtreeContent());
+    private void addSubtreeContent(Collection<T> objects) {
+        addContent(objects);
+        for (OctreeNode<T> child : children) {
+            child.addSubtreeContent(objects);
+        }
+    }
+
+    /**
+     * The bounds of a set of boxes: per axis the smallest and largest minimum and maximum of the boxes. The smallest
+     * maximum and the largest minimum bound how far the boxes reach at least, which is tighter than the box around
+     * them.
+     */
+    static class Bounds {
+        final double[] minMin = new double[3];
+        final double[] maxMin = new double[3];
+        final double[] minMax = new double[3];
+        final double[] maxMax = new double[3];
+
+        /**
+         * Include the box in the bounds
+         *
+         * @param bounds the bounds, null if they are empty
+         * @param box    the box
+         * @return the given bounds, or new bounds if they were empty
+         */
+        static Bounds include(Bounds bounds, AABB box) {
+            if (bounds == null) {
+                bounds = new Bounds();
+                for (int axis = 0; axis < 3; axis++) {
+                    bounds.minMin[axis] = bounds.maxMin[axis] = box.min(axis);
+                    bounds.minMax[axis] = bounds.maxMax[axis] = box.max(axis);
+                }
+                return bounds;
             }
+            for (int axis = 0; axis < 3; axis++) {
+                bounds.minMin[axis] = Math.min(bounds.minMin[axis], box.min(axis));
+                bounds.maxMin[axis] = Math.max(bounds.maxMin[axis], box.min(axis));
+                bounds.minMax[axis] = Math.min(bounds.minMax[axis], box.max(axis));
+                bounds.maxMax[axis] = Math.max(bounds.maxMax[axis], box.max(axis));
+            }
+            return bounds;
+        }
+
+        /**
+         * Include the other bounds in these bounds
+         *
+         * @param other the other bounds
+         * @return these bounds
+         */
+        Bounds include(Bounds other) {
+            for (int axis = 0; axis < 3; axis++) {
+                minMin[axis] = Math.min(minMin[axis], other.minMin[axis]);
+                maxMin[axis] = Math.max(maxMin[axis], other.maxMin[axis]);
+                minMax[axis] = Math.min(minMax[axis], other.minMax[axis]);
+                maxMax[axis] = Math.max(maxMax[axis], other.maxMax[axis]);
+            }
+            return this;
+        }
+
+        Bounds copy() {
+            Bounds copy = new Bounds();
+            for (int axis = 0; axis < 3; axis++) {
+                copy.minMin[axis] = minMin[axis];
+                copy.maxMin[axis] = maxMin[axis];
+                copy.minMax[axis] = minMax[axis];
+                copy.maxMax[axis] = maxMax[axis];
+            }
+            return copy;
+        }
+
+        /**
+         * the largest extent of the box around the boxes
+         */
+        double extent() {
+            return Math.max(maxMax[0] - minMin[0], Math.max(maxMax[1] - minMin[1], maxMax[2] - minMin[2]));
         }
-        return subtreeContent;
     }
 }
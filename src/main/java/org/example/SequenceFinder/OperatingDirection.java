@@ -1,5 +1,9 @@
 package org.example.SequenceFinder;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum to describe the direction from which items can be placed or removed
  */
@@ -29,6 +33,11 @@ public enum OperatingDirection {
      */
     BOTTOM;
 
+    /**
+     * all directions, cached as {@linkplain #values()} creates a new array on each call
+     */
+    private static final OperatingDirection[] VALUES = values();
+
     /**
      * Returns the opposite direction of the current direction
      *
@@ -138,4 +147,100 @@ public enum OperatingDirection {
                 throw new IllegalStateException("Unexpected value: " + this);
         }
     }
+
+    /**
+     * Returns the coordinate axis along which the current direction points. The axes are indexed as used by
+     * {@linkplain org.example.SequenceFinder.Model.GeometricObjects.AABB#min(int)}: 0 = x, 1 = y and 2 = z.
+     *
+     * @return the index of the coordinate axis of the current direction
+     */
+    public int getAxis() {
+        switch (this) {
+            case LEFT:
+            case RIGHT:
+                return 0;
+            case FRONT:
+            case BACK:
+                return 1;
+            case TOP:
+            case BOTTOM:
+                return 2;
+            default:
+                throw new IllegalStateException("Unexpected value: " + this);
+        }
+    }
+
+    /**
+     * Returns the sign of the outward normal of a box's side that faces towards the current direction, i.e. +1 if the
+     * side is the box's maximum along {@linkplain #getAxis()} and -1 if it is the box's minimum. <br>
+     * The sign is the opposite of the access vector's sign, e.g. FRONT faces towards (0,-1,0).
+     *
+     * @return +1 or -1
+     */
+    public int getSign() {
+        switch (this) {
+            case BACK:
+            case RIGHT:
+            case TOP:
+                return 1;
+            case FRONT:
+            case LEFT:
+            case BOTTOM:
+                return -1;
+            default:
+                throw new IllegalStateException("Unexpected value: " + this);
+        }
+    }
+
+    /**
+     * Returns the bit of the current direction in a direction bitmask, where each direction is represented by the bit
+     * at the position of its ordinal.
+     *
+     * @return the bit of the current direction
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the bitmask of the given directions
+     *
+     * @param directions the directions
+     * @return the bitmask where the bit of each of the given directions is set
+     * @see #mask()
+     */
+    public static int maskOf(Collection<OperatingDirection> directions) {
+        int mask = 0;
+        for (OperatingDirection direction : directions) {
+            mask |= direction.mask();
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the directions whose bits are set in the given bitmask
+     *
+     * @param mask the bitmask
+     * @return the set of directions
+     * @see #mask()
+     */
+    public static Set<OperatingDirection> fromMask(int mask) {
+        Set<OperatingDirection> directions = EnumSet.noneOf(OperatingDirection.class);
+        for (OperatingDirection direction : VALUES) {
+            if ((mask & direction.mask()) != 0) {
+                directions.add(direction);
+            }
+        }
+        return directions;
+    }
+
+    /**
+     * Returns the direction with the given ordinal, e.g. the position of a bit in a direction bitmask
+     *
+     * @param ordinal the ordinal
+     * @return the direction
+     */
+    public static OperatingDirection fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
@@ -0,0 +1,358 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Control.Cost.CostFunction;
+import org.example.SequenceFinder.Control.Cost.HeightDifference;
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.GeometricObjects.Point;
+import org.example.SequenceFinder.Model.Graph.CycleDetector;
+import org.example.SequenceFinder.Model.Graph.Graph;
+import org.example.SequenceFinder.Model.Graph.GraphNode;
+import org.example.SequenceFinder.Model.Graph.NodeRemoval;
+import org.example.SequenceFinder.Model.Graph.RandomDags;
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.BACK;
+import static org.example.SequenceFinder.OperatingDirection.FRONT;
+import static org.example.SequenceFinder.OperatingDirection.LEFT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BranchAndBoundTest {
+
+    Collection<CostFunction<AABB>> costFunctions = Collections.singletonList(new HeightDifference<>(1));
+
+    /**
+     * Create a unit box at the given x position and height
+     */
+    static AABB box(int x, int z) {
+        return new AABB(new Point(x, 0, z), new Point(x + 1, 1, z + 1));
+    }
+
+    /**
+     * Calculate the cost of the sequence, the sum of the height differences of consecutive boxes
+     */
+    static double costOf(Collection<AABB> sequence) {
+        double cost = 0;
+        AABB last = null;
+        for (AABB box : sequence) {
+            if (last != null) {
+                cost += Math.abs(last.calcCenter().z - box.calcCenter().z);
+            }
+            last = box;
+        }
+        return cost;
+    }
+
+    /**
+     * Calculate the optimum cost by trying all sequences that are possible in the graph
+     */
+    static double bruteForce(Graph<AABB> graph, AABB last, double cost) {
+        if (graph.getCopyOfNodes().isEmpty()) {
+            return cost;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (GraphNode<AABB> node : graph.getCopyOfRemovableNodes()) {
+            double step = last == null ? 0 : Math.abs(last.calcCenter().z - node.getContent().calcCenter().z);
+            NodeRemoval<AABB> removal = graph.removeNode(node);
+            best = Math.min(best, bruteForce(graph, node.getContent(), cost + step));
+            graph.restoreNode(removal);
+        }
+        return best;
+    }
+
+    /**
+     * Map each direction to the same graph
+     */
+    static Map<OperatingDirection, Graph<AABB>> mapOf(Graph<AABB> graph) {
+        Map<OperatingDirection, Graph<AABB>> graphs = new HashMap<>();
+        for (OperatingDirection opDir : graph.getOperatingDirections()) {
+            graphs.put(opDir, graph);
+        }
+        return graphs;
+    }
+
+    @Nested
+    @DisplayName("given three boxes at the heights 0, 5 and 1, and the box at height 5 is blocked by the others")
+    class ThreeBoxes {
+
+        Graph<AABB> graph;
+        AABB low;
+        AABB high;
+        AABB middle;
+
+        @BeforeEach
+        void setup() {
+            low = box(0, 0);
+            high = box(2, 5);
+            middle = box(4, 1);
+            graph = new Graph<>(Collections.singleton(FRONT));
+            GraphNode<AABB> lowNode = graph.addNode(low);
+            GraphNode<AABB> highNode = graph.addNode(high);
+            GraphNode<AABB> middleNode = graph.addNode(middle);
+            graph.addDirectedEdge(lowNode, highNode, FRONT);
+            graph.addDirectedEdge(middleNode, highNode, FRONT);
+        }
+
+        @Test
+        @DisplayName("then the optimum removes the high box last, after the closest box")
+        void optimum() {
+            BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+            LinkedHashSet<AABB> sequence = branchAndBound.findGlobalOptimumSequence();
+            assertAll(
+                    () -> assertEquals(Arrays.asList(low, middle, high), new ArrayList<>(sequence)),
+                    () -> assertEquals(5, branchAndBound.getOptimumCost())
+            );
+        }
+
+        @Test
+        @DisplayName("then the graph is restored after the search")
+        void restored() {
+            new BranchAndBound<>(mapOf(graph), costFunctions).findGlobalOptimumSequence();
+            assertAll(
+                    () -> assertEquals(3, graph.getCopyOfNodes().size()),
+                    () -> assertEquals(2, graph.getCopyOfRemovableNodes().size())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("then the cheaper graph is chosen if the operating direction can not change")
+    void cheaperGraph() {
+        AABB a = box(0, 0);
+        AABB b = box(2, 3);
+        AABB c = box(4, 6);
+
+        // FRONT forces the sequence a, c, b with cost 9, LEFT allows a, b, c with cost 6
+        Graph<AABB> front = new Graph<>(Collections.singleton(FRONT));
+        GraphNode<AABB> frontA = front.addNode(a);
+        GraphNode<AABB> frontB = front.addNode(b);
+        GraphNode<AABB> frontC = front.addNode(c);
+        front.addDirectedEdge(frontA, frontC, FRONT);
+        front.addDirectedEdge(frontC, frontB, FRONT);
+
+        Graph<AABB> left = new Graph<>(Collections.singleton(LEFT));
+        GraphNode<AABB> leftA = left.addNode(a);
+        GraphNode<AABB> leftB = left.addNode(b);
+        GraphNode<AABB> leftC = left.addNode(c);
+        left.addDirectedEdge(leftA, leftB, LEFT);
+        left.addDirectedEdge(leftB, leftC, LEFT);
+
+        Map<OperatingDirection, Graph<AABB>> graphs = new HashMap<>();
+        graphs.put(FRONT, front);
+        graphs.put(LEFT, left);
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(graphs, costFunctions);
+
+        assertAll(
+                () -> assertEquals(Arrays.asList(a, b, c), new ArrayList<>(branchAndBound.findGlobalOptimumSequence())),
+                () -> assertEquals(6, branchAndBound.getOptimumCost())
+        );
+    }
+
+    @Test
+    @DisplayName("then null is returned if the boxes block each other in a cycle")
+    void cycle() {
+        Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+        GraphNode<AABB> a = graph.addNode(box(0, 0));
+        GraphNode<AABB> b = graph.addNode(box(2, 0));
+        graph.addDirectedEdge(a, b, FRONT);
+        graph.addDirectedEdge(b, a, FRONT);
+
+        assertNull(new BranchAndBound<>(mapOf(graph), costFunctions).findGlobalOptimumSequence());
+    }
+
+    @Test
+    @DisplayName("then the optimum of random graphs is the same as the one found by trying all sequences")
+    void sameAsBruteForce() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+            List<GraphNode<AABB>> nodes = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                nodes.add(graph.addNode(box(2 * i, random.nextInt(10))));
+            }
+            RandomDags.addEdges(graph, nodes, FRONT, random, 6, 7);
+
+            BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+            LinkedHashSet<AABB> sequence = branchAndBound.findGlobalOptimumSequence();
+            double expected = bruteForce(graph, null, 0);
+
+            assertEquals(expected, branchAndBound.getOptimumCost(), 1e-9, "Round: " + round);
+            assertEquals(expected, costOf(sequence), 1e-9, "Round: " + round);
+            assertEquals(7, sequence.size());
+        }
+    }
+
+    @Test
+    @DisplayName("then the greedy strategy always removes the box with the cheapest transition")
+    void greedy() {
+        Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+        AABB a = box(0, 0);
+        AABB b = box(2, 1);
+        AABB c = box(4, 3);
+        for (AABB box : Arrays.asList(c, a, b)) {
+            graph.addNode(box);
+        }
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+        branchAndBound.setStrategy(SolvingStrategy.GREEDY);
+        LinkedHashSet<AABB> sequence = branchAndBound.findGlobalOptimumSequence();
+
+        // all boxes are removable first, so the first box of the frontier is removed first
+        assertAll(
+                () -> assertEquals(Arrays.asList(c, b, a), new ArrayList<>(sequence)),
+                () -> assertEquals(3, branchAndBound.getOptimumCost()),
+                () -> assertFalse(branchAndBound.isOptimal()),
+                () -> assertEquals(3, graph.getCopyOfNodes().size())
+        );
+    }
+
+    @Test
+    @DisplayName("then the greedy strategy finds the sequence of a tower of 20000 boxes")
+    void greedyHighTower() {
+        Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+        GraphNode<AABB> below = null;
+        for (int i = 0; i < 20000; i++) {
+            GraphNode<AABB> node = graph.addNode(box(0, i));
+            if (below != null) {
+                graph.addDirectedEdge(node, below, FRONT);
+            }
+            below = node;
+        }
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+        branchAndBound.setStrategy(SolvingStrategy.GREEDY);
+        assertAll(
+                () -> assertEquals(20000, branchAndBound.findGlobalOptimumSequence().size()),
+                () -> assertEquals(19999, branchAndBound.getOptimumCost())
+        );
+    }
+
+    @Test
+    @DisplayName("then an exhaustive search finds the sequence of a tower of 20000 boxes without overflowing the stack")
+    void exhaustiveHighTower() {
+        Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+        GraphNode<AABB> below = null;
+        for (int i = 0; i < 20000; i++) {
+            GraphNode<AABB> node = graph.addNode(box(0, i));
+            if (below != null) {
+                graph.addDirectedEdge(node, below, FRONT);
+            }
+            below = node;
+        }
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+        assertAll(
+                () -> assertEquals(20000, branchAndBound.findGlobalOptimumSequence().size()),
+                () -> assertEquals(19999, branchAndBound.getOptimumCost()),
+                () -> assertTrue(branchAndBound.isOptimal()),
+                () -> assertEquals(20000, graph.getCopyOfNodes().size())
+        );
+    }
+
+    @Test
+    @DisplayName("then a budgeted search returns a sequence when the budget is used up, which is not optimal")
+    void budgeted() {
+        Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+        Random random = new Random(1);
+        for (int i = 0; i < 40; i++) {
+            graph.addNode(box(2 * i, random.nextInt(100)));
+        }
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+        branchAndBound.setStrategy(SolvingStrategy.BUDGETED);
+        branchAndBound.setTimeBudget(Duration.ofMillis(50));
+        LinkedHashSet<AABB> sequence = branchAndBound.findGlobalOptimumSequence();
+        assertAll(
+                () -> assertEquals(40, sequence.size()),
+                () -> assertFalse(branchAndBound.isOptimal()),
+                () -> assertEquals(40, graph.getCopyOfNodes().size())
+        );
+    }
+
+    @Test
+    @DisplayName("then a budgeted search of the graphs that can be removed completely finds the sequence of the " +
+            "removable graph")
+    void budgetedSkipsDeadlockedGraph() {
+        // without dropping it, the FRONT graph would be searched through all orders of its 40 free boxes, as all of
+        // them are at the same height and cost less than the sequence of the BACK graph
+        Graph<AABB> front = new Graph<>(Collections.singleton(FRONT));
+        for (int i = 0; i < 40; i++) {
+            front.addNode(box(2 * i, 0));
+        }
+        AABB a = box(100, 0);
+        AABB b = box(102, 1);
+        GraphNode<AABB> frontA = front.addNode(a);
+        GraphNode<AABB> frontB = front.addNode(b);
+        front.addDirectedEdge(frontA, frontB, FRONT);
+        front.addDirectedEdge(frontB, frontA, FRONT);
+
+        Graph<AABB> back = new Graph<>(Collections.singleton(BACK));
+        back.addDirectedEdge(back.addNode(a), back.addNode(b), BACK);
+
+        Map<OperatingDirection, Graph<AABB>> graphs = new HashMap<>();
+        graphs.put(FRONT, front);
+        graphs.put(BACK, back);
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(CycleDetector.validate(graphs), costFunctions);
+        branchAndBound.setStrategy(SolvingStrategy.BUDGETED);
+        branchAndBound.setTimeBudget(Duration.ofMillis(50));
+
+        LinkedHashSet<AABB> sequence =
+                assertTimeoutPreemptively(Duration.ofSeconds(10), branchAndBound::findGlobalOptimumSequence);
+        assertAll(
+                () -> assertEquals(Arrays.asList(a, b), new ArrayList<>(sequence)),
+                () -> assertTrue(branchAndBound.isOptimal()),
+                () -> assertEquals(42, front.getCopyOfNodes().size())
+        );
+    }
+
+    @Test
+    @DisplayName("then a budgeted search still finds the greedy sequence of the graphs that are left when the budget " +
+            "is used up")
+    void budgetedSearchesRemainingGraphsGreedily() {
+        // the FRONT graph is searched first and uses up the budget, its boxes are at different heights
+        Graph<AABB> front = new Graph<>(Collections.singleton(FRONT));
+        Random random = new Random(1);
+        for (int i = 0; i < 40; i++) {
+            front.addNode(box(2 * i, 1 + random.nextInt(100)));
+        }
+        // all boxes of the BACK graph are at the same height, so its greedy sequence costs nothing
+        Graph<AABB> back = new Graph<>(Collections.singleton(BACK));
+        AABB a = box(100, 0);
+        AABB b = box(102, 0);
+        back.addDirectedEdge(back.addNode(a), back.addNode(b), BACK);
+
+        Map<OperatingDirection, Graph<AABB>> graphs = new EnumMap<>(OperatingDirection.class);
+        graphs.put(FRONT, front);
+        graphs.put(BACK, back);
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(graphs, costFunctions);
+        branchAndBound.setStrategy(SolvingStrategy.BUDGETED);
+        branchAndBound.setTimeBudget(Duration.ofMillis(50));
+        LinkedHashSet<AABB> sequence = branchAndBound.findGlobalOptimumSequence();
+        assertAll(
+                () -> assertEquals(Arrays.asList(a, b), new ArrayList<>(sequence)),
+                () -> assertEquals(0, branchAndBound.getOptimumCost()),
+                () -> assertFalse(branchAndBound.isOptimal()),
+                () -> assertEquals(2, back.getCopyOfNodes().size())
+        );
+    }
+
+    @Test
+    @DisplayName("then an exhaustive search is optimal")
+    void exhaustiveIsOptimal() {
+        Graph<AABB> graph = new Graph<>(Collections.singleton(FRONT));
+        graph.addNode(box(0, 0));
+        graph.addNode(box(2, 1));
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(mapOf(graph), costFunctions);
+        branchAndBound.findGlobalOptimumSequence();
+        assertTrue(branchAndBound.isOptimal());
+    }
+
+    @Test
+    @DisplayName("then an IllegalArgumentException is thrown for a time budget that is not positive")
+    void invalidBudget() {
+        BranchAndBound<AABB> branchAndBound = new BranchAndBound<>(new HashMap<>(), costFunctions);
+        assertThrows(IllegalArgumentException.class, () -> branchAndBound.setTimeBudget(Duration.ZERO));
+    }
+}
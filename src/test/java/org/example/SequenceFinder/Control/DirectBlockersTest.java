@@ -0,0 +1,105 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.GeometricObjects.Point;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectBlockersTest {
+
+    @Nested
+    @DisplayName("given a tower of 4 boxes")
+    class Tower {
+
+        List<AABB> boxes = Arrays.asList(
+                new AABB(new Point(0, 0, 0), new Point(1, 1, 1)),
+                new AABB(new Point(0, 0, 1), new Point(1, 1, 2)),
+                new AABB(new Point(0, 0, 2), new Point(1, 1, 3)),
+                new AABB(new Point(0, 0, 3), new Point(1, 1, 4)));
+
+        @Test
+        @DisplayName("when the blockers from the top are reduced then only the box directly above is a direct blocker")
+        void top() {
+            DirectBlockers<AABB> direct = new DirectBlockers<>(boxes);
+            assertAll(
+                    () -> assertArrayEquals(new int[]{1}, direct.retainDirect(0, new int[]{1, 2, 3}, TOP)),
+                    () -> assertArrayEquals(new int[]{2}, direct.retainDirect(1, new int[]{2, 3}, TOP)),
+                    () -> assertArrayEquals(new int[]{3}, direct.retainDirect(2, new int[]{3}, TOP)),
+                    () -> assertArrayEquals(new int[]{}, direct.retainDirect(3, new int[]{}, TOP))
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("given box A, boxes B and C that each cover half of A, and box D on top of B and C")
+    class HalfCovered {
+
+        List<AABB> boxes = Arrays.asList(
+                new AABB(new Point(0, 0, 0), new Point(2, 1, 1)),
+                new AABB(new Point(0, 0, 1), new Point(1, 1, 2)),
+                new AABB(new Point(1, 0, 1), new Point(2, 1, 2)),
+                new AABB(new Point(0, 0, 2), new Point(2, 1, 3)));
+
+        @Test
+        @DisplayName("when the blockers of A are reduced then B and C are direct blockers, but not D")
+        void bothHalves() {
+            DirectBlockers<AABB> direct = new DirectBlockers<>(boxes);
+            assertArrayEquals(new int[]{1, 2}, direct.retainDirect(0, new int[]{1, 2, 3}, TOP));
+        }
+
+        @Test
+        @DisplayName("when only B is a blocker of A then D is a direct blocker, because it covers the other half")
+        void oneHalf() {
+            DirectBlockers<AABB> direct = new DirectBlockers<>(boxes);
+            assertArrayEquals(new int[]{1, 3}, direct.retainDirect(0, new int[]{1, 3}, TOP));
+        }
+
+        @Test
+        @DisplayName("when the blockers are given in any order then the direct blockers are ordered by their ids")
+        void order() {
+            DirectBlockers<AABB> direct = new DirectBlockers<>(boxes);
+            assertArrayEquals(new int[]{1, 2}, direct.retainDirect(0, new int[]{3, 2, 1}, TOP));
+        }
+    }
+
+    @Nested
+    @DisplayName("given a row of 3 boxes along the x axis")
+    class Row {
+
+        List<AABB> boxes = Arrays.asList(
+                new AABB(new Point(0, 0, 0), new Point(1, 1, 1)),
+                new AABB(new Point(1, 0, 0), new Point(2, 1, 1)),
+                new AABB(new Point(2, 0, 0), new Point(3, 1, 1)));
+
+        @Test
+        @DisplayName("when the boxes are removed to the RIGHT then only the next box is a direct blocker")
+        void right() {
+            DirectBlockers<AABB> direct = new DirectBlockers<>(boxes);
+            assertArrayEquals(new int[]{1}, direct.retainDirect(0, new int[]{1, 2}, RIGHT));
+        }
+
+        @Test
+        @DisplayName("when the boxes are removed to the LEFT then only the next box is a direct blocker")
+        void left() {
+            DirectBlockers<AABB> direct = new DirectBlockers<>(boxes);
+            assertArrayEquals(new int[]{1}, direct.retainDirect(2, new int[]{0, 1}, LEFT));
+        }
+    }
+
+    @Test
+    @DisplayName("given a blocker that only touches the box at an edge then it is always a direct blocker")
+    void touching() {
+        List<AABB> boxes = Arrays.asList(
+                new AABB(new Point(0, 0, 0), new Point(1, 1, 1)),
+                new AABB(new Point(0, 0, 1), new Point(1, 1, 2)),
+                new AABB(new Point(1, 0, 2), new Point(2, 1, 3)));
+        assertArrayEquals(new int[]{1, 2}, new DirectBlockers<>(boxes).retainDirect(0, new int[]{1, 2}, TOP));
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.SequenceFinder.Control;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdSequenceTest {
+
+    @Nested
+    @DisplayName("given a sequence of three boxes")
+    class ThreeBoxes {
+
+        List<String> boxes = Arrays.asList("boxA", "boxB", "boxC");
+        List<Integer> lookedUp;
+        int[] ids;
+        IdSequence<String> sequence;
+
+        @BeforeEach
+        void setup() {
+            lookedUp = new ArrayList<>();
+            ids = new int[]{2, 0, 1};
+            sequence = new IdSequence<>(ids, id -> {
+                lookedUp.add(id);
+                return boxes.get(id);
+            });
+        }
+
+        @Test
+        @DisplayName("then no box is looked up before it is accessed")
+        void lazy() {
+            assertAll(
+                    () -> assertEquals(3, sequence.size()),
+                    () -> assertEquals(0, sequence.getId(1)),
+                    () -> assertTrue(lookedUp.isEmpty())
+            );
+        }
+
+        @Test
+        @DisplayName("then only the accessed box is looked up")
+        void get() {
+            assertEquals("boxC", sequence.get(0));
+            assertEquals(Collections.singletonList(2), lookedUp);
+        }
+
+        @Test
+        @DisplayName("then the boxes are in the order of the sequence")
+        void toLinkedHashSet() {
+            assertEquals(Arrays.asList("boxC", "boxA", "boxB"), new ArrayList<>(sequence.toLinkedHashSet()));
+        }
+
+        @Test
+        @DisplayName("then changing the given or the returned ids does not change the sequence")
+        void copies() {
+            ids[0] = 1;
+            sequence.toIdArray()[1] = 2;
+            assertArrayEquals(new int[]{2, 0, 1}, sequence.toIdArray());
+        }
+
+        @Test
+        @DisplayName("then a sequence with the same ids is equal")
+        void equal() {
+            IdSequence<String> other = new IdSequence<>(new int[]{2, 0, 1}, boxes::get);
+            assertAll(
+                    () -> assertEquals(sequence, other),
+                    () -> assertEquals(sequence.hashCode(), other.hashCode()),
+                    () -> assertNotEquals(sequence, new IdSequence<>(new int[]{0, 1, 2}, boxes::get))
+            );
+        }
+
+        @Test
+        @DisplayName("then the iterator throws a NoSuchElementException after the last box")
+        void iterator() {
+            Iterator<String> iterator = sequence.iterator();
+            iterator.next();
+            iterator.next();
+            iterator.next();
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
+
+    @Test
+    @DisplayName("then an IllegalArgumentException is thrown if the lookup function is null")
+    void nullLookup() {
+        assertThrows(IllegalArgumentException.class, () -> new IdSequence<String>(new int[0], null));
+    }
+}
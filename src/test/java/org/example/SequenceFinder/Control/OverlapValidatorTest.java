@@ -0,0 +1,141 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.GeometricObjects.Point;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverlapValidatorTest {
+
+    OverlapValidator<AABB> validator;
+    List<AABB> boxes = new ArrayList<>();
+
+    @Test
+    @DisplayName("then an IllegalArgumentException is thrown for a negative touching tolerance")
+    void negativeTolerance() {
+        assertThrows(IllegalArgumentException.class, () -> new OverlapValidator<>(-0.1));
+    }
+
+
+    @Nested
+    @DisplayName("given a validator with touching tolerance 0")
+    class ZeroTolerance {
+
+        @BeforeEach
+        void setup() {
+            validator = new OverlapValidator<>(0);
+        }
+
+        @Test
+        @DisplayName("then an empty stack has no overlaps")
+        void empty() {
+            assertTrue(validator.findOverlaps(boxes).isEmpty());
+        }
+
+        @Test
+        @DisplayName("then two boxes that share a side do not overlap")
+        void touching() {
+            boxes.add(new AABB(new Point(0, 0, 0), new Point(1, 1, 1)));
+            boxes.add(new AABB(new Point(1, 0, 0), new Point(2, 1, 1)));
+
+            assertAll(
+                    () -> assertTrue(validator.findOverlaps(boxes).isEmpty()),
+                    () -> assertDoesNotThrow(() -> validator.validate(boxes))
+            );
+        }
+
+        @Test
+        @DisplayName("then two boxes that share an edge do not overlap")
+        void touchingEdge() {
+            boxes.add(new AABB(new Point(0, 0, 0), new Point(1, 1, 1)));
+            boxes.add(new AABB(new Point(1, 1, 0), new Point(2, 2, 1)));
+
+            assertTrue(validator.findOverlaps(boxes).isEmpty());
+        }
+
+        @Test
+        @DisplayName("then two boxes that intersect are reported as overlapping pair")
+        void overlapping() {
+            AABB boxA = new AABB(new Point(0, 0, 0), new Point(1, 1, 1));
+            AABB boxB = new AABB(new Point(0.5, 0.5, 0.5), new Point(2, 2, 2));
+            boxes.add(boxA);
+            boxes.add(boxB);
+
+            List<OverlapValidator.Overlap<AABB>> overlaps = validator.findOverlaps(boxes);
+            assertAll(
+                    () -> assertEquals(1, overlaps.size()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(boxA, boxB)),
+                            new HashSet<>(Arrays.asList(overlaps.get(0).getFirst(), overlaps.get(0).getSecond()))),
+                    () -> assertThrows(IllegalArgumentException.class, () -> validator.validate(boxes))
+            );
+        }
+
+        @Test
+        @DisplayName("then a box that is fully enclosed by another box is reported as overlapping")
+        void enclosed() {
+            boxes.add(new AABB(new Point(0, 0, 0), new Point(4, 4, 4)));
+            boxes.add(new AABB(new Point(1, 1, 1), new Point(2, 2, 2)));
+
+            assertEquals(1, validator.findOverlaps(boxes).size());
+        }
+
+        @Test
+        @DisplayName("then the overlaps of random boxes are the same as the ones found by comparing all pairs")
+        void sameAsBruteForce() {
+            Random random = new Random(42);
+            for (int i = 0; i < 300; i++) {
+                double x = random.nextInt(20);
+                double y = random.nextInt(20);
+                double z = random.nextInt(20);
+                boxes.add(new AABB(new Point(x, y, z),
+                        new Point(x + 1 + random.nextInt(3), y + 1 + random.nextInt(3), z + 1 + random.nextInt(3))));
+            }
+
+            int expected = 0;
+            for (int i = 0; i < boxes.size(); i++) {
+                for (int j = i + 1; j < boxes.size(); j++) {
+                    if (validator.overlaps(boxes.get(i), boxes.get(j))) {
+                        expected++;
+                    }
+                }
+            }
+
+            assertEquals(expected, validator.findOverlaps(boxes).size());
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a validator with touching tolerance 0.01")
+    class SmallTolerance {
+
+        @BeforeEach
+        void setup() {
+            validator = new OverlapValidator<>(0.01);
+        }
+
+        @Test
+        @DisplayName("then two boxes that overlap by 0.005 do not overlap")
+        void withinTolerance() {
+            boxes.add(new AABB(new Point(0, 0, 0), new Point(1, 1, 1)));
+            boxes.add(new AABB(new Point(0.995, 0, 0), new Point(2, 1, 1)));
+
+            assertTrue(validator.findOverlaps(boxes).isEmpty());
+        }
+
+        @Test
+        @DisplayName("then two boxes that overlap by 0.1 are reported as overlapping pair")
+        void beyondTolerance() {
+            boxes.add(new AABB(new Point(0, 0, 0), new Point(1, 1, 1)));
+            boxes.add(new AABB(new Point(0.9, 0, 0), new Point(2, 1, 1)));
+
+            assertEquals(1, validator.findOverlaps(boxes).size());
+        }
+    }
+}
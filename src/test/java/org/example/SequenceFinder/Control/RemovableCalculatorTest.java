@@ -2,10 +2,13 @@ package org.example.SequenceFinder.Control;
 
 import org.example.SequenceFinder.Model.GeometricObjects.AABB;
 import org.example.SequenceFinder.Model.GeometricObjects.Point;
+import org.example.SequenceFinder.Model.Graph.CompactGraph;
 import org.example.SequenceFinder.Model.Graph.Graph;
 import org.example.SequenceFinder.Model.Graph.GraphNode;
+import org.example.SequenceFinder.Model.Graph.ReachabilityIndex;
 import org.example.SequenceFinder.Model.Octree.LooseOctree;
 import org.example.SequenceFinder.OperatingDirection;
+import org.example.SequenceFinder.RandomStacks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -604,6 +607,383 @@ class RemovableCalculatorTest {
     }
 
 
+    @Nested
+    @DisplayName("given a loose octree with a stack of boxes")
+    class CompactGraphs {
+
+        @BeforeEach
+        void setup() {
+            looseOctree = new LooseOctree<>(3, 8);
+            looseOctree.insertObject(new AABB(new Point(0, 0, 0), new Point(2, 1, 1)));
+            looseOctree.insertObject(new AABB(new Point(2, 0, 0), new Point(3, 2, 1)));
+            looseOctree.insertObject(new AABB(new Point(0, 1, 0), new Point(2, 2, 2)));
+            looseOctree.insertObject(new AABB(new Point(0, 0, 1), new Point(1, 1, 2)));
+            looseOctree.insertObject(new AABB(new Point(1, 0, 2), new Point(3, 2, 3)));
+            opDirs.add(FRONT);
+            opDirs.add(LEFT);
+            opDirs.add(TOP);
+        }
+
+        /**
+         * Assert that the compact graph contains the same nodes and edges as the graph.
+         */
+        private void assertSameGraph(Graph<AABB> expected, CompactGraph<AABB> actual) {
+            assertEquals(expected.getOperatingDirections(), actual.getOperatingDirections());
+            assertEquals(expected.getCopyOfNodes().size(), actual.size());
+            for (GraphNode<AABB> node : expected.getCopyOfNodes()) {
+                int to = actual.idOf(node.getContent());
+                for (OperatingDirection opDir : expected.getOperatingDirections()) {
+                    Collection<GraphNode<AABB>> incoming = node.getCopyOfIncomingNodes(opDir);
+                    assertEquals(incoming.size(), actual.inDegree(to, opDir), "in-degree of " + node);
+                    for (GraphNode<AABB> from : incoming) {
+                        assertTrue(actual.hasEdge(actual.idOf(from.getContent()), to, opDir));
+                    }
+                }
+                assertEquals(expected.isRemovable(node), actual.isRemovable(to));
+            }
+        }
+
+        @Test
+        @DisplayName("when the operating direction can not change then the compact graphs equal the graphs")
+        void changeFalse() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs);
+            graphMap = calculator.createGraphs(false);
+            Map<OperatingDirection, CompactGraph<AABB>> compactGraphs = calculator.createCompactGraphs(false);
+
+            assertEquals(3, new HashSet<>(compactGraphs.values()).size());
+            for (OperatingDirection opDir : opDirs) {
+                assertSameGraph(graphMap.get(opDir), compactGraphs.get(opDir));
+            }
+        }
+
+        @Test
+        @DisplayName("when the operating direction can change then the compact graph equals the merged graph")
+        void changeTrue() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs);
+            graphMap = calculator.createGraphs(true);
+            Map<OperatingDirection, CompactGraph<AABB>> compactGraphs = calculator.createCompactGraphs(true);
+
+            assertEquals(1, new HashSet<>(compactGraphs.values()).size());
+            assertSameGraph(graphMap.get(FRONT), compactGraphs.get(FRONT));
+        }
+
+        @Test
+        @DisplayName("then the compact graph created from a graph equals the graph")
+        void fromGraph() {
+            graphMap = new RemovableCalculator<>(looseOctree, opDirs).createGraphs(true);
+            assertSameGraph(graphMap.get(TOP), CompactGraph.of(graphMap.get(TOP)));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a loose octree with a random stack of boxes")
+    class Parallel {
+
+        @BeforeEach
+        void setup() {
+            looseOctree = new LooseOctree<>(4, 16);
+            for (AABB box : RandomStacks.unitBoxes(new Random(3), 6, 3)) {
+                looseOctree.insertObject(box);
+            }
+            opDirs.add(FRONT);
+            opDirs.add(LEFT);
+            opDirs.add(TOP);
+        }
+
+        /**
+         * Collect the edges of the graph for the direction, as pairs of the contents of both nodes
+         */
+        private Set<List<AABB>> edgesOf(Graph<AABB> graph, OperatingDirection opDir) {
+            Set<List<AABB>> edges = new HashSet<>();
+            for (GraphNode<AABB> node : graph.getCopyOfNodes()) {
+                for (GraphNode<AABB> from : node.getCopyOfIncomingNodes(opDir)) {
+                    edges.add(Arrays.asList(from.getContent(), node.getContent()));
+                }
+            }
+            return edges;
+        }
+
+        @Test
+        @DisplayName("when the blockers are found in parallel then the graphs equal the sequentially created graphs")
+        void graphs() {
+            RemovableCalculator<AABB> sequential = new RemovableCalculator<>(looseOctree, opDirs);
+            sequential.setParallelism(1);
+            RemovableCalculator<AABB> parallel = new RemovableCalculator<>(looseOctree, opDirs);
+            parallel.setParallelism(4);
+
+            Map<OperatingDirection, Graph<AABB>> expected = sequential.createGraphs(false);
+            Map<OperatingDirection, Graph<AABB>> actual = parallel.createGraphs(false);
+            for (OperatingDirection opDir : opDirs) {
+                Set<List<AABB>> edges = edgesOf(expected.get(opDir), opDir);
+                assertFalse(edges.isEmpty());
+                assertEquals(edges, edgesOf(actual.get(opDir), opDir));
+            }
+        }
+
+        @Test
+        @DisplayName("when the blockers are found in parallel then the compact graphs equal the sequentially created " +
+                "compact graphs")
+        void compactGraphs() {
+            RemovableCalculator<AABB> sequential = new RemovableCalculator<>(looseOctree, opDirs);
+            sequential.setParallelism(1);
+            RemovableCalculator<AABB> parallel = new RemovableCalculator<>(looseOctree, opDirs);
+            parallel.setParallelism(4);
+
+            CompactGraph<AABB> expected = sequential.createCompactGraphs(true).get(TOP);
+            CompactGraph<AABB> actual = parallel.createCompactGraphs(true).get(TOP);
+            for (OperatingDirection opDir : opDirs) {
+                assertArrayEquals(expected.outOffsets(opDir), actual.outOffsets(opDir));
+                assertArrayEquals(expected.outTargets(opDir), actual.outTargets(opDir));
+            }
+        }
+
+        @Test
+        @DisplayName("when the parallelism is less than 1 then an IllegalArgumentException is thrown")
+        void invalidParallelism() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs);
+            assertThrows(IllegalArgumentException.class, () -> calculator.setParallelism(0));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a loose octree with a random stack of boxes of different sizes")
+    class DifferentSizes {
+
+        @BeforeEach
+        void setup() {
+            looseOctree = new LooseOctree<>(4, 16);
+            for (AABB box : RandomStacks.boxesOfDifferentSizes(new Random(5), 6, 3)) {
+                looseOctree.insertObject(box);
+            }
+            opDirs.addAll(EnumSet.allOf(OperatingDirection.class));
+        }
+
+        /**
+         * Assert that the sweep line finds the same edges as the frustum culling
+         */
+        private void assertSameEdges(RemovableCalculator<AABB> calculator) {
+            CompactGraph<AABB> expected = calculator.createCompactGraphs(true).get(TOP);
+            calculator.setBlockerStrategy(BlockerStrategy.SWEEP_LINE);
+            CompactGraph<AABB> actual = calculator.createCompactGraphs(true).get(TOP);
+            for (OperatingDirection opDir : opDirs) {
+                assertTrue(expected.edgeCount(opDir) > 0);
+                assertArrayEquals(expected.outOffsets(opDir), actual.outOffsets(opDir), "offsets of " + opDir);
+                assertArrayEquals(expected.outTargets(opDir), actual.outTargets(opDir), "targets of " + opDir);
+            }
+        }
+
+        @Test
+        @DisplayName("when touching boxes block each other then the sweep line finds the same edges as the frusta")
+        void noTolerance() {
+            assertSameEdges(new RemovableCalculator<>(looseOctree, opDirs));
+        }
+
+        @Test
+        @DisplayName("when touching boxes do not block each other then the sweep line finds the same edges as the " +
+                "frusta")
+        void tolerance() {
+            assertSameEdges(new RemovableCalculator<>(looseOctree, opDirs, 1e-9));
+        }
+
+        @Test
+        @DisplayName("when the octree is joined with itself then the same edges are found as with the frusta")
+        void selfJoin() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs, 1e-9);
+            CompactGraph<AABB> expected = calculator.createCompactGraphs(true).get(TOP);
+            calculator.setBlockerStrategy(BlockerStrategy.SELF_JOIN);
+            CompactGraph<AABB> actual = calculator.createCompactGraphs(true).get(TOP);
+            for (OperatingDirection opDir : opDirs) {
+                assertArrayEquals(expected.outOffsets(opDir), actual.outOffsets(opDir), "offsets of " + opDir);
+                assertArrayEquals(expected.outTargets(opDir), actual.outTargets(opDir), "targets of " + opDir);
+            }
+        }
+
+        @Test
+        @DisplayName("when the operating direction can not change then the sweep line creates the same graphs")
+        void graphs() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs);
+            Map<OperatingDirection, Graph<AABB>> expected = calculator.createGraphs(false);
+            calculator.setBlockerStrategy(BlockerStrategy.SWEEP_LINE);
+            Map<OperatingDirection, Graph<AABB>> actual = calculator.createGraphs(false);
+            for (OperatingDirection opDir : opDirs) {
+                CompactGraph<AABB> expectedGraph = CompactGraph.of(expected.get(opDir));
+                CompactGraph<AABB> actualGraph = CompactGraph.of(actual.get(opDir));
+                assertEquals(expectedGraph.edgeCount(opDir), actualGraph.edgeCount(opDir));
+                for (int id = 0; id < expectedGraph.size(); id++) {
+                    int actualId = actualGraph.idOf(expectedGraph.getContent(id));
+                    assertEquals(expectedGraph.inDegree(id, opDir), actualGraph.inDegree(actualId, opDir));
+                }
+            }
+        }
+
+        /**
+         * Assert that the direct blockers are sparser, but block the same boxes transitively
+         */
+        private void assertSameClosure(Map<OperatingDirection, CompactGraph<AABB>> all,
+                                       Map<OperatingDirection, CompactGraph<AABB>> direct) {
+            // BOTTOM is skipped, as the boxes below and the boxes above each box block it in a cycle
+            for (OperatingDirection opDir : EnumSet.of(FRONT, BACK, LEFT, RIGHT, TOP)) {
+                CompactGraph<AABB> allGraph = all.get(opDir);
+                CompactGraph<AABB> directGraph = direct.get(opDir);
+                assertTrue(directGraph.edgeCount(opDir) < allGraph.edgeCount(opDir));
+                ReachabilityIndex<AABB> expected = ReachabilityIndex.of(allGraph, opDir);
+                ReachabilityIndex<AABB> actual = ReachabilityIndex.of(directGraph, opDir);
+                for (int from = 0; from < allGraph.size(); from++) {
+                    for (int to = 0; to < allGraph.size(); to++) {
+                        assertEquals(expected.blocks(from, to), actual.blocks(from, to),
+                                "box " + from + " blocks box " + to + " from " + opDir);
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("when only direct blockers get an edge then the graphs are sparser but block the same boxes")
+        void directBlockersOnly() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs, 1e-9);
+            Map<OperatingDirection, CompactGraph<AABB>> all = calculator.createCompactGraphs(false);
+            calculator.setDirectBlockersOnly(true);
+            assertSameClosure(all, calculator.createCompactGraphs(false));
+        }
+
+        @Test
+        @DisplayName("when only direct blockers get an edge then the sweep line finds the same edges as the frusta")
+        void directBlockersOnlySweepLine() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs, 1e-9);
+            calculator.setDirectBlockersOnly(true);
+            Map<OperatingDirection, CompactGraph<AABB>> expected = calculator.createCompactGraphs(false);
+            calculator.setBlockerStrategy(BlockerStrategy.SWEEP_LINE);
+            Map<OperatingDirection, CompactGraph<AABB>> actual = calculator.createCompactGraphs(false);
+            for (OperatingDirection opDir : opDirs) {
+                assertArrayEquals(expected.get(opDir).outTargets(opDir), actual.get(opDir).outTargets(opDir));
+            }
+        }
+
+        @Test
+        @DisplayName("when only direct blockers get an edge and the operating direction can change then an " +
+                "IllegalArgumentException is thrown")
+        void directBlockersOnlyChangeTrue() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs, 1e-9);
+            calculator.setDirectBlockersOnly(true);
+            assertAll(
+                    () -> assertThrows(IllegalArgumentException.class, () -> calculator.createGraphs(true)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> calculator.createCompactGraphs(true))
+            );
+        }
+
+        @Test
+        @DisplayName("when the blocker strategy is set to null then an IllegalArgumentException is thrown")
+        void nullStrategy() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs);
+            assertThrows(IllegalArgumentException.class, () -> calculator.setBlockerStrategy(null));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a loose octree with a column of 4 boxes")
+    class Column {
+
+        List<AABB> column = new ArrayList<>();
+
+        @BeforeEach
+        void setup() {
+            looseOctree = new LooseOctree<>(3, 8);
+            for (int z = 0; z < 4; z++) {
+                AABB box = new AABB(new Point(0, 0, z), new Point(1, 1, z + 1));
+                column.add(box);
+                looseOctree.insertObject(box);
+            }
+            opDirs.add(TOP);
+        }
+
+        private int edgeCount(Graph<AABB> graph) {
+            return graph.getCopyOfNodes().stream().mapToInt(node -> node.getCopyOfOutgoingNodes().size()).sum();
+        }
+
+        @Test
+        @DisplayName("when the graphs are created without transitive reduction then each box has an edge from all " +
+                "boxes above it")
+        void withoutReduction() {
+            graphMap = new RemovableCalculator<>(looseOctree, opDirs).createGraphs(false, false);
+            assertEquals(6, edgeCount(graphMap.get(TOP)));
+        }
+
+        @Test
+        @DisplayName("when the graphs are created with transitive reduction then each box only has an edge from the " +
+                "box directly above it")
+        void withReduction() {
+            graphMap = new RemovableCalculator<>(looseOctree, opDirs).createGraphs(false, true);
+            Graph<AABB> graph = graphMap.get(TOP);
+            assertAll(
+                    () -> assertEquals(3, edgeCount(graph)),
+                    () -> assertRemovableFromFor(column.get(3), graph, TOP),
+                    () -> assertNotRemovableFromFor(column.get(2), graph, TOP)
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalArgumentException is thrown when reducing graphs whose direction can change")
+        void reductionWithChange() {
+            RemovableCalculator<AABB> calculator = new RemovableCalculator<>(looseOctree, opDirs);
+            assertThrows(IllegalArgumentException.class, () -> calculator.createGraphs(true, true));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a loose octree with 2 boxes that share a side")
+    class TwoTouchingBoxes {
+
+        AABB boxA;
+        AABB boxB;
+
+        @BeforeEach
+        void setup() {
+            boxA = new AABB(new Point(0, 0, 0), new Point(1, 1, 1));
+            boxB = new AABB(new Point(1, 0, 0), new Point(2, 1, 1));
+
+            looseOctree = new LooseOctree<>(3, 8);
+            looseOctree.insertObject(boxA);
+            looseOctree.insertObject(boxB);
+            opDirs.add(FRONT);
+        }
+
+        @Test
+        @DisplayName("when no contact tolerance is given then no box should be removable in the FRONT graph")
+        void noContactTolerance() {
+            graphMap = new RemovableCalculator<>(looseOctree, opDirs).createGraphs(false);
+            assertAll(
+                    () -> assertNotRemovableFromFor(boxA, graphMap.get(FRONT), FRONT),
+                    () -> assertNotRemovableFromFor(boxB, graphMap.get(FRONT), FRONT)
+            );
+        }
+
+        @Test
+        @DisplayName("when the contact tolerance is 0 then both boxes should be removable in the FRONT graph")
+        void zeroContactTolerance() {
+            graphMap = new RemovableCalculator<>(looseOctree, opDirs, 0).createGraphs(false);
+            assertAll(
+                    () -> assertRemovableFromFor(boxA, graphMap.get(FRONT), FRONT),
+                    () -> assertRemovableFromFor(boxB, graphMap.get(FRONT), FRONT)
+            );
+        }
+
+        @Test
+        @DisplayName("when the contact tolerance is 0 and a box touches only the edge of boxA from the front then " +
+                "boxA should still be removable in the FRONT graph")
+        void edgeContact() {
+            AABB boxC = new AABB(new Point(1, -1, 0), new Point(2, 0, 1));
+            looseOctree.insertObject(boxC);
+
+            graphMap = new RemovableCalculator<>(looseOctree, opDirs, 0).createGraphs(false);
+            assertRemovableFromFor(boxA, graphMap.get(FRONT), FRONT);
+        }
+    }
+
+
     @Nested
     @DisplayName("given a loose octree with 4 boxes")
     class FourBoxes {
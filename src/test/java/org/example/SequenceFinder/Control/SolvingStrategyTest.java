@@ -0,0 +1,95 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.Graph.Graph;
+import org.example.SequenceFinder.Model.Graph.GraphMetrics;
+import org.example.SequenceFinder.Model.Graph.GraphNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.example.SequenceFinder.OperatingDirection.TOP;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolvingStrategyTest {
+
+    /**
+     * Create the metrics of a stack of independent towers of the given height
+     */
+    static GraphMetrics towers(int count, int height) {
+        Graph<Integer> graph = new Graph<>(EnumSet.of(TOP));
+        for (int tower = 0; tower < count; tower++) {
+            GraphNode<Integer> below = null;
+            for (int level = 0; level < height; level++) {
+                GraphNode<Integer> node = graph.addNode(tower * height + level);
+                if (below != null) {
+                    graph.addDirectedEdge(node, below, TOP);
+                }
+                below = node;
+            }
+        }
+        return GraphMetrics.of(graph);
+    }
+
+    @Test
+    @DisplayName("then a single tower is searched exhaustively")
+    void tower() {
+        assertEquals(SolvingStrategy.EXHAUSTIVE, SolvingStrategy.select(Collections.singleton(towers(1, 50))));
+    }
+
+    @Test
+    @DisplayName("then a flat layer of 30 boxes is searched within the time budget")
+    void flatLayer() {
+        assertEquals(SolvingStrategy.BUDGETED, SolvingStrategy.select(Collections.singleton(towers(30, 1))));
+    }
+
+    @Test
+    @DisplayName("then the hardest graph decides")
+    void hardestGraph() {
+        assertEquals(SolvingStrategy.BUDGETED,
+                SolvingStrategy.select(Arrays.asList(towers(1, 5), towers(30, 1))));
+    }
+
+    @Test
+    @DisplayName("then a tower of 5000 boxes is still searched exhaustively")
+    void large() {
+        assertEquals(SolvingStrategy.EXHAUSTIVE, SolvingStrategy.select(Collections.singleton(towers(1, 5000))));
+    }
+
+    @Test
+    @DisplayName("then no graphs are searched exhaustively")
+    void noGraphs() {
+        assertEquals(SolvingStrategy.EXHAUSTIVE, SolvingStrategy.select(Collections.emptyList()));
+    }
+
+    @Test
+    @DisplayName("then a graph that is searched exhaustively gets the minimum time budget")
+    void towerTimeBudget() {
+        assertEquals(SolvingStrategy.MIN_TIME_BUDGET,
+                SolvingStrategy.selectTimeBudget(Collections.singleton(towers(1, 50))));
+    }
+
+    @Test
+    @DisplayName("then the time budget grows with the estimated number of sequences")
+    void growingTimeBudget() {
+        Duration smaller = SolvingStrategy.selectTimeBudget(Collections.singleton(towers(15, 1)));
+        Duration larger = SolvingStrategy.selectTimeBudget(Collections.singleton(towers(30, 1)));
+        assertAll(
+                () -> assertTrue(smaller.compareTo(SolvingStrategy.MIN_TIME_BUDGET) > 0),
+                () -> assertTrue(larger.compareTo(smaller) > 0),
+                () -> assertTrue(larger.compareTo(SolvingStrategy.MAX_TIME_BUDGET) < 0)
+        );
+    }
+
+    @Test
+    @DisplayName("then the time budget is limited for a huge number of sequences")
+    void maxTimeBudget() {
+        assertEquals(SolvingStrategy.MAX_TIME_BUDGET,
+                SolvingStrategy.selectTimeBudget(Collections.singleton(towers(100, 1))));
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.SequenceFinder.Control;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.GeometricObjects.Point;
+import org.example.SequenceFinder.Model.Octree.Frustum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepLineBlockersTest {
+
+    List<AABB> boxes;
+
+    @Nested
+    @DisplayName("given box A, box B on top of it, box C next to A and box D on top of B and C")
+    class Stack {
+
+        @BeforeEach
+        void setup() {
+            AABB boxA = new AABB(new Point(0, 0, 0), new Point(1, 1, 1));
+            AABB boxB = new AABB(new Point(0, 0, 1), new Point(1, 1, 2));
+            AABB boxC = new AABB(new Point(1, 0, 0), new Point(2, 1, 1));
+            AABB boxD = new AABB(new Point(0.5, 0, 2), new Point(1.5, 1, 3));
+            boxes = Arrays.asList(boxA, boxB, boxC, boxD);
+        }
+
+        @Test
+        @DisplayName("when touching boxes block each other then the boxes above and the touching boxes are blockers")
+        void noTolerance() {
+            int[][] blockers = new SweepLineBlockers<>(boxes, Frustum.NO_CONTACT_TOLERANCE).findBlockers(TOP);
+            assertAll(
+                    // C touches A at the side, which is on the border of A's frustum
+                    () -> assertArrayEquals(new int[]{1, 2, 3}, blockers[0]),
+                    () -> assertArrayEquals(new int[]{3}, blockers[1]),
+                    () -> assertArrayEquals(new int[]{0, 1, 3}, blockers[2]),
+                    () -> assertArrayEquals(new int[]{}, blockers[3])
+            );
+        }
+
+        @Test
+        @DisplayName("when touching boxes do not block each other then only the boxes above are blockers")
+        void tolerance() {
+            int[][] blockers = new SweepLineBlockers<>(boxes, 1e-9).findBlockers(TOP);
+            assertAll(
+                    () -> assertArrayEquals(new int[]{1, 3}, blockers[0]),
+                    () -> assertArrayEquals(new int[]{3}, blockers[1]),
+                    () -> assertArrayEquals(new int[]{3}, blockers[2]),
+                    () -> assertArrayEquals(new int[]{}, blockers[3])
+            );
+        }
+
+        @Test
+        @DisplayName("when the boxes are removed to the LEFT then the boxes left of each box are blockers")
+        void left() {
+            int[][] blockers = new SweepLineBlockers<>(boxes, 1e-9).findBlockers(LEFT);
+            assertAll(
+                    () -> assertArrayEquals(new int[]{}, blockers[0]),
+                    () -> assertArrayEquals(new int[]{}, blockers[1]),
+                    () -> assertArrayEquals(new int[]{0}, blockers[2]),
+                    () -> assertArrayEquals(new int[]{}, blockers[3])
+            );
+        }
+
+        @Test
+        @DisplayName("when the boxes are removed to the RIGHT then the boxes right of each box are blockers")
+        void right() {
+            int[][] blockers = new SweepLineBlockers<>(boxes, 1e-9).findBlockers(RIGHT);
+            assertAll(
+                    () -> assertArrayEquals(new int[]{2}, blockers[0]),
+                    () -> assertArrayEquals(new int[]{}, blockers[1]),
+                    () -> assertArrayEquals(new int[]{}, blockers[2]),
+                    () -> assertArrayEquals(new int[]{}, blockers[3])
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("given no boxes then there are no blockers")
+    void empty() {
+        assertEquals(0, new SweepLineBlockers<>(Collections.<AABB>emptyList(), 0).findBlockers(TOP).length);
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.HashSet;
 
 import static org.example.SequenceFinder.Model.GeometricObjects.AABB.BoxVertex.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -51,6 +52,32 @@ class AABBTest {
             assertNotEquals(box, otherBox);
         }
 
+        @Test
+        @DisplayName("then the hash code should be equal to the hash code of another AABB with the same vertices")
+        void equalHashCode() {
+            AABB otherBox = new ConcreteAABB(new Point(0, 0, 0), new Point(1, 1, 1));
+            assertEquals(box.hashCode(), otherBox.hashCode());
+        }
+
+        @Test
+        @DisplayName("then a HashSet containing the AABB should contain another AABB with the same vertices")
+        void hashSetLookup() {
+            HashSet<AABB> set = new HashSet<>();
+            set.add(box);
+            assertTrue(set.contains(new ConcreteAABB(new Point(0, 0, 0), new Point(1, 1, 1))));
+        }
+
+        @Test
+        @DisplayName("then the AABB is in the fixed-point mode with the extent 1")
+        void fixedPoint() {
+            assertAll(
+                    () -> assertTrue(box.isFixedPoint()),
+                    () -> assertEquals(0L, box.fixedMin(0)),
+                    () -> assertEquals(1L, box.fixedMax(2)),
+                    () -> assertEquals(1L, box.calcFixedPointExtent())
+            );
+        }
+
         @Test
         @DisplayName("then the center should be at (0.5, 0.5, 0.5)")
         void center() {
@@ -88,6 +115,67 @@ class AABBTest {
             assertEquals(expectedVertices, box.getVertices());
         }
 
+        @Test
+        @DisplayName("then the minimum should be 0 and the maximum should be 1 along each axis")
+        void minMax() {
+            assertAll(
+                    () -> assertEquals(0, box.min(0)),
+                    () -> assertEquals(0, box.min(1)),
+                    () -> assertEquals(0, box.min(2)),
+                    () -> assertEquals(1, box.max(0)),
+                    () -> assertEquals(1, box.max(1)),
+                    () -> assertEquals(1, box.max(2))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalArgumentException is thrown for an axis other than 0, 1 or 2")
+        void illegalAxis() {
+            assertAll(
+                    () -> assertThrows(IllegalArgumentException.class, () -> box.min(3)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> box.max(-1))
+            );
+        }
+
+        @Test
+        @DisplayName("then the vertex coordinates should match the vertices returned by getVertices()")
+        void vertexCoordinates() {
+            HashMap<AABB.BoxVertex, Point> vertices = box.getVertices();
+            for (AABB.BoxVertex vertex : AABB.BoxVertex.values()) {
+                assertEquals(vertices.get(vertex),
+                        new Point(box.vertexX(vertex), box.vertexY(vertex), box.vertexZ(vertex)),
+                        "Vertex: " + vertex);
+            }
+        }
+
+        @Test
+        @DisplayName("then the side offsets should be 0 for FRONT, LEFT and BOTTOM and 1 for BACK, RIGHT and TOP")
+        void sideOffsets() {
+            assertAll(
+                    () -> assertEquals(0, box.sideOffset(OperatingDirection.FRONT)),
+                    () -> assertEquals(0, box.sideOffset(OperatingDirection.LEFT)),
+                    () -> assertEquals(0, box.sideOffset(OperatingDirection.BOTTOM)),
+                    () -> assertEquals(1, box.sideOffset(OperatingDirection.BACK)),
+                    () -> assertEquals(1, box.sideOffset(OperatingDirection.RIGHT)),
+                    () -> assertEquals(1, box.sideOffset(OperatingDirection.TOP))
+            );
+        }
+
+        @Test
+        @DisplayName("then the axis plane of each side should describe the same plane as getSide()")
+        void axisPlanes() {
+            for (OperatingDirection opDir : OperatingDirection.values()) {
+                for (boolean normalInside : new boolean[]{true, false}) {
+                    Plane side = box.getSide(opDir, normalInside);
+                    Plane axisPlane = box.getAxisPlane(opDir, normalInside).toPlane(tolerance);
+                    assertAll(
+                            () -> assertEquals(side.getOrigin(), axisPlane.getOrigin()),
+                            () -> assertEquals(side.getNormal(), axisPlane.getNormal())
+                    );
+                }
+            }
+        }
+
         @Nested
         @DisplayName("getSide() tests")
         class Sides {
@@ -278,6 +366,15 @@ class AABBTest {
         AABB box = new ConcreteAABB(new Point(0.1948, 85.8984, -91.5),
                 new Point(5.5, 1834.356, 0.0000000000001));
 
+        @Test
+        @DisplayName("then the AABB is not in the fixed-point mode and fixedMin() throws an exception")
+        void noFixedPoint() {
+            assertAll(
+                    () -> assertFalse(box.isFixedPoint()),
+                    () -> assertThrows(IllegalStateException.class, () -> box.fixedMin(0))
+            );
+        }
+
         @Test
         @DisplayName("then the AABB should be equal to another AABB with the same vertices")
         void equals() {
@@ -0,0 +1,72 @@
+package org.example.SequenceFinder.Model.GeometricObjects;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Plane;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AxisPlaneTest {
+
+    AxisPlane plane;
+
+    @Test
+    @DisplayName("then an IllegalArgumentException is thrown for an axis other than 0, 1 or 2")
+    void illegalAxis() {
+        assertThrows(IllegalArgumentException.class, () -> new AxisPlane(3, 0, 1));
+    }
+
+    @Test
+    @DisplayName("then an IllegalArgumentException is thrown for a sign other than +1 or -1")
+    void illegalSign() {
+        assertThrows(IllegalArgumentException.class, () -> new AxisPlane(0, 0, 0));
+    }
+
+
+    @Nested
+    @DisplayName("given the plane y = 2 with its normal pointing towards -y")
+    class YPlane {
+
+        @BeforeEach
+        void setup() {
+            plane = new AxisPlane(1, 2, -1);
+        }
+
+        @Test
+        @DisplayName("then the point (5, 1, 5) has a signed distance of 1")
+        void inFront() {
+            assertEquals(1, plane.signedDistance(5, 1, 5));
+        }
+
+        @Test
+        @DisplayName("then the point (5, 3, 5) has a signed distance of -1")
+        void behind() {
+            assertEquals(-1, plane.signedDistance(5, 3, 5));
+        }
+
+        @Test
+        @DisplayName("then the point (5, 2, 5) lies on the plane")
+        void onPlane() {
+            assertEquals(0, plane.signedDistance(5, 2, 5));
+        }
+
+        @Test
+        @DisplayName("when reverting the plane then the normal points towards +y")
+        void revert() {
+            assertEquals(new AxisPlane(1, 2, 1), plane.revert());
+        }
+
+        @Test
+        @DisplayName("when converting to a Plane then it contains (0,2,0) and has the normal (0,-1,0)")
+        void toPlane() {
+            Plane expected = new Plane(new Vector3D(0, 2, 0), new Vector3D(0, -1, 0), 1e-10);
+            assertAll(
+                    () -> assertEquals(expected.getOrigin(), plane.toPlane(1e-10).getOrigin()),
+                    () -> assertEquals(expected.getNormal(), plane.toPlane(1e-10).getNormal())
+            );
+        }
+    }
+}
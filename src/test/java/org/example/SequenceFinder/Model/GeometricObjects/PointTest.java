@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class PointTest {
@@ -35,6 +36,12 @@ class PointTest {
             assertEquals(new Point(1, 2, 3), point);
         }
 
+        @Test
+        @DisplayName("then the hash code should be equal to the hash code of another Point (1,2,3)")
+        void equalHashCode() {
+            assertEquals(new Point(1, 2, 3).hashCode(), point.hashCode());
+        }
+
         @Test
         @DisplayName("when adding another Point (1,2,3) then the result should be (2,4,6)")
         void add() {
@@ -43,6 +50,27 @@ class PointTest {
     }
 
 
+    @Nested
+    @DisplayName("given a Point (0,0,0)")
+    class PointZero {
+
+        @BeforeEach
+        void setup() {
+            point = new Point(0, 0, 0);
+        }
+
+        @Test
+        @DisplayName("then the Point should be equal to the Point (-0.0, -0.0, -0.0) and have the same hash code")
+        void negativeZero() {
+            Point negativeZero = new Point(-0.0, -0.0, -0.0);
+            assertAll(
+                    () -> assertEquals(negativeZero, point),
+                    () -> assertEquals(negativeZero.hashCode(), point.hashCode())
+            );
+        }
+    }
+
+
     @Nested
     @DisplayName("given a Point (0.184828472, 1238135423, -0.01")
     class PointDouble {
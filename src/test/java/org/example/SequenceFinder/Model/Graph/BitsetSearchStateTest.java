@@ -0,0 +1,158 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.FRONT;
+import static org.example.SequenceFinder.OperatingDirection.LEFT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitsetSearchStateTest {
+
+    Set<OperatingDirection> opDirs = EnumSet.of(FRONT, LEFT);
+    BitsetSearchState state;
+
+    @Nested
+    @DisplayName("given a graph with 3 nodes, where node 2 is blocked from FRONT by node 0 and from LEFT by node 1")
+    class ThreeNodes {
+
+        @BeforeEach
+        void setup() {
+            CompactGraph.Builder<Integer> builder = new CompactGraph.Builder<>(opDirs);
+            builder.addNode(0);
+            builder.addNode(1);
+            builder.addNode(2);
+            builder.addEdge(0, 2, FRONT);
+            builder.addEdge(1, 2, LEFT);
+            builder.addEdge(0, 1, LEFT);
+            state = PredecessorMasks.of(builder.build()).initialState();
+        }
+
+        @Test
+        @DisplayName("then initially nodes 0 and 1 are removable, as node 1 has no FRONT predecessors")
+        void initial() {
+            assertAll(
+                    () -> assertTrue(state.isRemovable(0)),
+                    () -> assertTrue(state.isRemovable(1)),
+                    () -> assertFalse(state.isRemovable(2)),
+                    () -> assertArrayEquals(new long[]{0b011}, state.removableFrontier()),
+                    () -> assertEquals(0, state.getRemovedCount())
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when removing a blocked node")
+        void removeBlocked() {
+            assertThrows(IllegalGraphStateException.class, () -> state.apply(2));
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when accessing a node that does not exist")
+        void unknownNode() {
+            assertThrows(IllegalGraphStateException.class, () -> state.isRemoved(3));
+        }
+
+        @Test
+        @DisplayName("when node 0 is removed then node 2 is removable from FRONT")
+        void removeFirst() {
+            state.apply(0);
+            assertAll(
+                    () -> assertTrue(state.isRemoved(0)),
+                    () -> assertTrue(state.isRemovable(2)),
+                    () -> assertArrayEquals(new long[]{0b110}, state.removableFrontier()),
+                    () -> assertThrows(IllegalGraphStateException.class, () -> state.apply(0))
+            );
+        }
+
+        @Test
+        @DisplayName("when node 0 is removed and the removal is undone then the state equals the initial state")
+        void undo() {
+            BitsetSearchState initial = state.copy();
+            state.apply(0);
+            assertNotEquals(initial, state);
+
+            state.undo(0);
+            assertAll(
+                    () -> assertEquals(initial, state),
+                    () -> assertEquals(initial.hashCode(), state.hashCode()),
+                    () -> assertThrows(IllegalGraphStateException.class, () -> state.undo(0))
+            );
+        }
+
+        @Test
+        @DisplayName("when a copy is modified then the original state is unchanged")
+        void copy() {
+            BitsetSearchState copy = state.copy();
+            copy.apply(1);
+            assertAll(
+                    () -> assertFalse(state.isRemoved(1)),
+                    () -> assertTrue(copy.isRemoved(1))
+            );
+        }
+
+        @Test
+        @DisplayName("when all nodes are removed then the state is complete and the frontier is empty")
+        void complete() {
+            state.apply(1);
+            state.apply(0);
+            state.apply(2);
+            assertAll(
+                    () -> assertTrue(state.isComplete()),
+                    () -> assertArrayEquals(new long[]{0}, state.removableFrontier())
+            );
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a random graph with 200 nodes")
+    class RandomGraph {
+
+        Graph<Integer> graph;
+        CompactGraph<Integer> compactGraph;
+
+        @BeforeEach
+        void setup() {
+            Random random = new Random(7);
+            graph = new Graph<>(opDirs);
+            List<GraphNode<Integer>> nodes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                nodes.add(graph.addNode(i));
+            }
+            for (OperatingDirection opDir : opDirs) {
+                RandomDags.addEdges(graph, nodes, opDir, random, 600, 80);
+            }
+            compactGraph = CompactGraph.of(graph);
+            state = PredecessorMasks.of(compactGraph).initialState();
+        }
+
+        @Test
+        @DisplayName("then the removable nodes are the same as in the graph after each removal")
+        void sameAsGraph() {
+            while (!state.isComplete()) {
+                Set<Integer> expected = new HashSet<>();
+                for (GraphNode<Integer> node : graph.getCopyOfRemovableNodes()) {
+                    expected.add(compactGraph.idOf(node.getContent()));
+                }
+                Set<Integer> actual = new HashSet<>();
+                state.forEachRemovable(actual::add);
+                assertEquals(expected, actual);
+
+                // always remove the removable node with the highest id, to mix up the order
+                int next = Collections.max(actual);
+                state.apply(next);
+                GraphNode<Integer> node = graph.getCopyOfRemovableNodes().stream()
+                        .filter(n -> n.getContent().equals(compactGraph.getContent(next)))
+                        .findFirst()
+                        .orElseThrow(IllegalStateException::new);
+                graph.removeNode(node);
+            }
+            assertTrue(graph.getCopyOfNodes().isEmpty());
+        }
+    }
+}
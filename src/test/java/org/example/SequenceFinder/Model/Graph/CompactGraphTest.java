@@ -0,0 +1,221 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphTest {
+
+    Set<OperatingDirection> opDirs = EnumSet.of(FRONT, TOP);
+    CompactGraph.Builder<String> builder;
+    CompactGraph<String> graph;
+
+    @BeforeEach
+    void setup() {
+        builder = new CompactGraph.Builder<>(opDirs);
+    }
+
+    @Test
+    @DisplayName("then an IllegalArgumentException is thrown when no operating direction is given")
+    void noDirections() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompactGraph.Builder<String>(EnumSet.noneOf(OperatingDirection.class)));
+    }
+
+    @Test
+    @DisplayName("then an empty graph has no nodes and no edges")
+    void empty() {
+        graph = builder.build();
+        assertAll(
+                () -> assertEquals(0, graph.size()),
+                () -> assertEquals(0, graph.edgeCount(FRONT)),
+                () -> assertArrayEquals(new int[]{0}, graph.outOffsets(TOP))
+        );
+    }
+
+
+    @Nested
+    @DisplayName("given a graph with 4 nodes")
+    class FourNodes {
+
+        int a;
+        int b;
+        int c;
+        int d;
+
+        @BeforeEach
+        void setup() {
+            a = builder.addNode("a");
+            b = builder.addNode("b");
+            c = builder.addNode("c");
+            d = builder.addNode("d");
+        }
+
+        @Test
+        @DisplayName("then the nodes have dense ids in the order they were added")
+        void denseIds() {
+            graph = builder.build();
+            assertAll(
+                    () -> assertEquals(4, graph.size()),
+                    () -> assertEquals(0, graph.idOf("a")),
+                    () -> assertEquals(3, graph.idOf("d")),
+                    () -> assertEquals("c", graph.getContent(2)),
+                    () -> assertEquals(-1, graph.idOf("e"))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when adding the same object twice")
+        void duplicateNode() {
+            assertThrows(IllegalGraphStateException.class, () -> builder.addNode("a"));
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when adding an invalid edge")
+        void invalidEdges() {
+            assertAll(
+                    () -> assertThrows(IllegalGraphStateException.class, () -> builder.addEdge(a, 4, FRONT)),
+                    () -> assertThrows(IllegalGraphStateException.class, () -> builder.addEdge(a, a, FRONT)),
+                    () -> assertThrows(IllegalGraphStateException.class, () -> builder.addEdge(a, b, LEFT))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalStateException is thrown when using the builder after building")
+        void builtTwice() {
+            builder.build();
+            assertAll(
+                    () -> assertThrows(IllegalStateException.class, () -> builder.build()),
+                    () -> assertThrows(IllegalStateException.class, () -> builder.addNode("e"))
+            );
+        }
+
+
+        @Nested
+        @DisplayName("when edges are added in random order")
+        class Edges {
+
+            @BeforeEach
+            void setup() {
+                builder.addEdge(a, d, FRONT);
+                builder.addEdge(c, b, FRONT);
+                builder.addEdge(a, b, FRONT);
+                builder.addEdge(a, c, FRONT);
+                builder.addEdge(a, b, FRONT);
+                builder.addEdge(d, b, TOP);
+                graph = builder.build();
+            }
+
+            @Test
+            @DisplayName("then the outgoing edges are grouped by node and sorted")
+            void outgoing() {
+                assertAll(
+                        () -> assertArrayEquals(new int[]{0, 3, 3, 4, 4}, graph.outOffsets(FRONT)),
+                        () -> assertArrayEquals(new int[]{b, c, d, b}, graph.outTargets(FRONT))
+                );
+            }
+
+            @Test
+            @DisplayName("then the incoming edges are grouped by node and sorted")
+            void incoming() {
+                assertAll(
+                        () -> assertArrayEquals(new int[]{0, 0, 2, 3, 4}, graph.inOffsets(FRONT)),
+                        () -> assertArrayEquals(new int[]{a, c, a, a}, graph.inSources(FRONT))
+                );
+            }
+
+            @Test
+            @DisplayName("then duplicate edges are only stored once")
+            void duplicates() {
+                assertAll(
+                        () -> assertEquals(4, graph.edgeCount(FRONT)),
+                        () -> assertEquals(2, graph.inDegree(b, FRONT))
+                );
+            }
+
+            @Test
+            @DisplayName("then the edges of each direction are stored separately")
+            void directions() {
+                assertAll(
+                        () -> assertEquals(1, graph.edgeCount(TOP)),
+                        () -> assertTrue(graph.hasEdge(d, b, TOP)),
+                        () -> assertFalse(graph.hasEdge(d, b, FRONT)),
+                        () -> assertTrue(graph.hasEdge(c, b, FRONT)),
+                        () -> assertFalse(graph.hasEdge(b, c, FRONT))
+                );
+            }
+
+            @Test
+            @DisplayName("then nodes with no incoming edges for at least one direction are removable")
+            void removable() {
+                assertAll(
+                        () -> assertTrue(graph.isRemovable(a)),
+                        () -> assertFalse(graph.isRemovable(b)),
+                        () -> assertTrue(graph.isRemovable(c)),
+                        () -> assertTrue(graph.isRemovable(d))
+                );
+            }
+
+            @Test
+            @DisplayName("then an IllegalGraphStateException is thrown when accessing a direction that is not " +
+                    "represented")
+            void unknownDirection() {
+                assertThrows(IllegalGraphStateException.class, () -> graph.outTargets(LEFT));
+            }
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a graph")
+    class FromGraph {
+
+        Graph<String> original;
+
+        @BeforeEach
+        void setup() {
+            original = new Graph<>(opDirs);
+            GraphNode<String> a = original.addNode("a");
+            GraphNode<String> b = original.addNode("b");
+            GraphNode<String> c = original.addNode("c");
+            original.addDirectedEdge(a, b, FRONT);
+            original.addDirectedEdge(b, c, FRONT);
+            original.addDirectedEdge(a, c, TOP);
+            graph = CompactGraph.of(original);
+        }
+
+        @Test
+        @DisplayName("then the compact graph contains the same nodes and edges")
+        void sameEdges() {
+            int a = graph.idOf("a");
+            int b = graph.idOf("b");
+            int c = graph.idOf("c");
+            assertAll(
+                    () -> assertEquals(3, graph.size()),
+                    () -> assertEquals(opDirs, graph.getOperatingDirections()),
+                    () -> assertTrue(graph.hasEdge(a, b, FRONT)),
+                    () -> assertTrue(graph.hasEdge(b, c, FRONT)),
+                    () -> assertTrue(graph.hasEdge(a, c, TOP)),
+                    () -> assertEquals(2, graph.edgeCount(FRONT)),
+                    () -> assertEquals(1, graph.edgeCount(TOP))
+            );
+        }
+
+        @Test
+        @DisplayName("then the same nodes are removable")
+        void sameRemovable() {
+            for (GraphNode<String> node : original.getCopyOfNodes()) {
+                assertEquals(original.isRemovable(node), graph.isRemovable(graph.idOf(node.getContent())),
+                        "removable state differs for " + node);
+            }
+        }
+    }
+}
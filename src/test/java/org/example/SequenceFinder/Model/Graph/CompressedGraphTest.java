@@ -0,0 +1,201 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedGraphTest {
+
+    CompactGraph<String> graph;
+    CompressedGraph<String> compressed;
+
+    /**
+     * Assert that the compressed graph has the same contents, directions and edges as the compact graph
+     */
+    private static <T> void assertSameGraph(CompactGraph<T> expected, CompressedGraph<T> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getOperatingDirections(), actual.getOperatingDirections());
+        CompressedGraph<T>.Cursor cursor = actual.new Cursor();
+        for (OperatingDirection opDir : expected.getOperatingDirections()) {
+            assertEquals(expected.edgeCount(opDir), actual.edgeCount(opDir));
+            int[] outOffsets = expected.outOffsets(opDir);
+            int[] outTargets = expected.outTargets(opDir);
+            int[] inOffsets = expected.inOffsets(opDir);
+            int[] inSources = expected.inSources(opDir);
+            for (int id = 0; id < expected.size(); id++) {
+                assertEquals(expected.getContent(id), actual.getContent(id));
+                assertEquals(id, actual.idOf(expected.getContent(id)));
+
+                cursor.outgoing(id, opDir);
+                for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++) {
+                    assertTrue(cursor.hasNext());
+                    assertEquals(outTargets[e], cursor.next());
+                }
+                assertFalse(cursor.hasNext());
+
+                cursor.incoming(id, opDir);
+                for (int e = inOffsets[id]; e < inOffsets[id + 1]; e++) {
+                    assertTrue(cursor.hasNext());
+                    assertEquals(inSources[e], cursor.next());
+                }
+                assertFalse(cursor.hasNext());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("given a graph of FRONT and TOP edges")
+    class SmallGraph {
+
+        @BeforeEach
+        void setup() {
+            CompactGraph.Builder<String> builder = new CompactGraph.Builder<>(EnumSet.of(FRONT, TOP));
+            for (String box : Arrays.asList("boxA", "boxB", "boxC", "boxD")) {
+                builder.addNode(box);
+            }
+            builder.addEdge(0, 1, FRONT);
+            builder.addEdge(0, 3, FRONT);
+            builder.addEdge(2, 0, FRONT);
+            builder.addEdge(3, 1, TOP);
+            builder.addEdge(3, 2, TOP);
+            graph = builder.build();
+            compressed = CompressedGraph.of(graph);
+        }
+
+        @Test
+        @DisplayName("when the graph is compressed then it has the same edges")
+        void sameEdges() {
+            assertSameGraph(graph, compressed);
+        }
+
+        @Test
+        @DisplayName("when the graph is decompressed then it equals the original graph")
+        void decompress() {
+            CompactGraph<String> decompressed = compressed.decompress();
+            for (OperatingDirection opDir : graph.getOperatingDirections()) {
+                assertAll(
+                        () -> assertArrayEquals(graph.outOffsets(opDir), decompressed.outOffsets(opDir)),
+                        () -> assertArrayEquals(graph.outTargets(opDir), decompressed.outTargets(opDir)),
+                        () -> assertArrayEquals(graph.inOffsets(opDir), decompressed.inOffsets(opDir)),
+                        () -> assertArrayEquals(graph.inSources(opDir), decompressed.inSources(opDir))
+                );
+            }
+        }
+
+        @Test
+        @DisplayName("when edges are queried then only the existing edges of the direction are found")
+        void hasEdge() {
+            assertAll(
+                    () -> assertTrue(compressed.hasEdge(0, 1, FRONT)),
+                    () -> assertTrue(compressed.hasEdge(0, 3, FRONT)),
+                    () -> assertTrue(compressed.hasEdge(2, 0, FRONT)),
+                    () -> assertFalse(compressed.hasEdge(0, 2, FRONT)),
+                    () -> assertFalse(compressed.hasEdge(1, 0, FRONT)),
+                    () -> assertFalse(compressed.hasEdge(3, 1, FRONT)),
+                    () -> assertTrue(compressed.hasEdge(3, 1, TOP))
+            );
+        }
+
+        @Test
+        @DisplayName("when degrees are queried then they match the number of edges")
+        void degrees() {
+            assertAll(
+                    () -> assertEquals(2, compressed.outDegree(0, FRONT)),
+                    () -> assertEquals(1, compressed.inDegree(0, FRONT)),
+                    () -> assertEquals(0, compressed.outDegree(1, FRONT)),
+                    () -> assertEquals(2, compressed.outDegree(3, TOP)),
+                    () -> assertEquals(0, compressed.inDegree(3, TOP)),
+                    () -> assertTrue(compressed.hasNoIncomingEdges(3, TOP)),
+                    () -> assertFalse(compressed.hasNoIncomingEdges(2, TOP))
+            );
+        }
+
+        @Test
+        @DisplayName("when the neighbours are visited then they are visited in ascending order")
+        void forEach() {
+            List<Integer> outgoing = new ArrayList<>();
+            compressed.forEachOutgoing(3, TOP, outgoing::add);
+            List<Integer> incoming = new ArrayList<>();
+            compressed.forEachIncoming(1, FRONT, incoming::add);
+            assertAll(
+                    () -> assertEquals(Arrays.asList(1, 2), outgoing),
+                    () -> assertEquals(Collections.singletonList(0), incoming)
+            );
+        }
+
+        @Test
+        @DisplayName("when a direction is queried that the graph does not represent then an exception is thrown")
+        void missingDirection() {
+            assertAll(
+                    () -> assertThrows(IllegalArgumentException.class, () -> compressed.edgeCount(LEFT)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> compressed.outDegree(0, LEFT)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> compressed.hasEdge(0, 1, LEFT))
+            );
+        }
+
+        @Test
+        @DisplayName("when a cursor is at the end of a row then next throws an exception")
+        void cursorEnd() {
+            CompressedGraph<String>.Cursor cursor = compressed.new Cursor().outgoing(1, FRONT);
+            assertFalse(cursor.hasNext());
+            assertThrows(NoSuchElementException.class, cursor::next);
+        }
+
+        @Test
+        @DisplayName("when an unknown content is looked up then its id is -1")
+        void unknownContent() {
+            assertEquals(-1, compressed.idOf("boxZ"));
+        }
+    }
+
+    @Nested
+    @DisplayName("given a large random graph")
+    class LargeGraph {
+
+        static final int NODES = 20_000;
+
+        @BeforeEach
+        void setup() {
+            Random random = new Random(7);
+            CompactGraph.Builder<String> builder = new CompactGraph.Builder<>(EnumSet.of(TOP, LEFT), NODES);
+            for (int id = 0; id < NODES; id++) {
+                builder.addNode("box" + id);
+            }
+            // mostly close neighbours, as boxes that block each other are usually inserted close together
+            RandomDags.addEdges(builder, TOP, random, NODES, 4 * NODES, 64);
+            for (int id = 0; id < NODES; id++) {
+                int far = random.nextInt(NODES);
+                if (far != id) {
+                    builder.addEdge(id, far, LEFT);
+                }
+            }
+            graph = builder.build();
+            compressed = CompressedGraph.of(graph);
+        }
+
+        @Test
+        @DisplayName("when the graph is compressed then it has the same edges")
+        void sameEdges() {
+            assertSameGraph(graph, compressed);
+        }
+
+        @Test
+        @DisplayName("when the graph is compressed then it needs fewer bytes than the int arrays")
+        void fewerBytes() {
+            long compactBytes = 0;
+            for (OperatingDirection opDir : graph.getOperatingDirections()) {
+                compactBytes += 4L * (graph.outOffsets(opDir).length + graph.outTargets(opDir).length +
+                        graph.inOffsets(opDir).length + graph.inSources(opDir).length);
+            }
+            assertTrue(compressed.byteSize() < compactBytes,
+                    compressed.byteSize() + " bytes should be less than " + compactBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.BACK;
+import static org.example.SequenceFinder.OperatingDirection.FRONT;
+import static org.example.SequenceFinder.OperatingDirection.LEFT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleDetectorTest {
+
+    Graph<Integer> graph;
+    List<GraphNode<Integer>> nodes = new ArrayList<>();
+
+    private void createGraph(Set<OperatingDirection> opDirs, int size) {
+        graph = new Graph<>(opDirs);
+        for (int i = 0; i < size; i++) {
+            nodes.add(graph.addNode(i));
+        }
+    }
+
+    private void addEdge(int from, int to, OperatingDirection opDir) {
+        graph.addDirectedEdge(nodes.get(from), nodes.get(to), opDir);
+    }
+
+    @Nested
+    @DisplayName("given a FRONT graph with the cycle 1 -> 2 -> 3 -> 1, which blocks node 4, and the free node 0")
+    class SingleDirection {
+
+        @BeforeEach
+        void setup() {
+            createGraph(new HashSet<>(Collections.singleton(FRONT)), 5);
+            addEdge(0, 1, FRONT);
+            addEdge(1, 2, FRONT);
+            addEdge(2, 3, FRONT);
+            addEdge(3, 1, FRONT);
+            addEdge(3, 4, FRONT);
+        }
+
+        @Test
+        @DisplayName("then the cycle and the blocked node are deadlocked")
+        void deadlocked() {
+            assertEquals(new HashSet<>(nodes.subList(1, 5)), CycleDetector.findDeadlockedNodes(graph));
+        }
+
+        @Test
+        @DisplayName("then the only cycle consists of the nodes 1, 2 and 3")
+        void cycles() {
+            List<Set<Integer>> cycles = CycleDetector.findCycles(graph, FRONT);
+            assertAll(
+                    () -> assertEquals(1, cycles.size()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), cycles.get(0))
+            );
+        }
+
+        @Test
+        @DisplayName("then the graph is not changed")
+        void unchanged() {
+            CycleDetector.findDeadlockedNodes(graph);
+            assertAll(
+                    () -> assertEquals(5, graph.getCopyOfNodes().size()),
+                    () -> assertTrue(nodes.get(1).hasIncomingEdges(FRONT))
+            );
+        }
+
+        @Test
+        @DisplayName("then the validation fails with a message that contains the cycle")
+        void validate() {
+            Map<OperatingDirection, Graph<Integer>> graphs = new HashMap<>();
+            graphs.put(FRONT, graph);
+            IllegalGraphStateException exception =
+                    assertThrows(IllegalGraphStateException.class, () -> CycleDetector.validate(graphs));
+            assertTrue(exception.getMessage().contains("cycle for FRONT"));
+        }
+
+        @Test
+        @DisplayName("then the validation succeeds if the cycle is broken")
+        void cycleBroken() {
+            nodes.get(3).removeDirectedEdgeTo(nodes.get(1), FRONT);
+            Map<OperatingDirection, Graph<Integer>> graphs = new HashMap<>();
+            graphs.put(FRONT, graph);
+            assertAll(
+                    () -> assertTrue(CycleDetector.findDeadlockedNodes(graph).isEmpty()),
+                    () -> assertTrue(CycleDetector.findCycles(graph, FRONT).isEmpty()),
+                    () -> assertDoesNotThrow(() -> CycleDetector.validate(graphs))
+            );
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a merged FRONT and LEFT graph")
+    class MultipleDirections {
+
+        @BeforeEach
+        void setup() {
+            createGraph(new HashSet<>(Arrays.asList(FRONT, LEFT)), 3);
+        }
+
+        @Test
+        @DisplayName("then a FRONT cycle does not deadlock nodes that are free from LEFT")
+        void freeFromOtherDirection() {
+            addEdge(0, 1, FRONT);
+            addEdge(1, 0, FRONT);
+            addEdge(2, 0, LEFT);
+            assertAll(
+                    () -> assertTrue(CycleDetector.findDeadlockedNodes(graph).isEmpty()),
+                    () -> assertEquals(1, CycleDetector.findCycles(graph, FRONT).size())
+            );
+        }
+
+        @Test
+        @DisplayName("then nodes blocked by a FRONT cycle and a LEFT cycle are deadlocked")
+        void cyclesInBothDirections() {
+            addEdge(0, 1, FRONT);
+            addEdge(1, 0, FRONT);
+            addEdge(0, 1, LEFT);
+            addEdge(1, 0, LEFT);
+            assertEquals(new HashSet<>(nodes.subList(0, 2)), CycleDetector.findDeadlockedNodes(graph));
+        }
+
+        @Test
+        @DisplayName("then a node that is only released once both of its blockers are removed is not deadlocked")
+        void releasedLate() {
+            addEdge(0, 2, FRONT);
+            addEdge(1, 2, FRONT);
+            addEdge(0, 2, LEFT);
+            addEdge(0, 1, LEFT);
+            addEdge(1, 0, FRONT);
+            assertTrue(CycleDetector.findDeadlockedNodes(graph).isEmpty());
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a FRONT graph with the cycle 0 -> 1 -> 0 and a BACK graph with the edge 0 -> 1")
+    class SeparateDirections {
+
+        Map<OperatingDirection, Graph<Integer>> graphs = new HashMap<>();
+
+        @BeforeEach
+        void setup() {
+            createGraph(new HashSet<>(Collections.singleton(FRONT)), 2);
+            addEdge(0, 1, FRONT);
+            addEdge(1, 0, FRONT);
+            graphs.put(FRONT, graph);
+
+            Graph<Integer> back = new Graph<>(new HashSet<>(Collections.singleton(BACK)));
+            back.addDirectedEdge(back.addNode(0), back.addNode(1), BACK);
+            graphs.put(BACK, back);
+        }
+
+        @Test
+        @DisplayName("then the validation succeeds and only returns the BACK graph, as it can be removed completely")
+        void validate() {
+            assertEquals(Collections.singletonMap(BACK, graphs.get(BACK)), CycleDetector.validate(graphs));
+        }
+
+        @Test
+        @DisplayName("then the metrics of the validated graphs can be calculated")
+        void metrics() {
+            for (Graph<Integer> removable : CycleDetector.validate(graphs).values()) {
+                assertEquals(2, GraphMetrics.of(removable).getNodeCount());
+            }
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a FRONT graph with a cycle through 10000 nodes")
+    class LongCycle {
+
+        @Test
+        @DisplayName("then the cycle is found without overflowing the stack")
+        void noStackOverflow() {
+            createGraph(new HashSet<>(Collections.singleton(FRONT)), 10000);
+            for (int i = 0; i < 10000; i++) {
+                addEdge(i, (i + 1) % 10000, FRONT);
+            }
+            List<Set<Integer>> cycles = CycleDetector.findCycles(graph, FRONT);
+            assertAll(
+                    () -> assertEquals(1, cycles.size()),
+                    () -> assertEquals(10000, cycles.get(0).size()),
+                    () -> assertEquals(10000, CycleDetector.findDeadlockedNodes(graph).size())
+            );
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.example.SequenceFinder.OperatingDirection.FRONT;
+import static org.example.SequenceFinder.OperatingDirection.TOP;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphMetricsTest {
+
+    Graph<String> graph;
+    List<GraphNode<String>> nodes;
+
+    void addNodes(int n) {
+        nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(graph.addNode("box" + i));
+        }
+    }
+
+    @Nested
+    @DisplayName("given a tower of four boxes")
+    class Tower {
+
+        @BeforeEach
+        void setup() {
+            graph = new Graph<>(EnumSet.of(TOP));
+            addNodes(4);
+            for (int i = 0; i < 3; i++) {
+                graph.addDirectedEdge(nodes.get(i), nodes.get(i + 1), TOP);
+            }
+        }
+
+        @Test
+        @DisplayName("then there is a single sequence and every level has one box")
+        void metrics() {
+            GraphMetrics metrics = GraphMetrics.of(graph);
+            assertAll(
+                    () -> assertEquals(4, metrics.getNodeCount()),
+                    () -> assertEquals(3, metrics.getEdgeCount()),
+                    () -> assertEquals(0.25, metrics.getDensity()),
+                    () -> assertEquals(1, metrics.getComponentCount()),
+                    () -> assertEquals(4, metrics.getLevelCount()),
+                    () -> assertEquals(1, metrics.getWidthEstimate()),
+                    () -> assertEquals(1, metrics.getMaxFrontierSize()),
+                    () -> assertEquals(1, metrics.getAverageFrontierSize()),
+                    () -> assertEquals(0, metrics.getLog10SequenceEstimate())
+            );
+        }
+
+        @Test
+        @DisplayName("then the graph is restored after calculating the metrics")
+        void restored() {
+            GraphMetrics.of(graph);
+            assertAll(
+                    () -> assertEquals(4, graph.getCopyOfNodes().size()),
+                    () -> assertEquals(1, graph.getRemovableNodes().size())
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("given a flat layer of four boxes")
+    class FlatLayer {
+
+        @BeforeEach
+        void setup() {
+            graph = new Graph<>(EnumSet.of(TOP));
+            addNodes(4);
+        }
+
+        @Test
+        @DisplayName("then all 24 sequences are possible and all boxes are on the same level")
+        void metrics() {
+            GraphMetrics metrics = GraphMetrics.of(graph);
+            assertAll(
+                    () -> assertEquals(0, metrics.getEdgeCount()),
+                    () -> assertEquals(0, metrics.getDensity()),
+                    () -> assertEquals(4, metrics.getComponentCount()),
+                    () -> assertEquals(1, metrics.getLevelCount()),
+                    () -> assertEquals(4, metrics.getWidthEstimate()),
+                    () -> assertEquals(4, metrics.getMaxFrontierSize()),
+                    () -> assertEquals(2.5, metrics.getAverageFrontierSize()),
+                    () -> assertEquals(Math.log10(24), metrics.getLog10SequenceEstimate(), 1e-9)
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("then an edge that exists for two directions is counted once")
+    void edgeOfTwoDirections() {
+        graph = new Graph<>(EnumSet.of(FRONT, TOP));
+        addNodes(2);
+        graph.addDirectedEdge(nodes.get(0), nodes.get(1), FRONT);
+        graph.addDirectedEdge(nodes.get(0), nodes.get(1), TOP);
+        assertEquals(1, GraphMetrics.of(graph).getEdgeCount());
+    }
+
+    @Test
+    @DisplayName("then the metrics of an empty graph are all 0")
+    void empty() {
+        graph = new Graph<>(EnumSet.of(TOP));
+        GraphMetrics metrics = GraphMetrics.of(graph);
+        assertAll(
+                () -> assertEquals(0, metrics.getNodeCount()),
+                () -> assertEquals(0, metrics.getLevelCount()),
+                () -> assertEquals(0, metrics.getAverageFrontierSize()),
+                () -> assertEquals(0, metrics.getLog10SequenceEstimate())
+        );
+    }
+}
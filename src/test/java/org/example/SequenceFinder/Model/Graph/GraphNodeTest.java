@@ -37,6 +37,25 @@ GraphNodeTest {
             assertEquals(nodeA, nodeB);
         }
 
+        @Test
+        @DisplayName("then nodeA with content 1 should have the same hash code as nodeB with content 1")
+        void equalHashCode() {
+            GraphNode<Integer> nodeA = new GraphNode<>(1);
+            GraphNode<Integer> nodeB = new GraphNode<>(1);
+
+            assertEquals(nodeA.hashCode(), nodeB.hashCode());
+        }
+
+        @Test
+        @DisplayName("then nodeA with content 'content' should be equal to nodeB with an equal but not identical " +
+                "content")
+        void equalsByValue() {
+            GraphNode<String> nodeA = new GraphNode<>("content");
+            GraphNode<String> nodeB = new GraphNode<>(new String("content"));
+
+            assertEquals(nodeA, nodeB);
+        }
+
         @Nested
         @DisplayName("given a two nodes with content 'content1' and 'content2'")
         class TwoNodes {
@@ -1271,4 +1290,106 @@ GraphNodeTest {
             }
         }
     }
-}
\ No newline at end of file
+
+
+    @Nested
+    @DisplayName("given a node with many incoming edges for multiple directions")
+    class ManyEdges {
+
+        GraphNode<Integer> target;
+        GraphNode<Integer> secondSource;
+        Set<GraphNode<Integer>> sources = new HashSet<>();
+
+        @BeforeEach
+        void setup() {
+            target = new GraphNode<>(0);
+            for (int i = 1; i <= 20; i++) {
+                GraphNode<Integer> source = new GraphNode<>(i);
+                source.addDirectedEdgeTo(target, FRONT);
+                if (i % 2 == 0) {
+                    source.addDirectedEdgeTo(target, LEFT);
+                }
+                sources.add(source);
+                if (i == 2) {
+                    secondSource = source;
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("then each source has a single edge to the target, even if it blocks it from both directions")
+        void singleEdgePerPair() {
+            assertAll(
+                    () -> assertEquals(20, target.getCopyOfIncomingNodes().size()),
+                    () -> assertEquals(1, secondSource.getCopyOfOutgoingNodes().size()),
+                    () -> assertEquals(1, secondSource.getCopyOfOutgoingNodes(FRONT).size()),
+                    () -> assertEquals(1, secondSource.getCopyOfOutgoingNodes(LEFT).size())
+            );
+        }
+
+        @Test
+        @DisplayName("then removing the edge for one direction keeps the edge for the other direction")
+        void removeOneDirection() {
+            secondSource.removeDirectedEdgeTo(target, LEFT);
+            assertAll(
+                    () -> assertTrue(secondSource.hasOutgoingEdges(FRONT)),
+                    () -> assertFalse(secondSource.hasOutgoingEdges(LEFT)),
+                    () -> assertTrue(target.getCopyOfIncomingNodes(FRONT).contains(secondSource)),
+                    () -> assertFalse(target.getCopyOfIncomingNodes(LEFT).contains(secondSource)),
+                    () -> assertThrows(IllegalGraphStateException.class,
+                            () -> secondSource.removeDirectedEdgeTo(target, LEFT))
+            );
+        }
+
+        @Test
+        @DisplayName("then removing all edges between two nodes removes the edges of all directions")
+        void removeAllDirections() {
+            target.removeDirectedEdgeFrom(secondSource, null);
+            assertAll(
+                    () -> assertFalse(secondSource.hasOutgoingEdges(null)),
+                    () -> assertFalse(secondSource.hasOutgoingEdges(LEFT)),
+                    () -> assertEquals(19, target.getCopyOfIncomingNodes(FRONT).size()),
+                    () -> assertEquals(9, target.getCopyOfIncomingNodes(LEFT).size())
+            );
+        }
+
+        @Test
+        @DisplayName("then the target becomes removable from a direction once the last edge of that direction is " +
+                "removed")
+        void removableAfterLastEdge() {
+            Set<OperatingDirection> left = new HashSet<>();
+            left.add(LEFT);
+            for (GraphNode<Integer> source : sources) {
+                if (source.getContent() % 2 == 0) {
+                    assertFalse(target.isRemovable(LEFT));
+                    source.removeDirectedEdgeTo(target, LEFT);
+                }
+            }
+            assertAll(
+                    () -> assertTrue(target.isRemovable(LEFT)),
+                    () -> assertTrue(target.isRemovable(left)),
+                    () -> assertFalse(target.isRemovable(FRONT)),
+                    () -> assertTrue(target.hasIncomingEdges(FRONT)),
+                    () -> assertFalse(target.hasIncomingEdges(LEFT))
+            );
+        }
+
+        @Test
+        @DisplayName("when all sources are removed then the target is removable and has no incoming edges")
+        void removeAllSources() {
+            Set<OperatingDirection> opDirs = new HashSet<>();
+            opDirs.add(FRONT);
+            opDirs.add(LEFT);
+            Set<GraphNode<Integer>> nowRemovable = new HashSet<>();
+            for (GraphNode<Integer> source : sources) {
+                nowRemovable.addAll(source.removeAllEdges(opDirs));
+            }
+            assertAll(
+                    () -> assertTrue(nowRemovable.contains(target)),
+                    () -> assertFalse(target.hasIncomingEdges(null)),
+                    () -> assertFalse(target.hasIncomingEdges(FRONT)),
+                    () -> assertTrue(target.isRemovable(FRONT))
+            );
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSerializerTest {
+
+    @TempDir
+    Path tempDir;
+
+    Path file;
+    CompactGraph<String> graph;
+
+    @BeforeEach
+    void setup() {
+        file = tempDir.resolve("graph.bin");
+    }
+
+    /**
+     * Assert that both graphs have the same contents, directions and edges
+     */
+    private static <T> void assertSameGraph(CompactGraph<T> expected, CompactGraph<T> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getOperatingDirections(), actual.getOperatingDirections());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals(expected.getContent(id), actual.getContent(id));
+        }
+        for (OperatingDirection opDir : expected.getOperatingDirections()) {
+            assertArrayEquals(expected.outOffsets(opDir), actual.outOffsets(opDir));
+            assertArrayEquals(expected.outTargets(opDir), actual.outTargets(opDir));
+            assertArrayEquals(expected.inOffsets(opDir), actual.inOffsets(opDir));
+            assertArrayEquals(expected.inSources(opDir), actual.inSources(opDir));
+        }
+    }
+
+    @Nested
+    @DisplayName("given a graph of FRONT and TOP edges")
+    class SmallGraph {
+
+        List<String> boxes = Arrays.asList("boxA", "boxB", "boxC", "boxD");
+
+        @BeforeEach
+        void setup() {
+            CompactGraph.Builder<String> builder = new CompactGraph.Builder<>(EnumSet.of(FRONT, TOP));
+            for (String box : boxes) {
+                builder.addNode(box);
+            }
+            builder.addEdge(0, 1, FRONT);
+            builder.addEdge(0, 2, FRONT);
+            builder.addEdge(2, 3, TOP);
+            builder.addEdge(1, 3, TOP);
+            graph = builder.build();
+        }
+
+        @Test
+        @DisplayName("when the graph is written with content ids and read again then the graphs are equal")
+        void withContentIds() throws IOException {
+            GraphSerializer.write(graph, file, boxes::indexOf);
+            CompactGraph<String> read = GraphSerializer.read(file, boxes::get);
+            assertSameGraph(graph, read);
+        }
+
+        @Test
+        @DisplayName("when the graph is written without content ids then the contents are resolved from the node ids")
+        void withoutContentIds() throws IOException {
+            GraphSerializer.write(graph, file);
+            CompactGraph<Integer> read = GraphSerializer.read(file, id -> id);
+            assertAll(
+                    () -> assertEquals(2, read.getContent(2)),
+                    () -> assertTrue(read.hasEdge(2, 3, TOP)),
+                    () -> assertEquals(2, read.edgeCount(FRONT))
+            );
+        }
+
+        @Test
+        @DisplayName("when the content ids are a permutation then the contents are resolved from the content ids")
+        void permutedContentIds() throws IOException {
+            List<String> input = Arrays.asList("boxD", "boxC", "boxB", "boxA");
+            GraphSerializer.write(graph, file, input::indexOf);
+            assertSameGraph(graph, GraphSerializer.read(file, input::get));
+        }
+
+        @Test
+        @DisplayName("when the graph is read and converted to a graph then the graph has the same edges")
+        void toGraph() throws IOException {
+            GraphSerializer.write(graph, file, boxes::indexOf);
+            Graph<String> read = GraphSerializer.read(file, boxes::get).toGraph();
+            CompactGraph<String> converted = CompactGraph.of(read);
+            assertAll(
+                    () -> assertEquals(4, read.getCopyOfNodes().size()),
+                    () -> assertEquals(graph.edgeCount(FRONT), converted.edgeCount(FRONT)),
+                    () -> assertEquals(graph.edgeCount(TOP), converted.edgeCount(TOP)),
+                    () -> assertTrue(converted.hasEdge(converted.idOf("boxA"), converted.idOf("boxC"), FRONT)),
+                    () -> assertTrue(converted.hasEdge(converted.idOf("boxB"), converted.idOf("boxD"), TOP)),
+                    () -> assertFalse(converted.hasEdge(converted.idOf("boxB"), converted.idOf("boxD"), FRONT))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IOException is thrown when reading a file that is not a graph file")
+        void notAGraphFile() throws IOException {
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> GraphSerializer.read(file, boxes::get));
+        }
+
+        @Test
+        @DisplayName("then an IOException is thrown when reading a truncated graph file")
+        void truncated() throws IOException {
+            GraphSerializer.write(graph, file, boxes::indexOf);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+            assertThrows(IOException.class, () -> GraphSerializer.read(file, boxes::get));
+        }
+
+        @Test
+        @DisplayName("then an IOException is thrown when reading a file with an edge to a node that does not exist")
+        void corruptEdge() throws IOException {
+            GraphSerializer.write(graph, file, boxes::indexOf);
+            byte[] bytes = Files.readAllBytes(file);
+            // the first FRONT target follows the header, the edge count and the 5 offsets
+            int firstTarget = (5 + 1 + 5) * Integer.BYTES;
+            bytes[firstTarget] = 0x7f;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> GraphSerializer.read(file, boxes::get));
+        }
+
+        @Test
+        @DisplayName("then an IOException is thrown when reading a file with the largest int as the number of nodes")
+        void corruptNodeCount() throws IOException {
+            GraphSerializer.write(graph, file, boxes::indexOf);
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            // the number of nodes follows the magic number and the version
+            bytes.putInt(2 * Integer.BYTES, Integer.MAX_VALUE);
+            Files.write(file, bytes.array());
+            assertThrows(IOException.class, () -> GraphSerializer.read(file, boxes::get));
+        }
+    }
+
+
+    @Test
+    @DisplayName("then an empty graph can be written and read")
+    void emptyGraph() throws IOException {
+        graph = new CompactGraph.Builder<String>(EnumSet.of(LEFT)).build();
+        GraphSerializer.write(graph, file);
+        CompactGraph<String> read = GraphSerializer.read(file, id -> "box" + id);
+        assertAll(
+                () -> assertEquals(0, read.size()),
+                () -> assertEquals(EnumSet.of(LEFT), read.getOperatingDirections())
+        );
+    }
+
+    @Test
+    @DisplayName("then a random graph large enough to be memory-mapped is the same after writing and reading it")
+    void largeGraph() throws IOException {
+        Random random = new Random(11);
+        CompactGraph.Builder<Integer> builder = new CompactGraph.Builder<>(EnumSet.of(FRONT, LEFT, TOP));
+        for (int i = 0; i < 3000; i++) {
+            builder.addNode(i);
+        }
+        for (OperatingDirection opDir : EnumSet.of(FRONT, LEFT, TOP)) {
+            RandomDags.addEdges(builder, opDir, random, 3000, 100000, 3000);
+        }
+        CompactGraph<Integer> original = builder.build();
+
+        GraphSerializer.write(original, file, content -> content);
+        assertTrue(Files.size(file) > GraphSerializer.MAP_THRESHOLD);
+        assertSameGraph(original, GraphSerializer.read(file, id -> id));
+    }
+}
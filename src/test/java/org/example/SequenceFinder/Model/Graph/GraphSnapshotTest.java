@@ -0,0 +1,164 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.example.SequenceFinder.OperatingDirection.FRONT;
+import static org.example.SequenceFinder.OperatingDirection.LEFT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTest {
+
+    Set<OperatingDirection> opDirs = new HashSet<>(Arrays.asList(FRONT, LEFT));
+    Graph<Integer> graph;
+    GraphSnapshot<Integer> snapshot;
+
+    /**
+     * Collect the contents of the removable nodes of a snapshot
+     */
+    private static Set<Integer> removableContents(GraphSnapshot<Integer> snapshot) {
+        Set<Integer> contents = new HashSet<>();
+        snapshot.forEachRemovable(id -> contents.add(snapshot.getGraph().getContent(id)));
+        return contents;
+    }
+
+    @Nested
+    @DisplayName("given a graph with 4 nodes, where node 1 blocks node 2 from FRONT and LEFT and node 2 blocks node " +
+            "3 from FRONT")
+    class FourNodes {
+
+        GraphNode<Integer> node1;
+        GraphNode<Integer> node2;
+        GraphNode<Integer> node3;
+        GraphNode<Integer> node4;
+
+        @BeforeEach
+        void setup() {
+            graph = new Graph<>(opDirs);
+            node1 = graph.addNode(1);
+            node2 = graph.addNode(2);
+            node3 = graph.addNode(3);
+            node4 = graph.addNode(4);
+            graph.addDirectedEdge(node1, node2, FRONT);
+            graph.addDirectedEdge(node1, node2, LEFT);
+            graph.addDirectedEdge(node2, node3, FRONT);
+            snapshot = graph.snapshot();
+        }
+
+        @Test
+        @DisplayName("then the snapshot has the same removable nodes as the graph")
+        void sameRemovable() {
+            assertEquals(new HashSet<>(Arrays.asList(1, 3, 4)), removableContents(snapshot));
+        }
+
+        @Test
+        @DisplayName("then a snapshot of a graph where nodes were removed contains only the remaining nodes")
+        void snapshotAfterRemoval() {
+            graph.removeNode(node1);
+            GraphSnapshot<Integer> later = graph.snapshot();
+            assertAll(
+                    () -> assertEquals(3, later.getGraph().size()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), removableContents(later))
+            );
+        }
+
+        @Test
+        @DisplayName("when node 1 is removed from the snapshot then the new snapshot has updated in-degrees and the " +
+                "old one is unchanged")
+        void removeFirst() {
+            int id1 = snapshot.getGraph().idOf(1);
+            int id2 = snapshot.getGraph().idOf(2);
+            GraphSnapshot<Integer> next = snapshot.removeNode(id1);
+            assertAll(
+                    () -> assertTrue(next.isRemoved(id1)),
+                    () -> assertEquals(0, next.inDegree(id2, FRONT)),
+                    () -> assertEquals(1, next.getRemovedCount()),
+                    () -> assertFalse(snapshot.isRemoved(id1)),
+                    () -> assertEquals(1, snapshot.inDegree(id2, FRONT)),
+                    () -> assertEquals(0, snapshot.getRemovedCount()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), removableContents(next)),
+                    () -> assertEquals(4, graph.getCopyOfNodes().size())
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when removing a blocked or removed node")
+        void removeBlocked() {
+            int id1 = snapshot.getGraph().idOf(1);
+            assertAll(
+                    () -> assertThrows(IllegalGraphStateException.class,
+                            () -> snapshot.removeNode(snapshot.getGraph().idOf(2))),
+                    () -> assertThrows(IllegalGraphStateException.class,
+                            () -> snapshot.removeNode(id1).removeNode(id1))
+            );
+        }
+
+        @Test
+        @DisplayName("when two forks remove different nodes then they do not affect each other")
+        void forks() {
+            GraphSnapshot<Integer> fork1 = snapshot.removeNode(snapshot.getGraph().idOf(4));
+            GraphSnapshot<Integer> fork2 = snapshot.removeNode(snapshot.getGraph().idOf(3));
+            assertAll(
+                    () -> assertEquals(new HashSet<>(Arrays.asList(1, 3)), removableContents(fork1)),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(1, 4)), removableContents(fork2))
+            );
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a chain of 100 nodes")
+    class Chain {
+
+        @BeforeEach
+        void setup() {
+            graph = new Graph<>(Collections.singleton(FRONT));
+            GraphNode<Integer> previous = graph.addNode(0);
+            for (int i = 1; i < 100; i++) {
+                GraphNode<Integer> node = graph.addNode(i);
+                graph.addDirectedEdge(previous, node, FRONT);
+                previous = node;
+            }
+            snapshot = graph.snapshot();
+        }
+
+        @Test
+        @DisplayName("then threads removing different prefixes of the chain from the same snapshot get consistent " +
+                "results")
+        void parallelPrefixes() {
+            List<Integer> removableAfterPrefix = IntStream.range(0, 100).parallel()
+                    .mapToObj(prefix -> {
+                        GraphSnapshot<Integer> fork = snapshot;
+                        for (int i = 0; i < prefix; i++) {
+                            fork = fork.removeNode(fork.getGraph().idOf(i));
+                        }
+                        Set<Integer> removable = removableContents(fork);
+                        return removable.size() == 1 ? removable.iterator().next() : -1;
+                    })
+                    .collect(Collectors.toList());
+
+            assertAll(
+                    () -> assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()),
+                            removableAfterPrefix),
+                    () -> assertEquals(0, snapshot.getRemovedCount())
+            );
+        }
+
+        @Test
+        @DisplayName("when all nodes are removed then the snapshot is complete")
+        void complete() {
+            GraphSnapshot<Integer> current = snapshot;
+            for (int i = 0; i < 100; i++) {
+                current = current.removeNode(current.getGraph().idOf(i));
+            }
+            assertTrue(current.isComplete());
+        }
+    }
+}
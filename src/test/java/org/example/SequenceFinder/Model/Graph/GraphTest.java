@@ -6,7 +6,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.example.SequenceFinder.OperatingDirection.*;
@@ -929,11 +932,12 @@ class GraphTest {
                                 }
 
                                 @Test
-                                @DisplayName("then the first node has one incoming edge for the FRONT direction and " +
-                                        "one for the LEFT direction")
+                                @DisplayName("then the first node has one incoming edge, which is shared by the " +
+                                        "FRONT and the LEFT direction")
                                 void firstNodeOneIncoming() {
                                     assertAll(
-                                            () -> assertEquals(2, firstNode.getCopyOfIncomingNodes().size()),
+                                            // both directions share a single edge from the second node
+                                            () -> assertEquals(1, firstNode.getCopyOfIncomingNodes().size()),
                                             () -> assertEdgeFromTo(secondNode, firstNode, FRONT),
                                             () -> assertEdgeFromTo(secondNode, firstNode, LEFT)
                                     );
@@ -949,11 +953,12 @@ class GraphTest {
                                 }
 
                                 @Test
-                                @DisplayName("then the second node has obe outgoing edge to the first node for the " +
-                                        "FRONT and one for the LEFT direction")
+                                @DisplayName("then the second node has one outgoing edge to the first node, which " +
+                                        "is shared by the FRONT and the LEFT direction")
                                 void secondNodeOneOutgoing() {
                                     assertAll(
-                                            () -> assertEquals(2, secondNode.getCopyOfOutgoingNodes().size()),
+                                            // both directions share a single edge to the first node
+                                            () -> assertEquals(1, secondNode.getCopyOfOutgoingNodes().size()),
                                             () -> assertEdgeFromTo(secondNode, firstNode, FRONT),
                                             () -> assertEdgeFromTo(secondNode, firstNode, LEFT)
                                     );
@@ -964,7 +969,8 @@ class GraphTest {
                                         "LEFT direction")
                                 void secondNodeNoIncoming() {
                                     assertAll(
-                                            () -> assertEquals(2, secondNode.getCopyOfOutgoingNodes().size()),
+                                            // both directions share a single edge to the first node
+                                            () -> assertEquals(1, secondNode.getCopyOfOutgoingNodes().size()),
                                             () -> assertEdgeFromTo(firstNode, secondNode, LEFT)
                                     );
                                 }
@@ -1157,4 +1163,261 @@ class GraphTest {
     }
 
 
-}
\ No newline at end of file
+    @Nested
+    @DisplayName("given a graph with FRONT and LEFT edges where removals are undone")
+    class UndoRemoval {
+
+        Set<OperatingDirection> opDirSet = new HashSet<>();
+        Graph<Integer> graph;
+        GraphNode<Integer> node1;
+        GraphNode<Integer> node2;
+        GraphNode<Integer> node3;
+
+        @BeforeEach
+        void setup() {
+            opDirSet.add(FRONT);
+            opDirSet.add(LEFT);
+            graph = new Graph<>(opDirSet);
+            node1 = graph.addNode(1);
+            node2 = graph.addNode(2);
+            node3 = graph.addNode(3);
+
+            // node2 is blocked from both directions by node1, node3 is blocked from FRONT by node2 and from LEFT by
+            // node1
+            graph.addDirectedEdge(node1, node2, FRONT);
+            graph.addDirectedEdge(node1, node2, LEFT);
+            graph.addDirectedEdge(node2, node3, FRONT);
+            graph.addDirectedEdge(node1, node3, LEFT);
+        }
+
+        @Test
+        @DisplayName("then the removal record contains the nodes that became removable")
+        void newlyRemovable() {
+            NodeRemoval<Integer> removal = graph.removeNode(node1);
+            assertAll(
+                    () -> assertEquals(node1, removal.getNode()),
+                    () -> assertEquals(2, removal.getNewlyRemovableNodes().size()),
+                    () -> assertTrue(removal.getNewlyRemovableNodes().contains(node2)),
+                    () -> assertTrue(removal.getNewlyRemovableNodes().contains(node3))
+            );
+        }
+
+        @Test
+        @DisplayName("when a node is removed and restored then the graph is the same as before")
+        void restoreOne() {
+            NodeRemoval<Integer> removal = graph.removeNode(node1);
+            graph.restoreNode(removal);
+            assertAll(
+                    () -> assertEquals(3, graph.getCopyOfNodes().size()),
+                    () -> assertEquals(1, graph.getCopyOfRemovableNodes().size()),
+                    () -> assertTrue(graph.isRemovable(node1)),
+                    () -> assertTrue(node2.hasIncomingEdges(FRONT)),
+                    () -> assertTrue(node2.hasIncomingEdges(LEFT)),
+                    () -> assertTrue(node3.hasIncomingEdges(LEFT)),
+                    () -> assertEquals(2, node1.getCopyOfOutgoingNodes(LEFT).size()),
+                    () -> assertEquals(1, node2.getCopyOfOutgoingNodes(FRONT).size())
+            );
+        }
+
+        @Test
+        @DisplayName("when all nodes are removed and restored in reverse order then the graph is the same as before")
+        void restoreAll() {
+            NodeRemoval<Integer> first = graph.removeNode(node1);
+            NodeRemoval<Integer> second = graph.removeNode(node3);
+            NodeRemoval<Integer> third = graph.removeNode(node2);
+            assertTrue(graph.getCopyOfNodes().isEmpty());
+
+            graph.restoreNode(third);
+            assertEquals(1, graph.getCopyOfNodes().size());
+            graph.restoreNode(second);
+            assertEquals(2, graph.getCopyOfRemovableNodes().size());
+            graph.restoreNode(first);
+
+            assertAll(
+                    () -> assertEquals(3, graph.getCopyOfNodes().size()),
+                    () -> assertEquals(1, graph.getCopyOfRemovableNodes().size()),
+                    () -> assertTrue(graph.isRemovable(node1)),
+                    () -> assertEquals(2, node3.getCopyOfIncomingNodes().size()),
+                    () -> assertFalse(node3.hasOutgoingEdges(null))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when a removal is not undone in reverse order")
+        void wrongOrder() {
+            NodeRemoval<Integer> first = graph.removeNode(node1);
+            graph.removeNode(node2);
+            assertThrows(IllegalGraphStateException.class, () -> graph.restoreNode(first));
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when a removal is undone on another graph")
+        void otherGraph() {
+            NodeRemoval<Integer> removal = graph.removeNode(node1);
+            Graph<Integer> otherGraph = new Graph<>(opDirSet);
+            assertThrows(IllegalGraphStateException.class, () -> otherGraph.restoreNode(removal));
+        }
+
+        @Test
+        @DisplayName("then a node that is not removable is still part of the graph after a failed removal")
+        void failedRemoval() {
+            assertThrows(IllegalGraphStateException.class, () -> graph.removeNode(node2));
+            assertTrue(graph.getCopyOfNodes().contains(node2));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a FRONT graph and a LEFT graph with the same 3 nodes")
+    class Merge {
+
+        Graph<Integer> frontGraph;
+        Graph<Integer> leftGraph;
+        HashSet<Graph<Integer>> graphSet = new HashSet<>();
+
+        @BeforeEach
+        void setup() {
+            frontGraph = new Graph<>(new HashSet<>(Collections.singleton(FRONT)));
+            GraphNode<Integer> front1 = frontGraph.addNode(1);
+            GraphNode<Integer> front2 = frontGraph.addNode(2);
+            GraphNode<Integer> front3 = frontGraph.addNode(3);
+            frontGraph.addDirectedEdge(front1, front2, FRONT);
+            frontGraph.addDirectedEdge(front1, front3, FRONT);
+
+            leftGraph = new Graph<>(new HashSet<>(Collections.singleton(LEFT)));
+            GraphNode<Integer> left1 = leftGraph.addNode(1);
+            GraphNode<Integer> left2 = leftGraph.addNode(2);
+            GraphNode<Integer> left3 = leftGraph.addNode(3);
+            leftGraph.addDirectedEdge(left1, left2, LEFT);
+            leftGraph.addDirectedEdge(left2, left3, LEFT);
+
+            graphSet.add(frontGraph);
+            graphSet.add(leftGraph);
+        }
+
+        private GraphNode<Integer> nodeOf(Graph<Integer> graph, int content) {
+            return graph.getCopyOfNodes().stream()
+                    .filter(node -> node.getContent() == content)
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+        }
+
+        @Test
+        @DisplayName("then the merged graph contains each node once with the edges of both graphs")
+        void mergedEdges() {
+            Graph<Integer> merged = Graph.merge(graphSet);
+            GraphNode<Integer> node1 = nodeOf(merged, 1);
+            GraphNode<Integer> node2 = nodeOf(merged, 2);
+            GraphNode<Integer> node3 = nodeOf(merged, 3);
+            assertAll(
+                    () -> assertEquals(3, merged.getCopyOfNodes().size()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(FRONT, LEFT)), merged.getOperatingDirections()),
+                    () -> assertEquals(2, node1.getCopyOfOutgoingNodes(FRONT).size()),
+                    () -> assertEquals(1, node1.getCopyOfOutgoingNodes(LEFT).size()),
+                    () -> assertTrue(node3.getCopyOfIncomingNodes(LEFT).contains(node2)),
+                    () -> assertTrue(node3.getCopyOfIncomingNodes(FRONT).contains(node1))
+            );
+        }
+
+        @Test
+        @DisplayName("then only the nodes without incoming edges in one of the directions are removable")
+        void mergedRemovable() {
+            Graph<Integer> merged = Graph.merge(graphSet);
+            assertAll(
+                    () -> assertEquals(1, merged.getCopyOfRemovableNodes().size()),
+                    () -> assertTrue(merged.isRemovable(nodeOf(merged, 1)))
+            );
+        }
+
+        @Test
+        @DisplayName("then the source graphs are unchanged")
+        void sourcesUnchanged() {
+            Graph.merge(graphSet);
+            assertAll(
+                    () -> assertEquals(2, nodeOf(frontGraph, 1).getCopyOfOutgoingNodes().size()),
+                    () -> assertEquals(1, nodeOf(leftGraph, 2).getCopyOfOutgoingNodes().size())
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when two graphs represent the same direction")
+        void sameDirectionTwice() {
+            Graph<Integer> otherFrontGraph = new Graph<>(new HashSet<>(Collections.singleton(FRONT)));
+            otherFrontGraph.addNode(1);
+            graphSet.add(otherFrontGraph);
+            assertThrows(IllegalGraphStateException.class, () -> Graph.merge(graphSet));
+        }
+    }
+
+
+    @Nested
+    @DisplayName("given a FRONT graph with a chain 1 -> 2 -> 3 -> 4 and the shortcuts 1 -> 3, 1 -> 4 and 2 -> 4")
+    class TransitiveReduction {
+
+        Graph<Integer> graph;
+        GraphNode<Integer> node1;
+        GraphNode<Integer> node2;
+        GraphNode<Integer> node3;
+        GraphNode<Integer> node4;
+
+        @BeforeEach
+        void setup() {
+            graph = new Graph<>(new HashSet<>(Collections.singleton(FRONT)));
+            node1 = graph.addNode(1);
+            node2 = graph.addNode(2);
+            node3 = graph.addNode(3);
+            node4 = graph.addNode(4);
+            graph.addDirectedEdge(node1, node2, FRONT);
+            graph.addDirectedEdge(node2, node3, FRONT);
+            graph.addDirectedEdge(node3, node4, FRONT);
+            graph.addDirectedEdge(node1, node3, FRONT);
+            graph.addDirectedEdge(node1, node4, FRONT);
+            graph.addDirectedEdge(node2, node4, FRONT);
+        }
+
+        @Test
+        @DisplayName("when the graph is reduced then only the chain remains")
+        void onlyChain() {
+            int removed = graph.reduceTransitively();
+            assertAll(
+                    () -> assertEquals(3, removed),
+                    () -> assertEquals(Collections.singletonList(node2), node1.getCopyOfOutgoingNodes()),
+                    () -> assertEquals(Collections.singletonList(node3), node2.getCopyOfOutgoingNodes()),
+                    () -> assertEquals(Collections.singletonList(node4), node3.getCopyOfOutgoingNodes()),
+                    () -> assertEquals(Collections.singletonList(node3), node4.getCopyOfIncomingNodes())
+            );
+        }
+
+        @Test
+        @DisplayName("when the graph is reduced then the nodes can only be removed in the same order")
+        void sameOrder() {
+            graph.reduceTransitively();
+            List<GraphNode<Integer>> chain = Arrays.asList(node1, node2, node3, node4);
+            for (GraphNode<Integer> node : chain) {
+                assertEquals(Collections.singleton(node), new HashSet<>(graph.getCopyOfRemovableNodes()));
+                graph.removeNode(node);
+            }
+        }
+
+        @Test
+        @DisplayName("when the graph is reduced twice then the second reduction removes no edges")
+        void idempotent() {
+            graph.reduceTransitively();
+            assertEquals(0, graph.reduceTransitively());
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when the graph contains a cycle")
+        void cycle() {
+            graph.addDirectedEdge(node4, node2, FRONT);
+            assertThrows(IllegalGraphStateException.class, () -> graph.reduceTransitively());
+        }
+
+        @Test
+        @DisplayName("then an IllegalGraphStateException is thrown when the graph represents multiple directions")
+        void multipleDirections() {
+            Graph<Integer> mergedGraph = new Graph<>(new HashSet<>(Arrays.asList(FRONT, LEFT)));
+            assertThrows(IllegalGraphStateException.class, mergedGraph::reduceTransitively);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntArrayTest {
+
+    @Test
+    @DisplayName("then the array contains the values it was created from, for sizes around the trie's levels")
+    void sameValues() {
+        for (int size : new int[]{0, 1, 31, 32, 33, 1024, 1025, 40000}) {
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i * 3;
+            }
+            PersistentIntArray array = PersistentIntArray.of(values);
+
+            assertEquals(size, array.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals(values[i], array.get(i), "size " + size + ", index " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("then setting a value does not change the original array")
+    void setIsPersistent() {
+        PersistentIntArray original = PersistentIntArray.of(new int[100]);
+        PersistentIntArray changed = original.set(70, 5);
+
+        assertAll(
+                () -> assertEquals(0, original.get(70)),
+                () -> assertEquals(5, changed.get(70)),
+                () -> assertEquals(0, changed.get(71))
+        );
+    }
+
+    @Test
+    @DisplayName("then setting an unchanged value returns the same array")
+    void setSameValue() {
+        PersistentIntArray array = PersistentIntArray.of(new int[]{1, 2, 3});
+        assertSame(array, array.set(1, 2));
+    }
+
+    @Test
+    @DisplayName("then an IndexOutOfBoundsException is thrown for an index outside of the array")
+    void outOfBounds() {
+        PersistentIntArray array = PersistentIntArray.of(new int[10]);
+        assertAll(
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> array.get(10)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> array.get(-1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> array.set(10, 1))
+        );
+    }
+
+    @Test
+    @DisplayName("then random changes have the same result as changes of a plain array")
+    void sameAsPlainArray() {
+        Random random = new Random(3);
+        int[] expected = new int[5000];
+        PersistentIntArray array = PersistentIntArray.of(expected);
+        for (int i = 0; i < 20000; i++) {
+            int index = random.nextInt(expected.length);
+            int value = random.nextInt();
+            expected[index] = value;
+            array = array.set(index, value);
+        }
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], array.get(i));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates random acyclic graphs for tests. Edges only lead from lower to higher ids, so the graphs never contain a
+ * cycle.
+ */
+public final class RandomDags {
+
+    private RandomDags() {
+    }
+
+    /**
+     * Receives the start and end id of an edge
+     */
+    @FunctionalInterface
+    public interface EdgeConsumer {
+        void accept(int from, int to);
+    }
+
+    /**
+     * Create random edges from lower to higher ids. The start of each edge is uniformly distributed, the end lies at
+     * most maxSpan ids above it. Edges can be created more than once.
+     *
+     * @param random  the random number generator
+     * @param nodes   the number of nodes, at least 2
+     * @param edges   the number of edges to create
+     * @param maxSpan the largest difference between the ids of the end and the start of an edge
+     * @param edge    called for each edge
+     */
+    public static void forEachEdge(Random random, int nodes, int edges, int maxSpan, EdgeConsumer edge) {
+        for (int i = 0; i < edges; i++) {
+            int from = random.nextInt(nodes - 1);
+            edge.accept(from, from + 1 + random.nextInt(Math.min(maxSpan, nodes - 1 - from)));
+        }
+    }
+
+    /**
+     * Add random edges from lower to higher ids to the builder, see
+     * {@linkplain #forEachEdge(Random, int, int, int, EdgeConsumer)}. The builder drops duplicate edges.
+     *
+     * @param builder the builder, its nodes have the ids 0 to {@code nodes - 1}
+     * @param opDir   the operating direction of the edges
+     */
+    public static void addEdges(CompactGraph.Builder<?> builder, OperatingDirection opDir, Random random, int nodes,
+                                int edges, int maxSpan) {
+        forEachEdge(random, nodes, edges, maxSpan, (from, to) -> builder.addEdge(from, to, opDir));
+    }
+
+    /**
+     * Add random edges from lower to higher indices in the list of nodes to the graph, see
+     * {@linkplain #forEachEdge(Random, int, int, int, EdgeConsumer)}. Edges that the graph already contains for the
+     * operating direction are skipped.
+     *
+     * @param graph the graph
+     * @param nodes the nodes of the graph, ordered by their id
+     * @param opDir the operating direction of the edges
+     * @param <T>   the type of object that the graph contains
+     */
+    public static <T> void addEdges(Graph<T> graph, List<GraphNode<T>> nodes, OperatingDirection opDir,
+                                    Random random, int edges, int maxSpan) {
+        forEachEdge(random, nodes.size(), edges, maxSpan, (from, to) -> {
+            if (!nodes.get(from).getCopyOfOutgoingNodes(opDir).contains(nodes.get(to))) {
+                graph.addDirectedEdge(nodes.get(from), nodes.get(to), opDir);
+            }
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityIndexTest {
+
+    /**
+     * Check the index against a depth-first search from each node
+     */
+    static void assertSameAsSearch(CompactGraph<Integer> graph, ReachabilityIndex<Integer> index) {
+        int n = graph.size();
+        int[] offsets = graph.outOffsets(FRONT);
+        int[] targets = graph.outTargets(FRONT);
+        int[] blockerCounts = new int[n];
+        for (int from = 0; from < n; from++) {
+            boolean[] reachable = new boolean[n];
+            Deque<Integer> stack = new ArrayDeque<>(Collections.singleton(from));
+            while (!stack.isEmpty()) {
+                int id = stack.pop();
+                for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                    if (!reachable[targets[e]]) {
+                        reachable[targets[e]] = true;
+                        stack.push(targets[e]);
+                    }
+                }
+            }
+            int count = 0;
+            for (int to = 0; to < n; to++) {
+                assertEquals(reachable[to], index.blocks(from, to), "From " + from + " to " + to);
+                if (reachable[to]) {
+                    count++;
+                    blockerCounts[to]++;
+                }
+            }
+            assertEquals(count, index.countBlocked(from), "Blocked by " + from);
+        }
+        for (int to = 0; to < n; to++) {
+            assertEquals(blockerCounts[to], index.countBlockers(to), "Blockers of " + to);
+        }
+    }
+
+    @Nested
+    @DisplayName("given a graph where 0 blocks 1 and 2, both block 3, and 4 is independent")
+    class Diamond {
+
+        CompactGraph<String> graph;
+        ReachabilityIndex<String> index;
+
+        @BeforeEach
+        void setup() {
+            CompactGraph.Builder<String> builder = new CompactGraph.Builder<>(EnumSet.of(FRONT, TOP));
+            for (String box : Arrays.asList("box0", "box1", "box2", "box3", "box4")) {
+                builder.addNode(box);
+            }
+            builder.addEdge(0, 1, FRONT);
+            builder.addEdge(0, 2, FRONT);
+            builder.addEdge(1, 3, FRONT);
+            builder.addEdge(2, 3, FRONT);
+            builder.addEdge(4, 0, TOP);
+            graph = builder.build();
+            index = ReachabilityIndex.of(graph, FRONT);
+        }
+
+        @Test
+        @DisplayName("then box0 blocks box3 transitively, but not the other way around")
+        void transitive() {
+            assertAll(
+                    () -> assertTrue(index.blocks("box0", "box3")),
+                    () -> assertFalse(index.blocks("box3", "box0")),
+                    () -> assertFalse(index.blocks("box1", "box2")),
+                    () -> assertFalse(index.blocks("box0", "box0"))
+            );
+        }
+
+        @Test
+        @DisplayName("then only the edges of the given operating direction are considered")
+        void direction() {
+            assertAll(
+                    () -> assertFalse(index.blocks("box4", "box0")),
+                    () -> assertEquals(0, index.countBlocked("box4")),
+                    () -> assertTrue(ReachabilityIndex.of(graph, TOP).blocks("box4", "box0"))
+            );
+        }
+
+        @Test
+        @DisplayName("then the blockers and blocked boxes are counted and collected")
+        void counts() {
+            assertAll(
+                    () -> assertEquals(3, index.countBlockers("box3")),
+                    () -> assertEquals(3, index.countBlocked("box0")),
+                    () -> assertEquals(new HashSet<>(Arrays.asList("box0", "box1", "box2")), index.getBlockers("box3")),
+                    () -> assertEquals(new HashSet<>(Arrays.asList("box1", "box2", "box3")), index.getBlocked("box0"))
+            );
+        }
+
+        @Test
+        @DisplayName("then the labels collect the same blockers and blocked boxes as the closure")
+        void labelCollections() {
+            ReachabilityIndex<String> labels = ReachabilityIndex.of(graph, FRONT, false);
+            assertAll(
+                    () -> assertEquals(index.getBlockers("box3"), labels.getBlockers("box3")),
+                    () -> assertEquals(index.getBlocked("box0"), labels.getBlocked("box0")),
+                    () -> assertEquals(Collections.emptySet(), labels.getBlocked("box4"))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalArgumentException is thrown for a box that is not part of the graph")
+        void unknownBox() {
+            assertThrows(IllegalArgumentException.class, () -> index.countBlockers("box5"));
+        }
+
+        @Test
+        @DisplayName("then an IllegalArgumentException is thrown for a direction the graph does not represent")
+        void unknownDirection() {
+            assertThrows(IllegalArgumentException.class, () -> ReachabilityIndex.of(graph, LEFT));
+        }
+    }
+
+    @Test
+    @DisplayName("then an IllegalGraphStateException is thrown if the graph contains a cycle")
+    void cycle() {
+        CompactGraph.Builder<String> builder = new CompactGraph.Builder<>(EnumSet.of(FRONT));
+        builder.addNode("boxA");
+        builder.addNode("boxB");
+        builder.addEdge(0, 1, FRONT);
+        builder.addEdge(1, 0, FRONT);
+        CompactGraph<String> graph = builder.build();
+        assertThrows(IllegalGraphStateException.class, () -> ReachabilityIndex.of(graph, FRONT));
+    }
+
+    @Test
+    @DisplayName("then the index of a Graph is the same as the one of its compact graph")
+    void fromGraph() {
+        Graph<String> graph = new Graph<>(EnumSet.of(FRONT));
+        GraphNode<String> a = graph.addNode("boxA");
+        GraphNode<String> b = graph.addNode("boxB");
+        GraphNode<String> c = graph.addNode("boxC");
+        graph.addDirectedEdge(a, b, FRONT);
+        graph.addDirectedEdge(b, c, FRONT);
+        ReachabilityIndex<String> index = ReachabilityIndex.of(graph, FRONT);
+        assertAll(
+                () -> assertTrue(index.blocks("boxA", "boxC")),
+                () -> assertEquals(2, index.countBlockers("boxC"))
+        );
+    }
+
+    @Test
+    @DisplayName("then the closure and the labels give the same answers as a search on random graphs")
+    void randomGraphs() {
+        Random random = new Random(17);
+        for (int round = 0; round < 10; round++) {
+            int n = 60 + random.nextInt(60);
+            CompactGraph.Builder<Integer> builder = new CompactGraph.Builder<>(EnumSet.of(FRONT));
+            for (int i = 0; i < n; i++) {
+                builder.addNode(i);
+            }
+            RandomDags.addEdges(builder, FRONT, random, n, n + random.nextInt(2 * n), 10);
+            CompactGraph<Integer> graph = builder.build();
+
+            ReachabilityIndex<Integer> closure = ReachabilityIndex.of(graph, FRONT, true);
+            ReachabilityIndex<Integer> labels = ReachabilityIndex.of(graph, FRONT, false);
+            assertTrue(closure.isClosure());
+            assertFalse(labels.isClosure());
+            assertSameAsSearch(graph, closure);
+            assertSameAsSearch(graph, labels);
+            for (int id = 0; id < n; id++) {
+                assertEquals(closure.getBlockers(id), labels.getBlockers(id), "Blockers of " + id);
+                assertEquals(closure.getBlocked(id), labels.getBlocked(id), "Blocked by " + id);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.FRONT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemovableFrontierTest {
+
+    Graph<Integer> graph;
+    List<GraphNode<Integer>> nodes;
+
+    /**
+     * Collect the contents of the frontier in the order of iteration
+     */
+    static List<Integer> contents(Iterable<GraphNode<Integer>> frontier) {
+        List<Integer> contents = new ArrayList<>();
+        for (GraphNode<Integer> node : frontier) {
+            contents.add(node.getContent());
+        }
+        return contents;
+    }
+
+    @Nested
+    @DisplayName("given a graph with five nodes, where node 0 blocks node 3 and node 1 blocks node 4")
+    class FiveNodes {
+
+        @BeforeEach
+        void setup() {
+            graph = new Graph<>(Collections.singleton(FRONT), 5);
+            nodes = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                nodes.add(graph.addNode(i));
+            }
+            graph.addDirectedEdge(nodes.get(0), nodes.get(3), FRONT);
+            graph.addDirectedEdge(nodes.get(1), nodes.get(4), FRONT);
+        }
+
+        @Test
+        @DisplayName("then the frontier contains the nodes without incoming edges")
+        void initial() {
+            RemovableFrontier<Integer> frontier = graph.getRemovableNodes();
+            assertAll(
+                    () -> assertEquals(3, frontier.size()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), new HashSet<>(contents(frontier))),
+                    () -> assertTrue(frontier.contains(nodes.get(2))),
+                    () -> assertFalse(frontier.contains(nodes.get(3)))
+            );
+        }
+
+        @Test
+        @DisplayName("then the frontier is the same object after removing a node, and updated in place")
+        void updatedInPlace() {
+            RemovableFrontier<Integer> frontier = graph.getRemovableNodes();
+            graph.removeNode(nodes.get(0));
+            assertAll(
+                    () -> assertSame(frontier, graph.getRemovableNodes()),
+                    () -> assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), new HashSet<>(contents(frontier)))
+            );
+        }
+
+        @Test
+        @DisplayName("then the frontier has the same nodes after a removal is undone")
+        void undo() {
+            Set<Integer> before = new HashSet<>(contents(graph.getRemovableNodes()));
+            NodeRemoval<Integer> first = graph.removeNode(nodes.get(1));
+            NodeRemoval<Integer> second = graph.removeNode(nodes.get(4));
+            graph.restoreNode(second);
+            graph.restoreNode(first);
+            assertEquals(before, new HashSet<>(contents(graph.getRemovableNodes())));
+        }
+
+        @Test
+        @DisplayName("then the nodes can be accessed by their position")
+        void positions() {
+            RemovableFrontier<Integer> frontier = graph.getRemovableNodes();
+            List<Integer> byPosition = new ArrayList<>();
+            for (int i = 0; i < frontier.size(); i++) {
+                byPosition.add(frontier.get(i).getContent());
+            }
+            assertAll(
+                    () -> assertEquals(contents(frontier), byPosition),
+                    () -> assertThrows(IndexOutOfBoundsException.class, () -> frontier.get(3))
+            );
+        }
+
+        @Test
+        @DisplayName("then the nodes are sorted into the buffer by their priority")
+        void sorted() {
+            List<GraphNode<Integer>> buffer = new ArrayList<>();
+            buffer.add(nodes.get(4));
+            double[] priorities = graph.getRemovableNodes().sortInto(buffer, new double[1], node -> -node.getContent());
+            assertAll(
+                    () -> assertEquals(Arrays.asList(2, 1, 0), contents(buffer)),
+                    () -> assertEquals(-2, priorities[0]),
+                    () -> assertEquals(-1, priorities[1]),
+                    () -> assertEquals(0, priorities[2])
+            );
+        }
+
+        @Test
+        @DisplayName("then nodes with equal priority keep the order of the frontier")
+        void stable() {
+            List<GraphNode<Integer>> buffer = new ArrayList<>();
+            double[] given = new double[8];
+            double[] priorities = graph.getRemovableNodes().sortInto(buffer, given, node -> 1);
+            assertAll(
+                    () -> assertSame(given, priorities),
+                    () -> assertEquals(contents(graph.getRemovableNodes()), contents(buffer))
+            );
+        }
+
+        @Test
+        @DisplayName("then a ConcurrentModificationException is thrown when removing a node while iterating")
+        void concurrentModification() {
+            Iterator<GraphNode<Integer>> iterator = graph.getRemovableNodes().iterator();
+            graph.removeNode(iterator.next());
+            assertThrows(ConcurrentModificationException.class, iterator::next);
+        }
+    }
+
+    @Test
+    @DisplayName("then a large frontier is sorted stably by random priorities with many duplicates")
+    void sortedLarge() {
+        Random random = new Random(9);
+        graph = new Graph<>(Collections.singleton(FRONT));
+        for (int i = 0; i < 1000; i++) {
+            graph.addNode(i);
+        }
+        RemovableFrontier<Integer> frontier = graph.getRemovableNodes();
+        double[] keys = new double[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(50);
+        }
+
+        // List.sort is a stable merge sort
+        List<GraphNode<Integer>> expected = new ArrayList<>();
+        frontier.forEach(expected::add);
+        expected.sort(Comparator.comparingDouble(node -> keys[node.getContent()]));
+        List<GraphNode<Integer>> buffer = new ArrayList<>();
+        double[] priorities = frontier.sortInto(buffer, null, node -> keys[node.getContent()]);
+
+        assertEquals(contents(expected), contents(buffer));
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals(keys[buffer.get(i).getContent()], priorities[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("then the frontier stays consistent during many random removals and restorations")
+    void random() {
+        Random random = new Random(5);
+        graph = new Graph<>(Collections.singleton(FRONT));
+        nodes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            nodes.add(graph.addNode(i));
+        }
+        RandomDags.addEdges(graph, nodes, FRONT, random, 400, 200);
+
+        Deque<NodeRemoval<Integer>> removals = new ArrayDeque<>();
+        for (int step = 0; step < 1000; step++) {
+            RemovableFrontier<Integer> frontier = graph.getRemovableNodes();
+            if (!removals.isEmpty() && (frontier.isEmpty() || random.nextInt(3) == 0)) {
+                graph.restoreNode(removals.pop());
+            } else {
+                removals.push(graph.removeNode(frontier.get(random.nextInt(frontier.size()))));
+            }
+
+            Set<GraphNode<Integer>> expected = new HashSet<>();
+            for (GraphNode<Integer> node : graph.getCopyOfNodes()) {
+                if (!node.hasIncomingEdges(FRONT)) {
+                    expected.add(node);
+                }
+            }
+            assertEquals(expected, graph.getCopyOfRemovableNodes(), "Step: " + step);
+        }
+    }
+}
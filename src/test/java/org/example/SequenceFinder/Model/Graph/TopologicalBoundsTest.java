@@ -0,0 +1,179 @@
+package org.example.SequenceFinder.Model.Graph;
+
+import org.example.SequenceFinder.OperatingDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.example.SequenceFinder.OperatingDirection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologicalBoundsTest {
+
+    CompactGraph<String> graph;
+
+    /**
+     * Create a graph of the boxes 0 to n - 1
+     */
+    static CompactGraph.Builder<String> builder(int n, Set<OperatingDirection> opDirs) {
+        CompactGraph.Builder<String> builder = new CompactGraph.Builder<>(opDirs);
+        for (int i = 0; i < n; i++) {
+            builder.addNode("box" + i);
+        }
+        return builder;
+    }
+
+    @Nested
+    @DisplayName("given a graph of a single direction, where 0 blocks 1, 1 blocks 2, and 3 blocks 2")
+    class SingleDirection {
+
+        TopologicalBounds<String> bounds;
+
+        @BeforeEach
+        void setup() {
+            CompactGraph.Builder<String> builder = builder(5, EnumSet.of(FRONT));
+            builder.addEdge(0, 1, FRONT);
+            builder.addEdge(1, 2, FRONT);
+            builder.addEdge(3, 2, FRONT);
+            graph = builder.build();
+            bounds = TopologicalBounds.of(graph, FRONT);
+        }
+
+        @Test
+        @DisplayName("then the earliest positions are the lengths of the longest paths to the nodes")
+        void earliest() {
+            assertAll(
+                    () -> assertEquals(0, bounds.getEarliest("box0")),
+                    () -> assertEquals(1, bounds.getEarliest("box1")),
+                    () -> assertEquals(2, bounds.getEarliest("box2")),
+                    () -> assertEquals(0, bounds.getEarliest("box3")),
+                    () -> assertEquals(0, bounds.getEarliest("box4")),
+                    () -> assertEquals(3, bounds.getLevelCount())
+            );
+        }
+
+        @Test
+        @DisplayName("then the latest positions leave room for the longest paths that follow the nodes")
+        void latest() {
+            assertAll(
+                    () -> assertEquals(2, bounds.getLatest("box0")),
+                    () -> assertEquals(3, bounds.getLatest("box1")),
+                    () -> assertEquals(4, bounds.getLatest("box2")),
+                    () -> assertEquals(3, bounds.getLatest("box3")),
+                    () -> assertEquals(4, bounds.getLatest("box4"))
+            );
+        }
+
+        @Test
+        @DisplayName("then the slack and the bounds are derived from both positions")
+        void slack() {
+            int box1 = graph.idOf("box1");
+            assertAll(
+                    () -> assertEquals(2, bounds.getSlack(box1)),
+                    () -> assertFalse(bounds.isWithinBounds(box1, 0)),
+                    () -> assertTrue(bounds.isWithinBounds(box1, 3)),
+                    () -> assertFalse(bounds.isWithinBounds(box1, 4))
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("given a graph where 0 blocks 1 from the FRONT and 2 blocks 1 from the TOP, and 0 blocks 3 from both")
+    class MultipleDirections {
+
+        @BeforeEach
+        void setup() {
+            CompactGraph.Builder<String> builder = builder(4, EnumSet.of(FRONT, TOP));
+            builder.addEdge(2, 0, FRONT);
+            builder.addEdge(0, 1, FRONT);
+            builder.addEdge(2, 1, TOP);
+            builder.addEdge(0, 3, FRONT);
+            builder.addEdge(0, 3, TOP);
+            graph = builder.build();
+        }
+
+        @Test
+        @DisplayName("then a node is as early as its cheapest direction allows")
+        void earliest() {
+            TopologicalBounds<String> bounds = TopologicalBounds.of(graph);
+            assertAll(
+                    () -> assertEquals(0, bounds.getEarliest("box0")),
+                    () -> assertEquals(1, bounds.getEarliest("box1")),
+                    () -> assertEquals(1, bounds.getEarliest("box3"))
+            );
+        }
+
+        @Test
+        @DisplayName("then only edges that exist for all directions restrict the latest positions")
+        void latest() {
+            TopologicalBounds<String> bounds = TopologicalBounds.of(graph);
+            assertAll(
+                    () -> assertEquals(2, bounds.getLatest("box0")),
+                    () -> assertEquals(3, bounds.getLatest("box2")),
+                    () -> assertEquals(3, bounds.getLatest("box1"))
+            );
+        }
+
+        @Test
+        @DisplayName("then the bounds of a single direction only follow its edges")
+        void singleDirection() {
+            TopologicalBounds<String> front = TopologicalBounds.of(graph, FRONT);
+            assertAll(
+                    () -> assertEquals(2, front.getEarliest("box1")),
+                    () -> assertEquals(1, front.getLatest("box2"))
+            );
+        }
+
+        @Test
+        @DisplayName("then an IllegalArgumentException is thrown for a direction the graph does not represent")
+        void unknownDirection() {
+            assertThrows(IllegalArgumentException.class, () -> TopologicalBounds.of(graph, LEFT));
+        }
+    }
+
+    @Test
+    @DisplayName("then a node in a cycle of one direction is released by another direction")
+    void cycleOfOneDirection() {
+        CompactGraph.Builder<String> builder = builder(2, EnumSet.of(FRONT, BACK));
+        builder.addEdge(0, 1, FRONT);
+        builder.addEdge(1, 0, FRONT);
+        graph = builder.build();
+        TopologicalBounds<String> bounds = TopologicalBounds.of(graph);
+        assertAll(
+                () -> assertEquals(0, bounds.getEarliest("box0")),
+                () -> assertThrows(IllegalGraphStateException.class, () -> TopologicalBounds.of(graph, FRONT))
+        );
+    }
+
+    @Test
+    @DisplayName("then every position of a removal sequence is within the bounds, for random graphs")
+    void randomSequences() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            int n = 30;
+            Graph<String> mutable = new Graph<>(EnumSet.of(FRONT, TOP));
+            List<GraphNode<String>> nodes = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                nodes.add(mutable.addNode("box" + i));
+            }
+            for (OperatingDirection opDir : EnumSet.of(FRONT, TOP)) {
+                RandomDags.addEdges(mutable, nodes, opDir, random, 40, n);
+            }
+            TopologicalBounds<String> bounds = TopologicalBounds.of(mutable);
+
+            // remove random removable nodes until the graph is empty
+            for (int position = 0; position < n; position++) {
+                RemovableFrontier<String> frontier = mutable.getRemovableNodes();
+                GraphNode<String> node = frontier.get(random.nextInt(frontier.size()));
+                int id = bounds.getGraph().idOf(node.getContent());
+                assertTrue(bounds.isWithinBounds(id, position),
+                        "Round " + round + ": " + node.getContent() + " at position " + position + " is not within " +
+                                bounds.getEarliest(id) + " and " + bounds.getLatest(id));
+                mutable.removeNode(node);
+            }
+        }
+    }
+}
@@ -167,6 +167,64 @@ class FrustumTest {
         }
 
 
+        @Nested
+        @DisplayName("given a rectangular shaped Frustum with a contact tolerance of 0.01")
+        class GivenRectangularFrustumWithContactTolerance {
+
+            @BeforeEach
+            void setup() {
+
+                // new Plane(Point, normalVector, tolerance)
+                Plane top = new Plane(new Vector3D(0, 0, 3), new Vector3D(0, 0, -1), TOLERANCE);
+                Plane bottom = new Plane(new Vector3D(0, 0, 0.5), new Vector3D(0, 0, 1), TOLERANCE);
+
+                // left and right plane are parallel
+                Plane left = new Plane(new Vector3D(0, 2, 0), new Vector3D(0, -1, 0), TOLERANCE);
+                Plane right = new Plane(new Vector3D(0, -2, 0), new Vector3D(0, 1, 0), TOLERANCE);
+
+                Plane front = new Plane(new Vector3D(4, 0, 0), new Vector3D(-1, 0, 0), TOLERANCE);
+                Plane back = new Plane(new Vector3D(0, 0, 0), new Vector3D(1, 0, 0), TOLERANCE);
+
+                frustum = new Frustum(front, back, left, right, top, bottom, 0.01);
+            }
+
+            @Test
+            @DisplayName("then a box completely inside the frustum should be fully visible")
+            void fullyVisible() {
+                box = new ConcreteAABB(new Point(2, -1, 1), new Point(3, 1.5, 1.5));
+                assertEquals(FULLY_VISIBLE, frustum.calcVisibility(box));
+            }
+
+            @Test
+            @DisplayName("then a box whose side lays in a frustum plane should not be visible")
+            void sideInPlane() {
+                box = new ConcreteAABB(new Point(1, 2, 1), new Point(2, 3, 2));
+                assertEquals(NOT_VISIBLE, frustum.calcVisibility(box));
+            }
+
+            @Test
+            @DisplayName("then a box whose edge lays on the edge of two frustum planes should not be visible")
+            void edgeOnPlanes() {
+                box = new ConcreteAABB(new Point(-1, 2, 1), new Point(0, 3, 2));
+                assertEquals(NOT_VISIBLE, frustum.calcVisibility(box));
+            }
+
+            @Test
+            @DisplayName("then a box that reaches 0.005 into the frustum should not be visible")
+            void withinTolerance() {
+                box = new ConcreteAABB(new Point(1, 1.995, 1), new Point(2, 3, 2));
+                assertEquals(NOT_VISIBLE, frustum.calcVisibility(box));
+            }
+
+            @Test
+            @DisplayName("then a box that reaches 0.5 into the frustum should be partly visible")
+            void beyondTolerance() {
+                box = new ConcreteAABB(new Point(1, 1.5, 1), new Point(2, 3, 2));
+                assertEquals(PARTLY_VISIBLE, frustum.calcVisibility(box));
+            }
+        }
+
+
         @Nested
         @DisplayName("given a rectangular shaped Frustum")
         class GivenRectangularFrustum {
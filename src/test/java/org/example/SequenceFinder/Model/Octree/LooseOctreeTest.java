@@ -10,9 +10,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.HashSet;
+import org.apache.commons.math3.geometry.euclidean.threed.Plane;
+import org.example.SequenceFinder.OperatingDirection;
+import org.example.SequenceFinder.RandomStacks;
+
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -354,7 +359,7 @@ public class LooseOctreeTest {
                     void thenAnIndexOutOfBoundsShouldBeThrown() {
                         // access any node, as the givenDepth will result in an IndexOutOfBounds
                         assertThrows(IndexOutOfBoundsException.class,
-                                () -> looseOctree.nodes[givenDepth][0][0][0].insertObject(null));
+                                () -> looseOctree.nodes[givenDepth][0][0][0].getAABB());
                     }
                 }
 
@@ -412,11 +417,11 @@ public class LooseOctreeTest {
                     void thenThereShouldBeAnArrayOutOfBoundsWhenAccessingThe2ndElement() {
                         assertAll(
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][0][1].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][0][1].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][1][0].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][1][0].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][1][0][0].insertObject(null))
+                                        () -> looseOctree.nodes[givenDepth][1][0][0].getAABB())
                         );
                     }
                 }
@@ -485,11 +490,11 @@ public class LooseOctreeTest {
                         // index 2 is out of bounds
                         assertAll(
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][0][2].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][0][2].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][2][0].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][2][0].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][2][0][0].insertObject(null))
+                                        () -> looseOctree.nodes[givenDepth][2][0][0].getAABB())
                         );
                     }
                 }
@@ -552,11 +557,11 @@ public class LooseOctreeTest {
                         // index 4 is out of bounds
                         assertAll(
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][0][4].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][0][4].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][4][0].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][4][0].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][4][0][0].insertObject(null))
+                                        () -> looseOctree.nodes[givenDepth][4][0][0].getAABB())
                         );
                     }
                 }
@@ -618,11 +623,11 @@ public class LooseOctreeTest {
                         // index 8 is out of bounds
                         assertAll(
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][0][8].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][0][8].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][0][8][0].insertObject(null)),
+                                        () -> looseOctree.nodes[givenDepth][0][8][0].getAABB()),
                                 () -> assertThrows(IndexOutOfBoundsException.class,
-                                        () -> looseOctree.nodes[givenDepth][8][0][0].insertObject(null))
+                                        () -> looseOctree.nodes[givenDepth][8][0][0].getAABB())
                         );
                     }
                 }
@@ -674,7 +679,7 @@ public class LooseOctreeTest {
                         // call any method on the array as assertThrows needs a void or consumer, not a
                         // concrete value.
                         assertThrows(IndexOutOfBoundsException.class,
-                                () -> looseOctree.nodes[givenDepth][0][0][0].insertObject(null));
+                                () -> looseOctree.nodes[givenDepth][0][0][0].getAABB());
                     }
                 }
 
@@ -1922,5 +1927,242 @@ public class LooseOctreeTest {
                 }
             }
         }
+
+        @Nested
+        @DisplayName("fixed-point tests")
+        class FixedPointTests {
+
+            /**
+             * Calculate the index of the box with the floating point calculation, by hiding the box behind a mock
+             * which is not in the fixed-point mode.
+             *
+             * @param box the box
+             * @return the index calculated with floating point arithmetic
+             */
+            Point calcFloatingPointIndex(AABB box) {
+                AABB boxMock = mock(AABB.class);
+                when(boxMock.calcRadius()).thenReturn(box.calcRadius());
+                when(boxMock.calcCenter()).thenReturn(box.calcCenter());
+                return looseOctree.calcIndex(boxMock);
+            }
+
+            @Test
+            @DisplayName("then a box with whole number coordinates is in the fixed-point mode")
+            void fixedPointMode() {
+                assertTrue(new AABB(new Point(-4, -2, -1), new Point(-1, 1, 2)).isFixedPoint());
+            }
+
+            @Test
+            @DisplayName("then the fixed-point index equals the floating point index for all boxes with whole " +
+                    "number coordinates inside the world")
+            void sameIndexAsFloatingPoint() {
+                for (int size = 1; size <= 4; size++) {
+                    for (int x = -worldSize / 2; x + size <= worldSize / 2; x++) {
+                        for (int z = -worldSize / 2; z + size <= worldSize / 2; z++) {
+                            AABB box = new AABB(new Point(x, 0, z), new Point(x + size, 1, z + size));
+                            assertEquals(calcFloatingPointIndex(box), looseOctree.calcIndex(box),
+                                    "Box: " + box);
+                        }
+                    }
+                }
+            }
+
+            @Test
+            @DisplayName("then calcIndex throws an exception for a fixed-point box that is not fully enclosed in the " +
+                    "world")
+            void notEnclosed() {
+                AABB box = new AABB(new Point(3, 0, 0), new Point(5, 1, 1));
+                assertThrows(IllegalArgumentException.class, () -> looseOctree.calcIndex(box));
+            }
+        }
+
+
+        @Nested
+        @DisplayName("given boxes with ids")
+        class Ids {
+
+            List<AABB> boxes;
+
+            @BeforeEach
+            void setup() {
+                boxes = new ArrayList<>();
+                for (int x = -2; x < 2; x++) {
+                    for (int y = -2; y < 2; y++) {
+                        boxes.add(new AABB(new Point(x, y, 0), new Point(x + 1, y + 1, 1)));
+                    }
+                }
+                for (AABB box : boxes) {
+                    looseOctree.insertObject(box);
+                }
+            }
+
+            /**
+             * Create the frustum that points from the box towards the operating direction
+             */
+            Frustum frustumOf(AABB box, OperatingDirection opDir) {
+                Plane back = box.getSide(opDir, false);
+                Plane front = looseOctree.getWorldAABB().getSide(opDir, true);
+                return new Frustum(front, back,
+                        box.getSide(opDir.getLeft(), true), box.getSide(opDir.getRight(), true),
+                        box.getSide(opDir.getTop(), true), box.getSide(opDir.getBottom(), true));
+            }
+
+            @Test
+            @DisplayName("then the ids are assigned densely in the order of insertion")
+            void insertionOrder() {
+                assertEquals(boxes.size(), looseOctree.size());
+                for (int i = 0; i < boxes.size(); i++) {
+                    assertEquals(i, looseOctree.idOf(boxes.get(i)));
+                    assertSame(boxes.get(i), looseOctree.getObject(i));
+                }
+                assertEquals(boxes, looseOctree.getObjectsById());
+            }
+
+            @Test
+            @DisplayName("then inserting a box again keeps its id")
+            void insertAgain() {
+                assertTrue(looseOctree.insertObject(boxes.get(3)));
+                assertAll(
+                        () -> assertEquals(boxes.size(), looseOctree.size()),
+                        () -> assertEquals(3, looseOctree.idOf(boxes.get(3)))
+                );
+            }
+
+            @Test
+            @DisplayName("then a box that was not inserted has the id -1")
+            void notInserted() {
+                assertEquals(-1, looseOctree.idOf(new AABB(new Point(0, 2, 0), new Point(1, 3, 1))));
+            }
+
+            @Test
+            @DisplayName("then culling by ids finds the same boxes as culling by objects")
+            void sameAsObjects() {
+                BitSet ids = new BitSet();
+                for (AABB box : boxes) {
+                    for (OperatingDirection opDir : OperatingDirection.values()) {
+                        Frustum frustum = frustumOf(box, opDir);
+
+                        ids.clear();
+                        looseOctree.cullAgainst(frustum, ids);
+                        Set<AABB> culledById = new HashSet<>();
+                        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                            culledById.add(looseOctree.getObject(id));
+                        }
+
+                        assertEquals(new HashSet<>(looseOctree.cullAgainst(frustum)), culledById,
+                                "Box: " + box + ", direction: " + opDir);
+                    }
+                }
+            }
+
+            @Test
+            @DisplayName("then culling by ids keeps the ids that were set before")
+            void keepsIds() {
+                BitSet ids = new BitSet();
+                ids.set(100);
+                looseOctree.cullAgainst(frustumOf(boxes.get(0), OperatingDirection.TOP), ids);
+                assertAll(
+                        () -> assertTrue(ids.get(100)),
+                        () -> assertTrue(ids.get(1))
+                );
+            }
+        }
+
+
+        @Nested
+        @DisplayName("given boxes of different sizes")
+        class SelfJoin {
+
+            List<AABB> boxes;
+
+            @BeforeEach
+            void setup() {
+                // boxes in random cells of a grid, and larger boxes on top, which are stored in shallower nodes
+                boxes = RandomStacks.boxesOfDifferentSizes(new Random(11), 6, 2);
+                boxes.add(new AABB(new Point(-3, -3, 2), new Point(0, 0, 3)));
+                boxes.add(new AABB(new Point(0, 0, 2), new Point(3, 2, 3)));
+                boxes.add(new AABB(new Point(-1, 0, 2), new Point(0, 3, 3)));
+                boxes.add(new AABB(new Point(0, -2, 2), new Point(3, 0, 3)));
+                for (AABB box : boxes) {
+                    looseOctree.insertObject(box);
+                }
+            }
+
+            /**
+             * Find the pairs of each box and the boxes in its frustum by culling the frustum of each box
+             */
+            Set<List<Integer>> culledPairs(OperatingDirection opDir, double contactTolerance) {
+                Set<List<Integer>> pairs = new HashSet<>();
+                BitSet ids = new BitSet();
+                for (int id = 0; id < boxes.size(); id++) {
+                    AABB box = boxes.get(id);
+                    Frustum frustum = new Frustum(looseOctree.getWorldAABB().getSide(opDir, true),
+                            box.getSide(opDir, false),
+                            box.getSide(opDir.getLeft(), true), box.getSide(opDir.getRight(), true),
+                            box.getSide(opDir.getTop(), true), box.getSide(opDir.getBottom(), true),
+                            contactTolerance);
+                    ids.clear();
+                    looseOctree.cullAgainst(frustum, ids);
+                    ids.clear(id);
+                    for (int blocker = ids.nextSetBit(0); blocker >= 0; blocker = ids.nextSetBit(blocker + 1)) {
+                        pairs.add(Arrays.asList(id, blocker));
+                    }
+                }
+                return pairs;
+            }
+
+            /**
+             * Find the pairs with a self join
+             */
+            Set<List<Integer>> joinedPairs(OperatingDirection opDir, double contactTolerance) {
+                Set<List<Integer>> pairs = new HashSet<>();
+                looseOctree.selfJoinIds(opDir, contactTolerance, (id, blocker) ->
+                        assertTrue(pairs.add(Arrays.asList(id, blocker)), "duplicate pair " + id + ", " + blocker));
+                return pairs;
+            }
+
+            @Test
+            @DisplayName("then the self join finds the same pairs as culling the frustum of each box")
+            void sameAsCulling() {
+                for (OperatingDirection opDir : OperatingDirection.values()) {
+                    Set<List<Integer>> expected = culledPairs(opDir, Frustum.NO_CONTACT_TOLERANCE);
+                    assertFalse(expected.isEmpty());
+                    assertEquals(expected, joinedPairs(opDir, Frustum.NO_CONTACT_TOLERANCE), "direction: " + opDir);
+                }
+            }
+
+            @Test
+            @DisplayName("then the self join with a contact tolerance finds the same pairs as culling the frustum of " +
+                    "each box with the tolerance")
+            void sameAsCullingWithTolerance() {
+                for (OperatingDirection opDir : OperatingDirection.values()) {
+                    assertEquals(culledPairs(opDir, 1e-9), joinedPairs(opDir, 1e-9), "direction: " + opDir);
+                }
+            }
+
+            @Test
+            @DisplayName("then the self join of objects finds the same pairs as the self join of ids")
+            void objects() {
+                Set<List<Integer>> pairs = new HashSet<>();
+                looseOctree.selfJoin(OperatingDirection.TOP, (box, blocker) ->
+                        pairs.add(Arrays.asList(looseOctree.idOf(box), looseOctree.idOf(blocker))));
+                assertEquals(joinedPairs(OperatingDirection.TOP, Frustum.NO_CONTACT_TOLERANCE), pairs);
+            }
+
+            @Test
+            @DisplayName("then the self join of an empty octree finds no pairs")
+            void empty() {
+                LooseOctree<AABB> emptyOctree = new LooseOctree<>(maxDepth, worldSize);
+                emptyOctree.selfJoin(OperatingDirection.TOP, (box, blocker) -> fail("no pairs expected"));
+            }
+
+            @Test
+            @DisplayName("then a self join with a contact tolerance that is not a number throws an exception")
+            void nanTolerance() {
+                assertThrows(IllegalArgumentException.class,
+                        () -> looseOctree.selfJoinIds(OperatingDirection.TOP, Double.NaN, (id, blocker) -> {
+                        }));
+            }
+        }
     }
-}
\ No newline at end of file
+}
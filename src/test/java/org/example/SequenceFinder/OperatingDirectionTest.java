@@ -5,7 +5,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class OperatingDirectionTest {
 
@@ -50,6 +53,18 @@ class OperatingDirectionTest {
         void bottom() {
             assertEquals(OperatingDirection.BOTTOM, direction.getBottom());
         }
+
+        @Test
+        @DisplayName("then the axis is 1 (y)")
+        void axis() {
+            assertEquals(1, direction.getAxis());
+        }
+
+        @Test
+        @DisplayName("then the sign is -1")
+        void sign() {
+            assertEquals(-1, direction.getSign());
+        }
     }
 
 
@@ -91,6 +106,18 @@ class OperatingDirectionTest {
         void bottom() {
             assertEquals(OperatingDirection.BOTTOM, direction.getBottom());
         }
+
+        @Test
+        @DisplayName("then the axis is 1 (y)")
+        void axis() {
+            assertEquals(1, direction.getAxis());
+        }
+
+        @Test
+        @DisplayName("then the sign is +1")
+        void sign() {
+            assertEquals(1, direction.getSign());
+        }
     }
 
 
@@ -132,6 +159,18 @@ class OperatingDirectionTest {
         void bottom() {
             assertEquals(OperatingDirection.BOTTOM, direction.getBottom());
         }
+
+        @Test
+        @DisplayName("then the axis is 0 (x)")
+        void axis() {
+            assertEquals(0, direction.getAxis());
+        }
+
+        @Test
+        @DisplayName("then the sign is -1")
+        void sign() {
+            assertEquals(-1, direction.getSign());
+        }
     }
 
 
@@ -173,6 +212,18 @@ class OperatingDirectionTest {
         void bottom() {
             assertEquals(OperatingDirection.BOTTOM, direction.getBottom());
         }
+
+        @Test
+        @DisplayName("then the axis is 0 (x)")
+        void axis() {
+            assertEquals(0, direction.getAxis());
+        }
+
+        @Test
+        @DisplayName("then the sign is +1")
+        void sign() {
+            assertEquals(1, direction.getSign());
+        }
     }
 
 
@@ -214,6 +265,18 @@ class OperatingDirectionTest {
         void bottom() {
             assertEquals(OperatingDirection.FRONT, direction.getBottom());
         }
+
+        @Test
+        @DisplayName("then the axis is 2 (z)")
+        void axis() {
+            assertEquals(2, direction.getAxis());
+        }
+
+        @Test
+        @DisplayName("then the sign is +1")
+        void sign() {
+            assertEquals(1, direction.getSign());
+        }
     }
 
 
@@ -255,6 +318,54 @@ class OperatingDirectionTest {
         void bottom() {
             assertEquals(OperatingDirection.BACK, direction.getBottom());
         }
+
+        @Test
+        @DisplayName("then the axis is 2 (z)")
+        void axis() {
+            assertEquals(2, direction.getAxis());
+        }
+
+        @Test
+        @DisplayName("then the sign is -1")
+        void sign() {
+            assertEquals(-1, direction.getSign());
+        }
     }
 
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("given direction bitmasks")
+    class Masks {
+
+        @Test
+        @DisplayName("then each direction has its own bit")
+        void uniqueBits() {
+            int all = 0;
+            for (OperatingDirection opDir : OperatingDirection.values()) {
+                assertEquals(1, Integer.bitCount(opDir.mask()));
+                assertEquals(0, all & opDir.mask());
+                all |= opDir.mask();
+            }
+        }
+
+        @Test
+        @DisplayName("then converting a set of directions to a mask and back results in the same set")
+        void roundTrip() {
+            Set<OperatingDirection> directions = EnumSet.of(OperatingDirection.FRONT, OperatingDirection.TOP);
+            int mask = OperatingDirection.maskOf(directions);
+            assertAll(
+                    () -> assertEquals(OperatingDirection.FRONT.mask() | OperatingDirection.TOP.mask(), mask),
+                    () -> assertEquals(directions, OperatingDirection.fromMask(mask)),
+                    () -> assertTrue(OperatingDirection.fromMask(0).isEmpty())
+            );
+        }
+
+        @Test
+        @DisplayName("then the direction of a bit position is the direction with that ordinal")
+        void fromOrdinal() {
+            for (OperatingDirection opDir : OperatingDirection.values()) {
+                assertEquals(opDir, OperatingDirection.fromOrdinal(Integer.numberOfTrailingZeros(opDir.mask())));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.SequenceFinder;
+
+import org.example.SequenceFinder.Model.GeometricObjects.AABB;
+import org.example.SequenceFinder.Model.GeometricObjects.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates random stacks of boxes for tests. The boxes lie in random cells of a grid of width x width x height unit
+ * cells, from -width / 2 to width / 2 in x and y and from 0 to height in z, so no two boxes overlap. Each cell holds a
+ * box with a probability of 2/3.
+ */
+public final class RandomStacks {
+
+    private RandomStacks() {
+    }
+
+    /**
+     * Create a stack of boxes that fill their cells
+     *
+     * @param random the random number generator
+     * @param width  the number of cells in x and y, must be even
+     * @param height the number of cells in z
+     * @return the boxes, ordered by x, y and z
+     */
+    public static List<AABB> unitBoxes(Random random, int width, int height) {
+        List<AABB> boxes = new ArrayList<>();
+        for (int x = -width / 2; x < width / 2; x++) {
+            for (int y = -width / 2; y < width / 2; y++) {
+                for (int z = 0; z < height; z++) {
+                    if (random.nextInt(3) > 0) {
+                        boxes.add(new AABB(new Point(x, y, z), new Point(x + 1, y + 1, z + 1)));
+                    }
+                }
+            }
+        }
+        return boxes;
+    }
+
+    /**
+     * Create a stack of boxes that fill their cells or leave a gap of 0.25 to some of their neighbours. A box never
+     * leaves a gap at the bottom of its cell.
+     *
+     * @param random the random number generator
+     * @param width  the number of cells in x and y, must be even
+     * @param height the number of cells in z
+     * @return the boxes, ordered by x, y and z
+     */
+    public static List<AABB> boxesOfDifferentSizes(Random random, int width, int height) {
+        List<AABB> boxes = new ArrayList<>();
+        for (int x = -width / 2; x < width / 2; x++) {
+            for (int y = -width / 2; y < width / 2; y++) {
+                for (int z = 0; z < height; z++) {
+                    if (random.nextInt(3) > 0) {
+                        boxes.add(new AABB(
+                                new Point(x + 0.25 * random.nextInt(2), y + 0.25 * random.nextInt(2), z),
+                                new Point(x + 1 - 0.25 * random.nextInt(2), y + 1 - 0.25 * random.nextInt(2),
+                                        z + 1 - 0.25 * random.nextInt(2))));
+                    }
+                }
+            }
+        }
+        return boxes;
+    }
+}